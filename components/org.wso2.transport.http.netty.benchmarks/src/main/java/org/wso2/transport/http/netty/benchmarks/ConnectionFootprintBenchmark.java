@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmarks;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.transport.http.netty.common.HttpRoute;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.sender.ConnectionAvailabilityFuture;
+import org.wso2.transport.http.netty.sender.HttpClientChannelInitializer;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.TargetChannel;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the state a client connector keeps for each pooled connection of the given HTTP version. Run it with the
+ * GC profiler ({@code -prof gc}) and read {@code gc.alloc.rate.norm}, which is the number of bytes allocated for the
+ * state of a single connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConnectionFootprintBenchmark {
+
+    @Param({"1.1", "2.0"})
+    String httpVersion;
+
+    private EventLoopGroup clientEventLoopGroup;
+    private SenderConfiguration senderConfiguration;
+    private ConnectionManager connectionManager;
+    private HttpRoute httpRoute;
+    // The channel is shared by the connections since only the state kept for each of them is measured
+    private EmbeddedChannel channel;
+
+    @Setup
+    public void setup() {
+        clientEventLoopGroup = new NioEventLoopGroup(1);
+        senderConfiguration = new SenderConfiguration();
+        senderConfiguration.setHttpVersion(httpVersion);
+        connectionManager = new ConnectionManager(senderConfiguration, new BootstrapConfiguration(new HashMap<>()),
+                                                  clientEventLoopGroup);
+        httpRoute = new HttpRoute("localhost", 8080);
+        channel = new EmbeddedChannel();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        connectionManager.shutdown();
+        channel.finishAndReleaseAll();
+        clientEventLoopGroup.shutdownGracefully().sync();
+    }
+
+    @Benchmark
+    public TargetChannel pooledConnection() {
+        ConnectionAvailabilityFuture connectionAvailabilityFuture = new ConnectionAvailabilityFuture();
+        HttpClientChannelInitializer httpClientChannelInitializer = new HttpClientChannelInitializer(
+                senderConfiguration, httpRoute, connectionManager, connectionAvailabilityFuture);
+        TargetChannel targetChannel = new TargetChannel(httpClientChannelInitializer, channel.newSucceededFuture(),
+                                                        httpRoute, connectionAvailabilityFuture);
+        httpClientChannelInitializer.setHttp2ClientChannel(targetChannel.getHttp2ClientChannel());
+        return targetChannel;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.DefaultHttp2Connection;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.transport.http.netty.common.HttpRoute;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.sender.http2.ClientInboundHandler;
+import org.wso2.transport.http.netty.sender.http2.Http2ClientChannel;
+import org.wso2.transport.http.netty.sender.http2.Http2ConnectionManager;
+import org.wso2.transport.http.netty.sender.http2.Http2DataEventListener;
+import org.wso2.transport.http.netty.sender.http2.OutboundMsgHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of DATA frames per second {@link ClientInboundHandler} delivers to the response message of a
+ * stream, with the given number of data event listeners registered on the connection.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Http2DataEventDispatchBenchmark {
+
+    private static final int STREAM_ID = 3;
+    private static final int FRAME_SIZE = 1024;
+
+    @Param({"0", "1", "2"})
+    int listeners;
+
+    private EmbeddedChannel channel;
+    private ChannelHandlerContext ctx;
+    private ClientInboundHandler clientInboundHandler;
+    private HTTPCarbonMessage response;
+    private ByteBuf frame;
+
+    @Setup
+    public void setup() {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ctx = channel.pipeline().firstContext();
+        Http2ClientChannel http2ClientChannel = new Http2ClientChannel(
+                new Http2ConnectionManager(new SenderConfiguration()), new DefaultHttp2Connection(false),
+                new HttpRoute("localhost", 8080), channel);
+        for (int i = 0; i < listeners; i++) {
+            http2ClientChannel.addDataEventListener("listener-" + i, new PassThroughListener());
+        }
+
+        OutboundMsgHolder outboundMsgHolder = new OutboundMsgHolder(
+                new HTTPCarbonMessage(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/")));
+        HttpCarbonResponse httpCarbonResponse =
+                new HttpCarbonResponse(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+        outboundMsgHolder.setResponse(httpCarbonResponse);
+        http2ClientChannel.putInFlightMessage(STREAM_ID, outboundMsgHolder);
+        response = httpCarbonResponse;
+
+        clientInboundHandler = new ClientInboundHandler();
+        clientInboundHandler.setHttp2ClientChannel(http2ClientChannel);
+        frame = Unpooled.directBuffer(FRAME_SIZE).writeZero(FRAME_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        frame.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int dataFrame() throws Http2Exception {
+        int processed = clientInboundHandler.onDataRead(ctx, STREAM_ID, frame, 0, false);
+        // Releases the reference the handler retained for the content of the response
+        response.getHttpContent().release();
+        return processed;
+    }
+
+    /**
+     * A listener which lets every event through, as the timeout and redirect handlers do for a regular stream.
+     */
+    private static class PassThroughListener implements Http2DataEventListener {
+
+        @Override
+        public boolean onStreamInit(ChannelHandlerContext ctx, int streamId) {
+            return true;
+        }
+
+        @Override
+        public boolean onHeadersRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers,
+                                     boolean endOfStream) {
+            return true;
+        }
+
+        @Override
+        public boolean onDataRead(ChannelHandlerContext ctx, int streamId, ByteBuf data, boolean endOfStream) {
+            return true;
+        }
+
+        @Override
+        public boolean onPushPromiseRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers,
+                                         boolean endOfStream) {
+            return true;
+        }
+
+        @Override
+        public boolean onHeadersWrite(ChannelHandlerContext ctx, int streamId, Http2Headers headers,
+                                      boolean endOfStream) {
+            return true;
+        }
+
+        @Override
+        public boolean onDataWrite(ChannelHandlerContext ctx, int streamId, ByteBuf data, boolean endOfStream) {
+            return true;
+        }
+
+        @Override
+        public boolean onStreamReset(int streamId) {
+            return true;
+        }
+
+        @Override
+        public boolean onStreamClose(int streamId) {
+            return true;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmarks;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single byte stream operations of {@link HttpMessageDataStreamer}, which is how the streams were
+ * used before the bulk operations were available, with the bulk read, write and transfer operations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpMessageDataStreamerBenchmark {
+
+    private static final int CONTENT_SIZE = 8192;
+
+    /**
+     * Payload to be written.
+     */
+    @State(Scope.Thread)
+    public static class Payload {
+
+        @Param({"1024", "1048576"})
+        int payloadSize;
+
+        byte[] bytes;
+
+        @Setup
+        public void setup() {
+            bytes = new byte[payloadSize];
+            for (int i = 0; i < payloadSize; i++) {
+                bytes[i] = (byte) i;
+            }
+        }
+    }
+
+    /**
+     * A message which carries the payload, created afresh for every invocation since reading consumes it.
+     */
+    @State(Scope.Thread)
+    public static class InboundMessage {
+
+        @Param({"1024", "1048576"})
+        int payloadSize;
+
+        HTTPCarbonMessage message;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            message = createMessage();
+            int offset = 0;
+            while (payloadSize - offset > CONTENT_SIZE) {
+                message.addHttpContent(new DefaultHttpContent(Unpooled.buffer(CONTENT_SIZE).writeZero(CONTENT_SIZE)));
+                offset += CONTENT_SIZE;
+            }
+            int remaining = payloadSize - offset;
+            message.addHttpContent(new DefaultLastHttpContent(Unpooled.buffer(remaining).writeZero(remaining)));
+        }
+    }
+
+    @Benchmark
+    public HTTPCarbonMessage writeByteByByte(Payload payload) throws IOException {
+        HTTPCarbonMessage message = createMessage();
+        OutputStream outputStream = new HttpMessageDataStreamer(message).getOutputStream();
+        for (byte b : payload.bytes) {
+            outputStream.write(b);
+        }
+        outputStream.close();
+        return message;
+    }
+
+    @Benchmark
+    public HTTPCarbonMessage writeBulk(Payload payload) throws IOException {
+        HTTPCarbonMessage message = createMessage();
+        OutputStream outputStream = new HttpMessageDataStreamer(message).getOutputStream();
+        outputStream.write(payload.bytes);
+        outputStream.close();
+        return message;
+    }
+
+    @Benchmark
+    public void readByteByByte(InboundMessage inboundMessage, Blackhole blackhole) throws IOException {
+        InputStream inputStream = new HttpMessageDataStreamer(inboundMessage.message).getInputStream();
+        int value;
+        while ((value = inputStream.read()) != -1) {
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    public void readBulk(InboundMessage inboundMessage, Blackhole blackhole) throws IOException {
+        InputStream inputStream = new HttpMessageDataStreamer(inboundMessage.message).getInputStream();
+        byte[] bytes = new byte[CONTENT_SIZE];
+        int length;
+        while ((length = inputStream.read(bytes)) != -1) {
+            blackhole.consume(length);
+        }
+    }
+
+    @Benchmark
+    public HTTPCarbonMessage transferTo(InboundMessage inboundMessage) throws IOException {
+        HTTPCarbonMessage message = createMessage();
+        OutputStream outputStream = new HttpMessageDataStreamer(message).getOutputStream();
+        new HttpMessageDataStreamer(inboundMessage.message).transferTo(outputStream);
+        outputStream.close();
+        return message;
+    }
+
+    private static HTTPCarbonMessage createMessage() {
+        return new HTTPCarbonMessage(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameEncoder;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.transport.http.netty.internal.websocket.WebSocketCompressionThresholdHandler;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of JSON text messages per second sent through a server side WebSocket pipeline at a range of
+ * permessage-deflate compression levels, where a level of -1 sends messages without the extension. The bytes which
+ * reach the head of the pipeline, each of which would be written to the socket, are reported per message, so that
+ * the bytes saved on the wire can be weighed against the CPU spent on them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WebSocketCompressionBenchmark {
+
+    // Distinct messages keep the compression context from reducing a repeated message to a back reference
+    private static final int DISTINCT_MESSAGES = 64;
+
+    @Param({"-1", "1", "6", "9"})
+    int compressionLevel;
+
+    @Param({"64", "1024", "16384"})
+    int messageSize;
+
+    @Param({"0", "256"})
+    int minCompressionSize;
+
+    private EmbeddedChannel channel;
+    private long headBytes;
+    private ByteBuf[] payloads;
+    private int nextPayload;
+
+    @Setup
+    public void setup() {
+        channel = new EmbeddedChannel(new SocketByteCounter(), new WebSocket13FrameEncoder(false));
+        if (compressionLevel >= 0) {
+            WebSocketServerExtension extension =
+                    new PerMessageDeflateServerExtensionHandshaker(compressionLevel, false, 15, false, false)
+                            .handshakeExtension(new WebSocketExtensionData("permessage-deflate",
+                                                                           Collections.emptyMap()));
+            channel.pipeline().addLast(extension.newExtensionEncoder());
+            channel.pipeline().addLast(new WebSocketCompressionThresholdHandler(minCompressionSize));
+        }
+        payloads = new ByteBuf[DISTINCT_MESSAGES];
+        for (int i = 0; i < DISTINCT_MESSAGES; i++) {
+            payloads[i] = Unpooled.directBuffer(messageSize).writeBytes(getJsonPayload(messageSize, i * 7919));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (ByteBuf payload : payloads) {
+            payload.release();
+        }
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public long textMessage(WireBytes wireBytes) {
+        ByteBuf payload = payloads[nextPayload];
+        nextPayload = (nextPayload + 1) % DISTINCT_MESSAGES;
+        channel.writeAndFlush(new TextWebSocketFrame(payload.retainedDuplicate()));
+        long count = headBytes;
+        headBytes = 0;
+        wireBytes.bytesOnWire += count;
+        return count;
+    }
+
+    private static byte[] getJsonPayload(int size, int firstId) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = firstId; json.length() < size; i++) {
+            json.append("{\"id\":").append(i).append(",\"symbol\":\"SYM").append(i % 97)
+                    .append("\",\"price\":").append(100 + (i * 37) % 1000).append(".25},");
+        }
+        json.setLength(size - 1);
+        json.append(']');
+        return json.toString().getBytes(CharsetUtil.UTF_8);
+    }
+
+    /**
+     * The number of bytes which reach the socket, reported per message.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class WireBytes {
+
+        public long bytesOnWire;
+    }
+
+    /**
+     * Stands in for the socket at the head of the pipeline, discarding the written bytes after counting them.
+     */
+    private class SocketByteCounter extends ChannelOutboundHandlerAdapter {
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            if (msg instanceof ByteBuf) {
+                headBytes += ((ByteBuf) msg).readableBytes();
+            }
+            ReferenceCountUtil.release(msg);
+            promise.setSuccess();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.transport.http.netty.common.WriteCoalescingHandler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of responses per second streamed as 1 KB chunks, each written and flushed on its own as
+ * {@code HttpOutboundRespListener} does, with and without {@link WriteCoalescingHandler}. The flushes reaching the
+ * head of the pipeline, each of which is a socket write on a real channel, are reported per response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WriteCoalescingBenchmark {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final int CHUNKS_PER_RESPONSE = 64;
+
+    @Param({"false", "true"})
+    boolean coalescing;
+
+    private EmbeddedChannel channel;
+    private long headFlushes;
+    private ByteBuf chunk;
+
+    @Setup
+    public void setup() {
+        channel = new EmbeddedChannel(new SocketWriteCounter(), new HttpResponseEncoder());
+        if (coalescing) {
+            channel.pipeline().addLast(new WriteCoalescingHandler(16384));
+        }
+        chunk = Unpooled.directBuffer(CHUNK_SIZE).writeZero(CHUNK_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        chunk.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public long streamedResponse(Flushes flushes) {
+        DefaultHttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        channel.writeAndFlush(response);
+        for (int i = 0; i < CHUNKS_PER_RESPONSE; i++) {
+            channel.writeAndFlush(new DefaultHttpContent(chunk.retainedDuplicate()));
+        }
+        channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+        // Runs the deferred flushes, as the event loop would once the queued writes are done
+        channel.runPendingTasks();
+        long count = headFlushes;
+        headFlushes = 0;
+        flushes.socketWrites += count;
+        return count;
+    }
+
+    /**
+     * The number of flushes which reach the socket, reported per response.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Flushes {
+
+        public long socketWrites;
+    }
+
+    /**
+     * Stands in for the socket at the head of the pipeline, discarding the written bytes and counting the flushes.
+     */
+    private class SocketWriteCounter extends ChannelOutboundHandlerAdapter {
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            ReferenceCountUtil.release(msg);
+            promise.setSuccess();
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            headFlushes++;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contractimpl.DefaultHttpClientConnector;
 import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
 import org.wso2.transport.http.netty.sender.channel.TargetChannel;
+import org.wso2.transport.http.netty.sender.http2.OutboundMsgHolder;
 
 /**
  * Common Constants used by gate way.
@@ -35,6 +36,9 @@ public final class Constants {
     public static final String CLIENT_BOOTSTRAP_SO_REUSE = "client.bootstrap.socket.reuse";
     public static final String CLIENT_BOOTSTRAP_SO_TIMEOUT = "client.bootstrap.socket.timeout";
     public static final String CLIENT_BOOTSTRAP_WORKER_GROUP_SIZE = "client.bootstrap.worker.group.size";
+    public static final String CLIENT_BOOTSTRAP_TCP_FASTOPEN = "client.bootstrap.tcp.fastopen";
+    public static final String CLIENT_BOOTSTRAP_TCP_QUICKACK = "client.bootstrap.tcp.quickack";
+    public static final String CLIENT_BOOTSTRAP_EPOLL_EDGE_TRIGGERED = "client.bootstrap.epoll.edgetriggered";
 
     //Server side SSL Parameters
     public static final String SSL_HANDLER = "ssl";
@@ -51,6 +55,12 @@ public final class Constants {
     public static final String SERVER_BOOTSTRAP_SO_REUSE = "server.bootstrap.socket.reuse";
     public static final String SERVER_BOOTSTRAP_SO_BACKLOG = "server.bootstrap.socket.backlog";
     public static final String SERVER_BOOTSTRAP_SO_TIMEOUT = "server.bootstrap.socket.timeout";
+    // Native transport (epoll) related
+    public static final String SERVER_BOOTSTRAP_SO_REUSEPORT = "server.bootstrap.socket.reuseport";
+    public static final String SERVER_BOOTSTRAP_ACCEPTOR_COUNT = "server.bootstrap.acceptor.count";
+    public static final String SERVER_BOOTSTRAP_TCP_FASTOPEN = "server.bootstrap.tcp.fastopen";
+    public static final String SERVER_BOOTSTRAP_TCP_QUICKACK = "server.bootstrap.tcp.quickack";
+    public static final String SERVER_BOOTSTRAP_EPOLL_EDGE_TRIGGERED = "server.bootstrap.epoll.edgetriggered";
     // Boss group size of the server bootstrap
     public static final String SERVER_BOOTSTRAP_BOSS_GROUP_SIZE = "server.bootstrap.boss.group.size";
     //Worker group size of the server bootstrap
@@ -96,6 +106,8 @@ public final class Constants {
     public static final int DEFAULT_HTTP_PORT = 80;
     public static final int DEFAULT_HTTPS_PORT = 443;
     public static final String DEFAULT_BASE_PATH = "/";
+    public static final int DEFAULT_PIPELINING_LIMIT = 10;
+    public static final int DEFAULT_TIMEOUT_GRANULARITY = 100;
 
     public static final String TO = "TO";
     public static final String PROTOCOL = "PROTOCOL";
@@ -212,6 +224,7 @@ public final class Constants {
     public static final String PROXY_HANDLER = "proxyServerHandler";
     public static final String SSL_COMPLETION_HANDLER = "sslHandshakeCompletionHandler";
     public static final String HTTP_CERT_VALIDATION_HANDLER = "certificateValidation";
+    public static final String TLS_HANDSHAKE_METRICS_HANDLER = "tlsHandshakeMetrics";
     public static final String CONNECTION_HANDLER = "connectionHandler";
     public static final String OUTBOUND_HANDLER = "outboundHandler";
     public static final String TARGET_HANDLER = "targetHandler";
@@ -221,9 +234,13 @@ public final class Constants {
     public static final String REDIRECT_HANDLER = "redirectHandler";
     public static final String DECOMPRESSOR_HANDLER = "deCompressor";
     public static final String IDLE_STATE_HANDLER = "idleStateHandler";
+    public static final String REQUEST_TIMEOUT_HANDLER = "requestTimeoutHandler";
     public static final String HTTP_TRACE_LOG_HANDLER = "http-trace-logger";
     public static final String HTTP_ACCESS_LOG_HANDLER = "http-access-logger";
+    public static final String WRITE_COALESCING_HANDLER = "writeCoalescer";
     public static final String WEBSOCKET_SERVER_HANDSHAKE_HANDLER = "websocket-server-handshake-handler";
+    public static final String WEBSOCKET_COMPRESSION_HANDLER = "websocket-compression-handler";
+    public static final String WEBSOCKET_COMPRESSION_THRESHOLD_HANDLER = "websocket-compression-threshold-handler";
 
     public static final AttributeKey<Integer> REDIRECT_COUNT = AttributeKey.valueOf("REDIRECT_COUNT");
     public static final AttributeKey<String> RESOLVED_REQUESTED_URI_ATTR = AttributeKey
@@ -239,6 +256,8 @@ public final class Constants {
             .valueOf("TARGET_CHANNEL_REFERENCE");
     public static final AttributeKey<DefaultHttpClientConnector> CLIENT_CONNECTOR = AttributeKey
             .valueOf("CLIENT_CONNECTOR");
+    public static final AttributeKey<OutboundMsgHolder> OUTBOUND_MSG_HOLDER = AttributeKey
+            .valueOf("OUTBOUND_MSG_HOLDER");
     public static final int REDIRECT_SEE_OTHER_303 = 303;
 
     public static final String UTF8 = "UTF-8";
@@ -246,6 +265,8 @@ public final class Constants {
     public static final String FORWRD_SLASH = "/";
     public static final String COLON = ":";
     public static final int MAX_REDIRECT_COUNT = 5;
+    public static final String REDIRECT_SCHEME_NOT_SUPPORTED =
+            "Redirect not followed since the client connector does not connect with the scheme of ";
 
     public static final int ENDPOINT_TIMEOUT = 5 * 60000;
     public static final String ENDPOINT_TIMEOUT_MSG = "Endpoint timed out";
@@ -298,6 +319,9 @@ public final class Constants {
 
     public static final String MAXIMUM_WAIT_TIME_EXCEED = "Could not obtain a connection within maximum wait time";
 
+    public static final String MAXIMUM_PENDING_ACQUIRES_EXCEED
+            = "Too many requests are waiting for a connection to the same route";
+
     public static final String JMX_AGENT_NAME = "jmx.agent.name";
 
     public static final String HTTP_RESOURCE = "httpResource";
@@ -15,6 +15,8 @@
 
 package org.wso2.transport.http.netty.common;
 
+import java.util.Objects;
+
 /**
  * Class encapsulates the Endpoint address.
  */
@@ -39,6 +41,23 @@ public class HttpRoute {
     public int getPort() {
         return port;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HttpRoute httpRoute = (HttpRoute) o;
+        return port == httpRoute.port && Objects.equals(host, httpRoute.host);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port);
+    }
 }
 
 
@@ -70,6 +70,23 @@ public class MBeanRegistrar {
         }
     }
 
+    public boolean unregisterMBean(String category, String id) {
+        assertNull(category, "MBean instance category is null");
+        assertNull(id, "MBean instance name is null");
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(getObjectName(category, id));
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            return true;
+        } catch (MalformedObjectNameException | MBeanRegistrationException | InstanceNotFoundException e) {
+            log.warn("Error unregistering the MBean with name ' " + id + " ' and category name ' " + category
+                    + "' from JMX management", e);
+            return false;
+        }
+    }
+
     private String getObjectName(String category, String id) {
 
         String jmxAgentName = System.getProperty(Constants.JMX_AGENT_NAME);
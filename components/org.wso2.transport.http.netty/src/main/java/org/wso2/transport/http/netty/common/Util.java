@@ -71,7 +71,7 @@ public class Util {
         return value;
     }
 
-    private static int getIntValue(HTTPCarbonMessage msg, String key, int defaultValue) {
+    public static int getIntValue(HTTPCarbonMessage msg, String key, int defaultValue) {
         Integer value = (Integer) msg.getProperty(key);
         if (value == null) {
             return defaultValue;
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * Coalesces the flushes of HTTP/1.x message writes so that a message streamed as many small chunks is not written
+ * to the socket (and encrypted into a TLS record) chunk by chunk.
+ * <p>
+ * A flush is passed through once the unflushed content reaches the byte threshold or the last content of a message
+ * is written. Otherwise it is deferred to a task on the event loop, so that it takes effect after the writes which
+ * are already queued on the event loop, and after the rest of the current task such as a read loop.
+ * <p>
+ * This handler has to be placed after the HTTP codec so that it sees the HTTP message objects.
+ */
+public class WriteCoalescingHandler extends ChannelDuplexHandler {
+
+    private final int flushThreshold;
+    private final Runnable flushTask;
+    private ChannelHandlerContext ctx;
+    private int unflushedBytes;
+    private boolean flushPending;
+    private boolean flushScheduled;
+
+    /**
+     * Creates a handler which flushes once the given number of content bytes is written.
+     *
+     * @param flushThreshold the number of unflushed content bytes which forces a flush
+     */
+    public WriteCoalescingHandler(int flushThreshold) {
+        this.flushThreshold = flushThreshold;
+        this.flushTask = () -> {
+            flushScheduled = false;
+            if (flushPending) {
+                flushNow(ctx);
+            }
+        };
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfPending(ctx);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBufHolder) {
+            unflushedBytes += ((ByteBufHolder) msg).content().readableBytes();
+        } else if (msg instanceof ByteBuf) {
+            unflushedBytes += ((ByteBuf) msg).readableBytes();
+        }
+        if (msg instanceof LastHttpContent) {
+            // Messages are not held back once they are complete
+            unflushedBytes = flushThreshold;
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (unflushedBytes >= flushThreshold) {
+            flushNow(ctx);
+        } else {
+            flushPending = true;
+            if (!flushScheduled) {
+                flushScheduled = true;
+                ctx.executor().execute(flushTask);
+            }
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (!ctx.channel().isWritable()) {
+            // Let the pending writes drain rather than waiting for the scheduled flush
+            flushIfPending(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+        ctx.close(promise);
+    }
+
+    private void flushIfPending(ChannelHandlerContext ctx) {
+        if (flushPending) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        flushPending = false;
+        unflushedBytes = 0;
+        ctx.flush();
+    }
+}
@@ -34,5 +34,15 @@ public interface CacheControllerMBean {
     int getCacheSize();
 
     int getCacheManagerDelayMins();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+    long getCacheRefreshCount();
+
+    long getCacheRefreshFailureCount();
+
+    long getCacheEvictionCount();
 }
 
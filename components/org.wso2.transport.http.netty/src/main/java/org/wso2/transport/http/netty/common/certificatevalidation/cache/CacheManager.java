@@ -22,15 +22,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.certificatevalidation.Constants;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Cache Manager class handles and maintains an LRU cache which implements ManageableCache Interface.
+ * Cache Manager class periodically refreshes the invalid values of a cache which implements ManageableCache
+ * Interface, so that they are not refreshed while a handshake waits for them.
  */
 public class CacheManager {
 
@@ -38,7 +37,6 @@ public class CacheManager {
     private ScheduledExecutorService scheduler;
     private ScheduledFuture scheduledFuture = null;
     private ManageableCache cache;
-    private int cacheMaxSize;
     private int delay;
     private CacheManagingTask cacheManagingTask;
     private static final Logger log = LoggerFactory.getLogger(CacheManager.class);
@@ -47,15 +45,12 @@ public class CacheManager {
      * A new cacheManager will be started on the given ManageableCache object.
      *
      * @param cache Manageable cache which can be managed by this cache manager.
-     * @param cacheMaxSize Maximum size of the cache. If the cache exceeds this size, LRU values will be
-     *                     removed
      * @param delay Cache delay.
      */
-    public CacheManager(ManageableCache cache, int cacheMaxSize, int delay) {
+    public CacheManager(ManageableCache cache, int delay) {
         int numThreads = 1;
         scheduler = Executors.newScheduledThreadPool(numThreads);
         this.cache = cache;
-        this.cacheMaxSize = cacheMaxSize;
         this.cacheManagingTask = new CacheManagingTask();
         this.delay = delay;
         start();
@@ -131,8 +126,8 @@ public class CacheManager {
     }
 
     /**
-     * This is the scheduled task which the CacheManager uses in order to remove invalid cache values and
-     * to remove LRU values if the cache reaches cacheMaxSize.
+     * This is the scheduled task which the CacheManager uses in order to refresh invalid cache values. The size of
+     * the cache is bounded by the cache itself.
      */
     private class CacheManagingTask implements Runnable {
 
@@ -143,91 +138,12 @@ public class CacheManager {
                 log.debug(cache.getClass().getSimpleName() + " Cache Manager Task Started.");
             }
 
-            ManageableCacheValue nextCacheValue;
-            //cache.getCacheSize() can vary when new entries are added. So get cache size at this point
-            int cacheSize = cache.getCacheSize();
-            int numberToRemove = (cacheSize > cacheMaxSize) ? cacheSize - cacheMaxSize : 0;
-
-            List<ManageableCacheValue> entriesToRemove = new ArrayList<ManageableCacheValue>();
-            LRUEntryCollector lruEntryCollector = new LRUEntryCollector(entriesToRemove, numberToRemove);
-
-            //Start looking at cache entries from the beginning.
-            cache.resetIterator();
-            //Iteration through the cache entries.
-            while ((cacheSize--) > 0) {
-
-                nextCacheValue = cache.getNextCacheValue();
-                if (nextCacheValue == null) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Cache manager iteration through Cache values done");
-                    }
-                    break;
-                }
-
-                //Updating invalid cache values.
-                if (!nextCacheValue.isValid()) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Updating Invalid Cache Value by Manager");
-                    }
-                    nextCacheValue.updateCacheWithNewValue();
-                }
-
-                //There are LRU entries to be removed since cacheSize > maxCacheSize. So collect them.
-                if (numberToRemove > 0) {
-                    lruEntryCollector.collectEntriesToRemove(nextCacheValue);
-                }
-            }
-
-            //LRU entries removing
-            for (ManageableCacheValue oldCacheValue : entriesToRemove) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Removing LRU value from cache");
-                }
-                oldCacheValue.removeThisCacheValue();
-            }
+            cache.refreshInvalidValues();
 
             if (log.isDebugEnabled()) {
                 log.debug(cache.getClass().getSimpleName() + " Cache Manager Task Done. Took " + (
                         System.currentTimeMillis() - start) + " ms.");
             }
         }
-
-        private class LRUEntryCollector {
-
-            private List<ManageableCacheValue> entriesToRemove;
-            private int listMaxSize;
-
-            LRUEntryCollector(List<ManageableCacheValue> entriesToRemove, int numberToRemove) {
-                this.entriesToRemove = entriesToRemove;
-                this.listMaxSize = numberToRemove;
-            }
-
-            /**
-             * This method collects the listMaxSize number of LRU values from the cache. These values
-             * will be removed from the cache. This uses a part of the logic in Insertion Sort.
-             *
-             * @param value to be collected.
-             */
-            private void collectEntriesToRemove(ManageableCacheValue value) {
-
-                entriesToRemove.add(value);
-                int j = entriesToRemove.size() - 1;
-                for (; j > 0 && (value.getTimeStamp() < entriesToRemove.get(j - 1).getTimeStamp()); j--) {
-                    entriesToRemove.remove(j);
-                    entriesToRemove.add(j, (entriesToRemove.get(j - 1)));
-                }
-                entriesToRemove.remove(j);
-                entriesToRemove.add(j, value);
-                /**
-                 * First entry in the list will be the oldest. Last is the earliest in the list.
-                 * So remove the earliest since we need to collect the old (LRU) values to remove
-                 * from cache later
-                 */
-                if (entriesToRemove.size() > listMaxSize) {
-                    entriesToRemove.remove(entriesToRemove.size() - 1);
-                }
-            }
-        }
     }
 }
-
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.common.certificatevalidation.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * A size bounded cache of revocation data which is read on every TLS handshake. Reads do not lock: a hit is a
+ * lookup in a {@link ConcurrentHashMap} which marks the entry as referenced. Inserting beyond the maximum size
+ * evicts entries right away in the second chance (clock) order approximating LRU, so that each eviction takes
+ * constant amortized time. A value which is no longer valid is refreshed at most once at a time per key, and the
+ * other readers of that key are served the old value until the refresh completes.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class ConcurrentLruCache<K, V> implements ManageableCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrentLruCache.class);
+
+    private final String name;
+    private final Predicate<V> validity;
+    private final Refresher<K, V> refresher;
+    private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    // Entries in the insertion order, which the eviction goes around giving referenced entries a second chance
+    private final Queue<Entry<K, V>> evictionQueue = new ConcurrentLinkedQueue<>();
+    // Removed entries which are still queued, purged once they outnumber the entries in the cache
+    private final AtomicInteger removedEntryCount = new AtomicInteger();
+    private final Set<K> refreshingKeys = ConcurrentHashMap.newKeySet();
+    private final Object evictionLock = new Object();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder refreshFailureCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private volatile int maxSize = Integer.MAX_VALUE;
+
+    /**
+     * @param name      name of the cache used in logs
+     * @param validity  tells whether a value can still be used
+     * @param refresher fetches the value which replaces an invalid value
+     */
+    public ConcurrentLruCache(String name, Predicate<V> validity, Refresher<K, V> refresher) {
+        this.name = name;
+        this.validity = validity;
+        this.refresher = refresher;
+    }
+
+    /**
+     * Get the value of a key, refreshing it first if it is no longer valid. While another thread refreshes the
+     * value, the value which is being replaced is returned as it is.
+     *
+     * @param key key of the value
+     * @return the valid value, the value being refreshed, or null if there is none or it could not be refreshed
+     */
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        V value = entry.value;
+        if (validity.test(value)) {
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            hitCount.increment();
+            return value;
+        }
+        missCount.increment();
+        return refresh(key, entry, value);
+    }
+
+    public void put(K key, V value) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null) {
+            entry.value = value;
+            if (entries.get(key) == entry) {
+                return;
+            }
+            // The entry was removed meanwhile, so the value goes into a new one
+        }
+        Entry<K, V> newEntry = new Entry<>(key, value);
+        Entry<K, V> replacedEntry = entries.put(key, newEntry);
+        evictionQueue.add(newEntry);
+        if (replacedEntry != null) {
+            onRemoved();
+        }
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void remove(K key) {
+        if (entries.remove(key) != null) {
+            onRemoved();
+        }
+    }
+
+    /**
+     * Set the maximum number of entries, evicting the entries beyond it.
+     *
+     * @param maxSize maximum number of entries
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void refreshInvalidValues() {
+        for (Map.Entry<K, Entry<K, V>> mapEntry : entries.entrySet()) {
+            V value = mapEntry.getValue().value;
+            if (!validity.test(value)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Updating Invalid Cache Value of {} by Manager", name);
+                }
+                refresh(mapEntry.getKey(), mapEntry.getValue(), value);
+            }
+        }
+    }
+
+    @Override
+    public int getCacheSize() {
+        return entries.size();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @Override
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    @Override
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private V refresh(K key, Entry<K, V> entry, V invalidValue) {
+        if (!refreshingKeys.add(key)) {
+            // Another thread is refreshing the value, which is served as it is meanwhile
+            return invalidValue;
+        }
+        try {
+            if (entries.get(key) != entry || entry.value != invalidValue) {
+                // Someone has updated or removed the value before the current thread
+                V currentValue = entry.value;
+                return entries.get(key) == entry && validity.test(currentValue) ? currentValue : null;
+            }
+            V value = refresher.refresh(key, invalidValue);
+            put(key, value);
+            refreshCount.increment();
+            return value;
+        } catch (Exception e) {
+            refreshFailureCount.increment();
+            if (log.isInfoEnabled()) {
+                log.info("Can not replace old CacheValue with new CacheValue. So removing " + name + " value", e);
+            }
+            // If it can't be replaced, remove it
+            if (entry.value == invalidValue && entries.remove(key, entry)) {
+                onRemoved();
+            }
+            return null;
+        } finally {
+            refreshingKeys.remove(key);
+        }
+    }
+
+    /**
+     * Evicts entries until the cache fits its maximum size. An entry which has been read since the eviction last
+     * went past it is moved to the tail of the queue instead, once per eviction, so that each entry evicted is one
+     * which has not been read for the longest time as far as the eviction can tell without ordering every read.
+     */
+    private void evict() {
+        synchronized (evictionLock) {
+            int secondChances = entries.size();
+            while (entries.size() > maxSize) {
+                Entry<K, V> entry = evictionQueue.poll();
+                if (entry == null) {
+                    return;
+                }
+                if (entries.get(entry.key) != entry) {
+                    // Already removed
+                    continue;
+                }
+                if (entry.referenced && secondChances-- > 0) {
+                    entry.referenced = false;
+                    evictionQueue.add(entry);
+                    continue;
+                }
+                if (entries.remove(entry.key, entry)) {
+                    evictionCount.increment();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Removing LRU value from {}", name);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the removed entries from the eviction queue once there are more of them than entries in the cache, so
+     * that the queue stays bounded when the cache does not fill up, at a constant amortized cost per removal.
+     */
+    private void onRemoved() {
+        if (removedEntryCount.incrementAndGet() <= entries.size()) {
+            return;
+        }
+        synchronized (evictionLock) {
+            removedEntryCount.set(0);
+            evictionQueue.removeIf(entry -> entries.get(entry.key) != entry);
+        }
+    }
+
+    /**
+     * Fetches the value which replaces a value that is no longer valid.
+     *
+     * @param <K> type of the keys
+     * @param <V> type of the values
+     */
+    public interface Refresher<K, V> {
+
+        /**
+         * @param key          key of the value
+         * @param invalidValue the value to replace
+         * @return the new value
+         * @throws Exception if the new value cannot be fetched
+         */
+        V refresh(K key, V invalidValue) throws Exception;
+    }
+
+    private static class Entry<K, V> {
+
+        private final K key;
+        private volatile V value;
+        // Set by the reads and cleared as the eviction goes past the entry
+        private volatile boolean referenced;
+
+        private Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
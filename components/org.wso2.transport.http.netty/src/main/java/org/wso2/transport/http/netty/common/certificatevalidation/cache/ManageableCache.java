@@ -23,10 +23,20 @@ package org.wso2.transport.http.netty.common.certificatevalidation.cache;
  */
 public interface ManageableCache {
 
-    ManageableCacheValue getNextCacheValue();
+    /**
+     * Refresh the values which are no longer valid, removing those which cannot be refreshed.
+     */
+    void refreshInvalidValues();
 
     int getCacheSize();
 
-    void resetIterator();
-}
+    long getHitCount();
+
+    long getMissCount();
+
+    long getRefreshCount();
 
+    long getRefreshFailureCount();
+
+    long getEvictionCount();
+}
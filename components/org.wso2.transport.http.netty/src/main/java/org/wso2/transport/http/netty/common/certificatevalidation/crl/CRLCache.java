@@ -21,31 +21,33 @@ package org.wso2.transport.http.netty.common.certificatevalidation.crl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.MBeanRegistrar;
+import org.wso2.transport.http.netty.common.certificatevalidation.CertificateVerificationException;
 import org.wso2.transport.http.netty.common.certificatevalidation.cache.CacheController;
 import org.wso2.transport.http.netty.common.certificatevalidation.cache.CacheManager;
-import org.wso2.transport.http.netty.common.certificatevalidation.cache.ManageableCache;
-import org.wso2.transport.http.netty.common.certificatevalidation.cache.ManageableCacheValue;
+import org.wso2.transport.http.netty.common.certificatevalidation.cache.ConcurrentLruCache;
 
+import java.io.IOException;
 import java.security.cert.X509CRL;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Since a CRL maps to a CRL URL, the CRLCache should have x509CRL entries against CRL URLs.
  * This cache is a Singleton since it is shared by any transport which needs SSL certificate validation through CRL
  * verification and more than one CRLCache should not be allowed per system.
+ * <p>
+ * Lookups do not lock, and an expired CRL is downloaded again only once, however many handshakes ask for it
+ * meanwhile.
  */
-public class CRLCache implements ManageableCache {
+public class CRLCache {
 
     private static volatile CRLCache cache;
-    private static volatile Map<String, CRLCacheValue> hashMap = new ConcurrentHashMap<String, CRLCacheValue>();
-    private volatile Iterator<Map.Entry<String, CRLCacheValue>> iterator = hashMap.entrySet().iterator();
-    private volatile CacheManager cacheManager;
     private static CRLVerifier crlVerifier = new CRLVerifier(null);
     private static final Logger log = LoggerFactory.getLogger(CRLCache.class);
 
+    private final ConcurrentLruCache<String, X509CRL> lruCache =
+            new ConcurrentLruCache<>("CRL cache", CRLCache::isValid, CRLCache::downloadNewCRL);
+    private volatile CacheManager cacheManager;
+
     private CRLCache() {
     }
 
@@ -62,7 +64,8 @@ public class CRLCache implements ManageableCache {
     }
 
     /**
-     * This initializes the Cache with a CacheManager. If this method is called, a cache manager will not be used.
+     * This initializes the Cache with a CacheManager. If this method is not called, a cache manager will not be used
+     * and the size of the cache is not bounded.
      *
      * @param size  max size of the cache
      * @param delay defines how frequently the CacheManager will be started
@@ -71,8 +74,9 @@ public class CRLCache implements ManageableCache {
         if (cacheManager == null) {
             synchronized (CRLCache.class) {
                 if (cacheManager == null) {
-                    cacheManager = new CacheManager(cache, size, delay);
-                    CacheController mbean = new CacheController(cache, cacheManager);
+                    lruCache.setMaxSize(size);
+                    cacheManager = new CacheManager(lruCache, delay);
+                    CacheController mbean = new CacheController(lruCache, cacheManager);
                     MBeanRegistrar.getInstance().registerMBean(mbean, "CacheController", "CRLCacheController");
                 }
             }
@@ -80,138 +84,44 @@ public class CRLCache implements ManageableCache {
     }
 
     /**
-     * This method is needed by the cache Manager to go through the cache entries to remove invalid values or
-     * to remove LRU cache values if the cache has reached its max size.
-     *
-     * @return next cache value of the cache.
+     * To get the current cache size.
      */
-    public synchronized ManageableCacheValue getNextCacheValue() {
-        //changes to the map are reflected on the keySet. And its iterator is weakly consistent. so will never
-        //throw concurrent modification exception.
-        if (iterator.hasNext()) {
-            return hashMap.get(iterator.next().getKey());
-        } else {
-            resetIterator();
-            return null;
-        }
+    public int getCacheSize() {
+        return lruCache.getCacheSize();
     }
 
-    /**
-     * To get the current cache size (size of the hash map).
-     */
-    public synchronized int getCacheSize() {
-        return hashMap.size();
-    }
-
-    public void resetIterator() {
-        iterator = hashMap.entrySet().iterator();
+    private static X509CRL downloadNewCRL(String crlUrl, X509CRL crl)
+            throws IOException, CertificateVerificationException {
+        return crlVerifier.downloadCRLFromWeb(crlUrl);
     }
 
-    private synchronized void replaceNewCacheValue(CRLCacheValue cacheValue) {
-        //If someone has updated with the new value before current thread.
-        if (cacheValue.isValid()) {
-            return;
-        }
-        try {
-            String crlUrl = cacheValue.crlUrl;
-            X509CRL x509CRL = crlVerifier.downloadCRLFromWeb(crlUrl);
-            this.setCacheValue(crlUrl, x509CRL);
-        } catch (Exception e) {
-            if (log.isInfoEnabled()) {
-                log.info("Cant replace old CacheValue with new CacheValue. So remove", e);
-            }
-            //If cant be replaced remove.
-            cacheValue.removeThisCacheValue();
-        }
+    /**
+     * CRL has a validity period. We can reuse a downloaded CRL within that period.
+     * thisUpdate - (the time indicating that the CA knows this status is correct),
+     * nextUpdate - (the time that newer information will be available,
+     * implying that this information is the most accurate to date)
+     */
+    private static boolean isValid(X509CRL crl) {
+        Date today = new Date();
+        Date nextUpdate = crl.getNextUpdate();
+        return nextUpdate != null && nextUpdate.after(today);
     }
 
-    public synchronized X509CRL getCacheValue(String crlUrl) {
-        CRLCacheValue cacheValue = hashMap.get(crlUrl);
-        if (cacheValue != null) {
-            //If someone gets this cache value before cache manager task found it is invalid, update it and get the
-            // new value.
-            if (!cacheValue.isValid()) {
-                cacheValue.updateCacheWithNewValue();
-                CRLCacheValue crlCacheValue = hashMap.get(crlUrl);
-                return (crlCacheValue != null ? crlCacheValue.getValue() : null);
-            }
-
-            return cacheValue.getValue();
-        } else {
-            return null;
-        }
+    public X509CRL getCacheValue(String crlUrl) {
+        return lruCache.get(crlUrl);
     }
 
-    public synchronized void setCacheValue(String crlUrl, X509CRL crl) {
-        CRLCacheValue cacheValue = new CRLCacheValue(crlUrl, crl);
-        if (log.isDebugEnabled()) {
-            log.debug("Before setting - HashMap size " + hashMap.size());
-        }
-        hashMap.put(crlUrl, cacheValue);
+    public void setCacheValue(String crlUrl, X509CRL crl) {
         if (log.isDebugEnabled()) {
-            log.debug("After setting - HashMap size " + hashMap.size());
+            log.debug("Setting CRL of " + crlUrl);
         }
+        lruCache.put(crlUrl, crl);
     }
 
-    public synchronized void removeCacheValue(String crlUrl) {
-        if (log.isDebugEnabled()) {
-            log.debug("Before removing - HashMap size " + hashMap.size());
-        }
-        hashMap.remove(crlUrl);
+    public void removeCacheValue(String crlUrl) {
         if (log.isDebugEnabled()) {
-            log.debug("After removing - HashMap size " + hashMap.size());
-        }
-    }
-
-    /**
-     * This is the wrapper class of the actual cache value which is a X509CRL.
-     */
-    private class CRLCacheValue implements ManageableCacheValue {
-
-        private String crlUrl;
-        private X509CRL crl;
-        private long timeStamp = System.currentTimeMillis();
-
-        public CRLCacheValue(String crlUrl, X509CRL crl) {
-            this.crlUrl = crlUrl;
-            this.crl = crl;
-        }
-
-        public String getKey() {
-            return crlUrl;
-        }
-
-        public X509CRL getValue() {
-            timeStamp = System.currentTimeMillis();
-            return crl;
-        }
-
-        /**
-         * CRL has a validity period. We can reuse a downloaded CRL within that period.
-         * thisUpdate - (the time indicating that the CA knows this status is correct),
-         * nextUpdate - (the time that newer information will be available,
-         * implying that this information is the most accurate to date)
-         */
-        public boolean isValid() {
-            Date today = new Date();
-            Date nextUpdate = crl.getNextUpdate();
-            return nextUpdate != null && nextUpdate.after(today);
-        }
-
-        public long getTimeStamp() {
-            return timeStamp;
-        }
-
-        /**
-         * Used by cacheManager to remove invalid entries.
-         */
-        public void removeThisCacheValue() {
-            removeCacheValue(crlUrl);
-        }
-
-        public void updateCacheWithNewValue() {
-            replaceNewCacheValue(this);
+            log.debug("Removing CRL of " + crlUrl);
         }
+        lruCache.remove(crlUrl);
     }
 }
-
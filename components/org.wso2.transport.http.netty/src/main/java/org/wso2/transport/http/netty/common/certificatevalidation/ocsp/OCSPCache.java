@@ -30,31 +30,29 @@ import org.wso2.transport.http.netty.common.MBeanRegistrar;
 import org.wso2.transport.http.netty.common.certificatevalidation.CertificateVerificationException;
 import org.wso2.transport.http.netty.common.certificatevalidation.cache.CacheController;
 import org.wso2.transport.http.netty.common.certificatevalidation.cache.CacheManager;
-import org.wso2.transport.http.netty.common.certificatevalidation.cache.ManageableCache;
-import org.wso2.transport.http.netty.common.certificatevalidation.cache.ManageableCacheValue;
+import org.wso2.transport.http.netty.common.certificatevalidation.cache.ConcurrentLruCache;
 
 import java.math.BigInteger;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This is a cache to store OSCP responses against Certificate Serial Number since an OCSP response depends on
  * the certificate. This is a singleton since more than one cache of this kind should not be allowed. This cache
  * can be shared by many transports which need SSL validation through OCSP.
+ * <p>
+ * Lookups do not lock, so that the handshakes of all the event loops can read the cache concurrently. An expired
+ * response is fetched again only once, however many handshakes ask for it meanwhile.
  */
-public class OCSPCache implements ManageableCache {
+public class OCSPCache {
 
     private static volatile OCSPCache cache;
-    private static volatile Map<BigInteger, OCSPCacheValue> hashMap
-            = new ConcurrentHashMap<BigInteger, OCSPCacheValue>();
-    private volatile Iterator<Map.Entry<BigInteger, OCSPCacheValue>> iterator
-            = hashMap.entrySet().iterator();
-    private volatile CacheManager cacheManager;
     private static OCSPVerifier ocspVerifier = new OCSPVerifier(null);
     private static final Logger log = LoggerFactory.getLogger(OCSPCache.class);
 
+    private final ConcurrentLruCache<BigInteger, OCSPCacheValue> lruCache =
+            new ConcurrentLruCache<>("OCSP cache", OCSPCacheValue::isValid, OCSPCache::fetchNewCacheValue);
+    private volatile CacheManager cacheManager;
+
     private OCSPCache() {
     }
 
@@ -72,7 +70,7 @@ public class OCSPCache implements ManageableCache {
 
     /**
      * This lazy initializes the cache with a CacheManager. If this method is not called,
-     * a cache manager will not be used.
+     * a cache manager will not be used and the size of the cache is not bounded.
      *
      * @param size  max size of the cache
      * @param delay defines how frequently the CacheManager will be started
@@ -81,8 +79,9 @@ public class OCSPCache implements ManageableCache {
         if (cacheManager == null) {
             synchronized (OCSPCache.class) {
                 if (cacheManager == null) {
-                    cacheManager = new CacheManager(cache, size, delay);
-                    CacheController mbean = new CacheController(cache, cacheManager);
+                    lruCache.setMaxSize(size);
+                    cacheManager = new CacheManager(lruCache, delay);
+                    CacheController mbean = new CacheController(lruCache, cacheManager);
                     MBeanRegistrar.getInstance().registerMBean(mbean, "CacheController", "OCSPCacheController");
                 }
             }
@@ -90,138 +89,69 @@ public class OCSPCache implements ManageableCache {
     }
 
     /**
-     * This method is needed by the cache Manager to go through the cache entries to remove invalid values or
-     * to remove LRU cache values if the cache has reached its max size.
-     *
-     * @return next cache value of the cache.
-     */
-    public ManageableCacheValue getNextCacheValue() {
-        //Changes to the hash map are reflected on the keySet. And its iterator is weakly consistent. so will never
-        //throw concurrent modification exception.
-        if (iterator.hasNext()) {
-            return hashMap.get(iterator.next().getKey());
-        } else {
-            resetIterator();
-            return null;
-        }
-    }
-
-    /**
-     * @return the current cache size (size of the hash map)
+     * @return the current cache size
      */
     public int getCacheSize() {
-        return hashMap.size();
+        return lruCache.getCacheSize();
     }
 
-    public void resetIterator() {
-        iterator = hashMap.entrySet().iterator();
-    }
+    private static OCSPCacheValue fetchNewCacheValue(BigInteger serialNumber, OCSPCacheValue cacheValue)
+            throws CertificateVerificationException, OCSPException {
+        String serviceUrl = cacheValue.serviceUrl;
+        OCSPReq request = cacheValue.request;
+        OCSPResp response = ocspVerifier.getOCSPResponce(serviceUrl, request);
 
-    //This has to be synchronized because several threads will try to replace cache value
-    // (cacheManager and Reactor thread)
-    private synchronized void replaceNewCacheValue(OCSPCacheValue cacheValue) {
-        //If someone has updated with the new value before current Thread.
-        if (cacheValue.isValid()) {
-            return;
+        if (OCSPResponseStatus.SUCCESSFUL != response.getStatus()) {
+            throw new CertificateVerificationException(
+                    "OCSP response status was not SUCCESSFUL. Found OCSPResponseStatus:" + response.getStatus());
         }
 
-        try {
-            String serviceUrl = cacheValue.serviceUrl;
-            OCSPReq request = cacheValue.request;
-            OCSPResp response = ocspVerifier.getOCSPResponce(serviceUrl, request);
-
-            if (OCSPResponseStatus.SUCCESSFUL != response.getStatus()) {
-                throw new CertificateVerificationException(
-                        "OCSP response status was not SUCCESSFUL. Found OCSPResponseStatus:" + response.getStatus());
-            }
-
-            BasicOCSPResp basicResponse = (BasicOCSPResp) response.getResponseObject();
-            SingleResp[] responses = (basicResponse == null) ? null : basicResponse.getResponses();
-
-            if (responses == null) {
-                throw new CertificateVerificationException("Unable to get OCSP response.");
-            }
-
-            SingleResp resp = responses[0];
-            this.setCacheValue(response, cacheValue.serialNumber, resp, request, serviceUrl);
+        BasicOCSPResp basicResponse = (BasicOCSPResp) response.getResponseObject();
+        SingleResp[] responses = (basicResponse == null) ? null : basicResponse.getResponses();
 
-        } catch (CertificateVerificationException | OCSPException e) {
-            if (log.isInfoEnabled()) {
-                log.info("Can not replace old CacheValue with new CacheValue. So removing ocsp cache value", e);
-            }
-            //If cant be replaced remove.
-            cacheValue.removeThisCacheValue();
+        if (responses == null) {
+            throw new CertificateVerificationException("Unable to get OCSP response.");
         }
-    }
 
-    public synchronized SingleResp getCacheValue(BigInteger serialNumber) {
-        OCSPCacheValue cacheValue = hashMap.get(serialNumber);
-        if (cacheValue == null) {
-            return null;
-        }
-        //If someone gets this cache value before cache manager task found it is invalid, update it and get the
-        // new value.
-        if (!cacheValue.isValid()) {
-            cacheValue.updateCacheWithNewValue();
-            OCSPCacheValue ocspCacheValue = hashMap.get(serialNumber);
-            return (ocspCacheValue != null ? ocspCacheValue.getValue() : null);
-        }
-
-        return cacheValue.getValue();
+        return new OCSPCacheValue(response, responses[0], request, serviceUrl);
     }
 
-    public synchronized OCSPResp getOCSPCacheValue(BigInteger serialNumber) {
-        OCSPCacheValue cacheValue = hashMap.get(serialNumber);
-        if (cacheValue != null) {
-            if (!cacheValue.isValid()) {
-                cacheValue.updateCacheWithNewValue();
-                OCSPCacheValue ocspCacheValue = hashMap.get(serialNumber);
-                return (ocspCacheValue != null ? ocspCacheValue.getOCSPValue() : null);
-            }
+    public SingleResp getCacheValue(BigInteger serialNumber) {
+        OCSPCacheValue cacheValue = lruCache.get(serialNumber);
+        return cacheValue != null ? cacheValue.singleResp : null;
+    }
 
-            return cacheValue.getOCSPValue();
-        } else {
-            return null;
-        }
+    public OCSPResp getOCSPCacheValue(BigInteger serialNumber) {
+        OCSPCacheValue cacheValue = lruCache.get(serialNumber);
+        return cacheValue != null ? cacheValue.ocspResp : null;
     }
 
-    public synchronized void setCacheValue(OCSPResp ocspResp, BigInteger serialNumber, SingleResp singleResp,
+    public void setCacheValue(OCSPResp ocspResp, BigInteger serialNumber, SingleResp singleResp,
             OCSPReq request, String serviceUrl) {
-        OCSPCacheValue cacheValue = new OCSPCacheValue(ocspResp, serialNumber, singleResp, request, serviceUrl);
-        if (log.isDebugEnabled()) {
-            log.debug("Before setting - HashMap size " + hashMap.size());
-        }
-        hashMap.put(serialNumber, cacheValue);
         if (log.isDebugEnabled()) {
-            log.debug("After setting - HashMap size " + hashMap.size());
+            log.debug("Setting OCSP response of serial number " + serialNumber);
         }
+        lruCache.put(serialNumber, new OCSPCacheValue(ocspResp, singleResp, request, serviceUrl));
     }
 
-    public synchronized void removeCacheValue(BigInteger serialNumber) {
-        if (log.isDebugEnabled()) {
-            log.debug("Before removing - HashMap size " + hashMap.size());
-        }
-        hashMap.remove(serialNumber);
+    public void removeCacheValue(BigInteger serialNumber) {
         if (log.isDebugEnabled()) {
-            log.debug("After removing - HashMap size " + hashMap.size());
+            log.debug("Removing OCSP response of serial number " + serialNumber);
         }
+        lruCache.remove(serialNumber);
     }
 
     /**
      * This is the wrapper class of the actual cache value which is a SingleResp.
      */
-    private class OCSPCacheValue implements ManageableCacheValue {
+    private static class OCSPCacheValue {
 
-        private BigInteger serialNumber;
-        private SingleResp singleResp;
-        private OCSPReq request;
-        private String serviceUrl;
-        private OCSPResp ocspResp;
-        private long timeStamp = System.currentTimeMillis();
+        private final SingleResp singleResp;
+        private final OCSPReq request;
+        private final String serviceUrl;
+        private final OCSPResp ocspResp;
 
-        public OCSPCacheValue(OCSPResp ocspResp, BigInteger serialNumber, SingleResp singleResp, OCSPReq request,
-                String serviceUrl) {
-            this.serialNumber = serialNumber;
+        OCSPCacheValue(OCSPResp ocspResp, SingleResp singleResp, OCSPReq request, String serviceUrl) {
             this.singleResp = singleResp;
             //request and serviceUrl are needed to update the cache with new values.
             this.request = request;
@@ -229,43 +159,13 @@ public class OCSPCache implements ManageableCache {
             this.ocspResp = ocspResp;
         }
 
-        public BigInteger getKey() {
-            return serialNumber;
-        }
-
-        public SingleResp getValue() {
-            timeStamp = System.currentTimeMillis();
-            return singleResp;
-        }
-
-        public OCSPResp getOCSPValue() {
-            timeStamp = System.currentTimeMillis();
-            return ocspResp;
-        }
-
         /**
          * An OCSP response is valid only during it's validity period. So check whether CA's response has expired.
          */
-        public boolean isValid() {
+        boolean isValid() {
             Date now = new Date();
             Date nextUpdate = singleResp.getNextUpdate();
             return nextUpdate != null && nextUpdate.after(now);
         }
-
-        public long getTimeStamp() {
-            return timeStamp;
-        }
-
-        /**
-         * Used by cacheManager to remove invalid entries.
-         */
-        public void removeThisCacheValue() {
-            removeCacheValue(serialNumber);
-        }
-
-        public void updateCacheWithNewValue() {
-            replaceNewCacheValue(this);
-        }
     }
 }
-
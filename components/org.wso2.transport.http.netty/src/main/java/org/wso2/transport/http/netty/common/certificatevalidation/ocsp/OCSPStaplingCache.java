@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.common.certificatevalidation.ocsp;
+
+import org.bouncycastle.asn1.ocsp.OCSPResponseStatus;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPException;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.common.certificatevalidation.CertificateVerificationException;
+
+import java.math.BigInteger;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the OCSP response of a server certificate in memory so that it can be stapled to every TLS handshake of a
+ * listener without contacting the OCSP responder. The response is fetched once and refreshed in the background
+ * before its next update time. If a refresh fails, the current response keeps being served until it expires.
+ */
+public class OCSPStaplingCache implements OCSPStaplingCacheMBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OCSPStaplingCache.class);
+
+    private static final long MIN_REFRESH_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30 * 1000;
+    private static final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ocsp-stapling-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final X509Certificate userCertificate;
+    private final X509Certificate issuerCertificate;
+    private final List<String> serviceUrls;
+    private final long defaultValidityMillis;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong refreshFailureCount = new AtomicLong();
+    private volatile CachedResponse cachedResponse;
+    private ScheduledFuture<?> refreshFuture;
+    private final AtomicBoolean fetchPending = new AtomicBoolean();
+    private volatile boolean stopped = false;
+
+    /**
+     * @param userCertificate       certificate of the server whose status is stapled
+     * @param issuerCertificate     certificate of the issuer of the server certificate
+     * @param serviceUrls           OCSP responder URLs, usually the AIA locations of the server certificate
+     * @param defaultValidityMins   how long a response is kept if the responder does not specify a next update
+     */
+    public OCSPStaplingCache(X509Certificate userCertificate, X509Certificate issuerCertificate,
+            List<String> serviceUrls, int defaultValidityMins) {
+        this.userCertificate = userCertificate;
+        this.issuerCertificate = issuerCertificate;
+        this.serviceUrls = serviceUrls;
+        this.defaultValidityMillis = TimeUnit.MINUTES.toMillis(defaultValidityMins);
+    }
+
+    /**
+     * Returns the OCSP response to be stapled. Only the first call, or a call made after the cached response has
+     * expired without being refreshed, goes to the OCSP responder.
+     *
+     * @return the OCSP response of the server certificate
+     * @throws CertificateVerificationException if a valid response is not cached and cannot be fetched
+     */
+    public OCSPResp getOcspResponse() throws CertificateVerificationException {
+        CachedResponse current = cachedResponse;
+        if (current != null && current.isValid()) {
+            hitCount.incrementAndGet();
+            return current.ocspResp;
+        }
+        return fetchOnMiss();
+    }
+
+    /**
+     * Returns the OCSP response to be stapled without blocking the calling thread, which is usually the event loop
+     * accepting a connection. If a valid response is not cached, it is fetched in the background and the handshake
+     * goes on without a stapled response.
+     *
+     * @return the cached OCSP response of the server certificate, or null if a valid response is not cached yet
+     */
+    public OCSPResp getCachedResponse() {
+        CachedResponse current = cachedResponse;
+        if (current != null && current.isValid()) {
+            hitCount.incrementAndGet();
+            return current.ocspResp;
+        }
+        fetchInBackground();
+        return null;
+    }
+
+    private void fetchInBackground() {
+        // Not synchronized since the lock is held by a fetch which is waiting for the responder
+        if (stopped || !fetchPending.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                fetchOnMiss();
+            } catch (CertificateVerificationException e) {
+                log.warn("Failed to fetch the OCSP response of certificate " + userCertificate.getSerialNumber()
+                        + ". Handshakes go on without a stapled response.", e);
+            } finally {
+                fetchPending.set(false);
+            }
+        });
+    }
+
+    private synchronized OCSPResp fetchOnMiss() throws CertificateVerificationException {
+        // Another thread might have fetched the response while this one was waiting for the lock.
+        CachedResponse current = cachedResponse;
+        if (current != null && current.isValid()) {
+            hitCount.incrementAndGet();
+            return current.ocspResp;
+        }
+        missCount.incrementAndGet();
+        CachedResponse fetched = fetch(true);
+        cachedResponse = fetched;
+        scheduleRefresh(fetched.getRefreshDelay());
+        return fetched.ocspResp;
+    }
+
+    private void refresh() {
+        try {
+            CachedResponse fetched = fetch(false);
+            cachedResponse = fetched;
+            refreshCount.incrementAndGet();
+            scheduleRefresh(fetched.getRefreshDelay());
+        } catch (CertificateVerificationException e) {
+            refreshFailureCount.incrementAndGet();
+            log.warn("Failed to refresh the stapled OCSP response of certificate "
+                    + userCertificate.getSerialNumber() + ". The cached response is served until it expires.", e);
+            CachedResponse current = cachedResponse;
+            long retryDelay = MAX_RETRY_DELAY_MILLIS;
+            if (current != null && current.isValid()) {
+                retryDelay = Math.min(retryDelay, Math.max(MIN_REFRESH_DELAY_MILLIS, current.getRemainingTime() / 2));
+            }
+            scheduleRefresh(retryDelay);
+        }
+    }
+
+    private synchronized void scheduleRefresh(long delayMillis) {
+        if (stopped) {
+            return;
+        }
+        if (refreshFuture != null) {
+            refreshFuture.cancel(false);
+        }
+        refreshFuture = refresher.schedule(this::refresh, delayMillis, TimeUnit.MILLISECONDS);
+        if (log.isDebugEnabled()) {
+            log.debug("Stapled OCSP response of certificate " + userCertificate.getSerialNumber()
+                    + " will be refreshed in " + delayMillis + " ms");
+        }
+    }
+
+    /**
+     * Fetch the OCSP response of the server certificate. The shared {@link OCSPCache} is looked up first only for
+     * the initial fetch, since a refresh is meant to get a newer response from the responder.
+     */
+    private CachedResponse fetch(boolean lookupSharedCache) throws CertificateVerificationException {
+        BigInteger serialNumber = userCertificate.getSerialNumber();
+        OCSPCache ocspCache = OCSPCache.getCache();
+        if (lookupSharedCache) {
+            OCSPResp response = ocspCache.getOCSPCacheValue(serialNumber);
+            if (response != null) {
+                return new CachedResponse(response, getSingleResponse(response));
+            }
+        }
+
+        OCSPReq request = OCSPVerifier.generateOCSPRequest(issuerCertificate, serialNumber);
+        for (String serviceUrl : serviceUrls) {
+            OCSPResp response;
+            SingleResp singleResponse;
+            try {
+                response = OCSPVerifier.getOCSPResponce(serviceUrl, request);
+                if (OCSPResponseStatus.SUCCESSFUL != response.getStatus()) {
+                    continue; // Server didn't give the correct response.
+                }
+                singleResponse = getSingleResponse(response);
+            } catch (CertificateVerificationException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Failed to get the OCSP response from " + serviceUrl, e);
+                }
+                continue;
+            }
+            if (singleResponse == null) {
+                continue;
+            }
+            if (singleResponse.getCertStatus() != CertificateStatus.GOOD) {
+                throw new CertificateVerificationException(
+                        "Certificate " + serialNumber + " is not in good status. Refusing to staple the response");
+            }
+            //User certificates serial number and response coming from CA needs to be same.
+            if (!serialNumber.equals(singleResponse.getCertID().getSerialNumber())) {
+                throw new CertificateVerificationException(
+                        "Bad Serials=" + serialNumber + " vs. " + singleResponse.getCertID().getSerialNumber());
+            }
+            ocspCache.setCacheValue(response, serialNumber, singleResponse, request, serviceUrl);
+            return new CachedResponse(response, singleResponse);
+        }
+        throw new CertificateVerificationException(
+                "Could not get an OCSP response to staple for certificate " + serialNumber + " from " + serviceUrls);
+    }
+
+    private static SingleResp getSingleResponse(OCSPResp response) throws CertificateVerificationException {
+        try {
+            BasicOCSPResp basicResponse = (BasicOCSPResp) response.getResponseObject();
+            SingleResp[] responses = (basicResponse == null) ? null : basicResponse.getResponses();
+            return (responses != null && responses.length == 1) ? responses[0] : null;
+        } catch (OCSPException e) {
+            throw new CertificateVerificationException("Cannot read the OCSP response", e);
+        }
+    }
+
+    /**
+     * Stops refreshing the cached response.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (refreshFuture != null) {
+            refreshFuture.cancel(false);
+            refreshFuture = null;
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.get();
+    }
+
+    public boolean isResponseAvailable() {
+        CachedResponse current = cachedResponse;
+        return current != null && current.isValid();
+    }
+
+    /**
+     * A fetched OCSP response along with the time until which it can be stapled.
+     */
+    private class CachedResponse {
+
+        private final OCSPResp ocspResp;
+        private final long fetchedTime = System.currentTimeMillis();
+        private final long expiryTime;
+
+        CachedResponse(OCSPResp ocspResp, SingleResp singleResponse) {
+            this.ocspResp = ocspResp;
+            Date nextUpdate = singleResponse != null ? singleResponse.getNextUpdate() : null;
+            this.expiryTime = nextUpdate != null ? nextUpdate.getTime() : fetchedTime + defaultValidityMillis;
+        }
+
+        boolean isValid() {
+            return System.currentTimeMillis() < expiryTime;
+        }
+
+        long getRemainingTime() {
+            return expiryTime - System.currentTimeMillis();
+        }
+
+        /**
+         * A refresh is attempted once three quarters of the remaining validity period has passed, which leaves
+         * room for retries before the response expires.
+         */
+        long getRefreshDelay() {
+            return Math.max(MIN_REFRESH_DELAY_MILLIS, getRemainingTime() * 3 / 4);
+        }
+    }
+}
@@ -15,20 +15,21 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
-package org.wso2.transport.http.netty.common.certificatevalidation.cache;
-
-/**
- * A cache which needs to be managed by a CacheManager having values which implement this interface.
- */
-public interface ManageableCacheValue {
-
-    boolean isValid();
-
-    long getTimeStamp();
-
-    void removeThisCacheValue();
-
-    void updateCacheWithNewValue();
-}
-
+
+package org.wso2.transport.http.netty.common.certificatevalidation.ocsp;
+
+/**
+ * Bean class for monitoring the OCSP stapling response cache.
+ */
+public interface OCSPStaplingCacheMBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getRefreshCount();
+
+    long getRefreshFailureCount();
+
+    boolean isResponseAvailable();
+}
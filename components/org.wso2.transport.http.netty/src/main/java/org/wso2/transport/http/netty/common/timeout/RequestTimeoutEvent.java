@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.common.timeout;
+
+/**
+ * The user event a {@link RequestTimeoutHandler} fires when a deadline of the current request passes.
+ */
+public enum RequestTimeoutEvent {
+
+    /**
+     * No response data arrived within the first byte timeout of sending the request.
+     */
+    FIRST_BYTE,
+
+    /**
+     * Nothing was read from or written to the channel for the idle timeout.
+     */
+    IDLE,
+
+    /**
+     * The request did not complete within the total request timeout.
+     */
+    TOTAL
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.common.timeout;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the deadlines of the request in flight on a channel on the {@link TimeoutWheel} of its event loop, and fires
+ * a {@link RequestTimeoutEvent} down the pipeline when one of them passes.
+ * <p>
+ * The handler stays in the pipeline for the lifetime of the channel and is armed and disarmed per request, so a
+ * request does not add or remove handlers. The deadlines are
+ * <ul>
+ * <li>first byte: no response data read within the timeout of arming the handler,</li>
+ * <li>idle: nothing read or written for the timeout, in between the chunks of a message for instance,</li>
+ * <li>total: the handler is not disarmed within the timeout of arming it.</li>
+ * </ul>
+ * Every deadline is cancelled once one of them passes. A handler created with an idle timeout arms itself for the
+ * whole lifetime of the channel, which is how the server side uses it.
+ */
+public class RequestTimeoutHandler extends ChannelDuplexHandler {
+
+    private final TimeoutService timeoutService;
+    private final long channelIdleTimeout;
+    private final Runnable firstByteTask = () -> expire(RequestTimeoutEvent.FIRST_BYTE);
+    private final Runnable idleTask = this::onIdleTimeout;
+    private final Runnable totalTask = () -> expire(RequestTimeoutEvent.TOTAL);
+    // A write counts as activity once it is flushed to the socket, not when it is queued
+    private final ChannelFutureListener writeListener = future -> lastActivityTime = System.nanoTime();
+    private ChannelHandlerContext ctx;
+    private TimeoutWheel wheel;
+    private long idleTimeoutNanos;
+    private long lastActivityTime;
+    private boolean reading;
+    private WheelTimeout firstByteTimeout;
+    private WheelTimeout idleTimeout;
+    private WheelTimeout totalTimeout;
+
+    /**
+     * Creates a handler which is armed per request.
+     *
+     * @param timeoutService the service of the wheel of the event loop of the channel
+     */
+    public RequestTimeoutHandler(TimeoutService timeoutService) {
+        this(timeoutService, 0);
+    }
+
+    /**
+     * Creates a handler which is armed with the given idle timeout for the whole lifetime of the channel.
+     *
+     * @param timeoutService     the service of the wheel of the event loop of the channel
+     * @param channelIdleTimeout the idle timeout of the channel in milliseconds
+     */
+    public RequestTimeoutHandler(TimeoutService timeoutService, long channelIdleTimeout) {
+        this.timeoutService = timeoutService;
+        this.channelIdleTimeout = channelIdleTimeout;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+        this.wheel = timeoutService.getWheel(ctx.executor());
+        if (channelIdleTimeout > 0) {
+            doArm(0, channelIdleTimeout, 0);
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        cancelTimeouts();
+    }
+
+    /**
+     * Starts tracking the deadlines of a request, replacing those of the previous request. A timeout which is not
+     * positive disables the deadline.
+     *
+     * @param firstByteTimeout the first byte timeout in milliseconds
+     * @param idleTimeout      the idle timeout in milliseconds
+     * @param totalTimeout     the total request timeout in milliseconds
+     */
+    public void arm(long firstByteTimeout, long idleTimeout, long totalTimeout) {
+        if (ctx.executor().inEventLoop()) {
+            doArm(firstByteTimeout, idleTimeout, totalTimeout);
+        } else {
+            ctx.executor().execute(() -> doArm(firstByteTimeout, idleTimeout, totalTimeout));
+        }
+    }
+
+    /**
+     * Stops tracking the deadlines of the current request.
+     */
+    public void disarm() {
+        if (ctx.executor().inEventLoop()) {
+            cancelTimeouts();
+        } else {
+            ctx.executor().execute(this::cancelTimeouts);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        cancelTimeouts();
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (firstByteTimeout != null) {
+            firstByteTimeout.cancel();
+            firstByteTimeout = null;
+        }
+        reading = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        if (reading) {
+            lastActivityTime = System.nanoTime();
+            reading = false;
+        }
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (idleTimeout != null) {
+            promise = promise.unvoid().addListener(writeListener);
+        }
+        ctx.write(msg, promise);
+    }
+
+    private void doArm(long firstByteTimeout, long idleTimeout, long totalTimeout) {
+        cancelTimeouts();
+        if (ctx.isRemoved() || !ctx.channel().isOpen()) {
+            return;
+        }
+        lastActivityTime = System.nanoTime();
+        if (firstByteTimeout > 0) {
+            this.firstByteTimeout = wheel.newTimeout(firstByteTask, firstByteTimeout, TimeUnit.MILLISECONDS);
+        }
+        if (idleTimeout > 0) {
+            idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+            this.idleTimeout = wheel.newTimeout(idleTask, idleTimeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        if (totalTimeout > 0) {
+            this.totalTimeout = wheel.newTimeout(totalTask, totalTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void onIdleTimeout() {
+        idleTimeout = null;
+        long nextDelay = idleTimeoutNanos;
+        if (!reading) {
+            nextDelay -= System.nanoTime() - lastActivityTime;
+        }
+        if (nextDelay > 0) {
+            // There was activity since the timeout was added, so wait for the rest of the idle time
+            idleTimeout = wheel.newTimeout(idleTask, nextDelay, TimeUnit.NANOSECONDS);
+            return;
+        }
+        expire(RequestTimeoutEvent.IDLE);
+    }
+
+    private void expire(RequestTimeoutEvent event) {
+        cancelTimeouts();
+        ctx.fireUserEventTriggered(event);
+    }
+
+    private void cancelTimeouts() {
+        if (firstByteTimeout != null) {
+            firstByteTimeout.cancel();
+            firstByteTimeout = null;
+        }
+        if (idleTimeout != null) {
+            idleTimeout.cancel();
+            idleTimeout = null;
+        }
+        if (totalTimeout != null) {
+            totalTimeout.cancel();
+            totalTimeout = null;
+        }
+    }
+}
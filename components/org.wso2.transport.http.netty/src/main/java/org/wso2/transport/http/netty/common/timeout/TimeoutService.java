@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.common.timeout;
+
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out one {@link TimeoutWheel} per event loop, shared by all the channels on that event loop of every
+ * connector with the same granularity, so that an event loop runs a single tick task however many connectors use
+ * it. A wheel is let go of once its event loop is shut down.
+ */
+public class TimeoutService {
+
+    // The wheels of each granularity, by event loop
+    private static final Map<Long, Map<EventExecutor, TimeoutWheel>> SHARED_WHEELS = new ConcurrentHashMap<>();
+
+    private final long granularity;
+    private final Map<EventExecutor, TimeoutWheel> wheels;
+
+    /**
+     * @param granularity the tick duration of the wheels in milliseconds, which bounds how late a timeout expires
+     */
+    public TimeoutService(long granularity) {
+        if (granularity <= 0) {
+            throw new IllegalArgumentException("Timeout granularity must be positive: " + granularity);
+        }
+        this.granularity = granularity;
+        this.wheels = SHARED_WHEELS.computeIfAbsent(granularity, key -> new ConcurrentHashMap<>());
+    }
+
+    public TimeoutWheel getWheel(EventExecutor eventLoop) {
+        TimeoutWheel wheel = wheels.get(eventLoop);
+        if (wheel == null) {
+            TimeoutWheel newWheel = new TimeoutWheel(eventLoop, granularity, TimeUnit.MILLISECONDS);
+            wheel = wheels.putIfAbsent(eventLoop, newWheel);
+            if (wheel == null) {
+                wheel = newWheel;
+                eventLoop.terminationFuture().addListener(future -> wheels.remove(eventLoop, newWheel));
+            }
+        }
+        return wheel;
+    }
+
+    public long getGranularity() {
+        return granularity;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.common.timeout;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hashed timer wheel which runs the timeouts of the channels of one event loop on that event loop.
+ * <p>
+ * Timeouts are kept in a fixed number of buckets, each a doubly linked list, so adding and cancelling a timeout is a
+ * constant time operation which does not touch the scheduled task queue of the event loop. A single task ticks the
+ * wheel at the configured granularity while there are pending timeouts, and is cancelled as soon as the wheel is
+ * empty, whether its last timeout expired or got cancelled, so an idle wheel costs nothing. A timeout therefore
+ * expires up to one tick later than its deadline.
+ * <p>
+ * Timeouts can be added and cancelled from any thread, but the wheel itself is only ever modified on its event loop.
+ */
+public class TimeoutWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeoutWheel.class);
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final EventExecutor eventLoop;
+    private final long tickNanos;
+    private final WheelTimeout[] buckets = new WheelTimeout[WHEEL_SIZE];
+    private final Runnable tickTask = this::tick;
+    private ScheduledFuture<?> tickFuture;
+    private boolean ticking;
+    private long startTime;
+    private long currentTick;
+    private int pendingTimeouts;
+
+    public TimeoutWheel(EventExecutor eventLoop, long tickDuration, TimeUnit unit) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        this.eventLoop = eventLoop;
+        this.tickNanos = unit.toNanos(tickDuration);
+    }
+
+    /**
+     * Adds a timeout which runs the given task on the event loop of the wheel once the delay elapses, unless it is
+     * cancelled before.
+     *
+     * @param task  the task to run when the timeout expires
+     * @param delay the delay after which the timeout expires
+     * @param unit  the unit of the delay
+     * @return the timeout, which can be used to cancel it
+     */
+    public WheelTimeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        WheelTimeout timeout = new WheelTimeout(this, task, System.nanoTime() + unit.toNanos(delay));
+        if (eventLoop.inEventLoop()) {
+            add(timeout);
+        } else {
+            eventLoop.execute(() -> add(timeout));
+        }
+        return timeout;
+    }
+
+    /**
+     * @return the number of timeouts in the wheel, which is only accurate when called from the event loop
+     */
+    public int pendingTimeouts() {
+        return pendingTimeouts;
+    }
+
+    void cancel(WheelTimeout timeout) {
+        if (eventLoop.inEventLoop()) {
+            remove(timeout);
+        } else {
+            eventLoop.execute(() -> remove(timeout));
+        }
+    }
+
+    private void add(WheelTimeout timeout) {
+        if (timeout.isCancelled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (tickFuture == null) {
+            startTime = now;
+            currentTick = 0;
+            tickFuture = eventLoop.scheduleAtFixedRate(tickTask, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        }
+        // Round up, so that a timeout never expires before its deadline
+        long deadlineTick = (timeout.deadline - startTime + tickNanos - 1) / tickNanos;
+        timeout.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+        int bucket = (int) (timeout.deadlineTick & WHEEL_MASK);
+        WheelTimeout head = buckets[bucket];
+        timeout.bucket = bucket;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[bucket] = timeout;
+        pendingTimeouts++;
+    }
+
+    private void remove(WheelTimeout timeout) {
+        int bucket = timeout.bucket;
+        if (bucket < 0) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        // The next link is left as is, so that a bucket being expired can still be walked past a removed timeout
+        timeout.prev = null;
+        timeout.bucket = -1;
+        pendingTimeouts--;
+        // A tick stops the wheel itself once it has expired its timeouts
+        if (pendingTimeouts == 0 && !ticking) {
+            stopTicking();
+        }
+    }
+
+    private void tick() {
+        long targetTick = (System.nanoTime() - startTime) / tickNanos;
+        ticking = true;
+        try {
+            while (currentTick < targetTick && pendingTimeouts > 0) {
+                currentTick++;
+                expireTimeouts(buckets[(int) (currentTick & WHEEL_MASK)]);
+            }
+        } finally {
+            ticking = false;
+        }
+        if (pendingTimeouts == 0) {
+            stopTicking();
+        }
+    }
+
+    private void stopTicking() {
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+            tickFuture = null;
+        }
+    }
+
+    private void expireTimeouts(WheelTimeout timeout) {
+        while (timeout != null) {
+            WheelTimeout next = timeout.next;
+            if (timeout.bucket >= 0 && timeout.deadlineTick <= currentTick) {
+                remove(timeout);
+                timeout.expire();
+            }
+            timeout = next;
+        }
+    }
+
+    static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            log.warn("An exception was thrown by a timeout task", t);
+        }
+    }
+}
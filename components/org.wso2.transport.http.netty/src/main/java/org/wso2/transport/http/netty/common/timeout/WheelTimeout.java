@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.common.timeout;
+
+/**
+ * A timeout of a {@link TimeoutWheel}, which is also the node of the bucket it is kept in.
+ */
+public final class WheelTimeout {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final TimeoutWheel wheel;
+    private final Runnable task;
+    final long deadline;
+    long deadlineTick;
+    int bucket = -1;
+    WheelTimeout prev;
+    WheelTimeout next;
+    private volatile int state = PENDING;
+
+    WheelTimeout(TimeoutWheel wheel, Runnable task, long deadline) {
+        this.wheel = wheel;
+        this.task = task;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the timeout, so that its task does not run. Has no effect if the timeout has already expired.
+     */
+    public void cancel() {
+        if (state == PENDING) {
+            state = CANCELLED;
+            wheel.cancel(this);
+        }
+    }
+
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    public boolean isExpired() {
+        return state == EXPIRED;
+    }
+
+    void expire() {
+        if (state == PENDING) {
+            state = EXPIRED;
+            TimeoutWheel.runTask(task);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.common.transport;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.SocketChannel;
+import org.wso2.transport.http.netty.listener.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+
+/**
+ * The native epoll transport of Linux. Listeners of this transport can be bound to the same address by several
+ * channels with SO_REUSEPORT, so that the kernel spreads the accepted connections over them.
+ * <p>
+ * This class is only loaded reflectively by {@link Transports}, since the native epoll classes are an optional
+ * dependency.
+ */
+public class EpollTransport implements Transport {
+
+    @Override
+    public String getName() {
+        return Transports.EPOLL;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return Epoll.isAvailable();
+    }
+
+    @Override
+    public EventLoopGroup newEventLoopGroup(int threads) {
+        return new EpollEventLoopGroup(threads);
+    }
+
+    @Override
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return EpollServerSocketChannel.class;
+    }
+
+    @Override
+    public Class<? extends SocketChannel> getSocketChannelClass() {
+        return EpollSocketChannel.class;
+    }
+
+    @Override
+    public Class<? extends DatagramChannel> getDatagramChannelClass() {
+        return EpollDatagramChannel.class;
+    }
+
+    @Override
+    public boolean isCompatible(EventLoopGroup eventLoopGroup) {
+        return isAvailable() && eventLoopGroup instanceof EpollEventLoopGroup;
+    }
+
+    @Override
+    public boolean isReusePortSupported() {
+        return true;
+    }
+
+    @Override
+    public void configureServerBootstrap(ServerBootstrap serverBootstrap,
+                                         ServerBootstrapConfiguration serverBootstrapConfiguration) {
+        EpollMode epollMode = getEpollMode(serverBootstrapConfiguration.isEdgeTriggered());
+        serverBootstrap.option(EpollChannelOption.EPOLL_MODE, epollMode);
+        serverBootstrap.childOption(EpollChannelOption.EPOLL_MODE, epollMode);
+        if (serverBootstrapConfiguration.isReusePort()) {
+            serverBootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+        if (serverBootstrapConfiguration.getTcpFastOpen() > 0) {
+            serverBootstrap.option(EpollChannelOption.TCP_FASTOPEN, serverBootstrapConfiguration.getTcpFastOpen());
+        }
+        if (serverBootstrapConfiguration.isTcpQuickAck()) {
+            serverBootstrap.childOption(EpollChannelOption.TCP_QUICKACK, true);
+        }
+    }
+
+    @Override
+    public void configureClientBootstrap(Bootstrap bootstrap, BootstrapConfiguration bootstrapConfiguration) {
+        bootstrap.option(EpollChannelOption.EPOLL_MODE, getEpollMode(bootstrapConfiguration.isEdgeTriggered()));
+        if (bootstrapConfiguration.isTcpFastOpen()) {
+            bootstrap.option(EpollChannelOption.TCP_FASTOPEN_CONNECT, true);
+        }
+        if (bootstrapConfiguration.isTcpQuickAck()) {
+            bootstrap.option(EpollChannelOption.TCP_QUICKACK, true);
+        }
+    }
+
+    private static EpollMode getEpollMode(boolean edgeTriggered) {
+        if (edgeTriggered) {
+            return EpollMode.EDGE_TRIGGERED;
+        }
+        return EpollMode.LEVEL_TRIGGERED;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.common.transport;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * The JDK NIO transport, which is available on every platform.
+ */
+public class NioTransport implements Transport {
+
+    @Override
+    public String getName() {
+        return Transports.NIO;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public EventLoopGroup newEventLoopGroup(int threads) {
+        return new NioEventLoopGroup(threads);
+    }
+
+    @Override
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return NioServerSocketChannel.class;
+    }
+
+    @Override
+    public Class<? extends SocketChannel> getSocketChannelClass() {
+        return NioSocketChannel.class;
+    }
+
+    @Override
+    public Class<? extends DatagramChannel> getDatagramChannelClass() {
+        return NioDatagramChannel.class;
+    }
+
+    @Override
+    public boolean isCompatible(EventLoopGroup eventLoopGroup) {
+        return eventLoopGroup instanceof NioEventLoopGroup;
+    }
+}
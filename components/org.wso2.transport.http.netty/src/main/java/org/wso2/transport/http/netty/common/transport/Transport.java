@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.common.transport;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.SocketChannel;
+import org.wso2.transport.http.netty.listener.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+
+/**
+ * A socket transport of Netty, which provides the event loops and the channel types the connectors are built on.
+ * <p>
+ * Transports are looked up through {@link Transports}, which falls back to NIO when a native transport cannot be
+ * loaded on the running platform.
+ */
+public interface Transport {
+
+    /**
+     * @return the name the transport is looked up with
+     */
+    String getName();
+
+    /**
+     * @return true if the transport can be used on the running platform
+     */
+    boolean isAvailable();
+
+    /**
+     * Creates an event loop group of the transport.
+     *
+     * @param threads number of event loops of the group
+     * @return the event loop group
+     */
+    EventLoopGroup newEventLoopGroup(int threads);
+
+    /**
+     * @return the listener channel type of the transport
+     */
+    Class<? extends ServerChannel> getServerChannelClass();
+
+    /**
+     * @return the connection channel type of the transport
+     */
+    Class<? extends SocketChannel> getSocketChannelClass();
+
+    /**
+     * @return the datagram channel type of the transport, which the DNS resolver queries name servers with
+     */
+    Class<? extends DatagramChannel> getDatagramChannelClass();
+
+    /**
+     * Checks whether channels of the transport can be registered with the given event loop group.
+     *
+     * @param eventLoopGroup the event loop group
+     * @return true if the event loop group belongs to the transport
+     */
+    boolean isCompatible(EventLoopGroup eventLoopGroup);
+
+    /**
+     * @return true if several listener channels can be bound to the same address with SO_REUSEPORT
+     */
+    default boolean isReusePortSupported() {
+        return false;
+    }
+
+    /**
+     * Applies the socket options which are specific to the transport to a listener.
+     *
+     * @param serverBootstrap the listener bootstrap
+     * @param serverBootstrapConfiguration the listener socket configuration
+     */
+    default void configureServerBootstrap(ServerBootstrap serverBootstrap,
+                                          ServerBootstrapConfiguration serverBootstrapConfiguration) {
+    }
+
+    /**
+     * Applies the socket options which are specific to the transport to a client connection.
+     *
+     * @param bootstrap the client bootstrap
+     * @param bootstrapConfiguration the client socket configuration
+     */
+    default void configureClientBootstrap(Bootstrap bootstrap, BootstrapConfiguration bootstrapConfiguration) {
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.common.transport;
+
+import io.netty.channel.EventLoopGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the socket transports the connectors can be built on. NIO is the default transport, and a native
+ * transport which is requested but cannot be loaded on the running platform falls back to NIO.
+ * <p>
+ * The epoll transport is loaded reflectively the first time it is asked for, so that the native epoll classes are
+ * only needed on the class path, and the package is only resolved by OSGi, when the transport is actually used.
+ */
+public final class Transports {
+
+    private static final Logger log = LoggerFactory.getLogger(Transports.class);
+
+    public static final String NIO = "nio";
+    public static final String EPOLL = "epoll";
+
+    private static final String EPOLL_TRANSPORT_CLASS = "org.wso2.transport.http.netty.common.transport.EpollTransport";
+    private static final String EPOLL_PACKAGE = "io.netty.channel.epoll.";
+    private static final Transport DEFAULT_TRANSPORT = new NioTransport();
+    private static final Map<String, Transport> transports = new ConcurrentHashMap<>();
+
+    static {
+        register(DEFAULT_TRANSPORT);
+    }
+
+    private Transports() {
+    }
+
+    /**
+     * Registers a transport, replacing any transport registered with the same name.
+     *
+     * @param transport the transport
+     */
+    public static void register(Transport transport) {
+        transports.put(transport.getName().toLowerCase(Locale.ROOT), transport);
+    }
+
+    /**
+     * @return the NIO transport
+     */
+    public static Transport getDefaultTransport() {
+        return DEFAULT_TRANSPORT;
+    }
+
+    /**
+     * Looks up a transport by name. NIO is returned if the name is unknown or if the transport is not available on
+     * the running platform.
+     *
+     * @param name name of the transport, or null for the default transport
+     * @return the transport
+     */
+    public static Transport getTransport(String name) {
+        if (name == null) {
+            return DEFAULT_TRANSPORT;
+        }
+        String transportName = name.toLowerCase(Locale.ROOT);
+        Transport transport = transports.get(transportName);
+        if (transport == null && EPOLL.equals(transportName)) {
+            transport = loadEpollTransport();
+            if (transport == null) {
+                log.warn("Transport {} is not available on this platform, falling back to {}", name,
+                         DEFAULT_TRANSPORT.getName());
+                return DEFAULT_TRANSPORT;
+            }
+        }
+        if (transport == null) {
+            log.warn("Unknown transport {}, falling back to {}", name, DEFAULT_TRANSPORT.getName());
+            return DEFAULT_TRANSPORT;
+        }
+        if (!transport.isAvailable()) {
+            log.warn("Transport {} is not available on this platform, falling back to {}", name,
+                     DEFAULT_TRANSPORT.getName());
+            return DEFAULT_TRANSPORT;
+        }
+        return transport;
+    }
+
+    /**
+     * Finds the transport the given event loop group belongs to, so that channels of the right type are registered
+     * with it.
+     *
+     * @param eventLoopGroup the event loop group
+     * @return the transport of the event loop group, or NIO if it does not belong to any registered transport
+     */
+    public static Transport getTransport(EventLoopGroup eventLoopGroup) {
+        for (Transport transport : transports.values()) {
+            if (transport != DEFAULT_TRANSPORT && transport.isCompatible(eventLoopGroup)) {
+                return transport;
+            }
+        }
+        if (eventLoopGroup.getClass().getName().startsWith(EPOLL_PACKAGE)) {
+            Transport transport = loadEpollTransport();
+            if (transport != null && transport.isCompatible(eventLoopGroup)) {
+                return transport;
+            }
+        }
+        return DEFAULT_TRANSPORT;
+    }
+
+    /**
+     * Loads and registers the epoll transport if the native epoll classes can be loaded and the native library is
+     * available on the running platform.
+     *
+     * @return the epoll transport, or null if it is not available
+     */
+    private static Transport loadEpollTransport() {
+        Transport transport = transports.get(EPOLL);
+        if (transport != null) {
+            return transport;
+        }
+        try {
+            transport = (Transport) Class.forName(EPOLL_TRANSPORT_CLASS).newInstance();
+            if (!transport.isAvailable()) {
+                return null;
+            }
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not load the {} transport", EPOLL, e);
+            }
+            return null;
+        }
+        transports.putIfAbsent(EPOLL, transport);
+        return transports.get(EPOLL);
+    }
+}
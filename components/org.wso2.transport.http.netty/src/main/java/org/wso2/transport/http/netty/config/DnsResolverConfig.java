@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuration for the asynchronous DNS resolution of the hosts client connections are opened to.
+ * <p>
+ * When the resolver is disabled the host of a connection is resolved by the JDK, which blocks the thread opening
+ * the connection.
+ */
+public class DnsResolverConfig {
+
+    private boolean enabled;
+    private int minTtl = 0;
+    private int maxTtl = Integer.MAX_VALUE;
+    private int negativeTtl = 5;
+    private long queryTimeout = 5000;
+    private boolean roundRobin = true;
+    private final Map<String, List<String>> hostOverrides = new LinkedHashMap<>();
+
+    /**
+     * Creates a configuration in which the resolver is disabled.
+     */
+    public DnsResolverConfig() {
+        this(false);
+    }
+
+    public DnsResolverConfig(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether hosts are resolved by the asynchronous DNS resolver on the event loop of the connection.
+     *
+     * @param enabled whether the resolver is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMinTtl() {
+        return minTtl;
+    }
+
+    /**
+     * Sets the minimum time in seconds a resolved address is cached, regardless of a lower TTL of the DNS record.
+     *
+     * @param minTtl the minimum TTL in seconds
+     */
+    public void setMinTtl(int minTtl) {
+        this.minTtl = minTtl;
+    }
+
+    public int getMaxTtl() {
+        return maxTtl;
+    }
+
+    /**
+     * Sets the maximum time in seconds a resolved address is cached, regardless of a higher TTL of the DNS record.
+     *
+     * @param maxTtl the maximum TTL in seconds
+     */
+    public void setMaxTtl(int maxTtl) {
+        this.maxTtl = maxTtl;
+    }
+
+    public int getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    /**
+     * Sets the time in seconds a failed resolution is cached, so that connections to an unknown host fail without
+     * querying the name servers again. 0 disables negative caching.
+     *
+     * @param negativeTtl the TTL of failed resolutions in seconds
+     */
+    public void setNegativeTtl(int negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    public long getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds to wait for the answer of a name server.
+     *
+     * @param queryTimeout the query timeout in milliseconds
+     */
+    public void setQueryTimeout(long queryTimeout) {
+        this.queryTimeout = queryTimeout;
+    }
+
+    public boolean isRoundRobin() {
+        return roundRobin;
+    }
+
+    /**
+     * Sets whether new connections to a host with several addresses are spread over all of its addresses. When
+     * disabled every connection is opened to the first address.
+     *
+     * @param roundRobin whether connections are spread over the addresses of a host
+     */
+    public void setRoundRobin(boolean roundRobin) {
+        this.roundRobin = roundRobin;
+    }
+
+    public Map<String, List<String>> getHostOverrides() {
+        return Collections.unmodifiableMap(hostOverrides);
+    }
+
+    /**
+     * Resolves a host to the given IP addresses without querying the name servers, the way an entry of a hosts file
+     * does.
+     *
+     * @param host the host name
+     * @param addresses IP addresses of the host
+     */
+    public void addHostOverride(String host, List<String> addresses) {
+        hostOverrides.put(host.toLowerCase(Locale.ROOT), addresses);
+    }
+}
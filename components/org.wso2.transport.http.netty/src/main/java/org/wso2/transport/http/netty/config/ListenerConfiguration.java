@@ -18,6 +18,7 @@
  */
 package org.wso2.transport.http.netty.config;
 
+import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.Util;
 import org.wso2.transport.http.netty.common.ssl.SSLConfig;
 
@@ -60,6 +61,8 @@ public class ListenerConfiguration {
 
     private KeepAliveConfig keepAliveConfig = KeepAliveConfig.AUTO;
 
+    private EntityCollectorConfig entityCollectorConfig = EntityCollectorConfig.BLOCKING;
+
     @XmlAttribute
     private boolean bindOnStartup = false;
 
@@ -120,12 +123,35 @@ public class ListenerConfiguration {
     @XmlAttribute
     private boolean ocspStaplingEnabled = false;
 
+    @XmlAttribute
+    private boolean http2ConsumerFlowControlEnabled = false;
+
+    @XmlAttribute
+    private int http2MaxBufferedBytesPerStream = 65535;
+
+    @XmlAttribute
+    private int http2MaxBufferedBytesPerConnection = 1048576;
+
+    @XmlAttribute
+    private boolean writeCoalescingEnabled = false;
+
+    @XmlAttribute
+    private int writeCoalescingThreshold = 16384;
+
+    @XmlAttribute
+    private int pipeliningLimit = Constants.DEFAULT_PIPELINING_LIMIT;
+
+    @XmlAttribute
+    private int timeoutGranularity = Constants.DEFAULT_TIMEOUT_GRANULARITY;
+
     @XmlElementWrapper(name = "parameters")
     @XmlElement(name = "parameter")
     private List<Parameter> parameters = getDefaultParameters();
 
     private RequestSizeValidationConfig requestSizeValidationConfig = new RequestSizeValidationConfig();
 
+    private WebSocketCompressionConfig webSocketCompressionConfig = new WebSocketCompressionConfig();
+
     public ListenerConfiguration() {
     }
 
@@ -337,6 +363,20 @@ public class ListenerConfiguration {
         this.requestSizeValidationConfig = requestSizeValidationConfig;
     }
 
+    public WebSocketCompressionConfig getWebSocketCompressionConfig() {
+        return webSocketCompressionConfig;
+    }
+
+    /**
+     * Sets the permessage-deflate compression of the WebSocket connections upgraded from this listener. Compression
+     * is disabled by default.
+     *
+     * @param webSocketCompressionConfig the WebSocket compression configuration
+     */
+    public void setWebSocketCompressionConfig(WebSocketCompressionConfig webSocketCompressionConfig) {
+        this.webSocketCompressionConfig = webSocketCompressionConfig;
+    }
+
     public ChunkConfig getChunkConfig() {
         return chunkingConfig;
     }
@@ -353,6 +393,14 @@ public class ListenerConfiguration {
         this.keepAliveConfig = keepAliveConfig;
     }
 
+    public EntityCollectorConfig getEntityCollectorConfig() {
+        return entityCollectorConfig;
+    }
+
+    public void setEntityCollectorConfig(EntityCollectorConfig entityCollectorConfig) {
+        this.entityCollectorConfig = entityCollectorConfig;
+    }
+
     public String getServerHeader() {
         return serverHeader;
     }
@@ -368,4 +416,106 @@ public class ListenerConfiguration {
     public boolean isOcspStaplingEnabled () {
         return ocspStaplingEnabled;
     }
+
+    public boolean isHttp2ConsumerFlowControlEnabled() {
+        return http2ConsumerFlowControlEnabled;
+    }
+
+    /**
+     * Sets whether the flow control window of an inbound HTTP/2 request is returned to the client only as the
+     * application reads the request content, instead of as soon as the content is received. This bounds the unread
+     * content buffered per stream and per connection, but the content has to be read incrementally since the client
+     * stops sending once the window is exhausted.
+     *
+     * @param http2ConsumerFlowControlEnabled whether consumer driven flow control is enabled
+     */
+    public void setHttp2ConsumerFlowControlEnabled(boolean http2ConsumerFlowControlEnabled) {
+        this.http2ConsumerFlowControlEnabled = http2ConsumerFlowControlEnabled;
+    }
+
+    public int getHttp2MaxBufferedBytesPerStream() {
+        return http2MaxBufferedBytesPerStream;
+    }
+
+    /**
+     * Sets the maximum unread request content buffered per HTTP/2 stream when consumer driven flow control is
+     * enabled. This is advertised to the client as the initial stream window size.
+     *
+     * @param http2MaxBufferedBytesPerStream maximum buffered bytes per stream
+     */
+    public void setHttp2MaxBufferedBytesPerStream(int http2MaxBufferedBytesPerStream) {
+        this.http2MaxBufferedBytesPerStream = http2MaxBufferedBytesPerStream;
+    }
+
+    public int getHttp2MaxBufferedBytesPerConnection() {
+        return http2MaxBufferedBytesPerConnection;
+    }
+
+    /**
+     * Sets the maximum unread request content buffered across all the streams of an HTTP/2 connection when consumer
+     * driven flow control is enabled. This is used as the connection window size. A size below the default window
+     * of 65535 bytes applies once the client has used up the default window.
+     *
+     * @param http2MaxBufferedBytesPerConnection maximum buffered bytes per connection
+     */
+    public void setHttp2MaxBufferedBytesPerConnection(int http2MaxBufferedBytesPerConnection) {
+        this.http2MaxBufferedBytesPerConnection = http2MaxBufferedBytesPerConnection;
+    }
+
+    public boolean isWriteCoalescingEnabled() {
+        return writeCoalescingEnabled;
+    }
+
+    /**
+     * Sets whether the flushes of HTTP/1.x response bodies are coalesced, so that a body streamed as many small chunks
+     * is written to the socket in batches rather than chunk by chunk. A batch is flushed once the write coalescing
+     * threshold is reached, the last content is written, or the event loop has run the writes queued so far.
+     *
+     * @param writeCoalescingEnabled whether write coalescing is enabled
+     */
+    public void setWriteCoalescingEnabled(boolean writeCoalescingEnabled) {
+        this.writeCoalescingEnabled = writeCoalescingEnabled;
+    }
+
+    public int getWriteCoalescingThreshold() {
+        return writeCoalescingThreshold;
+    }
+
+    /**
+     * Sets the number of unflushed content bytes which forces a flush when write coalescing is enabled.
+     *
+     * @param writeCoalescingThreshold the flush threshold in bytes
+     */
+    public void setWriteCoalescingThreshold(int writeCoalescingThreshold) {
+        this.writeCoalescingThreshold = writeCoalescingThreshold;
+    }
+
+    public int getPipeliningLimit() {
+        return pipeliningLimit;
+    }
+
+    /**
+     * Sets the maximum number of pipelined requests on a connection which can await their responses at a time.
+     * Responses are always written in request order, so requests read beyond this limit are held back and the
+     * connection is not read further until an earlier response is written.
+     *
+     * @param pipeliningLimit the maximum number of outstanding pipelined requests per connection
+     */
+    public void setPipeliningLimit(int pipeliningLimit) {
+        this.pipeliningLimit = pipeliningLimit;
+    }
+
+    public int getTimeoutGranularity() {
+        return timeoutGranularity;
+    }
+
+    /**
+     * Sets the tick duration of the timer wheels the socket idle timeouts of the connections are tracked on. A
+     * timeout fires up to one tick after it is due, and a finer granularity wakes up the event loops more often.
+     *
+     * @param timeoutGranularity the tick duration in milliseconds
+     */
+    public void setTimeoutGranularity(int timeoutGranularity) {
+        this.timeoutGranularity = timeoutGranularity;
+    }
 }
@@ -18,11 +18,14 @@
  */
 package org.wso2.transport.http.netty.config;
 
+import io.netty.resolver.AddressResolverGroup;
+import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.ProxyServerConfiguration;
 import org.wso2.transport.http.netty.common.Util;
 import org.wso2.transport.http.netty.common.ssl.SSLConfig;
 import org.wso2.transport.http.netty.sender.channel.pool.PoolConfiguration;
 
+import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -90,8 +93,16 @@ public class SenderConfiguration {
     @XmlAttribute
     private int maxRedirectCount;
 
+    @XmlAttribute
+    private int permanentRedirectCacheSize;
+
+    @XmlAttribute
+    private boolean rejectCrossSchemeRedirects;
+
     private KeepAliveConfig keepAliveConfig = KeepAliveConfig.AUTO;
 
+    private EntityCollectorConfig entityCollectorConfig = EntityCollectorConfig.BLOCKING;
+
     @XmlAttribute
     private boolean forceHttp2 = false;
 
@@ -105,6 +116,14 @@ public class SenderConfiguration {
     private boolean hostNameVerificationEnabled = true;
     private ForwardedExtensionConfig forwardedExtensionConfig;
     private boolean ocspStaplingEnabled = false;
+    private boolean writeCoalescingEnabled = false;
+    private boolean jmxMetricsEnabled = false;
+    private int writeCoalescingThreshold = 16384;
+    private int firstByteTimeout = 0;
+    private int requestTimeout = 0;
+    private int timeoutGranularity = Constants.DEFAULT_TIMEOUT_GRANULARITY;
+    private DnsResolverConfig dnsResolverConfig = new DnsResolverConfig();
+    private AddressResolverGroup<? extends SocketAddress> addressResolverGroup;
 
     public SenderConfiguration() {
         this.poolConfiguration = new PoolConfiguration();
@@ -249,6 +268,37 @@ public class SenderConfiguration {
         this.maxRedirectCount = maxRedirectCount;
     }
 
+    public int getPermanentRedirectCacheSize() {
+        return permanentRedirectCacheSize;
+    }
+
+    /**
+     * Sets the number of permanent (301 and 308) redirects remembered when following redirects. Requests to a URL
+     * known to be permanently redirected are sent straight to the redirect location. A size of 0, the default,
+     * disables the cache.
+     *
+     * @param permanentRedirectCacheSize the maximum number of cached permanent redirects
+     */
+    public void setPermanentRedirectCacheSize(int permanentRedirectCacheSize) {
+        this.permanentRedirectCacheSize = permanentRedirectCacheSize;
+    }
+
+    public boolean isRejectCrossSchemeRedirects() {
+        return rejectCrossSchemeRedirects;
+    }
+
+    /**
+     * Sets whether a redirect to a location of another scheme fails the request with a
+     * {@link org.wso2.transport.http.netty.contract.ClientConnectorException} instead of being followed. By default
+     * such a redirect is followed through a new connection which is not pooled, since the pooled connections of a
+     * connector are all configured for its own scheme.
+     *
+     * @param rejectCrossSchemeRedirects whether redirects to another scheme are rejected
+     */
+    public void setRejectCrossSchemeRedirects(boolean rejectCrossSchemeRedirects) {
+        this.rejectCrossSchemeRedirects = rejectCrossSchemeRedirects;
+    }
+
     public KeepAliveConfig getKeepAliveConfig() {
         return keepAliveConfig;
     }
@@ -257,6 +307,14 @@ public class SenderConfiguration {
         this.keepAliveConfig = keepAliveConfig;
     }
 
+    public EntityCollectorConfig getEntityCollectorConfig() {
+        return entityCollectorConfig;
+    }
+
+    public void setEntityCollectorConfig(EntityCollectorConfig entityCollectorConfig) {
+        this.entityCollectorConfig = entityCollectorConfig;
+    }
+
     public void setProxyServerConfiguration(ProxyServerConfiguration proxyServerConfiguration) {
         this.proxyServerConfiguration = proxyServerConfiguration;
     }
@@ -338,4 +396,112 @@ public class SenderConfiguration {
     public void setForwardedExtensionConfig(ForwardedExtensionConfig forwardedExtensionEnabled) {
         this.forwardedExtensionConfig = forwardedExtensionEnabled;
     }
+
+    public boolean isWriteCoalescingEnabled() {
+        return writeCoalescingEnabled;
+    }
+
+    /**
+     * Sets whether the flushes of HTTP/1.x request bodies are coalesced, so that a body streamed as many small chunks
+     * is written to the socket in batches rather than chunk by chunk. A batch is flushed once the write coalescing
+     * threshold is reached, the last content is written, or the event loop has run the writes queued so far.
+     *
+     * @param writeCoalescingEnabled whether write coalescing is enabled
+     */
+    public void setWriteCoalescingEnabled(boolean writeCoalescingEnabled) {
+        this.writeCoalescingEnabled = writeCoalescingEnabled;
+    }
+
+    public boolean isJmxMetricsEnabled() {
+        return jmxMetricsEnabled;
+    }
+
+    /**
+     * Sets whether the connection pool and TLS metrics of the connector are registered as MBeans. The MBeans are
+     * unregistered when the connector is closed, hence connectors which enable them have to be closed once they are
+     * no longer used.
+     *
+     * @param jmxMetricsEnabled whether the metrics of the connector are registered as MBeans
+     */
+    public void setJmxMetricsEnabled(boolean jmxMetricsEnabled) {
+        this.jmxMetricsEnabled = jmxMetricsEnabled;
+    }
+
+    public int getWriteCoalescingThreshold() {
+        return writeCoalescingThreshold;
+    }
+
+    /**
+     * Sets the number of unflushed content bytes which forces a flush when write coalescing is enabled.
+     *
+     * @param writeCoalescingThreshold the flush threshold in bytes
+     */
+    public void setWriteCoalescingThreshold(int writeCoalescingThreshold) {
+        this.writeCoalescingThreshold = writeCoalescingThreshold;
+    }
+
+    public DnsResolverConfig getDnsResolverConfig() {
+        return dnsResolverConfig;
+    }
+
+    public void setDnsResolverConfig(DnsResolverConfig dnsResolverConfig) {
+        this.dnsResolverConfig = dnsResolverConfig;
+    }
+
+    public AddressResolverGroup<? extends SocketAddress> getAddressResolverGroup() {
+        return addressResolverGroup;
+    }
+
+    /**
+     * Sets the resolver the hosts of client connections are resolved with, in place of the DNS resolver of the
+     * {@link DnsResolverConfig}. The resolver is expected to complete its resolutions without blocking the event
+     * loop.
+     *
+     * @param addressResolverGroup the resolver of the event loops of the client connector
+     */
+    public void setAddressResolverGroup(AddressResolverGroup<? extends SocketAddress> addressResolverGroup) {
+        this.addressResolverGroup = addressResolverGroup;
+    }
+
+    public int getFirstByteTimeout() {
+        return firstByteTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds within which the first data of the response has to arrive once a request is
+     * sent over an HTTP/1.x connection. 0 disables the timeout.
+     *
+     * @param firstByteTimeout the first byte timeout in milliseconds
+     */
+    public void setFirstByteTimeout(int firstByteTimeout) {
+        this.firstByteTimeout = firstByteTimeout;
+    }
+
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds within which the whole response to a request sent over an HTTP/1.x connection
+     * has to arrive, regardless of the activity on the connection. 0 disables the timeout.
+     *
+     * @param requestTimeout the total request timeout in milliseconds
+     */
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public int getTimeoutGranularity() {
+        return timeoutGranularity;
+    }
+
+    /**
+     * Sets the tick duration of the timer wheels the connect and request timeouts are tracked on. A timeout fires up
+     * to one tick after it is due, and a finer granularity wakes up the event loops more often.
+     *
+     * @param timeoutGranularity the tick duration in milliseconds
+     */
+    public void setTimeoutGranularity(int timeoutGranularity) {
+        this.timeoutGranularity = timeoutGranularity;
+    }
 }
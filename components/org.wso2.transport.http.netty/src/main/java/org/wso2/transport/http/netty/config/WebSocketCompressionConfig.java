@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.config;
+
+/**
+ * Configuration for the permessage-deflate compression of WebSocket messages.
+ */
+public class WebSocketCompressionConfig {
+
+    private boolean enabled;
+    private int compressionLevel = 6;
+    private int maxWindowBits = 15;
+    private boolean noContextTakeover = false;
+    private int minCompressionSize = 0;
+
+    /**
+     * Creates a configuration in which compression is disabled.
+     */
+    public WebSocketCompressionConfig() {
+        this(false);
+    }
+
+    public WebSocketCompressionConfig(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the compression extensions are offered by a client or accepted by a server during the handshake.
+     *
+     * @param enabled whether compression is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the deflate compression level, from 0 (no compression) to 9 (best compression).
+     *
+     * @param compressionLevel the compression level
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getMaxWindowBits() {
+        return maxWindowBits;
+    }
+
+    /**
+     * Sets the size of the LZ77 sliding window, as a base two logarithm from 8 to 15, which the peer is asked to
+     * compress its messages with. A smaller window lowers the memory held by each connection at the cost of the
+     * compression ratio.
+     *
+     * @param maxWindowBits the window size requested of the peer
+     */
+    public void setMaxWindowBits(int maxWindowBits) {
+        this.maxWindowBits = maxWindowBits;
+    }
+
+    public boolean isNoContextTakeover() {
+        return noContextTakeover;
+    }
+
+    /**
+     * Sets whether the peer is asked to reset its compression context after each message. This frees the peer from
+     * keeping the sliding window between messages at the cost of the compression ratio of similar messages.
+     *
+     * @param noContextTakeover whether the peer is asked not to take over the context
+     */
+    public void setNoContextTakeover(boolean noContextTakeover) {
+        this.noContextTakeover = noContextTakeover;
+    }
+
+    public int getMinCompressionSize() {
+        return minCompressionSize;
+    }
+
+    /**
+     * Sets the payload size in bytes below which complete messages are sent uncompressed, as deflating a small
+     * payload costs more CPU than it saves on the wire.
+     *
+     * @param minCompressionSize the minimum payload size to compress
+     */
+    public void setMinCompressionSize(int minCompressionSize) {
+        this.minCompressionSize = minCompressionSize;
+    }
+}
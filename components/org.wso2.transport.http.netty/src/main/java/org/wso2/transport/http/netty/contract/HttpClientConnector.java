@@ -34,6 +34,16 @@ public interface HttpClientConnector {
      */
     HttpResponseFuture connect();
 
+    /**
+     * Declares a back-end which is known up front, so that the minimum idle connections of the connection pool are
+     * opened to it in the background before the first request is sent, and are maintained afterwards.
+     *
+     * @param scheme scheme of the back-end, which must be the scheme of the connector
+     * @param host   host of the back-end
+     * @param port   port of the back-end
+     */
+    void warmUp(String scheme, String host, int port);
+
     /**
      * Send httpMessages to the back-end in asynchronous manner.
      *
@@ -43,7 +53,8 @@ public interface HttpClientConnector {
     HttpResponseFuture send(HTTPCarbonMessage httpCarbonMessage);
 
     /**
-     * Close the connection related to this connector.
+     * Close the connections related to this connector and release the resources it holds. Connections which are in
+     * use are closed once their response is received.
      *
      * @return return the status of the close action.
      */
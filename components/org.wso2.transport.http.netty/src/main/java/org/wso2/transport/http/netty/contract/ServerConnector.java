@@ -35,6 +35,13 @@ public interface ServerConnector {
      */
     boolean stop();
 
+    /**
+     * Re-read the key store and the trust store of a secured server-connector so that new connections are
+     * served with the rotated certificates. Connections which are already established are not affected.
+     * @throws ServerConnectorException if SSL is not configured or the SSL context cannot be rebuilt.
+     */
+    void reloadSslContext() throws ServerConnectorException;
+
     /**
      * Returns the unique ID of the server-connector.
      * @return the id.
@@ -21,6 +21,7 @@ package org.wso2.transport.http.netty.contract;
 
 import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketInitMessage;
@@ -127,6 +128,14 @@ public interface ServerConnectorFuture {
      */
     void notifyWSIdleTimeout(WebSocketControlMessage controlMessage) throws ServerConnectorException;
 
+    /**
+     * Notify the change of the writability of a WebSocket connection.
+     *
+     * @param webSocketConnection {@link WebSocketConnection} of which the writability changed.
+     * @throws ServerConnectorException if any error occurred during the notification.
+     */
+    void notifyWSWritabilityChanged(WebSocketConnection webSocketConnection) throws ServerConnectorException;
+
     /**
      * Notify error messages to the listener.
      *
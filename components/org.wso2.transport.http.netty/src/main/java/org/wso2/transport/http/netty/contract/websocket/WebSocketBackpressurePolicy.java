@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.websocket;
+
+/**
+ * What a {@link WebSocketConnection} does with outbound messages once it has stayed unwritable beyond its deadline,
+ * that is once the remote endpoint does not read the frames as fast as they are pushed.
+ */
+public enum WebSocketBackpressurePolicy {
+
+    /**
+     * Keep buffering every message until the connection becomes writable again.
+     */
+    NONE,
+
+    /**
+     * Drop the messages pushed while the connection stays unwritable.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Hold the messages pushed while the connection stays unwritable up to the high water mark of the connection,
+     * dropping the oldest held messages to make room for newer ones. Held messages are sent once the connection
+     * becomes writable again.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Close the connection.
+     */
+    CLOSE
+}
@@ -19,6 +19,8 @@
 
 package org.wso2.transport.http.netty.contract.websocket;
 
+import io.netty.buffer.ByteBuf;
+
 import java.nio.ByteBuffer;
 
 /**
@@ -40,6 +42,18 @@ public interface WebSocketBinaryMessage extends WebSocketMessage {
      */
     byte[] getByteArray();
 
+    /**
+     * Get the binary data without copying it out of the received frame. <br>
+     * <b>The returned buffer holds a reference of its own, hence it stays valid after the listener method which
+     * received this message returns. The caller must either {@link ByteBuf#release()} it once done with it, or hand
+     * it over to a push method of the connection, which releases it once written. Once this method is called, the
+     * data is no longer copied out of the frame when the listener method returns, hence the other accessors of the
+     * message are only usable within the listener method.</b>
+     *
+     * @return binary data as a {@link ByteBuf}.
+     */
+    ByteBuf getByteBuf();
+
     /**
      * Check whether the message is a final fragment. <br>
      * <b> This is true if the user receives single messages and not a fragments of a message. So if the user is
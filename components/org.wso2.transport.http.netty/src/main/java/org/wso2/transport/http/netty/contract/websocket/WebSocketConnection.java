@@ -1,5 +1,7 @@
 package org.wso2.transport.http.netty.contract.websocket;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 
 import java.nio.ByteBuffer;
@@ -87,6 +89,41 @@ public interface WebSocketConnection {
      */
     ChannelFuture pushBinary(ByteBuffer data, boolean finalFrame);
 
+    /**
+     * Push text frame to the WebSocket connection asynchronously without copying the given UTF-8 encoded text.
+     *
+     * <br><b>Note: The ownership of the buffer is transferred to the connection, which releases it once the frame is
+     * written or could not be sent. Call {@link ByteBuf#retain()} before pushing to keep using the buffer.</b>
+     *
+     * @param utf8Text UTF-8 encoded text to be sent.
+     * @param finalFrame true if sending final frame.
+     * @return Future to represent the completion of asynchronous frame sending.
+     */
+    ChannelFuture pushText(ByteBuf utf8Text, boolean finalFrame);
+
+    /**
+     * Push binary frame to the WebSocket connection asynchronously without copying the given data.
+     *
+     * <br><b>Note: The ownership of the buffer is transferred to the connection, which releases it once the frame is
+     * written or could not be sent. Call {@link ByteBuf#retain()} before pushing to keep using the buffer.</b>
+     *
+     * @param data binary data to be sent.
+     * @return Future to represent the completion of asynchronous frame sending.
+     */
+    ChannelFuture pushBinary(ByteBuf data);
+
+    /**
+     * Push binary frame to the WebSocket connection asynchronously without copying the given data.
+     *
+     * <br><b>Note: The ownership of the buffer is transferred to the connection, which releases it once the frame is
+     * written or could not be sent. Call {@link ByteBuf#retain()} before pushing to keep using the buffer.</b>
+     *
+     * @param data binary data to be sent.
+     * @param finalFrame true if sending final frame.
+     * @return Future to represent the completion of asynchronous frame sending.
+     */
+    ChannelFuture pushBinary(ByteBuf data, boolean finalFrame);
+
     /**
      * Ping remote endpoint asynchronously.
      *
@@ -103,6 +140,58 @@ public interface WebSocketConnection {
      */
     ChannelFuture pong(ByteBuffer data);
 
+    /**
+     * Ping remote endpoint asynchronously. The ownership of the buffer is transferred to the connection.
+     *
+     * @param data data to be sent with ping frame.
+     * @return Future to represent the completion of asynchronous frame sending.
+     */
+    ChannelFuture ping(ByteBuf data);
+
+    /**
+     * Send pong to remote endpoint asynchronously. The ownership of the buffer is transferred to the connection.
+     *
+     * @param data data to be sent with pong frame.
+     * @return Future to represent the completion of asynchronous frame sending.
+     */
+    ChannelFuture pong(ByteBuf data);
+
+    /**
+     * Get the allocator of the connection. Buffers allocated from it are pooled when the transport uses pooled
+     * buffers, which makes them the cheapest to push through the {@link ByteBuf} based methods.
+     *
+     * @return the {@link ByteBufAllocator} of the connection.
+     */
+    ByteBufAllocator getAllocator();
+
+    /**
+     * Check whether the connection can take more frames without exceeding the high water mark of its write buffer.
+     * Frames pushed while the connection is not writable are buffered, or dealt with as the backpressure policy
+     * decides once the connection stays unwritable beyond its deadline.
+     *
+     * @return true if the connection is writable.
+     */
+    boolean isWritable();
+
+    /**
+     * Set the water marks of the write buffer of the connection. The connection becomes unwritable once the bytes
+     * waiting to be written exceed the high water mark, and writable again once they fall below the low water mark.
+     * {@link WebSocketConnectorListener#onWritabilityChanged(WebSocketConnection)} is notified on each change.
+     *
+     * @param lowWaterMark low water mark of the write buffer in bytes.
+     * @param highWaterMark high water mark of the write buffer in bytes.
+     */
+    void setWriteBufferWaterMark(int lowWaterMark, int highWaterMark);
+
+    /**
+     * Set what the connection does with pushed messages once it stays unwritable beyond the given deadline. Frames
+     * of a message which has been partly sent are always sent, so that the message is not cut short.
+     *
+     * @param policy {@link WebSocketBackpressurePolicy} to apply.
+     * @param unwritableTimeoutInMillis time the connection may stay unwritable before the policy applies.
+     */
+    void setBackpressurePolicy(WebSocketBackpressurePolicy policy, int unwritableTimeoutInMillis);
+
     /**
      * Initiate connection closure.
      *
@@ -113,7 +202,9 @@ public interface WebSocketConnection {
      *                      <p>If the timeout exceeds then the connection will be terminated even though a close frame
      *                      is not received from the remote backend. If the value is -1 the connection will wait until
      *                      a close frame is received.</p>
-     * @return Future to represent the completion of asynchronous frame sending.
+     * @return Future which completes once the closing handshake is over and the connection is being closed, either
+     * because the remote endpoint answered the close frame, the timeout exceeded or the connection was dropped. Fails
+     * if the close frame could not be sent.
      */
     ChannelFuture initiateConnectionClosure(int statusCode, String reason, int timeoutInSecs);
 
@@ -74,4 +74,13 @@ public interface WebSocketConnectorListener {
      */
     void onIdleTimeout(WebSocketControlMessage controlMessage);
 
+    /**
+     * This is triggered when a WebSocket connection becomes unwritable as its write buffer exceeds the high water
+     * mark, or writable again as the buffer falls below the low water mark.
+     *
+     * @param webSocketConnection {@link WebSocketConnection} of which the writability changed.
+     */
+    default void onWritabilityChanged(WebSocketConnection webSocketConnection) {
+    }
+
 }
@@ -19,6 +19,8 @@
 
 package org.wso2.transport.http.netty.contract.websocket;
 
+import org.wso2.transport.http.netty.config.WebSocketCompressionConfig;
+
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +36,7 @@ public class WsClientConnectorConfig {
     private int idleTimeoutInSeconds;
     private boolean autoRead;
     private final Map<String, String> headers = new HashMap<>();
+    private WebSocketCompressionConfig compressionConfig = new WebSocketCompressionConfig(true);
 
     public WsClientConnectorConfig(String remoteAddress) {
         this.remoteAddress = remoteAddress;
@@ -175,4 +178,22 @@ public class WsClientConnectorConfig {
     public void setIdleTimeoutInMillis(int idleTimeoutInSeconds) {
         this.idleTimeoutInSeconds = idleTimeoutInSeconds;
     }
+
+    /**
+     * Get the permessage-deflate compression configuration.
+     *
+     * @return the compression configuration.
+     */
+    public WebSocketCompressionConfig getCompressionConfig() {
+        return compressionConfig;
+    }
+
+    /**
+     * Set the permessage-deflate compression configuration. Compression is offered to the server by default.
+     *
+     * @param compressionConfig the compression configuration.
+     */
+    public void setCompressionConfig(WebSocketCompressionConfig compressionConfig) {
+        this.compressionConfig = compressionConfig;
+    }
 }
@@ -24,6 +24,7 @@ import io.netty.channel.ChannelFuture;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
@@ -42,6 +43,8 @@ import org.wso2.transport.http.netty.message.Http2PushPromise;
 import org.wso2.transport.http.netty.message.Http2Reset;
 import org.wso2.transport.http.netty.message.ResponseHandle;
 import org.wso2.transport.http.netty.sender.ConnectionAvailabilityListener;
+import org.wso2.transport.http.netty.sender.PermanentRedirectCache;
+import org.wso2.transport.http.netty.sender.RedirectUtil;
 import org.wso2.transport.http.netty.sender.channel.TargetChannel;
 import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
 import org.wso2.transport.http.netty.sender.http2.Http2ClientChannel;
@@ -49,7 +52,9 @@ import org.wso2.transport.http.netty.sender.http2.Http2ConnectionManager;
 import org.wso2.transport.http.netty.sender.http2.OutboundMsgHolder;
 import org.wso2.transport.http.netty.sender.http2.TimeoutHandler;
 
-import java.util.NoSuchElementException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
 
 /**
  * Implementation of the client connector.
@@ -63,21 +68,35 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
     private SenderConfiguration senderConfiguration;
     private SSLConfig sslConfig;
     private int socketIdleTimeout;
+    private int firstByteTimeout;
+    private int requestTimeout;
     private boolean followRedirect;
     private String httpVersion;
     private ChunkConfig chunkConfig;
     private KeepAliveConfig keepAliveConfig;
     private boolean isHttp2;
     private ForwardedExtensionConfig forwardedExtensionConfig;
+    private final int maxRedirectCount;
+    private final boolean rejectCrossSchemeRedirects;
+    private PermanentRedirectCache permanentRedirectCache;
 
     public DefaultHttpClientConnector(ConnectionManager connectionManager, SenderConfiguration senderConfiguration) {
         this.connectionManager = connectionManager;
         this.http2ConnectionManager = connectionManager.getHttp2ConnectionManager();
         this.senderConfiguration = senderConfiguration;
+        this.maxRedirectCount = senderConfiguration.getMaxRedirectCount(Constants.MAX_REDIRECT_COUNT);
+        this.rejectCrossSchemeRedirects = senderConfiguration.isRejectCrossSchemeRedirects();
         initTargetChannelProperties(senderConfiguration);
+        if (followRedirect && senderConfiguration.getPermanentRedirectCacheSize() > 0) {
+            permanentRedirectCache = new PermanentRedirectCache(senderConfiguration.getPermanentRedirectCacheSize());
+        }
         String httpVersion = senderConfiguration.getHttpVersion();
         if (Float.valueOf(httpVersion) == Constants.HTTP_2_0) {
             isHttp2 = true;
+            // Connections can only be opened in advance when HTTP/2 is negotiated without an upgrade request
+            if (sslConfig != null || senderConfiguration.isForceHttp2()) {
+                http2ConnectionManager.setConnectionOpener(this::openHttp2Connection);
+            }
         }
     }
 
@@ -86,6 +105,15 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
         return null;
     }
 
+    @Override
+    public void warmUp(String scheme, String host, int port) {
+        if (!scheme.equalsIgnoreCase(senderConfiguration.getScheme())) {
+            throw new IllegalArgumentException("Scheme " + scheme + " does not match the scheme of the connector "
+                    + senderConfiguration.getScheme());
+        }
+        connectionManager.warmUp(new HttpRoute(host, port));
+    }
+
     @Override
     public HttpResponseFuture getResponse(ResponseHandle responseHandle) {
         return responseHandle.getOutboundMsgHolder().getResponseFuture();
@@ -123,7 +151,8 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
 
     @Override
     public boolean close() {
-        return false;
+        connectionManager.shutdown();
+        return true;
     }
 
     @Override
@@ -142,6 +171,9 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
                         + " Message is not originated from the HTTP Server connector");
             }
         }
+        if (permanentRedirectCache != null) {
+            applyPermanentRedirects(httpOutboundRequest);
+        }
 
         try {
             /*
@@ -166,91 +198,213 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
             }
 
             // Look for the connection from http connection manager
-            TargetChannel targetChannel = connectionManager.borrowTargetChannel(route, srcHandler, senderConfiguration);
-            Http2ClientChannel freshHttp2ClientChannel = targetChannel.getHttp2ClientChannel();
-            outboundMsgHolder.setHttp2ClientChannel(freshHttp2ClientChannel);
             httpResponseFuture = outboundMsgHolder.getResponseFuture();
+            connectionManager.acquireTargetChannel(route, srcHandler, senderConfiguration).addListener(
+                    (Future<TargetChannel> acquireFuture) -> {
+                        if (acquireFuture.isSuccess()) {
+                            executeOutboundRequest(acquireFuture.getNow(), route, outboundMsgHolder,
+                                    httpOutboundRequest, httpResponseFuture);
+                        } else {
+                            httpResponseFuture.notifyHttpListener(acquireFuture.cause());
+                        }
+                    });
+        } catch (Exception failedCause) {
+            HttpResponseFuture errorResponseFuture = new DefaultHttpResponseFuture();
+            errorResponseFuture.notifyHttpListener(failedCause);
+            return errorResponseFuture;
+        }
+        return httpResponseFuture;
+    }
 
-            targetChannel.getConnenctionReadyFuture().setListener(new ConnectionAvailabilityListener() {
-                @Override
-                public void onSuccess(String protocol, ChannelFuture channelFuture) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Created the connection to address: {}",
-                                route.toString() + " " + "Original Channel ID is : " + channelFuture.channel().id());
-                    }
-                    if (srcHandler != null) {
-                        channelFuture.channel().deregister().addListener(future ->
-                                srcHandler.getEventLoop().register(channelFuture.channel()).addListener(
-                                        future1 -> startExecutingOutboundRequest(protocol, channelFuture)));
-                    } else {
-                        startExecutingOutboundRequest(protocol, channelFuture);
-                    }
-                }
+    /**
+     * Remembers a permanent redirect so that later GET requests to the same URL are sent straight to the location.
+     *
+     * @param redirectedRequest the request which got redirected
+     * @param statusCode        the status code of the redirect response
+     * @param location          the absolute URL the request got redirected to
+     */
+    public void cachePermanentRedirect(HTTPCarbonMessage redirectedRequest, int statusCode, String location) {
+        if (permanentRedirectCache == null || (statusCode != HttpResponseStatus.MOVED_PERMANENTLY.code()
+                && statusCode != HttpResponseStatus.PERMANENT_REDIRECT.code())
+                || !Constants.HTTP_GET_METHOD.equals(redirectedRequest.getProperty(Constants.HTTP_METHOD))) {
+            return;
+        }
+        // Only the locations this connector can connect to are worth remembering
+        if (location.toLowerCase(Locale.ROOT).startsWith(getScheme() + Constants.URL_AUTHORITY)) {
+            permanentRedirectCache.put(RedirectUtil.getRequestURL(redirectedRequest, getScheme()), location);
+        }
+    }
 
-                private void startExecutingOutboundRequest(String protocol, ChannelFuture channelFuture) {
-                    if (protocol.equalsIgnoreCase(Constants.HTTP2_CLEARTEXT_PROTOCOL)
-                            || protocol.equalsIgnoreCase(Constants.HTTP2_TLS_PROTOCOL)) {
-                        prepareTargetChannelForHttp2(channelFuture);
-                    } else {
-                        // Response for the upgrade request will arrive in stream 1,
-                        // so use 1 as the stream id.
-                        prepareTargetChannelForHttp(channelFuture);
-                        targetChannel.writeContent(httpOutboundRequest);
-                    }
-                }
+    public int getMaxRedirectCount() {
+        return maxRedirectCount;
+    }
+
+    public boolean isRejectCrossSchemeRedirects() {
+        return rejectCrossSchemeRedirects;
+    }
 
-                private void prepareTargetChannelForHttp2(ChannelFuture channelFuture) {
-                    freshHttp2ClientChannel.setSocketIdleTimeout(socketIdleTimeout);
-                    connectionManager.getHttp2ConnectionManager().
-                            addHttp2ClientChannel(route, freshHttp2ClientChannel);
-                    freshHttp2ClientChannel.addDataEventListener(Constants.IDLE_STATE_HANDLER,
-                            new TimeoutHandler(socketIdleTimeout, freshHttp2ClientChannel));
+    public PermanentRedirectCache getPermanentRedirectCache() {
+        return permanentRedirectCache;
+    }
 
-                    if (followRedirect) {
-                        setChannelAttributes(channelFuture.channel(), httpOutboundRequest,
-                                httpResponseFuture, targetChannel);
+    private void applyPermanentRedirects(HTTPCarbonMessage httpOutboundRequest) {
+        if (!Constants.HTTP_GET_METHOD.equals(httpOutboundRequest.getProperty(Constants.HTTP_METHOD))) {
+            return;
+        }
+        String location = RedirectUtil.getRequestURL(httpOutboundRequest, getScheme());
+        String resolvedLocation = null;
+        // Follow a chain of permanent redirects, bounded in case the cached redirects form a loop
+        for (int hops = 0; hops < maxRedirectCount; hops++) {
+            String nextLocation = permanentRedirectCache.get(location);
+            if (nextLocation == null) {
+                break;
+            }
+            location = nextLocation;
+            resolvedLocation = nextLocation;
+        }
+        if (resolvedLocation == null) {
+            return;
+        }
+        try {
+            RedirectUtil.setRequestLocation(httpOutboundRequest, new URL(resolvedLocation));
+            httpOutboundRequest.setProperty(Constants.RESOLVED_REQUESTED_URI, resolvedLocation);
+            if (log.isDebugEnabled()) {
+                log.debug("Sending the request straight to the permanent redirect location " + resolvedLocation);
+            }
+        } catch (MalformedURLException e) {
+            log.warn("Ignoring the malformed permanent redirect location " + resolvedLocation);
+        }
+    }
+
+    private String getScheme() {
+        return sslConfig != null ? Constants.HTTPS_SCHEME : Constants.HTTP_SCHEME;
+    }
+
+    /**
+     * Opens a HTTP/2 connection to the route in the background and hands it over to the HTTP/2 connection manager.
+     */
+    private void openHttp2Connection(HttpRoute route) {
+        connectionManager.acquireTargetChannel(route, null, senderConfiguration).addListener(
+                (Future<TargetChannel> acquireFuture) -> {
+                    if (!acquireFuture.isSuccess()) {
+                        http2ConnectionManager.completeConnectionOpening(route, null);
+                        return;
                     }
-                    freshHttp2ClientChannel.getChannel().eventLoop().execute(
-                            () -> freshHttp2ClientChannel.getChannel().write(outboundMsgHolder));
-                    httpResponseFuture.notifyResponseHandle(new ResponseHandle(outboundMsgHolder));
+                    TargetChannel targetChannel = acquireFuture.getNow();
+                    targetChannel.getConnenctionReadyFuture().setListener(new ConnectionAvailabilityListener() {
+                        @Override
+                        public void onSuccess(String protocol, ChannelFuture channelFuture) {
+                            if (protocol.equalsIgnoreCase(Constants.HTTP2_CLEARTEXT_PROTOCOL)
+                                    || protocol.equalsIgnoreCase(Constants.HTTP2_TLS_PROTOCOL)) {
+                                Http2ClientChannel http2ClientChannel = targetChannel.getHttp2ClientChannel();
+                                http2ClientChannel.setSocketIdleTimeout(socketIdleTimeout);
+                                connectionManager.detachTargetChannel(targetChannel);
+                                http2ClientChannel.addDataEventListener(Constants.IDLE_STATE_HANDLER,
+                                        new TimeoutHandler(socketIdleTimeout, http2ClientChannel));
+                                http2ConnectionManager.completeConnectionOpening(route, http2ClientChannel);
+                            } else {
+                                releaseTargetChannel(targetChannel, false);
+                                http2ConnectionManager.completeConnectionOpening(route, null);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(ClientConnectorException cause) {
+                            releaseTargetChannel(targetChannel, true);
+                            http2ConnectionManager.completeConnectionOpening(route, null);
+                            if (log.isDebugEnabled()) {
+                                log.debug("Could not open a HTTP/2 connection to {}", route, cause);
+                            }
+                        }
+                    });
+                });
+    }
+
+    private void releaseTargetChannel(TargetChannel targetChannel, boolean invalidate) {
+        try {
+            if (invalidate) {
+                connectionManager.invalidateTargetChannel(targetChannel);
+            } else {
+                connectionManager.returnChannel(targetChannel);
+            }
+        } catch (Exception e) {
+            log.error("Failed to release the connection to the pool", e);
+        }
+    }
+
+    private void executeOutboundRequest(TargetChannel targetChannel, HttpRoute route,
+                                        OutboundMsgHolder outboundMsgHolder, HTTPCarbonMessage httpOutboundRequest,
+                                        HttpResponseFuture httpResponseFuture) {
+        Http2ClientChannel freshHttp2ClientChannel = targetChannel.getHttp2ClientChannel();
+        outboundMsgHolder.setHttp2ClientChannel(freshHttp2ClientChannel);
+
+        targetChannel.getConnenctionReadyFuture().setListener(new ConnectionAvailabilityListener() {
+            @Override
+            public void onSuccess(String protocol, ChannelFuture channelFuture) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Created the connection to address: {}",
+                            route.toString() + " " + "Original Channel ID is : " + channelFuture.channel().id());
                 }
+                startExecutingOutboundRequest(protocol, channelFuture);
+            }
 
-                private void prepareTargetChannelForHttp(ChannelFuture channelFuture) {
+            private void startExecutingOutboundRequest(String protocol, ChannelFuture channelFuture) {
+                if (protocol.equalsIgnoreCase(Constants.HTTP2_CLEARTEXT_PROTOCOL)
+                        || protocol.equalsIgnoreCase(Constants.HTTP2_TLS_PROTOCOL)) {
+                    prepareTargetChannelForHttp2(channelFuture);
+                } else {
                     // Response for the upgrade request will arrive in stream 1,
                     // so use 1 as the stream id.
+                    prepareTargetChannelForHttp(channelFuture);
+                    targetChannel.writeContent(httpOutboundRequest);
+                }
+            }
+
+            private void prepareTargetChannelForHttp2(ChannelFuture channelFuture) {
+                freshHttp2ClientChannel.setSocketIdleTimeout(socketIdleTimeout);
+                connectionManager.detachTargetChannel(targetChannel);
+                connectionManager.getHttp2ConnectionManager().
+                        addHttp2ClientChannel(route, freshHttp2ClientChannel);
+                freshHttp2ClientChannel.addDataEventListener(Constants.IDLE_STATE_HANDLER,
+                        new TimeoutHandler(socketIdleTimeout, freshHttp2ClientChannel));
+
+                if (followRedirect) {
+                    setChannelAttributes(channelFuture.channel(), outboundMsgHolder, httpOutboundRequest,
+                            httpResponseFuture, targetChannel);
+                }
+                freshHttp2ClientChannel.getChannel().eventLoop().execute(
+                        () -> freshHttp2ClientChannel.getChannel().write(outboundMsgHolder));
+                httpResponseFuture.notifyResponseHandle(new ResponseHandle(outboundMsgHolder));
+            }
+
+            private void prepareTargetChannelForHttp(ChannelFuture channelFuture) {
+                // Response for the upgrade request will arrive in stream 1,
+                // so use 1 as the stream id.
+                if (freshHttp2ClientChannel != null) {
                     freshHttp2ClientChannel.putInFlightMessage(Http2CodecUtil.HTTP_UPGRADE_STREAM_ID,
                             outboundMsgHolder);
-                    httpResponseFuture.notifyResponseHandle(new ResponseHandle(outboundMsgHolder));
-                    targetChannel.setChannel(channelFuture.channel());
-                    targetChannel.configTargetHandler(httpOutboundRequest, httpResponseFuture);
-                    targetChannel.setEndPointTimeout(socketIdleTimeout, followRedirect);
-                    targetChannel.setCorrelationIdForLogging();
-                    targetChannel.setHttpVersion(httpVersion);
-                    targetChannel.setChunkConfig(chunkConfig);
-                    if (followRedirect) {
-                        setChannelAttributes(channelFuture.channel(), httpOutboundRequest,
-                                httpResponseFuture, targetChannel);
-                    }
-                    handleOutboundConnectionHeader(keepAliveConfig, httpOutboundRequest);
-                    targetChannel
-                            .setForwardedExtension(forwardedExtensionConfig, httpOutboundRequest);
                 }
-
-                @Override
-                public void onFailure(ClientConnectorException cause) {
-                    httpResponseFuture.notifyHttpListener(cause);
+                httpResponseFuture.notifyResponseHandle(new ResponseHandle(outboundMsgHolder));
+                targetChannel.setChannel(channelFuture.channel());
+                targetChannel.configTargetHandler(httpOutboundRequest, httpResponseFuture);
+                targetChannel.setEndPointTimeout(socketIdleTimeout, firstByteTimeout, requestTimeout);
+                targetChannel.setCorrelationIdForLogging();
+                targetChannel.setHttpVersion(httpVersion);
+                targetChannel.setChunkConfig(chunkConfig);
+                if (followRedirect) {
+                    setChannelAttributes(channelFuture.channel(), outboundMsgHolder, httpOutboundRequest,
+                            httpResponseFuture, targetChannel);
                 }
-            });
-        } catch (Exception failedCause) {
-            if (failedCause instanceof NoSuchElementException
-                    && "Timeout waiting for idle object".equals(failedCause.getMessage())) {
-                failedCause = new NoSuchElementException(Constants.MAXIMUM_WAIT_TIME_EXCEED);
+                handleOutboundConnectionHeader(keepAliveConfig, httpOutboundRequest);
+                targetChannel
+                        .setForwardedExtension(forwardedExtensionConfig, httpOutboundRequest);
             }
-            HttpResponseFuture errorResponseFuture = new DefaultHttpResponseFuture();
-            errorResponseFuture.notifyHttpListener(failedCause);
-            return errorResponseFuture;
-        }
-        return httpResponseFuture;
+
+            @Override
+            public void onFailure(ClientConnectorException cause) {
+                httpResponseFuture.notifyHttpListener(cause);
+            }
+        });
     }
 
     private HttpRoute getTargetRoute(HTTPCarbonMessage httpCarbonMessage) {
@@ -290,18 +444,20 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
      * Set following attributes to original channel when redirect is on.
      *
      * @param channel            Original channel
+     * @param outboundMsgHolder  Holder of the outbound invocation, which carries it across redirects
      * @param httpCarbonRequest  Http request
      * @param httpResponseFuture Response future
      * @param targetChannel      Target channel
      */
-    private void setChannelAttributes(Channel channel, HTTPCarbonMessage httpCarbonRequest,
-            HttpResponseFuture httpResponseFuture, TargetChannel targetChannel) {
+    private void setChannelAttributes(Channel channel, OutboundMsgHolder outboundMsgHolder,
+            HTTPCarbonMessage httpCarbonRequest, HttpResponseFuture httpResponseFuture, TargetChannel targetChannel) {
         channel.attr(Constants.ORIGINAL_REQUEST).set(httpCarbonRequest);
         channel.attr(Constants.RESPONSE_FUTURE_OF_ORIGINAL_CHANNEL).set(httpResponseFuture);
         channel.attr(Constants.TARGET_CHANNEL_REFERENCE).set(targetChannel);
         channel.attr(Constants.ORIGINAL_CHANNEL_START_TIME).set(System.currentTimeMillis());
         channel.attr(Constants.ORIGINAL_CHANNEL_TIMEOUT).set(socketIdleTimeout);
         channel.attr(Constants.CLIENT_CONNECTOR).set(this);
+        channel.attr(Constants.OUTBOUND_MSG_HOLDER).set(outboundMsgHolder);
     }
 
     private void initTargetChannelProperties(SenderConfiguration senderConfiguration) {
@@ -309,6 +465,8 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
         this.chunkConfig = senderConfiguration.getChunkingConfig();
         this.followRedirect = senderConfiguration.isFollowRedirect();
         this.socketIdleTimeout = senderConfiguration.getSocketIdleTimeout(Constants.ENDPOINT_TIMEOUT);
+        this.firstByteTimeout = senderConfiguration.getFirstByteTimeout();
+        this.requestTimeout = senderConfiguration.getRequestTimeout();
         this.sslConfig = senderConfiguration.getSSLConfig();
         this.keepAliveConfig = senderConfiguration.getKeepAliveConfig();
         this.forwardedExtensionConfig = senderConfiguration.getForwardedExtensionConfig();
@@ -22,9 +22,10 @@ package org.wso2.transport.http.netty.contractimpl;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.common.transport.Transport;
+import org.wso2.transport.http.netty.common.transport.Transports;
 import org.wso2.transport.http.netty.config.ListenerConfiguration;
 import org.wso2.transport.http.netty.config.SenderConfiguration;
 import org.wso2.transport.http.netty.contract.HttpClientConnector;
@@ -45,21 +46,37 @@ import java.util.Map;
  */
 public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
 
+    private final Transport transport;
     private final EventLoopGroup bossGroup;
     private final EventLoopGroup workerGroup;
     private final EventLoopGroup clientGroup;
     private final ChannelGroup allChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
 
     public DefaultHttpWsConnectorFactory() {
-        bossGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors());
-        workerGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors() * 2);
-        clientGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors() * 2);
+        this(Transports.NIO);
+    }
+
+    /**
+     * Creates a connector factory on the given socket transport, or on NIO if the transport is not available on the
+     * running platform.
+     *
+     * @param transportName name of the transport, e.g. {@link Transports#EPOLL}
+     */
+    public DefaultHttpWsConnectorFactory(String transportName) {
+        this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors() * 2,
+             Runtime.getRuntime().availableProcessors() * 2, transportName);
     }
 
     public DefaultHttpWsConnectorFactory(int serverSocketThreads, int childSocketThreads, int clientThreads) {
-        bossGroup = new NioEventLoopGroup(serverSocketThreads);
-        workerGroup = new NioEventLoopGroup(childSocketThreads);
-        clientGroup = new NioEventLoopGroup(clientThreads);
+        this(serverSocketThreads, childSocketThreads, clientThreads, Transports.NIO);
+    }
+
+    public DefaultHttpWsConnectorFactory(int serverSocketThreads, int childSocketThreads, int clientThreads,
+                                         String transportName) {
+        transport = Transports.getTransport(transportName);
+        bossGroup = transport.newEventLoopGroup(serverSocketThreads);
+        workerGroup = transport.newEventLoopGroup(childSocketThreads);
+        clientGroup = transport.newEventLoopGroup(clientThreads);
     }
 
     @Override
@@ -73,16 +90,25 @@ public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
         serverConnectorBootstrap.addCacheSize(listenerConfig.getCacheSize());
         serverConnectorBootstrap.addOcspStapling(listenerConfig.isOcspStaplingEnabled());
         serverConnectorBootstrap.addIdleTimeout(listenerConfig.getSocketIdleTimeout(120000));
+        serverConnectorBootstrap.addTimeoutGranularity(listenerConfig.getTimeoutGranularity());
         if (Constants.HTTP_2_0 == Float.valueOf(listenerConfig.getVersion())) {
             serverConnectorBootstrap.setHttp2Enabled(true);
         }
         serverConnectorBootstrap.addHttpTraceLogHandler(listenerConfig.isHttpTraceLogEnabled());
         serverConnectorBootstrap.addHttpAccessLogHandler(listenerConfig.isHttpAccessLogEnabled());
-        serverConnectorBootstrap.addThreadPools(bossGroup, workerGroup);
+        serverConnectorBootstrap.addThreadPools(transport, bossGroup, workerGroup);
         serverConnectorBootstrap.addHeaderAndEntitySizeValidation(listenerConfig.getRequestSizeValidationConfig());
         serverConnectorBootstrap.addChunkingBehaviour(listenerConfig.getChunkConfig());
         serverConnectorBootstrap.addKeepAliveBehaviour(listenerConfig.getKeepAliveConfig());
         serverConnectorBootstrap.addServerHeader(listenerConfig.getServerHeader());
+        serverConnectorBootstrap.addEntityCollector(listenerConfig.getEntityCollectorConfig());
+        serverConnectorBootstrap.addHttp2FlowControl(listenerConfig.isHttp2ConsumerFlowControlEnabled(),
+                                                     listenerConfig.getHttp2MaxBufferedBytesPerStream(),
+                                                     listenerConfig.getHttp2MaxBufferedBytesPerConnection());
+        serverConnectorBootstrap.addWriteCoalescing(listenerConfig.isWriteCoalescingEnabled(),
+                                                    listenerConfig.getWriteCoalescingThreshold());
+        serverConnectorBootstrap.addPipeliningLimit(listenerConfig.getPipeliningLimit());
+        serverConnectorBootstrap.addWebSocketCompression(listenerConfig.getWebSocketCompressionConfig());
 
         return serverConnectorBootstrap.getServerConnector(listenerConfig.getHost(), listenerConfig.getPort());
     }
@@ -91,7 +117,8 @@ public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
     public HttpClientConnector createHttpClientConnector(
             Map<String, Object> transportProperties, SenderConfiguration senderConfiguration) {
         BootstrapConfiguration bootstrapConfig = new BootstrapConfiguration(transportProperties);
-        ConnectionManager connectionManager = new ConnectionManager(senderConfiguration, bootstrapConfig, clientGroup);
+        ConnectionManager connectionManager = new ConnectionManager(senderConfiguration, bootstrapConfig, clientGroup,
+                                                                    workerGroup);
         return new DefaultHttpClientConnector(connectionManager, senderConfiguration);
     }
 
@@ -100,6 +127,13 @@ public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
         return new DefaultWebSocketClientConnector(clientConnectorConfig, clientGroup);
     }
 
+    /**
+     * @return the socket transport the connectors of this factory are built on
+     */
+    public Transport getTransport() {
+        return transport;
+    }
+
     @Override
     public void shutdown() throws InterruptedException {
         this.allChannels.close().sync();
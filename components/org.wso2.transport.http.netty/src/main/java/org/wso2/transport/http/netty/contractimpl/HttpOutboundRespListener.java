@@ -37,6 +37,7 @@ import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.internal.HTTPTransportContextHolder;
 import org.wso2.transport.http.netty.internal.HandlerExecutor;
 import org.wso2.transport.http.netty.listener.RequestDataHolder;
+import org.wso2.transport.http.netty.listener.SourceHandler;
 import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
 import org.wso2.transport.http.netty.message.Http2PushPromise;
 
@@ -49,6 +50,7 @@ import static org.wso2.transport.http.netty.common.Util.addResponseWriteFailureL
 import static org.wso2.transport.http.netty.common.Util.checkForResponseWriteStatus;
 import static org.wso2.transport.http.netty.common.Util.createFullHttpResponse;
 import static org.wso2.transport.http.netty.common.Util.createHttpResponse;
+import static org.wso2.transport.http.netty.common.Util.getIntValue;
 import static org.wso2.transport.http.netty.common.Util.isLastHttpContent;
 import static org.wso2.transport.http.netty.common.Util.isVersionCompatibleForChunking;
 import static org.wso2.transport.http.netty.common.Util.setupChunkedRequest;
@@ -72,11 +74,34 @@ public class HttpOutboundRespListener implements HttpConnectorListener {
     private long contentLength = 0;
     private String serverName;
     private List<HttpContent> contentList = new ArrayList<>();
+    private SourceHandler sourceHandler;
+    private boolean keepAlive;
+    // Whether the responses of all the earlier requests pipelined on the connection have been written
+    private boolean writable;
+    // Content of the interim and final responses of the request in the order it is received, until it is writable
+    private List<DeferredContent> deferredContentList = new ArrayList<>();
 
     public HttpOutboundRespListener(ChannelHandlerContext channelHandlerContext, HTTPCarbonMessage requestMsg,
                                     ChunkConfig chunkConfig,
                                     KeepAliveConfig keepAliveConfig,
                                     String serverName) {
+        this(channelHandlerContext, requestMsg, chunkConfig, keepAliveConfig, serverName, null);
+    }
+
+    /**
+     * Creates a listener which writes the response only once the responses of the earlier requests pipelined on the
+     * connection have been written. The source handler is notified when the response is written.
+     *
+     * @param channelHandlerContext the context of the source handler
+     * @param requestMsg the inbound request
+     * @param chunkConfig the chunking behaviour of the response
+     * @param keepAliveConfig the keep-alive behaviour of the connection
+     * @param serverName the value of the server header
+     * @param sourceHandler the source handler which orders the responses, or null to write the response right away
+     */
+    public HttpOutboundRespListener(ChannelHandlerContext channelHandlerContext, HTTPCarbonMessage requestMsg,
+                                    ChunkConfig chunkConfig, KeepAliveConfig keepAliveConfig, String serverName,
+                                    SourceHandler sourceHandler) {
         this.sourceContext = channelHandlerContext;
         this.requestDataHolder = new RequestDataHolder(requestMsg);
         this.inboundRequestMsg = requestMsg;
@@ -84,6 +109,8 @@ public class HttpOutboundRespListener implements HttpConnectorListener {
         this.handlerExecutor = HTTPTransportContextHolder.getInstance().getHandlerExecutor();
         this.chunkConfig = chunkConfig;
         this.serverName = serverName;
+        this.sourceHandler = sourceHandler;
+        this.writable = sourceHandler == null;
     }
 
     @Override
@@ -94,22 +121,51 @@ public class HttpOutboundRespListener implements HttpConnectorListener {
                 handlerExecutor.executeAtSourceResponseReceiving(outboundResponseMsg);
             }
 
-            boolean keepAlive = isKeepAlive();
+            this.keepAlive = isKeepAlive();
 
             outboundResponseMsg.getHttpContentAsync().setMessageListener(httpContent ->
                     this.sourceContext.channel().eventLoop().execute(() -> {
-                        try {
-                            writeOutboundResponse(outboundResponseMsg, keepAlive, httpContent);
-                        } catch (Exception exception) {
-                            String errorMsg = "Failed to send the outbound response : "
-                                    + exception.getMessage().toLowerCase(Locale.ENGLISH);
-                            log.error(errorMsg, exception);
-                            inboundRequestMsg.getHttpOutboundRespStatusFuture().notifyHttpListener(exception);
+                        if (writable) {
+                            writeResponseContent(outboundResponseMsg, httpContent);
+                        } else {
+                            deferredContentList.add(new DeferredContent(outboundResponseMsg, httpContent));
                         }
                     }));
         });
     }
 
+    /**
+     * Writes the response content received so far and any content received afterwards, once the responses of the
+     * earlier pipelined requests have been written. This has to be called on the event loop of the connection.
+     */
+    public void startWriting() {
+        writable = true;
+        for (DeferredContent deferredContent : deferredContentList) {
+            writeResponseContent(deferredContent.outboundResponseMsg, deferredContent.httpContent);
+        }
+        deferredContentList.clear();
+    }
+
+    private void writeResponseContent(HTTPCarbonMessage outboundResponseMsg, HttpContent httpContent) {
+        try {
+            writeOutboundResponse(outboundResponseMsg, keepAlive, httpContent);
+        } catch (Exception exception) {
+            String errorMsg = "Failed to send the outbound response : "
+                    + exception.getMessage().toLowerCase(Locale.ENGLISH);
+            log.error(errorMsg, exception);
+            inboundRequestMsg.getHttpOutboundRespStatusFuture().notifyHttpListener(exception);
+        }
+        // An interim response such as 100 Continue is followed by the final response of the same request
+        if (sourceHandler != null && isLastHttpContent(httpContent) && !isInformationalResponse(outboundResponseMsg)) {
+            sourceHandler.responseCompleted(this);
+        }
+    }
+
+    private boolean isInformationalResponse(HTTPCarbonMessage outboundResponseMsg) {
+        int statusCode = getIntValue(outboundResponseMsg, Constants.HTTP_STATUS_CODE, 200);
+        return statusCode >= 100 && statusCode < 200;
+    }
+
     @Override
     public void onPushPromise(Http2PushPromise pushPromise) {
         inboundRequestMsg.getHttpOutboundRespStatusFuture().notifyHttpListener(new UnsupportedOperationException(
@@ -248,4 +304,18 @@ public class HttpOutboundRespListener implements HttpConnectorListener {
     public void setChunkConfig(ChunkConfig chunkConfig) {
         this.chunkConfig = chunkConfig;
     }
+
+    /**
+     * A piece of response content received before the response could be written, along with its response.
+     */
+    private static class DeferredContent {
+
+        private final HTTPCarbonMessage outboundResponseMsg;
+        private final HttpContent httpContent;
+
+        DeferredContent(HTTPCarbonMessage outboundResponseMsg, HttpContent httpContent) {
+            this.outboundResponseMsg = outboundResponseMsg;
+            this.httpContent = httpContent;
+        }
+    }
 }
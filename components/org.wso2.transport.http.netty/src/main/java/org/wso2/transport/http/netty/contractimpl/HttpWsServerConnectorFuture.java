@@ -27,6 +27,7 @@ import org.wso2.transport.http.netty.contract.ServerConnectorException;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketInitMessage;
@@ -155,6 +156,15 @@ public class HttpWsServerConnectorFuture implements ServerConnectorFuture {
         wsConnectorListener.onIdleTimeout(controlMessage);
     }
 
+    @Override
+    public void notifyWSWritabilityChanged(WebSocketConnection webSocketConnection)
+            throws ServerConnectorException {
+        if (wsConnectorListener == null) {
+            throw new ServerConnectorException("WebSocket connector listener is not set");
+        }
+        wsConnectorListener.onWritabilityChanged(webSocketConnection);
+    }
+
     @Override
     public void sync() throws InterruptedException {
         ChannelFuture bindFuture = nettyBindFuture.sync();
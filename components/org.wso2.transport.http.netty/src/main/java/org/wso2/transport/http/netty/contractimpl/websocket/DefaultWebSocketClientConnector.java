@@ -20,6 +20,7 @@
 package org.wso2.transport.http.netty.contractimpl.websocket;
 
 import io.netty.channel.EventLoopGroup;
+import org.wso2.transport.http.netty.config.WebSocketCompressionConfig;
 import org.wso2.transport.http.netty.contract.websocket.HandshakeFuture;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketClientConnector;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
@@ -39,6 +40,7 @@ public class DefaultWebSocketClientConnector implements WebSocketClientConnector
     private final Map<String, String> customHeaders;
     private final EventLoopGroup wsClientEventLoopGroup;
     private final boolean autoRead;
+    private final WebSocketCompressionConfig compressionConfig;
 
     public DefaultWebSocketClientConnector(WsClientConnectorConfig clientConnectorConfig,
             EventLoopGroup wsClientEventLoopGroup) {
@@ -48,12 +50,14 @@ public class DefaultWebSocketClientConnector implements WebSocketClientConnector
         this.idleTimeout = clientConnectorConfig.getIdleTimeoutInMillis();
         this.wsClientEventLoopGroup = wsClientEventLoopGroup;
         this.autoRead = clientConnectorConfig.isAutoRead();
+        this.compressionConfig = clientConnectorConfig.getCompressionConfig();
     }
 
     @Override
     public HandshakeFuture connect(WebSocketConnectorListener connectorListener) {
         WebSocketClient webSocketClient = new WebSocketClient(remoteUrl, subProtocols, idleTimeout,
-                wsClientEventLoopGroup, customHeaders, connectorListener, autoRead);
+                wsClientEventLoopGroup, customHeaders, connectorListener, autoRead,
+                compressionConfig);
         return webSocketClient.handshake();
     }
 }
@@ -1,21 +1,27 @@
 package org.wso2.transport.http.netty.contractimpl.websocket;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.PongWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBackpressurePolicy;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketFrameType;
 import org.wso2.transport.http.netty.internal.websocket.DefaultWebSocketSession;
 
 import java.nio.ByteBuffer;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import javax.websocket.Session;
 
@@ -27,6 +33,7 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
     private final WebSocketInboundFrameHandler frameHandler;
     private final ChannelHandlerContext ctx;
     private final DefaultWebSocketSession session;
+    private final WebSocketBackpressureController backpressureController;
     private WebSocketFrameType continuationFrameType = null;
     private boolean closeFrameSent = false;
     private boolean closeFrameReceived = false;
@@ -35,6 +42,7 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
         this.frameHandler = frameHandler;
         this.ctx = frameHandler.getChannelHandlerContext();
         this.session = session;
+        this.backpressureController = new WebSocketBackpressureController(ctx);
     }
 
     @Override
@@ -69,22 +77,29 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
 
     @Override
     public ChannelFuture pushText(String text, boolean finalFrame) {
+        return pushText(getUtf8Buf(text), finalFrame);
+    }
+
+    @Override
+    public ChannelFuture pushText(ByteBuf utf8Text, boolean finalFrame) {
         if (continuationFrameType == WebSocketFrameType.BINARY) {
+            utf8Text.release();
             throw new IllegalStateException("Cannot interrupt WebSocket binary frame continuation");
         }
         if (closeFrameSent) {
+            utf8Text.release();
             throw new IllegalStateException("Already sent close frame. Cannot push text data!");
         }
         if (continuationFrameType != null) {
             if (finalFrame) {
                 continuationFrameType = null;
             }
-            return ctx.writeAndFlush(new ContinuationWebSocketFrame(finalFrame, 0, text));
+            return writeFrame(new ContinuationWebSocketFrame(finalFrame, 0, utf8Text));
         }
         if (!finalFrame) {
             continuationFrameType = WebSocketFrameType.TEXT;
         }
-        return ctx.writeAndFlush(new TextWebSocketFrame(finalFrame, 0, text));
+        return writeFrame(new TextWebSocketFrame(finalFrame, 0, utf8Text));
     }
 
     @Override
@@ -94,32 +109,81 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
 
     @Override
     public ChannelFuture pushBinary(ByteBuffer data, boolean finalFrame) {
+        return pushBinary(getNettyBuf(data), finalFrame);
+    }
+
+    @Override
+    public ChannelFuture pushBinary(ByteBuf data) {
+        return pushBinary(data, true);
+    }
+
+    @Override
+    public ChannelFuture pushBinary(ByteBuf data, boolean finalFrame) {
         if (continuationFrameType == WebSocketFrameType.TEXT) {
+            data.release();
             throw new IllegalStateException("Cannot interrupt WebSocket text frame continuation");
         }
         if (closeFrameSent) {
+            data.release();
             throw new IllegalStateException("Already sent close frame. Cannot push binary data!");
         }
         if (continuationFrameType != null) {
             if (finalFrame) {
                 continuationFrameType = null;
             }
-            return ctx.writeAndFlush(new ContinuationWebSocketFrame(finalFrame, 0, getNettyBuf(data)));
+            return writeFrame(new ContinuationWebSocketFrame(finalFrame, 0, data));
         }
         if (!finalFrame) {
             continuationFrameType = WebSocketFrameType.BINARY;
         }
-        return ctx.writeAndFlush(new BinaryWebSocketFrame(finalFrame, 0, getNettyBuf(data)));
+        return writeFrame(new BinaryWebSocketFrame(finalFrame, 0, data));
     }
 
     @Override
     public ChannelFuture ping(ByteBuffer data) {
-        return ctx.writeAndFlush(new PingWebSocketFrame(getNettyBuf(data)));
+        return ping(getNettyBuf(data));
+    }
+
+    @Override
+    public ChannelFuture ping(ByteBuf data) {
+        return writeFrame(new PingWebSocketFrame(data));
     }
 
     @Override
     public ChannelFuture pong(ByteBuffer data) {
-        return ctx.writeAndFlush(new PongWebSocketFrame(getNettyBuf(data)));
+        return pong(getNettyBuf(data));
+    }
+
+    @Override
+    public ChannelFuture pong(ByteBuf data) {
+        return writeFrame(new PongWebSocketFrame(data));
+    }
+
+    @Override
+    public ByteBufAllocator getAllocator() {
+        return ctx.alloc();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return ctx.channel().isWritable();
+    }
+
+    @Override
+    public void setWriteBufferWaterMark(int lowWaterMark, int highWaterMark) {
+        ctx.channel().config().setWriteBufferWaterMark(new WriteBufferWaterMark(lowWaterMark, highWaterMark));
+    }
+
+    @Override
+    public void setBackpressurePolicy(WebSocketBackpressurePolicy policy, int unwritableTimeoutInMillis) {
+        backpressureController.setPolicy(policy, unwritableTimeoutInMillis);
+    }
+
+    /**
+     * Notify the connection of a change in the writability of its channel. Has to be called on the event loop.
+     */
+    public void onWritabilityChanged() {
+        backpressureController.onWritabilityChanged();
     }
 
     @Override
@@ -128,18 +192,27 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
             throw new IllegalStateException("Already sent close frame. Cannot send close frame again!");
         }
         closeFrameSent = true;
-        CountDownLatch closeCountDownLatch = new CountDownLatch(1);
-        frameHandler.setCloseCountDownLatch(closeCountDownLatch);
-        return ctx.writeAndFlush(new CloseWebSocketFrame(statusCode, reason)).addListener(future -> {
-            if (timeoutInSecs == -1) {
-                closeCountDownLatch.await();
+        ChannelPromise closePromise = ctx.newPromise();
+        frameHandler.setClosePromise(closePromise);
+        // Nothing is left to wait for once the remote endpoint drops the connection without a close frame.
+        ctx.channel().closeFuture().addListener(future -> closePromise.trySuccess());
+        writeFrame(new CloseWebSocketFrame(statusCode, reason)).addListener(future -> {
+            if (!future.isSuccess()) {
+                closePromise.tryFailure(future.cause());
+            } else if (timeoutInSecs == 0) {
+                closePromise.trySuccess();
             } else if (timeoutInSecs > 0) {
-                closeCountDownLatch.await(timeoutInSecs, TimeUnit.SECONDS);
+                ScheduledFuture<?> closeTimeout = ctx.executor().schedule(
+                        () -> closePromise.trySuccess(), timeoutInSecs, TimeUnit.SECONDS);
+                closePromise.addListener(closeFuture -> closeTimeout.cancel(false));
             }
+        });
+        closePromise.addListener(future -> {
             if (ctx.channel().isOpen()) {
                 ctx.channel().close();
             }
         });
+        return closePromise;
     }
 
     @Override
@@ -147,7 +220,14 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
         if (!frameHandler.isCloseFrameReceived()) {
             throw new IllegalStateException("Cannot finish a connection closure without receiving a close frame");
         }
-        return ctx.channel().writeAndFlush(new CloseWebSocketFrame(statusCode, reason)).addListener(future -> {
+        CloseWebSocketFrame closeFrame = new CloseWebSocketFrame(statusCode, reason);
+        ChannelFuture closeFrameFuture;
+        if (backpressureController.isActive()) {
+            closeFrameFuture = backpressureController.write(closeFrame);
+        } else {
+            closeFrameFuture = ctx.channel().writeAndFlush(closeFrame);
+        }
+        return closeFrameFuture.addListener(future -> {
             if (ctx.channel().isOpen()) {
                 ctx.channel().close();
             }
@@ -181,4 +261,19 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
     public ByteBuf getNettyBuf(ByteBuffer buffer) {
         return Unpooled.wrappedBuffer(buffer);
     }
+
+    private ChannelFuture writeFrame(WebSocketFrame frame) {
+        if (backpressureController.isActive()) {
+            return backpressureController.write(frame);
+        }
+        return ctx.writeAndFlush(frame);
+    }
+
+    private ByteBuf getUtf8Buf(String text) {
+        if (text == null || text.isEmpty()) {
+            return Unpooled.EMPTY_BUFFER;
+        }
+        // Encode straight into a buffer of the connection's allocator instead of an intermediate heap copy
+        return ByteBufUtil.writeUtf8(ctx.alloc(), text);
+    }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.websocket;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBackpressurePolicy;
+import org.wso2.transport.http.netty.exception.WebSocketMessageDroppedException;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link WebSocketBackpressurePolicy} of a connection to the frames pushed through it. The connection is
+ * congested once it stays unwritable beyond the deadline of the policy, and stops being congested as soon as it
+ * becomes writable again.
+ * <p>
+ * Messages are dropped or held as a whole: the continuation frames follow the first frame of their message, and
+ * frames of a message which has been partly written are always written. Control frames are never held back, but
+ * the held frames are written ahead of a close frame.
+ * <p>
+ * The state is confined to the event loop of the connection, so frames pushed from other threads are handed over
+ * to it, in the same order as the other writes of those threads.
+ */
+class WebSocketBackpressureController {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketBackpressureController.class);
+
+    private enum MessageState {
+        NONE, WRITTEN, HELD, DROPPED
+    }
+
+    private final ChannelHandlerContext ctx;
+    private final Deque<PendingFrame> heldFrames = new ArrayDeque<>();
+    private volatile WebSocketBackpressurePolicy policy = WebSocketBackpressurePolicy.NONE;
+    private int unwritableTimeoutInMillis;
+    private long heldBytes;
+    private PendingFrame newestMessage;
+    private MessageState messageState = MessageState.NONE;
+    private boolean congested;
+    private boolean closeListenerAdded;
+    private ScheduledFuture<?> deadline;
+
+    WebSocketBackpressureController(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    /**
+     * Checks whether frames have to pass the controller, which is not the case until a policy is set.
+     */
+    boolean isActive() {
+        return policy != WebSocketBackpressurePolicy.NONE;
+    }
+
+    void setPolicy(WebSocketBackpressurePolicy policy, int unwritableTimeoutInMillis) {
+        this.policy = policy;
+        runInEventLoop(() -> applyPolicy(policy, unwritableTimeoutInMillis));
+    }
+
+    ChannelFuture write(WebSocketFrame frame) {
+        ChannelPromise promise = ctx.newPromise();
+        runInEventLoop(() -> write(frame, promise));
+        return promise;
+    }
+
+    /**
+     * Tracks the writability of the channel. Has to be called on the event loop whenever it changes.
+     */
+    void onWritabilityChanged() {
+        if (ctx.channel().isWritable()) {
+            cancelDeadline();
+            if (congested) {
+                congested = false;
+                writeHeldFrames();
+            }
+        } else if (policy != WebSocketBackpressurePolicy.NONE && !congested && deadline == null) {
+            deadline = ctx.executor().schedule(this::onDeadline, unwritableTimeoutInMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void applyPolicy(WebSocketBackpressurePolicy policy, int unwritableTimeoutInMillis) {
+        this.unwritableTimeoutInMillis = unwritableTimeoutInMillis;
+        if (!closeListenerAdded) {
+            closeListenerAdded = true;
+            ctx.channel().closeFuture().addListener(future -> releaseHeldFrames());
+        }
+        cancelDeadline();
+        if (policy == WebSocketBackpressurePolicy.NONE || congested) {
+            // Held frames are not kept beyond the policy which held them
+            congested = false;
+            writeHeldFrames();
+        }
+        onWritabilityChanged();
+    }
+
+    private void write(WebSocketFrame frame, ChannelPromise promise) {
+        if (frame instanceof TextWebSocketFrame || frame instanceof BinaryWebSocketFrame) {
+            if (!congested || policy == WebSocketBackpressurePolicy.CLOSE) {
+                // Frames pushed to a connection which is closed by the policy fail as with any closed connection
+                messageState = MessageState.WRITTEN;
+                ctx.writeAndFlush(frame, promise);
+            } else if (policy == WebSocketBackpressurePolicy.DROP_OLDEST) {
+                messageState = MessageState.HELD;
+                hold(frame, promise, true);
+            } else {
+                messageState = MessageState.DROPPED;
+                drop(frame, promise);
+            }
+        } else if (frame instanceof ContinuationWebSocketFrame) {
+            if (messageState == MessageState.HELD) {
+                hold(frame, promise, false);
+            } else if (messageState == MessageState.DROPPED) {
+                drop(frame, promise);
+            } else {
+                ctx.writeAndFlush(frame, promise);
+            }
+        } else {
+            if (frame instanceof CloseWebSocketFrame) {
+                writeHeldFrames();
+            }
+            ctx.writeAndFlush(frame, promise);
+            return;
+        }
+        if (frame.isFinalFragment()) {
+            messageState = MessageState.NONE;
+        }
+    }
+
+    private void hold(WebSocketFrame frame, ChannelPromise promise, boolean firstFrame) {
+        PendingFrame pendingFrame = new PendingFrame(frame, promise);
+        if (firstFrame) {
+            // Set before evicting, so that the previous message can be evicted to make room for this one
+            newestMessage = pendingFrame;
+        }
+        heldFrames.add(pendingFrame);
+        heldBytes += frame.content().readableBytes();
+        long limit = ctx.channel().config().getWriteBufferHighWaterMark();
+        // The newest message is kept even if it exceeds the limit on its own
+        while (heldBytes > limit && heldFrames.peekFirst() != newestMessage) {
+            dropOldestMessage();
+        }
+    }
+
+    private void dropOldestMessage() {
+        PendingFrame pendingFrame;
+        do {
+            pendingFrame = heldFrames.poll();
+            heldBytes -= pendingFrame.frame.content().readableBytes();
+            drop(pendingFrame.frame, pendingFrame.promise);
+        } while (!pendingFrame.frame.isFinalFragment() && !heldFrames.isEmpty());
+    }
+
+    private void drop(WebSocketFrame frame, ChannelPromise promise) {
+        frame.release();
+        promise.setFailure(new WebSocketMessageDroppedException(
+                "Message dropped as the connection stayed unwritable for " + unwritableTimeoutInMillis + "ms"));
+    }
+
+    private void writeHeldFrames() {
+        if (heldFrames.isEmpty()) {
+            return;
+        }
+        PendingFrame pendingFrame;
+        while ((pendingFrame = heldFrames.poll()) != null) {
+            ctx.write(pendingFrame.frame, pendingFrame.promise);
+        }
+        ctx.flush();
+        heldBytes = 0;
+        newestMessage = null;
+        if (messageState == MessageState.HELD) {
+            messageState = MessageState.WRITTEN;
+        }
+    }
+
+    private void releaseHeldFrames() {
+        cancelDeadline();
+        PendingFrame pendingFrame;
+        while ((pendingFrame = heldFrames.poll()) != null) {
+            pendingFrame.frame.release();
+            pendingFrame.promise.tryFailure(new ClosedChannelException());
+        }
+        heldBytes = 0;
+        newestMessage = null;
+    }
+
+    private void onDeadline() {
+        deadline = null;
+        if (ctx.channel().isWritable()) {
+            return;
+        }
+        congested = true;
+        if (log.isDebugEnabled()) {
+            log.debug("WebSocket connection {} stayed unwritable for {}ms, applying the {} policy",
+                      ctx.channel(), unwritableTimeoutInMillis, policy);
+        }
+        if (policy == WebSocketBackpressurePolicy.CLOSE) {
+            ctx.channel().close();
+        }
+    }
+
+    private void cancelDeadline() {
+        if (deadline != null) {
+            deadline.cancel(false);
+            deadline = null;
+        }
+    }
+
+    private void runInEventLoop(Runnable task) {
+        if (ctx.executor().inEventLoop()) {
+            task.run();
+        } else {
+            ctx.executor().execute(task);
+        }
+    }
+
+    private static class PendingFrame {
+
+        private final WebSocketFrame frame;
+        private final ChannelPromise promise;
+
+        private PendingFrame(WebSocketFrame frame, ChannelPromise promise) {
+            this.frame = frame;
+            this.promise = promise;
+        }
+    }
+}
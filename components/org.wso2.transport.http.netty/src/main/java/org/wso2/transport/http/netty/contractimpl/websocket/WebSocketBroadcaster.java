@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.contractimpl.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pushes the same message to many WebSocket connections. The payload is encoded into a single buffer and every
+ * connection writes a retained duplicate of it, so the payload is neither copied nor re-encoded per connection.
+ */
+public final class WebSocketBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketBroadcaster.class);
+
+    private WebSocketBroadcaster() {
+    }
+
+    /**
+     * Push a text frame to each of the given connections.
+     *
+     * @param connections connections to push the text to.
+     * @param text        text to be sent.
+     * @return futures of the frames which were handed over to the connections.
+     */
+    public static List<ChannelFuture> broadcastText(Collection<WebSocketConnection> connections, String text) {
+        Iterator<WebSocketConnection> iterator = connections.iterator();
+        if (!iterator.hasNext()) {
+            return Collections.emptyList();
+        }
+        // The connections of a connector share the allocator of its channels
+        ByteBuf utf8Text = ByteBufUtil.writeUtf8(iterator.next().getAllocator(), text);
+        return broadcast(connections, utf8Text, true);
+    }
+
+    /**
+     * Push a binary frame to each of the given connections. The ownership of the buffer is transferred to this method,
+     * which releases it once every connection holds its own duplicate.
+     *
+     * @param connections connections to push the data to.
+     * @param data        binary data to be sent.
+     * @return futures of the frames which were handed over to the connections.
+     */
+    public static List<ChannelFuture> broadcastBinary(Collection<WebSocketConnection> connections, ByteBuf data) {
+        return broadcast(connections, data, false);
+    }
+
+    private static List<ChannelFuture> broadcast(Collection<WebSocketConnection> connections, ByteBuf payload,
+                                                 boolean text) {
+        List<ChannelFuture> futures = new ArrayList<>(connections.size());
+        try {
+            for (WebSocketConnection connection : connections) {
+                ByteBuf duplicate = payload.retainedDuplicate();
+                try {
+                    futures.add(text ? connection.pushText(duplicate, true) : connection.pushBinary(duplicate));
+                } catch (IllegalStateException e) {
+                    // The connection already released the duplicate. A closing connection is no reason to stop the
+                    // broadcast to the rest.
+                    if (log.isDebugEnabled()) {
+                        log.debug("Skipped connection " + connection.getId() + " in broadcast: " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            payload.release();
+        }
+        return futures;
+    }
+}
@@ -20,8 +20,7 @@ package org.wso2.transport.http.netty.contractimpl.websocket;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-
-import java.util.concurrent.CountDownLatch;
+import io.netty.channel.ChannelPromise;
 
 /**
  * Abstract WebSocket frame handler for WebSocket server and client.
@@ -29,11 +28,11 @@ import java.util.concurrent.CountDownLatch;
 public abstract class WebSocketInboundFrameHandler extends ChannelInboundHandlerAdapter {
 
     /**
-     * Set countdown latch for WebSocket connection close.
+     * Set the promise to complete once the remote endpoint answers a close frame sent by this connection.
      *
-     * @param closeCountDownLatch {@link CountDownLatch} to wait for WebSocket connection closure.
+     * @param closePromise {@link ChannelPromise} to notify the completion of the WebSocket closing handshake.
      */
-    public abstract void setCloseCountDownLatch(CountDownLatch closeCountDownLatch);
+    public abstract void setClosePromise(ChannelPromise closePromise);
 
     /**
      * Retrieve the WebSocket connection associated with the frame handler.
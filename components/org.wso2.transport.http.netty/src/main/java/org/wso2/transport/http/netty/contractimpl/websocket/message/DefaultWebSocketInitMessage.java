@@ -74,7 +74,7 @@ public class DefaultWebSocketInitMessage extends WebSocketMessageImpl implements
         WebSocketServerHandshakerFactory wsFactory =
                 new WebSocketServerHandshakerFactory(getWebSocketURL(httpRequest), null, true);
         WebSocketServerHandshaker handshaker = wsFactory.newHandshaker(httpRequest);
-        return handleHandshake(handshaker, 0, null);
+        return handleHandshake(handshaker, true, 0, null);
     }
 
     @Override
@@ -83,7 +83,7 @@ public class DefaultWebSocketInitMessage extends WebSocketMessageImpl implements
                 new WebSocketServerHandshakerFactory(getWebSocketURL(httpRequest), getSubProtocolsCSV(subProtocols),
                                                      allowExtensions);
         WebSocketServerHandshaker handshaker = wsFactory.newHandshaker(httpRequest);
-        return handleHandshake(handshaker, 0, null);
+        return handleHandshake(handshaker, allowExtensions, 0, null);
     }
 
     @Override
@@ -92,7 +92,7 @@ public class DefaultWebSocketInitMessage extends WebSocketMessageImpl implements
                 new WebSocketServerHandshakerFactory(getWebSocketURL(httpRequest),
                                                      getSubProtocolsCSV(subProtocols), allowExtensions);
         WebSocketServerHandshaker handshaker = wsFactory.newHandshaker(httpRequest);
-        return handleHandshake(handshaker, idleTimeout, null);
+        return handleHandshake(handshaker, allowExtensions, idleTimeout, null);
     }
 
     @Override
@@ -102,7 +102,7 @@ public class DefaultWebSocketInitMessage extends WebSocketMessageImpl implements
                 new WebSocketServerHandshakerFactory(getWebSocketURL(httpRequest),
                                                      getSubProtocolsCSV(subProtocols), allowExtensions);
         WebSocketServerHandshaker handshaker = wsFactory.newHandshaker(httpRequest);
-        return handleHandshake(handshaker, idleTimeout, responseHeaders);
+        return handleHandshake(handshaker, allowExtensions, idleTimeout, responseHeaders);
     }
 
     @Override
@@ -112,7 +112,7 @@ public class DefaultWebSocketInitMessage extends WebSocketMessageImpl implements
                 new WebSocketServerHandshakerFactory(getWebSocketURL(httpRequest), getSubProtocolsCSV(subProtocols),
                                                      allowExtensions, maxFramePayloadLength);
         WebSocketServerHandshaker handshaker = wsFactory.newHandshaker(httpRequest);
-        return handleHandshake(handshaker, idleTimeout, responseHeaders);
+        return handleHandshake(handshaker, allowExtensions, idleTimeout, responseHeaders);
     }
 
     @Override
@@ -155,8 +155,8 @@ public class DefaultWebSocketInitMessage extends WebSocketMessageImpl implements
         return handshakeStarted;
     }
 
-    private HandshakeFuture handleHandshake(WebSocketServerHandshaker handshaker, int idleTimeout,
-                                            HttpHeaders headers) {
+    private HandshakeFuture handleHandshake(WebSocketServerHandshaker handshaker, boolean allowExtensions,
+                                            int idleTimeout, HttpHeaders headers) {
         HandshakeFutureImpl handshakeFuture = new HandshakeFutureImpl();
 
         if (cancelled) {
@@ -165,6 +165,10 @@ public class DefaultWebSocketInitMessage extends WebSocketMessageImpl implements
             return handshakeFuture;
         }
 
+        if (!allowExtensions) {
+            removeCompressionHandlers(ctx.pipeline());
+        }
+
         try {
             ChannelFuture channelFuture = handshaker.handshake(ctx.channel(), httpRequest, headers,
                                                                ctx.channel().newPromise());
@@ -206,6 +210,16 @@ public class DefaultWebSocketInitMessage extends WebSocketMessageImpl implements
         }
     }
 
+    /* Keep the compression extensions out of the handshake response */
+    private void removeCompressionHandlers(ChannelPipeline pipeline) {
+        if (pipeline.get(Constants.WEBSOCKET_COMPRESSION_HANDLER) != null) {
+            pipeline.remove(Constants.WEBSOCKET_COMPRESSION_HANDLER);
+        }
+        if (pipeline.get(Constants.WEBSOCKET_COMPRESSION_THRESHOLD_HANDLER) != null) {
+            pipeline.remove(Constants.WEBSOCKET_COMPRESSION_THRESHOLD_HANDLER);
+        }
+    }
+
     /* Get the URL of the given connection */
     private String getWebSocketURL(HttpRequest req) {
         String protocol = Constants.WEBSOCKET_PROTOCOL;
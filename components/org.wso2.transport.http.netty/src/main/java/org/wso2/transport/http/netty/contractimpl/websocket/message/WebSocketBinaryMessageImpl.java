@@ -19,46 +19,103 @@
 
 package org.wso2.transport.http.netty.contractimpl.websocket.message;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketMessageImpl;
 
 import java.nio.ByteBuffer;
 
 /**
- * Implementation of {@link WebSocketBinaryMessage}.
+ * Implementation of {@link WebSocketBinaryMessage}. The accessors are synchronized since the message can be handed
+ * over to another thread by the listener while the frame content is released on the event loop.
  */
 public class WebSocketBinaryMessageImpl extends WebSocketMessageImpl implements WebSocketBinaryMessage {
 
-    private final ByteBuffer buffer;
+    private final ByteBuf content;
+    private ByteBuffer buffer;
+    private boolean contentExposed = false;
+    private boolean released = false;
     private final boolean isFinalFragment;
 
     public WebSocketBinaryMessageImpl(ByteBuffer buffer, boolean isFinalFragment) {
+        this.content = null;
         this.buffer = buffer;
         this.isFinalFragment = isFinalFragment;
     }
 
+    /**
+     * @param content         content of the received frame. The message takes over the reference of the frame and
+     *                        gives it up on {@link #release()}.
+     * @param isFinalFragment true if the frame is a final fragment.
+     */
+    public WebSocketBinaryMessageImpl(ByteBuf content, boolean isFinalFragment) {
+        this.content = content;
+        this.isFinalFragment = isFinalFragment;
+    }
+
     @Override
-    public ByteBuffer getByteBuffer() {
+    public synchronized ByteBuffer getByteBuffer() {
+        if (buffer == null) {
+            ensureNotReleased();
+            buffer = ByteBuffer.allocate(content.readableBytes());
+            content.getBytes(content.readerIndex(), buffer);
+            buffer.flip();
+        }
         return buffer;
     }
 
     @Override
     public byte[] getByteArray() {
+        ByteBuffer data = getByteBuffer();
         byte[] bytes;
-        if (buffer.hasArray()) {
-            bytes = buffer.array();
+        if (data.hasArray()) {
+            bytes = data.array();
         } else {
-            int remaining = buffer.remaining();
+            int remaining = data.remaining();
             bytes = new byte[remaining];
             for (int i = 0; i < remaining; i++) {
-                bytes[i] = buffer.get();
+                bytes[i] = data.get();
             }
         }
         return bytes;
     }
 
+    @Override
+    public synchronized ByteBuf getByteBuf() {
+        if (content == null || released) {
+            return Unpooled.wrappedBuffer(getByteBuffer().duplicate());
+        }
+        contentExposed = true;
+        return content.retainedDuplicate();
+    }
+
     @Override
     public boolean isFinalFragment() {
         return isFinalFragment;
     }
+
+    /**
+     * Give up the reference of the received frame once the listener has been notified. Unless the listener took the
+     * frame content, the data is copied beforehand so that the message stays readable afterwards.
+     */
+    public synchronized void release() {
+        if (content == null || released) {
+            return;
+        }
+        if (!contentExposed) {
+            getByteBuffer();
+        }
+        released = true;
+        content.release();
+    }
+
+    private void ensureNotReleased() {
+        if (released) {
+            throw new IllegalReferenceCountException(
+                    "The frame content was released when the listener returned. Keep the buffer taken with "
+                            + "getByteBuf() to read the data afterwards.");
+        }
+    }
 }
@@ -19,35 +19,90 @@
 
 package org.wso2.transport.http.netty.contractimpl.websocket.message;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import io.netty.util.IllegalReferenceCountException;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketMessageImpl;
 
 
 /**
- * Implementation of {@link WebSocketTextMessage}.
+ * Implementation of {@link WebSocketTextMessage}. The accessors are synchronized since the message can be handed
+ * over to another thread by the listener while the frame content is released on the event loop.
  */
 public class WebSocketTextMessageImpl extends WebSocketMessageImpl implements WebSocketTextMessage {
 
-    private final String text;
+    private final ByteBuf content;
+    private String text;
+    private boolean contentExposed = false;
+    private boolean released = false;
     private final boolean isFinalFragment;
 
     public WebSocketTextMessageImpl(String text) {
-        this.text = text;
-        this.isFinalFragment = true;
+        this(text, true);
     }
 
     public WebSocketTextMessageImpl(String text, boolean isFinalFragment) {
+        this.content = null;
         this.text = text;
         this.isFinalFragment = isFinalFragment;
     }
 
+    /**
+     * @param content         UTF-8 encoded content of the received frame. The message takes over the reference of
+     *                        the frame and gives it up on {@link #release()}.
+     * @param isFinalFragment true if the frame is a final fragment.
+     */
+    public WebSocketTextMessageImpl(ByteBuf content, boolean isFinalFragment) {
+        this.content = content;
+        this.isFinalFragment = isFinalFragment;
+    }
+
     @Override
-    public String getText() {
+    public synchronized String getText() {
+        if (text == null && content != null) {
+            ensureNotReleased();
+            text = content.toString(CharsetUtil.UTF_8);
+        }
         return text;
     }
 
+    @Override
+    public synchronized ByteBuf getByteBuf() {
+        if (content == null || released) {
+            String data = getText();
+            return data != null ? Unpooled.copiedBuffer(data, CharsetUtil.UTF_8) : Unpooled.EMPTY_BUFFER;
+        }
+        contentExposed = true;
+        return content.retainedDuplicate();
+    }
+
     @Override
     public boolean isFinalFragment() {
         return isFinalFragment;
     }
+
+    /**
+     * Give up the reference of the received frame once the listener has been notified. Unless the listener took the
+     * frame content, the text is decoded beforehand so that the message stays readable afterwards.
+     */
+    public synchronized void release() {
+        if (content == null || released) {
+            return;
+        }
+        if (!contentExposed) {
+            getText();
+        }
+        released = true;
+        content.release();
+    }
+
+    private void ensureNotReleased() {
+        if (released) {
+            throw new IllegalReferenceCountException(
+                    "The frame content was released when the listener returned. Keep the buffer taken with "
+                            + "getByteBuf() to read the text afterwards.");
+        }
+    }
 }
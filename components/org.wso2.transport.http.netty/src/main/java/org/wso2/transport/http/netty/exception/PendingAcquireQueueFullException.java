@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.exception;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.contract.ClientConnectorException;
+
+/**
+ * Thrown when a connection is requested for a route which is exhausted and already has the maximum number of
+ * requests waiting for a connection.
+ */
+public class PendingAcquireQueueFullException extends ClientConnectorException {
+
+    /**
+     * Constructs a new PendingAcquireQueueFullException for the given route.
+     *
+     * @param route the route which has too many pending requests.
+     */
+    public PendingAcquireQueueFullException(String route) {
+        super(Constants.MAXIMUM_PENDING_ACQUIRES_EXCEED + ": " + route, HttpResponseStatus.SERVICE_UNAVAILABLE.code());
+    }
+}
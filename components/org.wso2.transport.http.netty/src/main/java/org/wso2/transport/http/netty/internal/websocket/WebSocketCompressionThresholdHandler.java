@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.internal.websocket;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionEncoder;
+
+/**
+ * Sends complete WebSocket messages which are smaller than a threshold without compressing them.
+ * <p>
+ * A message sent with all the reserved bits unset is an uncompressed message under permessage-deflate, so such a
+ * message is written past the extension encoder rather than through it. Fragmented messages are always left to the
+ * encoder, as the frames of a message have to be compressed alike.
+ * <p>
+ * This handler has to be placed after the extension handler, where the extension encoder is added once the
+ * handshake completes. It removes itself if no compression extension was negotiated.
+ */
+public class WebSocketCompressionThresholdHandler extends ChannelOutboundHandlerAdapter {
+
+    private final int minCompressionSize;
+    private ChannelHandlerContext encoderCtx;
+
+    /**
+     * Creates a handler which sends messages smaller than the given size uncompressed.
+     *
+     * @param minCompressionSize the minimum payload size in bytes to compress
+     */
+    public WebSocketCompressionThresholdHandler(int minCompressionSize) {
+        this.minCompressionSize = minCompressionSize;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof WebSocketFrame && encoderCtx == null) {
+            // Frames are written only after the handshake, by when the negotiated encoder is in place
+            encoderCtx = ctx.pipeline().context(WebSocketExtensionEncoder.class);
+            if (encoderCtx == null) {
+                ctx.pipeline().remove(this);
+                ctx.write(msg, promise);
+                return;
+            }
+        }
+        if (encoderCtx != null && isBelowThreshold(msg)) {
+            encoderCtx.write(msg, promise);
+        } else {
+            ctx.write(msg, promise);
+        }
+    }
+
+    private boolean isBelowThreshold(Object msg) {
+        if (!(msg instanceof TextWebSocketFrame) && !(msg instanceof BinaryWebSocketFrame)) {
+            return false;
+        }
+        WebSocketFrame frame = (WebSocketFrame) msg;
+        return frame.isFinalFragment() && frame.rsv() == 0 && frame.content().readableBytes() < minCompressionSize;
+    }
+}
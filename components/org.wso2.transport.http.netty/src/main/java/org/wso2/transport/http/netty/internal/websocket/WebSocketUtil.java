@@ -21,12 +21,19 @@ package org.wso2.transport.http.netty.internal.websocket;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.compression.DeflateFrameClientExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.DeflateFrameServerExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateClientExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+import org.wso2.transport.http.netty.config.WebSocketCompressionConfig;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlSignal;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketConnection;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
-import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketMessageImpl;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketBinaryMessageImpl;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketControlMessageImpl;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketTextMessageImpl;
@@ -60,18 +67,51 @@ public class WebSocketUtil {
         return webSocketControlMessage;
     }
 
-    public static WebSocketMessageImpl getWebSocketMessage(WebSocketFrame frame, String text, boolean isFinalFragment) {
-        WebSocketMessageImpl webSocketTextMessage = new WebSocketTextMessageImpl(text, isFinalFragment);
-        frame.release();
-        return webSocketTextMessage;
+    /**
+     * Create a text message which takes over the reference of the given frame. The message should be released with
+     * {@link WebSocketTextMessageImpl#release()} once the listener is notified.
+     */
+    public static WebSocketTextMessageImpl getWebSocketTextMessage(WebSocketFrame frame) {
+        return new WebSocketTextMessageImpl(frame.content(), frame.isFinalFragment());
     }
 
-    public static WebSocketMessageImpl getWebSocketMessage(WebSocketFrame webSocketFrame, ByteBuf content,
-                                                           boolean finalFragment) {
-        ByteBuffer clonedContent = getClonedByteBuf(content);
-        WebSocketMessageImpl webSocketBinaryMessage = new WebSocketBinaryMessageImpl(clonedContent, finalFragment);
-        webSocketFrame.release();
-        return webSocketBinaryMessage;
+    /**
+     * Create a binary message which takes over the reference of the given frame. The message should be released with
+     * {@link WebSocketBinaryMessageImpl#release()} once the listener is notified.
+     */
+    public static WebSocketBinaryMessageImpl getWebSocketBinaryMessage(WebSocketFrame frame) {
+        return new WebSocketBinaryMessageImpl(frame.content(), frame.isFinalFragment());
+    }
+
+    /**
+     * Create the handler which accepts the permessage-deflate and deflate-frame extensions offered by a client. The
+     * requests of the client on the window size and context takeover of the server are accepted.
+     */
+    public static WebSocketServerExtensionHandler getServerCompressionHandler(WebSocketCompressionConfig config) {
+        return new WebSocketServerExtensionHandler(
+                new PerMessageDeflateServerExtensionHandshaker(config.getCompressionLevel(),
+                                                               ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
+                                                               config.getMaxWindowBits(), true,
+                                                               config.isNoContextTakeover()),
+                new DeflateFrameServerExtensionHandshaker(config.getCompressionLevel()));
+    }
+
+    /**
+     * Create the handler which offers the permessage-deflate and deflate-frame extensions to a server. The requests
+     * of the server on the window size and context takeover of the client are accepted.
+     * <p>
+     * The handshaker offers server_no_context_takeover only along with a server window size, so the offer is made
+     * only when a window smaller than the default is requested; otherwise the server would never agree to it.
+     */
+    public static WebSocketClientExtensionHandler getClientCompressionHandler(WebSocketCompressionConfig config) {
+        boolean requestNoContextTakeover = config.isNoContextTakeover() && config.getMaxWindowBits() < 15;
+        return new WebSocketClientExtensionHandler(
+                new PerMessageDeflateClientExtensionHandshaker(config.getCompressionLevel(),
+                                                               ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
+                                                               config.getMaxWindowBits(), true,
+                                                               requestNoContextTakeover),
+                new DeflateFrameClientExtensionHandshaker(config.getCompressionLevel(), false),
+                new DeflateFrameClientExtensionHandshaker(config.getCompressionLevel(), true));
     }
 
     private static ByteBuffer getClonedByteBuf(ByteBuf buf) {
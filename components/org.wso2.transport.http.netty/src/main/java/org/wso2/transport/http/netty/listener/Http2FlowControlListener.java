@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.listener;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http2.Http2Connection;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2LocalFlowController;
+import io.netty.handler.codec.http2.Http2Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.message.Listener;
+
+import static org.wso2.transport.http.netty.common.Util.isLastHttpContent;
+
+/**
+ * Content listener of an inbound HTTP/2 request which returns the flow control window of the stream to the peer
+ * only as the content is read off the request, instead of as soon as the DATA frames are received.
+ * <p>
+ * The peer can therefore have at most one stream window worth of unread content buffered in the request. A stream
+ * is reported as stalled while that much content is buffered and the peer has not finished sending.
+ */
+class Http2FlowControlListener implements Listener {
+
+    private static final Logger log = LoggerFactory.getLogger(Http2FlowControlListener.class);
+
+    private final ChannelHandlerContext ctx;
+    private final Http2Connection conn;
+    private final int streamId;
+    private final int stallThreshold;
+    private final Http2FlowControlMetrics metrics;
+    // The content is added on the event loop, but may be read off the request by any thread
+    private int bufferedBytes = 0;
+    private boolean stalled = false;
+    private boolean lastContentReceived = false;
+    private boolean streamReset = false;
+
+    Http2FlowControlListener(ChannelHandlerContext ctx, Http2Connection conn, int streamId, int stallThreshold,
+                             Http2FlowControlMetrics metrics) {
+        this.ctx = ctx;
+        this.conn = conn;
+        this.streamId = streamId;
+        this.stallThreshold = stallThreshold;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public synchronized void onAdd(HttpContent httpContent) {
+        int bytes = httpContent.content().readableBytes();
+        bufferedBytes += bytes;
+        metrics.addBufferedBytes(bytes);
+        if (isLastHttpContent(httpContent)) {
+            // The peer cannot be blocked by this stream anymore
+            lastContentReceived = true;
+            updateStalledState(false);
+        } else if (bufferedBytes >= stallThreshold) {
+            updateStalledState(true);
+        }
+    }
+
+    @Override
+    public void onRemove(HttpContent httpContent) {
+        if (httpContent == null) {
+            return;
+        }
+        int bytes = httpContent.content().readableBytes();
+        if (bytes == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (!streamReset) {
+                bufferedBytes -= bytes;
+                metrics.addBufferedBytes(-bytes);
+                if (bufferedBytes < stallThreshold && !lastContentReceived) {
+                    updateStalledState(false);
+                }
+            }
+        }
+        if (ctx.executor().inEventLoop()) {
+            returnBytes(bytes);
+        } else {
+            ctx.executor().execute(() -> returnBytes(bytes));
+        }
+    }
+
+    /**
+     * Notifies that the stream is closed. A stream closed before the whole request is received has been reset, hence
+     * the content which is not read yet is no longer reported as buffered, although it can still be read.
+     */
+    synchronized void onStreamClosed() {
+        if (lastContentReceived || streamReset) {
+            return;
+        }
+        streamReset = true;
+        metrics.addBufferedBytes(-bufferedBytes);
+        bufferedBytes = 0;
+        updateStalledState(false);
+    }
+
+    private void updateStalledState(boolean stall) {
+        if (stalled != stall) {
+            stalled = stall;
+            metrics.streamStallChanged(stall);
+        }
+    }
+
+    private void returnBytes(int bytes) {
+        // Closed streams have already returned their unconsumed bytes to the connection window
+        Http2Stream stream = conn.stream(streamId);
+        if (stream == null) {
+            return;
+        }
+        Http2LocalFlowController flowController = conn.local().flowController();
+        try {
+            if (flowController.consumeBytes(stream, bytes)) {
+                ctx.flush();
+            }
+        } catch (Http2Exception e) {
+            log.warn("Failed to return {} bytes to the flow control window of stream {}", bytes, streamId, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.listener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exposes the amount of inbound HTTP/2 request content which is received but not yet read by the application, and
+ * the streams whose peers are blocked on the flow control window because of it.
+ */
+public class Http2FlowControlMetrics implements Http2FlowControlMetricsMBean {
+
+    private final AtomicLong bufferedBytes = new AtomicLong(0);
+    private final AtomicInteger stalledStreamCount = new AtomicInteger(0);
+    private final AtomicLong streamStallCount = new AtomicLong(0);
+
+    void addBufferedBytes(int delta) {
+        bufferedBytes.addAndGet(delta);
+    }
+
+    void streamStallChanged(boolean stalled) {
+        if (stalled) {
+            stalledStreamCount.incrementAndGet();
+            streamStallCount.incrementAndGet();
+        } else {
+            stalledStreamCount.decrementAndGet();
+        }
+    }
+
+    @Override
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    @Override
+    public int getStalledStreamCount() {
+        return stalledStreamCount.get();
+    }
+
+    @Override
+    public long getStreamStallCount() {
+        return streamStallCount.get();
+    }
+}
@@ -36,6 +36,7 @@ import io.netty.handler.codec.http2.Http2EventAdapter;
 import io.netty.handler.codec.http2.Http2Exception;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2Stream;
 import io.netty.util.internal.PlatformDependent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,12 +48,14 @@ import org.wso2.transport.http.netty.internal.HTTPTransportContextHolder;
 import org.wso2.transport.http.netty.message.DefaultListener;
 import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
 import org.wso2.transport.http.netty.message.HttpCarbonRequest;
+import org.wso2.transport.http.netty.message.Listener;
 import org.wso2.transport.http.netty.message.PooledDataStreamerFactory;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.Map;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
 import static io.netty.handler.codec.http2.Http2CodecUtil.getEmbeddedHttp2Exception;
 import static org.wso2.transport.http.netty.common.Util.safelyRemoveHandlers;
 
@@ -76,6 +79,8 @@ public final class Http2SourceHandler extends Http2ConnectionHandler {
     private String serverName;
     private HttpServerChannelInitializer serverChannelInitializer;
     private String remoteAddress;
+    // Key of the content listener of a stream when the flow control window is returned as the content is read
+    private Http2Connection.PropertyKey flowControlListenerKey;
 
     Http2SourceHandler(HttpServerChannelInitializer serverChannelInitializer,
                        Http2ConnectionDecoder decoder, Http2ConnectionEncoder encoder,
@@ -89,11 +94,25 @@ public final class Http2SourceHandler extends Http2ConnectionHandler {
         this.serverConnectorFuture = serverConnectorFuture;
         this.conn = conn;
         this.serverName = serverName;
+        if (serverChannelInitializer.isHttp2ConsumerFlowControlEnabled()) {
+            flowControlListenerKey = conn.newKey();
+            conn.addListener(http2FrameListener);
+        }
     }
 
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
         super.handlerAdded(ctx);
+        if (serverChannelInitializer.isHttp2ConsumerFlowControlEnabled()) {
+            // The connection window is not part of the settings, hence it is resized once the preface is sent. A
+            // smaller window takes effect as the client uses up the default window, since the window updates sent
+            // from then on only return the peer up to the configured size.
+            int delta = serverChannelInitializer.getHttp2MaxBufferedBytesPerConnection() - DEFAULT_WINDOW_SIZE;
+            if (delta != 0) {
+                decoder().flowController().incrementWindowSize(conn.connectionStream(), delta);
+                ctx.flush();
+            }
+        }
         // Remove unwanted handlers after upgrade
         safelyRemoveHandlers(ctx.pipeline(), Constants.HTTP2_TO_HTTP_FALLBACK_HANDLER, Constants.HTTP_COMPRESSOR,
                                   Constants.HTTP_TRACE_LOG_HANDLER, Constants.HTTP_ACCESS_LOG_HANDLER);
@@ -141,7 +160,7 @@ public final class Http2SourceHandler extends Http2ConnectionHandler {
                     new HttpVersion(Constants.HTTP_VERSION_2_0, true), upgradedRequest.method(),
                     upgradedRequest.uri(), upgradedRequest.headers());
 
-            HttpCarbonRequest requestCarbonMessage = setupCarbonRequest(httpRequest);
+            HttpCarbonRequest requestCarbonMessage = setupCarbonRequest(httpRequest, new DefaultListener(ctx));
             requestCarbonMessage.addHttpContent(new DefaultLastHttpContent(upgradedRequest.content()));
             notifyRequestListener(requestCarbonMessage, 1);
         }
@@ -198,7 +217,7 @@ public final class Http2SourceHandler extends Http2ConnectionHandler {
         @Override
         public void onHeadersRead(ChannelHandlerContext ctx, int streamId,
                                   Http2Headers headers, int padding, boolean endOfStream) throws Http2Exception {
-            HTTPCarbonMessage sourceReqCMsg = setupHttp2CarbonMsg(headers, streamId);
+            HTTPCarbonMessage sourceReqCMsg = setupHttp2CarbonMsg(headers, streamId, endOfStream);
 
             if (endOfStream) {
                 // Add empty last http content if no data frames available in the http request
@@ -229,6 +248,11 @@ public final class Http2SourceHandler extends Http2ConnectionHandler {
                 }
             } else {
                 log.warn("Inconsistent state detected : data has received before headers");
+                return data.readableBytes() + padding;
+            }
+            if (serverChannelInitializer.isHttp2ConsumerFlowControlEnabled()) {
+                // The data is returned to the flow controller as it is read off the request
+                return padding;
             }
             return data.readableBytes() + padding;
         }
@@ -237,10 +261,29 @@ public final class Http2SourceHandler extends Http2ConnectionHandler {
          * Creates a carbon message for HTTP/2 request.
          *
          * @param http2Headers the Http2 headers
+         * @param streamId the id of the stream
+         * @param endOfStream whether the request has no content
          * @return a HTTPCarbonMessage
          */
-        private HTTPCarbonMessage setupHttp2CarbonMsg(Http2Headers http2Headers, int streamId) throws Http2Exception {
-            return setupCarbonRequest(Util.createHttpRequestFromHttp2Headers(http2Headers, streamId));
+        private HTTPCarbonMessage setupHttp2CarbonMsg(Http2Headers http2Headers, int streamId, boolean endOfStream)
+                throws Http2Exception {
+            HttpRequest httpRequest = Util.createHttpRequestFromHttp2Headers(http2Headers, streamId);
+            if (serverChannelInitializer.isHttp2ConsumerFlowControlEnabled() && !endOfStream) {
+                Http2FlowControlListener flowControlListener = new Http2FlowControlListener(
+                        ctx, conn, streamId, serverChannelInitializer.getHttp2MaxBufferedBytesPerStream(),
+                        serverChannelInitializer.getHttp2FlowControlMetrics());
+                conn.stream(streamId).setProperty(flowControlListenerKey, flowControlListener);
+                return setupCarbonRequest(httpRequest, flowControlListener);
+            }
+            return setupCarbonRequest(httpRequest, new DefaultListener(ctx));
+        }
+
+        @Override
+        public void onStreamClosed(Http2Stream stream) {
+            Http2FlowControlListener flowControlListener = stream.getProperty(flowControlListenerKey);
+            if (flowControlListener != null) {
+                flowControlListener.onStreamClosed();
+            }
         }
     }
 
@@ -248,10 +291,12 @@ public final class Http2SourceHandler extends Http2ConnectionHandler {
      * Creates a {@code HttpCarbonRequest} from HttpRequest.
      *
      * @param httpRequest the HTTPRequest message
+     * @param contentListener the listener notified when content is added to or read off the request
      * @return the CarbonRequest Message created from given HttpRequest
      */
-    private HttpCarbonRequest setupCarbonRequest(HttpRequest httpRequest) {
-        HttpCarbonRequest sourceReqCMsg = new HttpCarbonRequest(httpRequest, new DefaultListener(ctx));
+    private HttpCarbonRequest setupCarbonRequest(HttpRequest httpRequest, Listener contentListener) {
+        HttpCarbonRequest sourceReqCMsg = new HttpCarbonRequest(httpRequest, contentListener,
+                                                              serverChannelInitializer.getEntityCollectorConfig());
         sourceReqCMsg.setProperty(Constants.POOLED_BYTE_BUFFER_FACTORY, new PooledDataStreamerFactory(ctx.alloc()));
         sourceReqCMsg.setProperty(Constants.CHNL_HNDLR_CTX, this.ctx);
         HttpVersion protocolVersion = httpRequest.protocolVersion();
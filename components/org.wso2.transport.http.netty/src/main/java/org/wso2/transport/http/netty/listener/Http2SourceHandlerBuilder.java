@@ -56,6 +56,10 @@ public final class Http2SourceHandlerBuilder
             frameLogger(new FrameLogger(TRACE, Constants.TRACE_LOG_DOWNSTREAM));
         }
         connection(conn);
+        if (serverChannelInitializer.isHttp2ConsumerFlowControlEnabled()) {
+            // Unread content of a stream is bounded by the window advertised to the client
+            initialSettings().initialWindowSize(serverChannelInitializer.getHttp2MaxBufferedBytesPerStream());
+        }
         return super.build();
     }
 
@@ -31,31 +31,33 @@ import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
 import io.netty.handler.ssl.ApplicationProtocolNames;
 import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
 import io.netty.handler.ssl.OpenSsl;
-import io.netty.handler.ssl.ReferenceCountedOpenSslContext;
 import io.netty.handler.ssl.ReferenceCountedOpenSslEngine;
-import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.stream.ChunkedWriteHandler;
-import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.util.AsciiString;
 import org.bouncycastle.cert.ocsp.OCSPResp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.common.MBeanRegistrar;
+import org.wso2.transport.http.netty.common.WriteCoalescingHandler;
 import org.wso2.transport.http.netty.common.certificatevalidation.CertificateVerificationException;
 import org.wso2.transport.http.netty.common.ssl.SSLConfig;
-import org.wso2.transport.http.netty.common.ssl.SSLHandlerFactory;
+import org.wso2.transport.http.netty.common.timeout.RequestTimeoutHandler;
+import org.wso2.transport.http.netty.common.timeout.TimeoutService;
 import org.wso2.transport.http.netty.config.ChunkConfig;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
 import org.wso2.transport.http.netty.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.config.RequestSizeValidationConfig;
+import org.wso2.transport.http.netty.config.WebSocketCompressionConfig;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.internal.websocket.WebSocketCompressionThresholdHandler;
+import org.wso2.transport.http.netty.internal.websocket.WebSocketUtil;
 import org.wso2.transport.http.netty.sender.CertificateValidationHandler;
 
 import java.io.IOException;
 import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.UnrecoverableEntryException;
-import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
 import javax.net.ssl.SSLEngine;
 
 import static org.wso2.transport.http.netty.common.Constants.ACCESS_LOG;
@@ -69,15 +71,19 @@ import static org.wso2.transport.http.netty.common.Constants.TRACE_LOG_DOWNSTREA
 public class HttpServerChannelInitializer extends ChannelInitializer<SocketChannel> {
 
     private static final Logger log = LoggerFactory.getLogger(HttpServerChannelInitializer.class);
+    private static final String HTTP2_FLOW_CONTROL_METRICS_CATEGORY = "Http2FlowControl";
 
     private int socketIdleTimeout;
+    private TimeoutService timeoutService = new TimeoutService(Constants.DEFAULT_TIMEOUT_GRANULARITY);
     private boolean httpTraceLogEnabled;
     private boolean httpAccessLogEnabled;
     private ChunkConfig chunkConfig;
     private KeepAliveConfig keepAliveConfig;
+    private EntityCollectorConfig entityCollectorConfig = EntityCollectorConfig.BLOCKING;
     private String interfaceId;
     private String serverName;
     private SSLConfig sslConfig;
+    private ServerSSLContextHolder sslContextHolder;
     private ServerConnectorFuture serverConnectorFuture;
     private RequestSizeValidationConfig reqSizeValidationConfig;
     private boolean http2Enabled = false;
@@ -86,6 +92,14 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
     private int cacheSize;
     private ChannelGroup allChannels;
     private boolean ocspStaplingEnabled = false;
+    private boolean http2ConsumerFlowControlEnabled = false;
+    private int http2MaxBufferedBytesPerStream;
+    private int http2MaxBufferedBytesPerConnection;
+    private Http2FlowControlMetrics http2FlowControlMetrics;
+    private boolean writeCoalescingEnabled = false;
+    private int writeCoalescingThreshold;
+    private int pipeliningLimit = Constants.DEFAULT_PIPELINING_LIMIT;
+    private WebSocketCompressionConfig webSocketCompressionConfig = new WebSocketCompressionConfig();
 
     @Override
     public void initChannel(SocketChannel ch) throws Exception {
@@ -97,19 +111,17 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
 
         if (http2Enabled) {
             if (sslConfig != null) {
-                SslContext sslCtx = new SSLHandlerFactory(sslConfig)
-                        .createHttp2TLSContextForServer(ocspStaplingEnabled);
                 if (ocspStaplingEnabled) {
                     OCSPResp response = getOcspResponse();
 
-                    ReferenceCountedOpenSslContext context = (ReferenceCountedOpenSslContext) sslCtx;
-                    SslHandler sslHandler = context.newHandler(ch.alloc());
-
+                    SslHandler sslHandler = sslContextHolder.newHttp2SslHandler(ch.alloc(), true);
                     ReferenceCountedOpenSslEngine engine = (ReferenceCountedOpenSslEngine) sslHandler.engine();
-                    engine.setOcspResponse(response.getEncoded());
+                    if (response != null) {
+                        engine.setOcspResponse(response.getEncoded());
+                    }
                     ch.pipeline().addLast(sslHandler, new Http2PipelineConfiguratorForServer(this));
                 } else {
-                    serverPipeline.addLast(sslCtx.newHandler(ch.alloc()),
+                    serverPipeline.addLast(sslContextHolder.newHttp2SslHandler(ch.alloc(), false),
                                            new Http2PipelineConfiguratorForServer(this));
                 }
             } else {
@@ -124,35 +136,51 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
         }
     }
 
-    private OCSPResp getOcspResponse()
-            throws IOException, KeyStoreException, UnrecoverableEntryException, NoSuchAlgorithmException,
-            CertificateVerificationException {
-        OCSPResp response = OCSPResponseBuilder.generatetOcspResponse(sslConfig, cacheSize, cacheDelay);
+    /**
+     * Returns the cached OCSP response without going to the OCSP responder, since this runs on the event loop
+     * accepting the connection. The handshake goes on without a stapled response while one is being fetched.
+     */
+    private OCSPResp getOcspResponse() throws IOException, KeyStoreException, CertificateVerificationException {
         if (!OpenSsl.isAvailable()) {
             throw new IllegalStateException("OpenSSL is not available!");
         }
         if (!OpenSsl.isOcspSupported()) {
             throw new IllegalStateException("OCSP is not supported!");
         }
-        return response;
+        return sslContextHolder.getOcspStaplingCache(interfaceId, cacheSize, cacheDelay).getCachedResponse();
+    }
+
+    /**
+     * Fetches the OCSP response to be stapled before the listener accepts connections, so that the first
+     * handshakes are served with it.
+     */
+    void prefetchOcspResponse() {
+        if (!ocspStaplingEnabled || sslContextHolder == null) {
+            return;
+        }
+        try {
+            sslContextHolder.getOcspStaplingCache(interfaceId, cacheSize, cacheDelay).getOcspResponse();
+        } catch (IOException | KeyStoreException | CertificateVerificationException e) {
+            log.warn("Could not fetch the OCSP response to staple for listener " + interfaceId
+                    + ". Handshakes go on without a stapled response until it is fetched.", e);
+        }
     }
 
     private void configureSslForHttp(ChannelPipeline serverPipeline, SocketChannel ch)
-            throws NoSuchAlgorithmException, CertificateVerificationException, UnrecoverableEntryException,
-            KeyStoreException, IOException {
+            throws CertificateVerificationException, KeyStoreException, IOException {
 
         if (ocspStaplingEnabled) {
             OCSPResp response = getOcspResponse();
 
-            ReferenceCountedOpenSslContext context = new SSLHandlerFactory(sslConfig)
-                    .getServerReferenceCountedOpenSslContext(ocspStaplingEnabled);
-            SslHandler sslHandler = context.newHandler(ch.alloc());
+            SslHandler sslHandler = sslContextHolder.newOpenSslHandler(ch.alloc(), ocspStaplingEnabled);
 
             ReferenceCountedOpenSslEngine engine = (ReferenceCountedOpenSslEngine) sslHandler.engine();
-            engine.setOcspResponse(response.getEncoded());
+            if (response != null) {
+                engine.setOcspResponse(response.getEncoded());
+            }
             ch.pipeline().addLast(sslHandler);
         } else {
-            SSLEngine sslEngine = new SSLHandlerFactory(sslConfig).buildServerSSLEngine();
+            SSLEngine sslEngine = sslContextHolder.buildServerSSLEngine();
             serverPipeline.addLast(Constants.SSL_HANDLER, new SslHandler(sslEngine));
             if (validateCertEnabled) {
                 serverPipeline.addLast(Constants.HTTP_CERT_VALIDATION_HANDLER,
@@ -188,21 +216,32 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
                 serverPipeline.addLast(HTTP_ACCESS_LOG_HANDLER, new HttpAccessLoggingHandler(ACCESS_LOG));
             }
         }
+        if (writeCoalescingEnabled) {
+            serverPipeline.addLast(Constants.WRITE_COALESCING_HANDLER,
+                                   new WriteCoalescingHandler(writeCoalescingThreshold));
+        }
         serverPipeline.addLast("uriLengthValidator", new UriAndHeaderLengthValidator(this.serverName));
         if (reqSizeValidationConfig.getMaxEntityBodySize() > -1) {
             serverPipeline.addLast("maxEntityBodyValidator", new MaxEntityBodyValidator(this.serverName,
                     reqSizeValidationConfig.getMaxEntityBodySize()));
         }
 
+        if (webSocketCompressionConfig.isEnabled()) {
+            serverPipeline.addLast(Constants.WEBSOCKET_COMPRESSION_HANDLER,
+                                   WebSocketUtil.getServerCompressionHandler(webSocketCompressionConfig));
+            serverPipeline.addLast(Constants.WEBSOCKET_COMPRESSION_THRESHOLD_HANDLER,
+                                   new WebSocketCompressionThresholdHandler(
+                                           webSocketCompressionConfig.getMinCompressionSize()));
+        }
         serverPipeline.addLast(Constants.WEBSOCKET_SERVER_HANDSHAKE_HANDLER,
                          new WebSocketServerHandshakeHandler(this.serverConnectorFuture, this.interfaceId));
         serverPipeline.addLast(Constants.HTTP_SOURCE_HANDLER,
                                new SourceHandler(this.serverConnectorFuture, this.interfaceId, this.chunkConfig,
-                                                 keepAliveConfig, this.serverName, this.allChannels));
+                                                 keepAliveConfig, this.serverName, this.allChannels,
+                                                 this.entityCollectorConfig, this.pipeliningLimit));
         if (socketIdleTimeout > 0) {
             serverPipeline.addBefore(Constants.HTTP_SOURCE_HANDLER, Constants.IDLE_STATE_HANDLER,
-                    new IdleStateHandler(socketIdleTimeout, socketIdleTimeout, socketIdleTimeout,
-                            TimeUnit.MILLISECONDS));
+                    new RequestTimeoutHandler(timeoutService, socketIdleTimeout));
         }
     }
 
@@ -255,6 +294,10 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
         this.socketIdleTimeout = idleTimeout;
     }
 
+    void setTimeoutGranularity(int timeoutGranularity) {
+        this.timeoutService = new TimeoutService(timeoutGranularity);
+    }
+
     void setHttpTraceLogEnabled(boolean httpTraceLogEnabled) {
         this.httpTraceLogEnabled = httpTraceLogEnabled;
     }
@@ -273,10 +316,26 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
 
     void setInterfaceId(String interfaceId) {
         this.interfaceId = interfaceId;
+        if (http2FlowControlMetrics != null) {
+            // The interface id is host:port, which has to be quoted to be a valid object name value
+            MBeanRegistrar.getInstance().registerMBean(http2FlowControlMetrics, HTTP2_FLOW_CONTROL_METRICS_CATEGORY,
+                                                       ObjectName.quote(interfaceId));
+        }
     }
 
-    void setSslConfig(SSLConfig sslConfig) {
-        this.sslConfig = sslConfig;
+    /**
+     * Unregisters the HTTP/2 flow control metrics of the listener from JMX. Called when the listener stops.
+     */
+    void unregisterHttp2FlowControlMetrics() {
+        if (http2FlowControlMetrics != null) {
+            MBeanRegistrar.getInstance().unregisterMBean(HTTP2_FLOW_CONTROL_METRICS_CATEGORY,
+                                                         ObjectName.quote(interfaceId));
+        }
+    }
+
+    void setSslContextHolder(ServerSSLContextHolder sslContextHolder) {
+        this.sslContextHolder = sslContextHolder;
+        this.sslConfig = sslContextHolder.getSslConfig();
     }
 
     void setReqSizeValidationConfig(RequestSizeValidationConfig reqSizeValidationConfig) {
@@ -291,6 +350,14 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
         this.keepAliveConfig = keepAliveConfig;
     }
 
+    void setEntityCollectorConfig(EntityCollectorConfig entityCollectorConfig) {
+        this.entityCollectorConfig = entityCollectorConfig;
+    }
+
+    EntityCollectorConfig getEntityCollectorConfig() {
+        return entityCollectorConfig;
+    }
+
     void setValidateCertEnabled(boolean validateCertEnabled) {
         this.validateCertEnabled = validateCertEnabled;
     }
@@ -311,6 +378,68 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
         this.ocspStaplingEnabled = ocspStaplingEnabled;
     }
 
+    /**
+     * Sets how the flow control window of inbound HTTP/2 requests is returned to the client.
+     *
+     * @param consumerDriven whether the window is returned only as the application reads the request content
+     * @param maxBufferedBytesPerStream the initial stream window size used when consumer driven
+     * @param maxBufferedBytesPerConnection the connection window size used when consumer driven
+     */
+    void setHttp2FlowControl(boolean consumerDriven, int maxBufferedBytesPerStream,
+                             int maxBufferedBytesPerConnection) {
+        this.http2ConsumerFlowControlEnabled = consumerDriven;
+        this.http2MaxBufferedBytesPerStream = maxBufferedBytesPerStream;
+        this.http2MaxBufferedBytesPerConnection = maxBufferedBytesPerConnection;
+        if (consumerDriven && http2FlowControlMetrics == null) {
+            http2FlowControlMetrics = new Http2FlowControlMetrics();
+        }
+    }
+
+    boolean isHttp2ConsumerFlowControlEnabled() {
+        return http2ConsumerFlowControlEnabled;
+    }
+
+    int getHttp2MaxBufferedBytesPerStream() {
+        return http2MaxBufferedBytesPerStream;
+    }
+
+    int getHttp2MaxBufferedBytesPerConnection() {
+        return http2MaxBufferedBytesPerConnection;
+    }
+
+    Http2FlowControlMetrics getHttp2FlowControlMetrics() {
+        return http2FlowControlMetrics;
+    }
+
+    /**
+     * Sets whether the flushes of HTTP/1.x responses are coalesced.
+     *
+     * @param writeCoalescingEnabled whether write coalescing is enabled
+     * @param writeCoalescingThreshold the number of unflushed content bytes which forces a flush
+     */
+    void setWriteCoalescing(boolean writeCoalescingEnabled, int writeCoalescingThreshold) {
+        this.writeCoalescingEnabled = writeCoalescingEnabled;
+        this.writeCoalescingThreshold = writeCoalescingThreshold;
+    }
+
+    /**
+     * Sets the maximum number of pipelined requests on a connection which can await their responses at a time.
+     *
+     * @param pipeliningLimit the maximum number of outstanding pipelined requests per connection
+     */
+    void setPipeliningLimit(int pipeliningLimit) {
+        this.pipeliningLimit = pipeliningLimit;
+    }
+
+    /**
+     * Sets the permessage-deflate compression of the WebSocket connections upgraded from this listener.
+     *
+     * @param webSocketCompressionConfig the WebSocket compression configuration
+     */
+    void setWebSocketCompressionConfig(WebSocketCompressionConfig webSocketCompressionConfig) {
+        this.webSocketCompressionConfig = webSocketCompressionConfig;
+    }
+
     /**
      * Sets whether HTTP/2.0 is enabled for the connection.
      *
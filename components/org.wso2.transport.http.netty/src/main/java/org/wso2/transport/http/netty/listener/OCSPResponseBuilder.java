@@ -28,6 +28,7 @@ import org.bouncycastle.cert.ocsp.SingleResp;
 import org.wso2.transport.http.netty.common.certificatevalidation.CertificateVerificationException;
 import org.wso2.transport.http.netty.common.certificatevalidation.Constants;
 import org.wso2.transport.http.netty.common.certificatevalidation.ocsp.OCSPCache;
+import org.wso2.transport.http.netty.common.certificatevalidation.ocsp.OCSPStaplingCache;
 import org.wso2.transport.http.netty.common.certificatevalidation.ocsp.OCSPVerifier;
 import org.wso2.transport.http.netty.common.ssl.SSLConfig;
 
@@ -56,28 +57,90 @@ public class OCSPResponseBuilder {
             throws IOException, KeyStoreException, UnrecoverableEntryException, NoSuchAlgorithmException,
             CertificateVerificationException {
 
-        Certificate[] certificateChain;
-        X509Certificate userCertificate = null;
-        X509Certificate issuer = null;
-        int cacheSize = Constants.CACHE_DEFAULT_ALLOCATED_SIZE;
-        int cacheDelayMins = Constants.CACHE_DEFAULT_DELAY_MINS;
+        OCSPCache ocspCache = initOcspCache(cacheAllcatedSize, cacheDelay);
+        X509Certificate[] certificates = getUserAndIssuerCertificates(sslConfig);
+        X509Certificate userCertificate = certificates[0];
+        X509Certificate issuer = certificates[1];
+        List<String> locations = null;
+        if (userCertificate != null) {
+            //Check whether the ocsp response is still there in the cache.
+            // If it is there, we don't need to get it from CA.
+            OCSPResp cachedResponse = ocspCache.getOCSPCacheValue(userCertificate.getSerialNumber());
+            if (cachedResponse != null) {
+                return cachedResponse;
+            } else {
+                OCSPReq request = null;
+                try {
+                    request = OCSPVerifier.generateOCSPRequest(issuer, userCertificate.getSerialNumber());
+                } catch (CertificateVerificationException e) {
+                    throw new CertificateVerificationException("Failed to generate OCSP request", e);
+                }
+                locations = getAIALocations(userCertificate);
+                return getOCSPResponse(locations, request, userCertificate, ocspCache);
+            }
+        }
+        throw new CertificateVerificationException(
+                "Could not get revocation status from OCSP. Response Status :" + response.getStatus());
+    }
 
+    /**
+     * Creates a cache which keeps the OCSP response of the server certificate to be stapled to the handshakes of a
+     * listener, and refreshes it in the background.
+     *
+     * @param sslConfig         SSL configuration of the listener
+     * @param cacheAllcatedSize size of the shared OCSP cache
+     * @param cacheDelay        delay of the shared OCSP cache manager in minutes
+     * @return OCSP stapling cache of the server certificate
+     * @throws IOException                      Occurs if it fails to read the keystore.
+     * @throws KeyStoreException                Occurs if it fails to read the certificate chain.
+     * @throws CertificateVerificationException Occurs if the server certificate is not found or has no AIA locations.
+     */
+    public static OCSPStaplingCache createOcspStaplingCache(SSLConfig sslConfig, int cacheAllcatedSize,
+            int cacheDelay) throws IOException, KeyStoreException, CertificateVerificationException {
+        initOcspCache(cacheAllcatedSize, cacheDelay);
+        X509Certificate[] certificates = getUserAndIssuerCertificates(sslConfig);
+        if (certificates[0] == null) {
+            throw new CertificateVerificationException("Could not find a certificate with a private key to staple");
+        }
+        return new OCSPStaplingCache(certificates[0], certificates[1], getAIALocations(certificates[0]),
+                getCacheDelayMins(cacheDelay));
+    }
+
+    private static OCSPCache initOcspCache(int cacheAllcatedSize, int cacheDelay) {
+        int cacheSize = Constants.CACHE_DEFAULT_ALLOCATED_SIZE;
         if (cacheAllcatedSize != 0 && cacheAllcatedSize > Constants.CACHE_MIN_ALLOCATED_SIZE
                 && cacheAllcatedSize < Constants.CACHE_MAX_ALLOCATED_SIZE) {
             cacheSize = cacheAllcatedSize;
         }
+        OCSPCache ocspCache = OCSPCache.getCache();
+        ocspCache.init(cacheSize, getCacheDelayMins(cacheDelay));
+        return ocspCache;
+    }
+
+    private static int getCacheDelayMins(int cacheDelay) {
         if (cacheDelay != 0 && cacheDelay > Constants.CACHE_MIN_DELAY_MINS
                 && cacheDelay < Constants.CACHE_MAX_DELAY_MINS) {
-            cacheDelayMins = cacheDelay;
+            return cacheDelay;
         }
+        return Constants.CACHE_DEFAULT_DELAY_MINS;
+    }
 
-        OCSPCache ocspCache = OCSPCache.getCache();
-        ocspCache.init(cacheSize, cacheDelayMins);
-
+    /**
+     * Get the own certificate and the issuer certificate from the key store.
+     *
+     * @param sslConfig SSL configuration which refers to the key store
+     * @return an array with the user certificate followed by the issuer certificate. Both are null if the key store
+     * does not have an entry with a private key.
+     * @throws IOException       Occurs if it fails to read the keystore.
+     * @throws KeyStoreException Occurs if it fails to read the certificate chain.
+     */
+    private static X509Certificate[] getUserAndIssuerCertificates(SSLConfig sslConfig)
+            throws IOException, KeyStoreException {
+        X509Certificate userCertificate = null;
+        X509Certificate issuer = null;
         KeyStore keyStore = getKeyStore(sslConfig.getKeyStore(), sslConfig.getKeyStorePass(),
                 sslConfig.getTLSStoreType());
 
-        //Get the own certificate and the issuer certificate.
         Enumeration<String> aliases = keyStore.aliases();
         String alias = "";
         boolean isAliasWithPrivateKey = false;
@@ -89,31 +152,13 @@ public class OCSPResponseBuilder {
         }
         if (isAliasWithPrivateKey) {
             // Load certificate chain
-            certificateChain = keyStore.getCertificateChain(alias);
+            Certificate[] certificateChain = keyStore.getCertificateChain(alias);
             //user certificate is there in the 0 th position of a certificate chain.
             userCertificate = (X509Certificate) certificateChain[0];
             //issuer certificate is in the last position of a certificate chain.
             issuer = (X509Certificate) certificateChain[certificateChain.length - 1];
         }
-        List<String> locations = null;
-        if (userCertificate != null) {
-            //Check whether the ocsp response is still there in the cache.
-            // If it is there, we don't need to get it from CA.
-            if (ocspCache.getOCSPCacheValue(userCertificate.getSerialNumber()) != null) {
-                return ocspCache.getOCSPCacheValue(userCertificate.getSerialNumber());
-            } else {
-                OCSPReq request = null;
-                try {
-                    request = OCSPVerifier.generateOCSPRequest(issuer, userCertificate.getSerialNumber());
-                } catch (CertificateVerificationException e) {
-                    throw new CertificateVerificationException("Failed to generate OCSP request", e);
-                }
-                locations = getAIALocations(userCertificate);
-                return getOCSPResponse(locations, request, userCertificate, ocspCache);
-            }
-        }
-        throw new CertificateVerificationException(
-                "Could not get revocation status from OCSP. Response Status :" + response.getStatus());
+        return new X509Certificate[] { userCertificate, issuer };
     }
 
     /**
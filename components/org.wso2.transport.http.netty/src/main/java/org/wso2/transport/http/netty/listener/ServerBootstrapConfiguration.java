@@ -25,8 +25,9 @@ import java.util.Map;
  */
 public class ServerBootstrapConfiguration {
 
-    private boolean tcpNoDelay, keepAlive, socketReuse;
-    private int connectTimeOut, receiveBufferSize, sendBufferSize, soBackLog, socketTimeOut;
+    private boolean tcpNoDelay, keepAlive, socketReuse, reusePort, tcpQuickAck, edgeTriggered;
+    private int connectTimeOut, receiveBufferSize, sendBufferSize, soBackLog, socketTimeOut, acceptorCount,
+            tcpFastOpen;
 
     public ServerBootstrapConfiguration(Map<String, Object> properties) {
 
@@ -51,6 +52,17 @@ public class ServerBootstrapConfiguration {
         soBackLog = Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_SO_BACKLOG, 100);
 
         socketTimeOut = Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_SO_TIMEOUT, 15);
+
+        // Following are only applied by native transports, and are ignored by NIO
+        reusePort = Util.getBooleanProperty(properties, Constants.SERVER_BOOTSTRAP_SO_REUSEPORT, false);
+
+        acceptorCount = Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_ACCEPTOR_COUNT, 1);
+
+        tcpFastOpen = Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_TCP_FASTOPEN, 0);
+
+        tcpQuickAck = Util.getBooleanProperty(properties, Constants.SERVER_BOOTSTRAP_TCP_QUICKACK, false);
+
+        edgeTriggered = Util.getBooleanProperty(properties, Constants.SERVER_BOOTSTRAP_EPOLL_EDGE_TRIGGERED, true);
     }
 
     public boolean isTcpNoDelay() {
@@ -84,4 +96,33 @@ public class ServerBootstrapConfiguration {
     public int getSoTimeOut() {
         return socketTimeOut;
     }
+
+    /**
+     * @return true if the listener socket is bound with SO_REUSEPORT
+     */
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    /**
+     * @return number of listener channels bound to the address when SO_REUSEPORT is enabled
+     */
+    public int getAcceptorCount() {
+        return acceptorCount;
+    }
+
+    /**
+     * @return length of the TCP_FASTOPEN queue of the listener socket, or 0 if TCP fast open is disabled
+     */
+    public int getTcpFastOpen() {
+        return tcpFastOpen;
+    }
+
+    public boolean isTcpQuickAck() {
+        return tcpQuickAck;
+    }
+
+    public boolean isEdgeTriggered() {
+        return edgeTriggered;
+    }
 }
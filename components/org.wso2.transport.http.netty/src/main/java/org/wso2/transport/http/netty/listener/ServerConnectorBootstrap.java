@@ -23,14 +23,17 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.group.ChannelGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Util;
 import org.wso2.transport.http.netty.common.ssl.SSLConfig;
+import org.wso2.transport.http.netty.common.transport.Transport;
+import org.wso2.transport.http.netty.common.transport.Transports;
 import org.wso2.transport.http.netty.config.ChunkConfig;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
 import org.wso2.transport.http.netty.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.config.RequestSizeValidationConfig;
+import org.wso2.transport.http.netty.config.WebSocketCompressionConfig;
 import org.wso2.transport.http.netty.contract.ServerConnector;
 import org.wso2.transport.http.netty.contract.ServerConnectorException;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
@@ -38,7 +41,11 @@ import org.wso2.transport.http.netty.contractimpl.HttpWsServerConnectorFuture;
 import org.wso2.transport.http.netty.internal.HTTPTransportContextHolder;
 import org.wso2.transport.http.netty.internal.HandlerExecutor;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * {@code ServerConnectorBootstrap} is the heart of the HTTP Server Connector.
@@ -53,7 +60,10 @@ public class ServerConnectorBootstrap {
     private HttpServerChannelInitializer httpServerChannelInitializer;
     private boolean initialized = false;
     private boolean isHttps = false;
+    private ServerSSLContextHolder sslContextHolder;
     private ChannelGroup allChannels;
+    private Transport transport = Transports.getDefaultTransport();
+    private ServerBootstrapConfiguration serverBootstrapConfiguration;
 
     public ServerConnectorBootstrap(ChannelGroup allChannels) {
         serverBootstrap = new ServerBootstrap();
@@ -72,8 +82,41 @@ public class ServerConnectorBootstrap {
             return null;
         }
 
-        return serverBootstrap
-                .bind(new InetSocketAddress(serverConnector.getHost(), serverConnector.getPort()));
+        InetSocketAddress address = new InetSocketAddress(serverConnector.getHost(), serverConnector.getPort());
+        if (serverBootstrapConfiguration != null) {
+            transport.configureServerBootstrap(serverBootstrap, serverBootstrapConfiguration);
+        }
+        ChannelFuture channelFuture = serverBootstrap.bind(address);
+        // With SO_REUSEPORT the other acceptors are bound to the same address, each on its own boss event loop,
+        // and the kernel spreads the incoming connections over them
+        int acceptorCount = getAcceptorCount(serverConnector.getPort());
+        for (int i = 1; i < acceptorCount; i++) {
+            ChannelFuture acceptorFuture = serverBootstrap.bind(address);
+            acceptorFuture.addListener(future -> {
+                if (!future.isSuccess()) {
+                    log.warn("Could not bind an additional acceptor to host " + serverConnector.getHost()
+                            + " and port " + serverConnector.getPort(), future.cause());
+                }
+            });
+            serverConnector.addAcceptorFuture(acceptorFuture);
+        }
+        return channelFuture;
+    }
+
+    private int getAcceptorCount(int port) {
+        if (serverBootstrapConfiguration == null || serverBootstrapConfiguration.getAcceptorCount() <= 1) {
+            return 1;
+        }
+        if (!serverBootstrapConfiguration.isReusePort() || !transport.isReusePortSupported()) {
+            log.warn("Binding a single acceptor as SO_REUSEPORT is not enabled with the " + transport.getName()
+                    + " transport");
+            return 1;
+        }
+        if (port == 0) {
+            // Each acceptor would be bound to a different ephemeral port
+            return 1;
+        }
+        return serverBootstrapConfiguration.getAcceptorCount();
     }
 
     private boolean unBindInterface(HTTPServerConnector serverConnector) throws InterruptedException {
@@ -87,6 +130,10 @@ public class ServerConnectorBootstrap {
         if (future != null) {
             ChannelFuture channelFuture = future.channel().close();
             channelFuture.sync();
+            for (ChannelFuture acceptorFuture : serverConnector.getAcceptorFutures()) {
+                acceptorFuture.channel().close().sync();
+            }
+            serverConnector.getAcceptorFutures().clear();
             log.info("HttpConnectorListener stopped listening on host " + serverConnector.getHost()
                     + " and port " + serverConnector.getPort());
             return true;
@@ -100,6 +147,7 @@ public class ServerConnectorBootstrap {
     }
 
     public void addSocketConfiguration(ServerBootstrapConfiguration serverBootstrapConfiguration) {
+        this.serverBootstrapConfiguration = serverBootstrapConfiguration;
         // Set other serverBootstrap parameters
         serverBootstrap.option(ChannelOption.SO_BACKLOG, serverBootstrapConfiguration.getSoBackLog());
         serverBootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, serverBootstrapConfiguration.getConnectTimeOut());
@@ -118,12 +166,16 @@ public class ServerConnectorBootstrap {
                                     serverBootstrapConfiguration.getReceiveBufferSize()));
             log.debug(String.format("Netty Server Socket SO_SNDBUF %d",
                                     serverBootstrapConfiguration.getSendBufferSize()));
+            log.debug(String.format("Netty Server Socket SO_REUSEPORT %s", serverBootstrapConfiguration.isReusePort()));
+            log.debug(String.format("Netty Server Socket acceptor count %d",
+                                    serverBootstrapConfiguration.getAcceptorCount()));
         }
     }
 
     public void addSecurity(SSLConfig sslConfig) {
         if (sslConfig != null) {
-            httpServerChannelInitializer.setSslConfig(sslConfig);
+            sslContextHolder = new ServerSSLContextHolder(sslConfig);
+            httpServerChannelInitializer.setSslContextHolder(sslContextHolder);
             isHttps = true;
         }
     }
@@ -132,12 +184,28 @@ public class ServerConnectorBootstrap {
         httpServerChannelInitializer.setIdleTimeout(socketIdleTimeout);
     }
 
+    public void addTimeoutGranularity(int timeoutGranularity) {
+        httpServerChannelInitializer.setTimeoutGranularity(timeoutGranularity);
+    }
+
     public void setHttp2Enabled(boolean isHttp2Enabled) {
         httpServerChannelInitializer.setHttp2Enabled(isHttp2Enabled);
     }
 
     public void addThreadPools(EventLoopGroup bossGroup, EventLoopGroup workerGroup) {
-        serverBootstrap.group(bossGroup, workerGroup).channel(NioServerSocketChannel.class);
+        addThreadPools(Transports.getTransport(bossGroup), bossGroup, workerGroup);
+    }
+
+    /**
+     * Sets the event loop groups of the listener, which must have been created by the given transport.
+     *
+     * @param transport transport of the event loop groups
+     * @param bossGroup event loops which accept the connections
+     * @param workerGroup event loops which serve the accepted connections
+     */
+    public void addThreadPools(Transport transport, EventLoopGroup bossGroup, EventLoopGroup workerGroup) {
+        this.transport = transport;
+        serverBootstrap.group(bossGroup, workerGroup).channel(transport.getServerChannelClass());
     }
 
     public void addHttpTraceLogHandler(Boolean isHttpTraceLogEnabled) {
@@ -175,6 +243,28 @@ public class ServerConnectorBootstrap {
         httpServerChannelInitializer.setKeepAliveConfig(keepAliveConfig);
     }
 
+    public void addEntityCollector(EntityCollectorConfig entityCollectorConfig) {
+        httpServerChannelInitializer.setEntityCollectorConfig(entityCollectorConfig);
+    }
+
+    public void addHttp2FlowControl(boolean consumerDriven, int maxBufferedBytesPerStream,
+                                    int maxBufferedBytesPerConnection) {
+        httpServerChannelInitializer.setHttp2FlowControl(consumerDriven, maxBufferedBytesPerStream,
+                                                         maxBufferedBytesPerConnection);
+    }
+
+    public void addWriteCoalescing(boolean writeCoalescingEnabled, int writeCoalescingThreshold) {
+        httpServerChannelInitializer.setWriteCoalescing(writeCoalescingEnabled, writeCoalescingThreshold);
+    }
+
+    public void addPipeliningLimit(int pipeliningLimit) {
+        httpServerChannelInitializer.setPipeliningLimit(pipeliningLimit);
+    }
+
+    public void addWebSocketCompression(WebSocketCompressionConfig webSocketCompressionConfig) {
+        httpServerChannelInitializer.setWebSocketCompressionConfig(webSocketCompressionConfig);
+    }
+
     public void addServerHeader(String serverName) {
         httpServerChannelInitializer.setServerName(serverName);
     }
@@ -184,6 +274,7 @@ public class ServerConnectorBootstrap {
        private final Logger log = LoggerFactory.getLogger(HTTPServerConnector.class);
 
         private ChannelFuture channelFuture;
+        private final List<ChannelFuture> acceptorFutures = new ArrayList<>();
         private ServerConnectorFuture serverConnectorFuture;
         private ServerConnectorBootstrap serverConnectorBootstrap;
         private String host;
@@ -200,6 +291,7 @@ public class ServerConnectorBootstrap {
 
         @Override
         public ServerConnectorFuture start() {
+            httpServerChannelInitializer.prefetchOcspResponse();
             channelFuture = bindInterface(this);
             serverConnectorFuture = new HttpWsServerConnectorFuture(channelFuture, allChannels);
             channelFuture.addListener(channelFuture -> {
@@ -221,6 +313,10 @@ public class ServerConnectorBootstrap {
             try {
                 connectorStopped = serverConnectorBootstrap.unBindInterface(this);
                 if (connectorStopped) {
+                    if (sslContextHolder != null) {
+                        sslContextHolder.stopOcspStapling();
+                    }
+                    httpServerChannelInitializer.unregisterHttp2FlowControlMetrics();
                     serverConnectorFuture.notifyPortUnbindingEvent(this.connectorID, isHttps);
                 }
             } catch (InterruptedException e) {
@@ -233,6 +329,20 @@ public class ServerConnectorBootstrap {
             return connectorStopped;
         }
 
+        @Override
+        public void reloadSslContext() throws ServerConnectorException {
+            if (sslContextHolder == null) {
+                throw new ServerConnectorException("SSL is not configured for the connector " + this.connectorID);
+            }
+            try {
+                sslContextHolder.reload();
+            } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+                throw new ServerConnectorException("Failed to reload the SSL context of " + this.connectorID, e);
+            }
+            log.info("SSL context reloaded for HTTPS interface on host " + this.getHost() + " and port "
+                    + this.getPort());
+        }
+
         @Override
         public String getConnectorID() {
             return this.connectorID;
@@ -242,6 +352,14 @@ public class ServerConnectorBootstrap {
             return channelFuture;
         }
 
+        private void addAcceptorFuture(ChannelFuture acceptorFuture) {
+            acceptorFutures.add(acceptorFuture);
+        }
+
+        private List<ChannelFuture> getAcceptorFutures() {
+            return acceptorFutures;
+        }
+
         @Override
         public String toString() {
             return this.host + "-" + this.port;
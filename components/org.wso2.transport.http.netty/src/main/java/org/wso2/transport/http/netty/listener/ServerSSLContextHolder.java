@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.listener;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.ReferenceCountedOpenSslContext;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.common.MBeanRegistrar;
+import org.wso2.transport.http.netty.common.certificatevalidation.CertificateVerificationException;
+import org.wso2.transport.http.netty.common.certificatevalidation.ocsp.OCSPStaplingCache;
+import org.wso2.transport.http.netty.common.ssl.SSLConfig;
+import org.wso2.transport.http.netty.common.ssl.SSLHandlerFactory;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStoreException;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+
+/**
+ * Holds the SSL contexts of a single listener so that the key store and the trust store are read only once and
+ * every accepted connection just creates an {@link SSLEngine} out of the shared context.
+ * <p>
+ * The contexts can be rebuilt at runtime through {@link #reload()} to pick up rotated certificates. Connections
+ * which are already established keep using the engine they were created with. Every handshake on a netty context
+ * holds a reference count of it, so that the OpenSSL context replaced by a reload is freed once the handshakes
+ * which are still using it are done.
+ */
+public class ServerSSLContextHolder {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerSSLContextHolder.class);
+
+    private final SSLConfig sslConfig;
+    private volatile SSLContexts sslContexts;
+
+    ServerSSLContextHolder(SSLConfig sslConfig) {
+        this.sslConfig = sslConfig;
+        this.sslContexts = new SSLContexts(new SSLHandlerFactory(sslConfig));
+    }
+
+    SSLConfig getSslConfig() {
+        return sslConfig;
+    }
+
+    /**
+     * @return a new server mode {@link SSLEngine} created from the shared JDK SSL context
+     */
+    SSLEngine buildServerSSLEngine() {
+        return sslContexts.sslHandlerFactory.buildServerSSLEngine();
+    }
+
+    /**
+     * @param allocator  the allocator of the channel
+     * @param enableOcsp whether OCSP stapling is enabled
+     * @return a handler of the shared ALPN enabled context used for HTTP/2 over TLS
+     * @throws SSLException if the context cannot be built
+     */
+    SslHandler newHttp2SslHandler(ByteBufAllocator allocator, boolean enableOcsp) throws SSLException {
+        SslContext context;
+        do {
+            context = retain(sslContexts.getHttp2SslContext(enableOcsp));
+        } while (context == null);
+        return newHandler(context, allocator);
+    }
+
+    /**
+     * @param allocator  the allocator of the channel
+     * @param enableOcsp whether OCSP stapling is enabled
+     * @return a handler of the shared OpenSSL context used for HTTP/1.x over TLS when OCSP stapling is enabled
+     * @throws SSLException if the context cannot be built
+     */
+    SslHandler newOpenSslHandler(ByteBufAllocator allocator, boolean enableOcsp) throws SSLException {
+        SslContext context;
+        do {
+            context = retain(sslContexts.getOpenSslContext(enableOcsp));
+        } while (context == null);
+        return newHandler(context, allocator);
+    }
+
+    /**
+     * Takes a reference count of a context of the current contexts.
+     *
+     * @return the context, or null if the contexts have been replaced and released by a reload in the meantime, in
+     * which case the reloaded contexts are already published
+     */
+    private static SslContext retain(SslContext context) {
+        if (context == null) {
+            return null;
+        }
+        try {
+            ReferenceCountUtil.retain(context);
+            return context;
+        } catch (IllegalReferenceCountException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a handler of a retained context, which gives the reference count back once the handshake is done.
+     * The native SSL object of the connection keeps the native context alive from then on.
+     */
+    private static SslHandler newHandler(SslContext context, ByteBufAllocator allocator) {
+        SslHandler sslHandler;
+        try {
+            sslHandler = context.newHandler(allocator);
+        } catch (RuntimeException e) {
+            ReferenceCountUtil.release(context);
+            throw e;
+        }
+        sslHandler.handshakeFuture().addListener(future -> ReferenceCountUtil.release(context));
+        return sslHandler;
+    }
+
+    /**
+     * @param interfaceId id of the listener, used to register the cache for JMX monitoring
+     * @param cacheSize   size of the shared OCSP cache
+     * @param cacheDelay  delay of the shared OCSP cache manager in minutes
+     * @return the cache which keeps the OCSP response to be stapled for the certificate in the key store
+     * @throws IOException                      if the key store cannot be read
+     * @throws KeyStoreException                if the certificate chain cannot be read
+     * @throws CertificateVerificationException if the certificate does not have OCSP responder locations
+     */
+    OCSPStaplingCache getOcspStaplingCache(String interfaceId, int cacheSize, int cacheDelay)
+            throws IOException, KeyStoreException, CertificateVerificationException {
+        return sslContexts.getOcspStaplingCache(sslConfig, interfaceId, cacheSize, cacheDelay);
+    }
+
+    /**
+     * Re-reads the key store and the trust store and swaps the shared contexts. New connections are served with
+     * the reloaded contexts while the existing ones are left untouched. The netty contexts which are in use are
+     * rebuilt right away, so that a key store which can not be loaded fails the reload rather than the handshakes.
+     * The reference count of the replaced contexts is given back, which frees them once the handshakes still using
+     * them are done.
+     *
+     * @throws IOException              if the key store or the trust store can not be read
+     * @throws GeneralSecurityException if the key material can not be loaded
+     */
+    public synchronized void reload() throws IOException, GeneralSecurityException {
+        SSLContexts oldContexts = sslContexts;
+        SSLContexts newContexts = new SSLContexts(createSslHandlerFactory());
+        try {
+            newContexts.buildContextsOf(oldContexts);
+        } catch (SSLException e) {
+            newContexts.release();
+            throw e;
+        }
+        sslContexts = newContexts;
+        oldContexts.release();
+        // The MBean is left registered since the cache of the new contexts is registered under the same name
+        OCSPStaplingCache oldCache = oldContexts.stopOcspStapling(false);
+        if (oldCache != null) {
+            prefetchOcspResponse(oldContexts);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Reloaded the SSL context using key store " + sslConfig.getKeyStore());
+        }
+    }
+
+    private SSLHandlerFactory createSslHandlerFactory() throws IOException, GeneralSecurityException {
+        try {
+            return new SSLHandlerFactory(sslConfig);
+        } catch (IllegalArgumentException e) {
+            // The factory wraps the failures of loading the stores
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof GeneralSecurityException) {
+                throw (GeneralSecurityException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops refreshing the stapled OCSP response and unregisters the cache from JMX. Called when the listener stops.
+     */
+    synchronized void stopOcspStapling() {
+        sslContexts.stopOcspStapling(true);
+    }
+
+    /**
+     * Fetches the OCSP response of the reloaded certificate right away, so that handshakes are not served without
+     * a stapled response until the event loops fetch it.
+     */
+    private void prefetchOcspResponse(SSLContexts oldContexts) {
+        try {
+            getOcspStaplingCache(oldContexts.interfaceId, oldContexts.cacheSize, oldContexts.cacheDelay)
+                    .getOcspResponse();
+        } catch (IOException | KeyStoreException | CertificateVerificationException e) {
+            log.warn("Could not fetch the OCSP response of the reloaded certificate of listener "
+                    + oldContexts.interfaceId + ". It is fetched again by the next handshake.", e);
+        }
+    }
+
+    /**
+     * Snapshot of the contexts built from one read of the key store and the trust store. The netty
+     * contexts and the OCSP stapling cache are created lazily since they are only needed when HTTP/2 or OCSP
+     * stapling is enabled. Once released, no more netty contexts are created out of the snapshot.
+     */
+    private static class SSLContexts {
+
+        private final SSLHandlerFactory sslHandlerFactory;
+        private volatile SslContext http2SslContext;
+        private volatile ReferenceCountedOpenSslContext openSslContext;
+        private volatile OCSPStaplingCache ocspStaplingCache;
+        private boolean http2OcspEnabled;
+        private boolean openSslOcspEnabled;
+        private boolean released;
+        private String interfaceId;
+        private int cacheSize;
+        private int cacheDelay;
+
+        SSLContexts(SSLHandlerFactory sslHandlerFactory) {
+            this.sslHandlerFactory = sslHandlerFactory;
+        }
+
+        SslContext getHttp2SslContext(boolean enableOcsp) throws SSLException {
+            SslContext context = http2SslContext;
+            if (context == null) {
+                synchronized (this) {
+                    context = http2SslContext;
+                    if (context == null && !released) {
+                        context = sslHandlerFactory.createHttp2TLSContextForServer(enableOcsp);
+                        http2OcspEnabled = enableOcsp;
+                        http2SslContext = context;
+                    }
+                }
+            }
+            return context;
+        }
+
+        ReferenceCountedOpenSslContext getOpenSslContext(boolean enableOcsp) throws SSLException {
+            ReferenceCountedOpenSslContext context = openSslContext;
+            if (context == null) {
+                synchronized (this) {
+                    context = openSslContext;
+                    if (context == null && !released) {
+                        context = sslHandlerFactory.getServerReferenceCountedOpenSslContext(enableOcsp);
+                        openSslOcspEnabled = enableOcsp;
+                        openSslContext = context;
+                    }
+                }
+            }
+            return context;
+        }
+
+        OCSPStaplingCache getOcspStaplingCache(SSLConfig sslConfig, String interfaceId, int cacheSize,
+                int cacheDelay) throws IOException, KeyStoreException, CertificateVerificationException {
+            OCSPStaplingCache cache = ocspStaplingCache;
+            if (cache == null) {
+                synchronized (this) {
+                    cache = ocspStaplingCache;
+                    if (cache == null) {
+                        cache = OCSPResponseBuilder.createOcspStaplingCache(sslConfig, cacheSize, cacheDelay);
+                        MBeanRegistrar.getInstance().registerMBean(cache, "OCSPStapling", interfaceId);
+                        this.interfaceId = interfaceId;
+                        this.cacheSize = cacheSize;
+                        this.cacheDelay = cacheDelay;
+                        ocspStaplingCache = cache;
+                    }
+                }
+            }
+            return cache;
+        }
+
+        /**
+         * Builds the netty contexts which have been built out of the given contexts.
+         */
+        void buildContextsOf(SSLContexts contexts) throws SSLException {
+            boolean http2OcspEnabled;
+            boolean openSslOcspEnabled;
+            boolean buildHttp2SslContext;
+            boolean buildOpenSslContext;
+            synchronized (contexts) {
+                http2OcspEnabled = contexts.http2OcspEnabled;
+                openSslOcspEnabled = contexts.openSslOcspEnabled;
+                buildHttp2SslContext = contexts.http2SslContext != null;
+                buildOpenSslContext = contexts.openSslContext != null;
+            }
+            if (buildHttp2SslContext) {
+                getHttp2SslContext(http2OcspEnabled);
+            }
+            if (buildOpenSslContext) {
+                getOpenSslContext(openSslOcspEnabled);
+            }
+        }
+
+        /**
+         * Gives back the reference count of the netty contexts held by the snapshot.
+         */
+        synchronized void release() {
+            released = true;
+            ReferenceCountUtil.release(http2SslContext);
+            ReferenceCountUtil.release(openSslContext);
+        }
+
+        synchronized OCSPStaplingCache stopOcspStapling(boolean unregister) {
+            OCSPStaplingCache cache = ocspStaplingCache;
+            if (cache != null) {
+                cache.stop();
+                if (unregister) {
+                    MBeanRegistrar.getInstance().unregisterMBean("OCSPStapling", interfaceId);
+                }
+            }
+            return cache;
+        }
+    }
+}
@@ -36,13 +36,14 @@ import io.netty.handler.codec.http.HttpServerUpgradeHandler;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.ssl.SslCloseCompletionEvent;
-import io.netty.handler.timeout.IdleStateEvent;
-import org.apache.commons.pool.impl.GenericObjectPool;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.Util;
+import org.wso2.transport.http.netty.common.timeout.RequestTimeoutEvent;
 import org.wso2.transport.http.netty.config.ChunkConfig;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
 import org.wso2.transport.http.netty.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.ServerConnectorException;
@@ -58,8 +59,8 @@ import org.wso2.transport.http.netty.message.PooledDataStreamerFactory;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.URISyntaxException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 /**
  * A Class responsible for handle  incoming message through netty inbound pipeline.
@@ -69,10 +70,10 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
 
     private HTTPCarbonMessage sourceReqCmsg;
     private HandlerExecutor handlerExecutor;
-    private Map<String, GenericObjectPool> targetChannelPool;
     private ServerConnectorFuture serverConnectorFuture;
     private ChunkConfig chunkConfig;
     private KeepAliveConfig keepAliveConfig;
+    private EntityCollectorConfig entityCollectorConfig;
     private HttpResponseFuture httpOutboundRespFuture;
     private String interfaceId;
     private String serverName;
@@ -80,17 +81,39 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
     private ChannelGroup allChannels;
     protected ChannelHandlerContext ctx;
     private SocketAddress remoteAddress;
+    private int pipeliningLimit;
+    // Listeners of the requests whose responses are not yet written, in the order the requests were received
+    private final Queue<HttpOutboundRespListener> pendingResponses = new ArrayDeque<>();
+    // Messages of the requests received beyond the pipelining limit, which are dispatched as responses are written
+    private final Queue<Object> heldMessages = new ArrayDeque<>();
+    // Whether the channel was reading automatically before the first of the held messages was held
+    private boolean autoReadBeforeHolding;
 
     public SourceHandler(ServerConnectorFuture serverConnectorFuture, String interfaceId, ChunkConfig chunkConfig,
                          KeepAliveConfig keepAliveConfig, String serverName, ChannelGroup allChannels) {
+        this(serverConnectorFuture, interfaceId, chunkConfig, keepAliveConfig, serverName, allChannels,
+             EntityCollectorConfig.BLOCKING);
+    }
+
+    public SourceHandler(ServerConnectorFuture serverConnectorFuture, String interfaceId, ChunkConfig chunkConfig,
+                         KeepAliveConfig keepAliveConfig, String serverName, ChannelGroup allChannels,
+                         EntityCollectorConfig entityCollectorConfig) {
+        this(serverConnectorFuture, interfaceId, chunkConfig, keepAliveConfig, serverName, allChannels,
+             entityCollectorConfig, Constants.DEFAULT_PIPELINING_LIMIT);
+    }
+
+    public SourceHandler(ServerConnectorFuture serverConnectorFuture, String interfaceId, ChunkConfig chunkConfig,
+                         KeepAliveConfig keepAliveConfig, String serverName, ChannelGroup allChannels,
+                         EntityCollectorConfig entityCollectorConfig, int pipeliningLimit) {
         this.serverConnectorFuture = serverConnectorFuture;
         this.interfaceId = interfaceId;
         this.chunkConfig = chunkConfig;
         this.keepAliveConfig = keepAliveConfig;
-        this.targetChannelPool = new ConcurrentHashMap<>();
         this.idleTimeout = false;
         this.serverName = serverName;
         this.allChannels = allChannels;
+        this.entityCollectorConfig = entityCollectorConfig;
+        this.pipeliningLimit = Math.max(1, pipeliningLimit);
     }
 
     @Override
@@ -110,9 +133,21 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         this.remoteAddress = ctx.channel().remoteAddress();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!heldMessages.isEmpty() || (msg instanceof HttpRequest && pendingResponses.size() >= pipeliningLimit)) {
+            // Stop reading further pipelined requests until a pending response is written
+            if (heldMessages.isEmpty()) {
+                autoReadBeforeHolding = ctx.channel().config().isAutoRead();
+            }
+            heldMessages.add(msg);
+            ctx.channel().config().setAutoRead(false);
+            return;
+        }
+        readInboundMessage(ctx, msg);
+    }
+
+    private void readInboundMessage(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (msg instanceof HttpRequest) {
             HttpRequest httpRequest = (HttpRequest) msg;
             sourceReqCmsg = setupCarbonMessage(httpRequest, ctx);
@@ -150,7 +185,8 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
             handlerExecutor.executeAtSourceRequestReceiving(sourceReqCmsg);
         }
 
-        sourceReqCmsg = new HttpCarbonRequest((HttpRequest) httpMessage, new DefaultListener(ctx));
+        sourceReqCmsg = new HttpCarbonRequest((HttpRequest) httpMessage, new DefaultListener(ctx),
+                                              entityCollectorConfig);
         sourceReqCmsg.setProperty(Constants.POOLED_BYTE_BUFFER_FACTORY, new PooledDataStreamerFactory(ctx.alloc()));
 
         HttpRequest httpRequest = (HttpRequest) httpMessage;
@@ -195,8 +231,13 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         if (serverConnectorFuture != null) {
             try {
                 ServerConnectorFuture outboundRespFuture = httpRequestMsg.getHttpResponseFuture();
-                outboundRespFuture.setHttpConnectorListener(
-                        new HttpOutboundRespListener(ctx, httpRequestMsg, chunkConfig, keepAliveConfig, serverName));
+                HttpOutboundRespListener outboundRespListener = new HttpOutboundRespListener(
+                        ctx, httpRequestMsg, chunkConfig, keepAliveConfig, serverName, this);
+                pendingResponses.add(outboundRespListener);
+                if (pendingResponses.size() == 1) {
+                    outboundRespListener.startWriting();
+                }
+                outboundRespFuture.setHttpConnectorListener(outboundRespListener);
                 this.serverConnectorFuture.notifyHttpListener(httpRequestMsg);
             } catch (Exception e) {
                 log.error("Error while notifying listeners", e);
@@ -206,12 +247,66 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    /**
+     * Notifies that the response of a request has been written, so that the response of the next pipelined request
+     * can be written and the requests held back by the pipelining limit can be dispatched.
+     *
+     * @param outboundRespListener the listener which wrote the response
+     */
+    public void responseCompleted(HttpOutboundRespListener outboundRespListener) {
+        if (pendingResponses.peek() != outboundRespListener) {
+            return;
+        }
+        pendingResponses.poll();
+        HttpOutboundRespListener nextRespListener = pendingResponses.peek();
+        if (nextRespListener != null) {
+            nextRespListener.startWriting();
+        }
+        if (!heldMessages.isEmpty()) {
+            dispatchHeldMessages();
+        }
+    }
+
+    private void dispatchHeldMessages() {
+        try {
+            while (!heldMessages.isEmpty()) {
+                if (heldMessages.peek() instanceof HttpRequest && pendingResponses.size() >= pipeliningLimit) {
+                    // Reading may have been resumed while dispatching the content of the previous request
+                    ctx.channel().config().setAutoRead(false);
+                    return;
+                }
+                readInboundMessage(ctx, heldMessages.poll());
+            }
+        } catch (Exception e) {
+            ctx.fireExceptionCaught(e);
+            return;
+        }
+        if (sourceReqCmsg == null) {
+            ctx.channel().config().setAutoRead(autoReadBeforeHolding);
+        } else {
+            // The content listener of the request controls reading from here on
+            ctx.channel().read();
+        }
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         // Stop the connector timer
         ctx.close();
         handleErrorCloseScenario(ctx);
-        closeTargetChannels();
+        releasePendingResponses();
+    }
+
+    private void releasePendingResponses() {
+        Object heldMessage;
+        while ((heldMessage = heldMessages.poll()) != null) {
+            ReferenceCountUtil.release(heldMessage);
+        }
+        // Let the pending responses fail to be written to the closed connection
+        HttpOutboundRespListener outboundRespListener;
+        while ((outboundRespListener = pendingResponses.poll()) != null) {
+            outboundRespListener.startWriting();
+        }
     }
 
     private void handleErrorCloseScenario(ChannelHandlerContext ctx) {
@@ -225,16 +320,6 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
-    private void closeTargetChannels() {
-        targetChannelPool.forEach((hostPortKey, genericObjectPool) -> {
-            try {
-                targetChannelPool.remove(hostPortKey).close();
-            } catch (Exception e) {
-                log.error("Couldn't close target channel socket connections", e);
-            }
-        });
-    }
-
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         if (ctx != null && ctx.channel().isActive()) {
@@ -253,17 +338,13 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         log.warn(errorMessage);
     }
 
-    public Map<String, GenericObjectPool> getTargetChannelPool() {
-        return targetChannelPool;
-    }
-
     public ChannelHandlerContext getInboundChannelContext() {
         return ctx;
     }
 
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
-        if (evt instanceof IdleStateEvent) {
+        if (evt instanceof RequestTimeoutEvent) {
             this.idleTimeout = true;
             this.channelInactive(ctx);
             handleIdleErrorScenario();
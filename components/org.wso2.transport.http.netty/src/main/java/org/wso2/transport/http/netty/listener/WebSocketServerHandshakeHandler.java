@@ -75,8 +75,14 @@ public class WebSocketServerHandshakeHandler extends ChannelInboundHandlerAdapte
                 }
                 ChannelPipeline pipeline = ctx.pipeline();
                 ChannelHandlerContext decoderCtx = pipeline.context(HttpRequestDecoder.class);
+                // Frames are written through the context of the handshake handler, so it is placed after the
+                // compression handlers for the frames to reach the extension encoder
+                ChannelHandlerContext anchorCtx = pipeline.context(Constants.WEBSOCKET_COMPRESSION_THRESHOLD_HANDLER);
+                if (anchorCtx == null) {
+                    anchorCtx = decoderCtx;
+                }
                 String aggregatorName = "aggregate";
-                pipeline.addAfter(decoderCtx.name(), aggregatorName, new HttpObjectAggregator(8192));
+                pipeline.addAfter(anchorCtx.name(), aggregatorName, new HttpObjectAggregator(8192));
                 pipeline.addAfter(aggregatorName, "handshake", new SimpleChannelInboundHandler<FullHttpRequest>() {
                     @Override
                     protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest msg) throws Exception {
@@ -97,8 +103,8 @@ public class WebSocketServerHandshakeHandler extends ChannelInboundHandlerAdapte
                         ctx.fireChannelInactive();
                     }
                 });
-                decoderCtx.fireChannelRead(msg);
-                decoderCtx.channel().config().setAutoRead(false);
+                anchorCtx.fireChannelRead(msg);
+                anchorCtx.channel().config().setAutoRead(false);
                 return;
             }
         }
@@ -148,6 +154,7 @@ public class WebSocketServerHandshakeHandler extends ChannelInboundHandlerAdapte
                                            headers, ctx, interfaceId);
         DefaultWebSocketConnection webSocketConnection = WebSocketUtil.getWebSocketConnection(webSocketSourceHandler,
                                                                                               isSecured, uri);
+        webSocketSourceHandler.setWebSocketConnection(webSocketConnection);
         DefaultWebSocketInitMessage initMessage = new DefaultWebSocketInitMessage(ctx, fullHttpRequest,
                                                                                   webSocketSourceHandler, headers);
 
@@ -19,8 +19,8 @@
 
 package org.wso2.transport.http.netty.listener;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
@@ -44,8 +44,10 @@ import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketConnection;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketMessageImpl;
+import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketBinaryMessageImpl;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketCloseMessageImpl;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketControlMessageImpl;
+import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketTextMessageImpl;
 import org.wso2.transport.http.netty.exception.UnknownWebSocketFrameTypeException;
 import org.wso2.transport.http.netty.internal.HTTPTransportContextHolder;
 import org.wso2.transport.http.netty.internal.HandlerExecutor;
@@ -53,7 +55,6 @@ import org.wso2.transport.http.netty.internal.websocket.WebSocketUtil;
 
 import java.net.InetSocketAddress;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
 
 /**
  * This class handles all kinds of WebSocketFrames
@@ -71,7 +72,7 @@ public class WebSocketSourceHandler extends WebSocketInboundFrameHandler {
     private String subProtocol = null;
     private HandlerExecutor handlerExecutor;
     private WebSocketFrameType continuationFrameType;
-    private CountDownLatch closeCountDownLatch = null;
+    private ChannelPromise closePromise = null;
     private DefaultWebSocketConnection webSocketConnection;
     private boolean closeFrameReceived;
 
@@ -102,6 +103,16 @@ public class WebSocketSourceHandler extends WebSocketInboundFrameHandler {
         this.subProtocol = negotiatedSubProtocol;
     }
 
+    /**
+     * Set the connection handed to the application with the handshake, so that the messages and the writability
+     * changes of the connection refer to the same {@link DefaultWebSocketConnection}.
+     *
+     * @param webSocketConnection connection of the handshake.
+     */
+    public void setWebSocketConnection(DefaultWebSocketConnection webSocketConnection) {
+        this.webSocketConnection = webSocketConnection;
+    }
+
     @Override
     public DefaultWebSocketConnection getWebSocketConnection() {
         return webSocketConnection;
@@ -113,8 +124,8 @@ public class WebSocketSourceHandler extends WebSocketInboundFrameHandler {
     }
 
     @Override
-    public void setCloseCountDownLatch(CountDownLatch closeCountDownLatch) {
-        this.closeCountDownLatch = closeCountDownLatch;
+    public void setClosePromise(ChannelPromise closePromise) {
+        this.closePromise = closePromise;
     }
 
     @Override
@@ -134,7 +145,9 @@ public class WebSocketSourceHandler extends WebSocketInboundFrameHandler {
         if (this.handlerExecutor != null) {
             this.handlerExecutor.executeAtSourceConnectionInitiation(Integer.toString(ctx.hashCode()));
         }
-        webSocketConnection = WebSocketUtil.getWebSocketConnection(this, isSecured, target);
+        if (webSocketConnection == null) {
+            webSocketConnection = WebSocketUtil.getWebSocketConnection(this, isSecured, target);
+        }
     }
 
     @Override
@@ -164,6 +177,15 @@ public class WebSocketSourceHandler extends WebSocketInboundFrameHandler {
         }
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (webSocketConnection != null) {
+            webSocketConnection.onWritabilityChanged();
+            connectorFuture.notifyWSWritabilityChanged(webSocketConnection);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg)
             throws UnknownWebSocketFrameTypeException, ServerConnectorException {
@@ -179,13 +201,13 @@ public class WebSocketSourceHandler extends WebSocketInboundFrameHandler {
             if (!textFrame.isFinalFragment()) {
                 continuationFrameType = WebSocketFrameType.TEXT;
             }
-            notifyTextMessage(textFrame, textFrame.text(), textFrame.isFinalFragment());
+            notifyTextMessage(textFrame);
         } else if (msg instanceof BinaryWebSocketFrame) {
             BinaryWebSocketFrame binaryFrame = (BinaryWebSocketFrame) msg;
             if (!binaryFrame.isFinalFragment()) {
                 continuationFrameType = WebSocketFrameType.BINARY;
             }
-            notifyBinaryMessage(binaryFrame, binaryFrame.content(), binaryFrame.isFinalFragment());
+            notifyBinaryMessage(binaryFrame);
         } else if (msg instanceof CloseWebSocketFrame) {
             webSocketConnection.setCloseFrameReceived(true);
             notifyCloseMessage((CloseWebSocketFrame) msg);
@@ -197,42 +219,48 @@ public class WebSocketSourceHandler extends WebSocketInboundFrameHandler {
             ContinuationWebSocketFrame frame = (ContinuationWebSocketFrame) msg;
             switch (continuationFrameType) {
                 case TEXT:
-                    notifyTextMessage(frame, frame.text(), frame.isFinalFragment());
+                    notifyTextMessage(frame);
                     break;
                 case BINARY:
-                    notifyBinaryMessage(frame, frame.content(), frame.isFinalFragment());
+                    notifyBinaryMessage(frame);
                     break;
             }
         }
     }
 
-    private void notifyTextMessage(WebSocketFrame frame, String text, boolean finalFragment)
-            throws ServerConnectorException {
-        WebSocketMessageImpl webSocketTextMessage = WebSocketUtil.getWebSocketMessage(frame, text, finalFragment);
-        setupCommonProperties(webSocketTextMessage);
-        connectorFuture.notifyWSListener((WebSocketTextMessage) webSocketTextMessage);
+    private void notifyTextMessage(WebSocketFrame frame) throws ServerConnectorException {
+        WebSocketTextMessageImpl webSocketTextMessage = WebSocketUtil.getWebSocketTextMessage(frame);
+        try {
+            setupCommonProperties(webSocketTextMessage);
+            connectorFuture.notifyWSListener((WebSocketTextMessage) webSocketTextMessage);
+        } finally {
+            webSocketTextMessage.release();
+        }
     }
 
-    private void notifyBinaryMessage(WebSocketFrame frame, ByteBuf content, boolean finalFragment)
-            throws ServerConnectorException {
-        WebSocketMessageImpl webSocketBinaryMessage = WebSocketUtil.getWebSocketMessage(frame, content, finalFragment);
-        setupCommonProperties(webSocketBinaryMessage);
-        connectorFuture.notifyWSListener((WebSocketBinaryMessage) webSocketBinaryMessage);
+    private void notifyBinaryMessage(WebSocketFrame frame) throws ServerConnectorException {
+        WebSocketBinaryMessageImpl webSocketBinaryMessage = WebSocketUtil.getWebSocketBinaryMessage(frame);
+        try {
+            setupCommonProperties(webSocketBinaryMessage);
+            connectorFuture.notifyWSListener((WebSocketBinaryMessage) webSocketBinaryMessage);
+        } finally {
+            webSocketBinaryMessage.release();
+        }
     }
 
     private void notifyCloseMessage(CloseWebSocketFrame closeWebSocketFrame) throws ServerConnectorException {
         String reasonText = closeWebSocketFrame.reasonText();
         int statusCode = closeWebSocketFrame.statusCode();
 
-        // closeCountDownLatch == null means that WebSocketConnection has not yet initiated a connection closure.
-        if (closeCountDownLatch == null) {
+        // closePromise == null means that WebSocketConnection has not yet initiated a connection closure.
+        if (closePromise == null) {
             WebSocketMessageImpl webSocketCloseMessage = new WebSocketCloseMessageImpl(statusCode, reasonText);
             setupCommonProperties(webSocketCloseMessage);
             connectorFuture.notifyWSListener((WebSocketCloseMessage) webSocketCloseMessage);
             closeFrameReceived = true;
         } else {
             ctx.writeAndFlush(new CloseWebSocketFrame(statusCode, reasonText)).addListener(
-                    future -> closeCountDownLatch.countDown());
+                    future -> closePromise.trySuccess());
         }
         closeWebSocketFrame.release();
     }
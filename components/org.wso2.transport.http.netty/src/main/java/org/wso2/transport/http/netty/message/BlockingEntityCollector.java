@@ -98,6 +98,25 @@ public class BlockingEntityCollector implements EntityCollector {
         return null;
     }
 
+    public HttpContent pollHttpContent() {
+        try {
+            readWriteLock.lock();
+            if (state == EntityBodyState.CONSUMABLE) {
+                HttpContent httpContent = httpContentQueue.poll();
+
+                if (httpContent instanceof LastHttpContent) {
+                    state = EntityBodyState.CONSUMED;
+                    httpContentQueue.clear();
+                }
+
+                return httpContent;
+            }
+        } finally {
+            readWriteLock.unlock();
+        }
+        return null;
+    }
+
     public ByteBuf getMessageBody() {
         HttpContent httpContent = getHttpContent();
         if (httpContent != null) {
@@ -40,6 +40,12 @@ public interface EntityCollector {
      */
     HttpContent getHttpContent();
 
+    /**
+     * Get the first httpContent from the queue without waiting for it to arrive.
+     * @return HttpContent, or null if there is no content in the queue
+     */
+    HttpContent pollHttpContent();
+
     /**
      * Get the first ByteBuffer version of the HttpContent from the queue.
      * @return ByteBuffer
@@ -19,6 +19,8 @@
 package org.wso2.transport.http.netty.message;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.DefaultHttpRequest;
@@ -27,7 +29,9 @@ import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
 import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.ServerConnectorException;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
@@ -36,8 +40,11 @@ import org.wso2.transport.http.netty.contractimpl.HttpWsServerConnectorFuture;
 
 import java.nio.ByteBuffer;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * HTTP based representation for HTTPCarbonMessage.
@@ -48,11 +55,18 @@ public class HTTPCarbonMessage {
     private EntityCollector blockingEntityCollector;
     private Map<String, Object> properties = new HashMap<>();
 
-    private MessageFuture messageFuture;
+    private volatile MessageFuture messageFuture;
     private final ServerConnectorFuture httpOutboundRespFuture = new HttpWsServerConnectorFuture();
     private final DefaultHttpResponseFuture httpOutboundRespStatusFuture = new DefaultHttpResponseFuture();
     private final Observable contentObservable = new DefaultObservable();
 
+    // Used to complete the async length and aggregation futures, the length and the last content are written only
+    // by the thread which adds the content
+    private volatile long receivedContentLength;
+    private volatile LastHttpContent lastHttpContent;
+    private final Queue<LengthFuture> lengthFutures = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<CompletableFuture<CompositeByteBuf>> aggregationFuture = new AtomicReference<>();
+
     public HTTPCarbonMessage(HttpMessage httpMessage, Listener contentListener) {
         this.httpMessage = httpMessage;
         setBlockingEntityCollector(new BlockingEntityCollector(Constants.ENDPOINT_TIMEOUT));
@@ -70,18 +84,63 @@ public class HTTPCarbonMessage {
         setBlockingEntityCollector(new BlockingEntityCollector(Constants.ENDPOINT_TIMEOUT));
     }
 
+    public HTTPCarbonMessage(HttpMessage httpMessage, Listener contentListener,
+            EntityCollectorConfig entityCollectorConfig) {
+        this.httpMessage = httpMessage;
+        if (entityCollectorConfig == EntityCollectorConfig.LOCK_FREE) {
+            setBlockingEntityCollector(new LockFreeEntityCollector(Constants.ENDPOINT_TIMEOUT));
+        } else {
+            setBlockingEntityCollector(new BlockingEntityCollector(Constants.ENDPOINT_TIMEOUT));
+        }
+        this.contentObservable.setListener(contentListener);
+    }
+
     /**
-     * Add http content to HttpCarbonMessage.
+     * Add http content to HttpCarbonMessage. The content of a message is added by a single thread at a time, i.e.
+     * the event loop for inbound messages, hence this does not lock; the readers are handed the content through the
+     * volatile state and the concurrent queues.
      *
      * @param httpContent chunks of the payload.
      */
-    public synchronized void addHttpContent(HttpContent httpContent) {
+    public void addHttpContent(HttpContent httpContent) {
+        // The length is published before the last content so that a reader which sees the last content sees the
+        // full length
+        receivedContentLength += httpContent.content().readableBytes();
+        if (httpContent instanceof LastHttpContent) {
+            lastHttpContent = (LastHttpContent) httpContent;
+        }
         this.contentObservable.notifyAddListener(httpContent);
-        if (this.messageFuture != null) {
+        MessageFuture currentMessageFuture = this.messageFuture;
+        if (currentMessageFuture != null) {
             this.contentObservable.notifyGetListener(httpContent);
-            this.messageFuture.notifyMessageListener(httpContent);
+            currentMessageFuture.notifyMessageListener(httpContent);
         } else {
             this.blockingEntityCollector.addHttpContent(httpContent);
+            // The message future may have been set, and the collector drained, after it was checked
+            currentMessageFuture = this.messageFuture;
+            if (currentMessageFuture != null) {
+                drainQueuedContent(currentMessageFuture);
+            }
+        }
+        if (!lengthFutures.isEmpty()) {
+            completeReachedLengthFutures();
+        }
+        if (lastHttpContent != null) {
+            CompletableFuture<CompositeByteBuf> future = aggregationFuture.getAndSet(null);
+            if (future != null) {
+                completeAggregationFuture(future);
+            }
+        }
+    }
+
+    private void drainQueuedContent(MessageFuture currentMessageFuture) {
+        // Holding the monitor of the message future orders this with the draining in setMessageListener
+        synchronized (currentMessageFuture) {
+            HttpContent httpContent;
+            while ((httpContent = blockingEntityCollector.pollHttpContent()) != null) {
+                this.contentObservable.notifyGetListener(httpContent);
+                currentMessageFuture.notifyMessageListener(httpContent);
+            }
         }
     }
 
@@ -96,9 +155,10 @@ public class HTTPCarbonMessage {
         return httpContent;
     }
 
-    public synchronized MessageFuture getHttpContentAsync() {
-        this.messageFuture = new MessageFuture(this);
-        return this.messageFuture;
+    public MessageFuture getHttpContentAsync() {
+        MessageFuture newMessageFuture = new MessageFuture(this);
+        this.messageFuture = newMessageFuture;
+        return newMessageFuture;
     }
 
     @Deprecated
@@ -134,6 +194,138 @@ public class HTTPCarbonMessage {
         return blockingEntityCollector.getFullMessageLength();
     }
 
+    /**
+     * Non-blocking counterpart of {@link #countMessageLengthTill(long)}. The returned future is completed by the
+     * thread which adds the content, i.e. the event loop for inbound messages, once the received length reaches
+     * the given length or the last content is added. The content is neither consumed nor copied.
+     * <p>
+     * The length counts all the content added to this message, including any content which has already been read.
+     *
+     * @param maxLength is the maximum length to count
+     * @return future which is completed with the counted length, or completed exceptionally if the message could
+     * not be read completely
+     */
+    public CompletableFuture<Long> countMessageLengthTillAsync(long maxLength) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        if (lastHttpContent == null && receivedContentLength < maxLength) {
+            LengthFuture lengthFuture = new LengthFuture(maxLength, future);
+            lengthFutures.add(lengthFuture);
+            // The length may have been reached before the future was queued, in which case the content adding
+            // thread may not see it. Whichever thread removes the future completes it.
+            if (isLengthReached(maxLength) && lengthFutures.remove(lengthFuture)) {
+                completeLengthFuture(future);
+            }
+            return future;
+        }
+        completeLengthFuture(future);
+        return future;
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #getFullMessageLength()}.
+     *
+     * @return future which is completed with the length of the entire payload once the last content is added
+     * @see #countMessageLengthTillAsync(long)
+     */
+    public CompletableFuture<Long> getFullMessageLengthAsync() {
+        return countMessageLengthTillAsync(Long.MAX_VALUE);
+    }
+
+    /**
+     * Aggregates the payload without copying it, once the last content is added. The content buffers are read off
+     * this message and become the components of the returned buffer, hence the caller is responsible for releasing
+     * it. The payload is not available through this message afterwards.
+     * <p>
+     * This is meant for messages which are read through the entity collector, not through
+     * {@link #getHttpContentAsync()}.
+     *
+     * @return future which is completed with the aggregated payload, or completed exceptionally if the message
+     * could not be read completely
+     */
+    public CompletableFuture<CompositeByteBuf> getFullMessageBodyAsync() {
+        CompletableFuture<CompositeByteBuf> future = new CompletableFuture<>();
+        if (!aggregationFuture.compareAndSet(null, future)) {
+            future.completeExceptionally(new IllegalStateException("Payload is already being aggregated"));
+            return future;
+        }
+        // The last content may have been added before the future was set, in which case the content adding thread
+        // may not see it. Whichever thread takes the future back completes it.
+        if (lastHttpContent != null && aggregationFuture.compareAndSet(future, null)) {
+            completeAggregationFuture(future);
+        }
+        return future;
+    }
+
+    private boolean isLengthReached(long maxLength) {
+        return lastHttpContent != null || receivedContentLength >= maxLength;
+    }
+
+    private void completeReachedLengthFutures() {
+        for (LengthFuture lengthFuture : lengthFutures) {
+            if (isLengthReached(lengthFuture.maxLength) && lengthFutures.remove(lengthFuture)) {
+                completeLengthFuture(lengthFuture.future);
+            }
+        }
+    }
+
+    private void completeLengthFuture(CompletableFuture<Long> future) {
+        // Read the last content first, the length is final once it is added
+        LastHttpContent lastContent = lastHttpContent;
+        long length = receivedContentLength;
+        if (lastContent != null && lastContent.decoderResult().isFailure()) {
+            future.completeExceptionally(lastContent.decoderResult().cause());
+        } else {
+            future.complete(length);
+        }
+    }
+
+    /**
+     * Assembles the payload once the last content is added. As all the content is already queued by then, the
+     * content is polled off the entity collector without waiting, so this never blocks the event loop which adds
+     * the last content.
+     */
+    private void completeAggregationFuture(CompletableFuture<CompositeByteBuf> future) {
+        // Avoid consolidating the components, which would copy the content
+        CompositeByteBuf messageBody = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        try {
+            HttpContent httpContent;
+            do {
+                httpContent = blockingEntityCollector.pollHttpContent();
+                if (httpContent == null) {
+                    throw new IllegalStateException("Payload is not available in the message");
+                }
+                this.contentObservable.notifyGetListener(httpContent);
+                ByteBuf content = httpContent.content();
+                if (!content.isReadable()) {
+                    httpContent.release();
+                } else if (content.readableBytes() > Integer.MAX_VALUE - messageBody.writerIndex()) {
+                    httpContent.release();
+                    throw new IllegalStateException("Payload is larger than the maximum size of a buffer");
+                } else {
+                    messageBody.addComponent(true, content);
+                }
+            } while (!(httpContent instanceof LastHttpContent));
+
+            if (httpContent.decoderResult().isFailure()) {
+                messageBody.release();
+                future.completeExceptionally(httpContent.decoderResult().cause());
+            } else {
+                future.complete(messageBody);
+            }
+        } catch (RuntimeException e) {
+            messageBody.release();
+            releaseQueuedContent();
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void releaseQueuedContent() {
+        HttpContent httpContent;
+        while ((httpContent = blockingEntityCollector.pollHttpContent()) != null) {
+            httpContent.release();
+        }
+    }
+
     @Deprecated
     public void addMessageBody(ByteBuffer msgBody) {
         blockingEntityCollector.addMessageBody(msgBody);
@@ -210,7 +402,7 @@ public class HTTPCarbonMessage {
         properties.remove(key);
     }
 
-    private void setBlockingEntityCollector(BlockingEntityCollector blockingEntityCollector) {
+    private void setBlockingEntityCollector(EntityCollector blockingEntityCollector) {
         this.blockingEntityCollector = blockingEntityCollector;
     }
 
@@ -318,7 +510,7 @@ public class HTTPCarbonMessage {
         return blockingEntityCollector;
     }
 
-    public synchronized void removeHttpContentAsyncFuture() {
+    public void removeHttpContentAsyncFuture() {
         this.messageFuture = null;
     }
 
@@ -337,4 +529,17 @@ public class HTTPCarbonMessage {
     public HttpResponse getNettyHttpResponse() {
         return (HttpResponse) this.httpMessage;
     }
+
+    /**
+     * A pending {@link #countMessageLengthTillAsync(long)} call.
+     */
+    private static class LengthFuture {
+        private final long maxLength;
+        private final CompletableFuture<Long> future;
+
+        LengthFuture(long maxLength, CompletableFuture<Long> future) {
+            this.maxLength = maxLength;
+            this.future = future;
+        }
+    }
 }
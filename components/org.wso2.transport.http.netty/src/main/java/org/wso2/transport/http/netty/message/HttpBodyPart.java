@@ -18,18 +18,26 @@
 
 package org.wso2.transport.http.netty.message;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Represents one body part of a multipart message.
+ * Represents one body part of a multipart message. The content of a part is either held in memory or, for a part
+ * which exceeded the disk threshold of the decoder, in a temporary file owned by the part until it is deleted.
  */
 public class HttpBodyPart implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final byte[] content;
+    private final File file;
     private final String contentType;
     private final String partName;
     private final String fileName;
@@ -44,6 +52,16 @@ public class HttpBodyPart implements Serializable {
         this.partName = partName;
         this.fileName = fileName;
         this.content = Arrays.copyOf(content, content.length);
+        this.file = null;
+        this.contentType = contentType;
+        this.size = size;
+    }
+
+    public HttpBodyPart(String partName, String fileName, File file, String contentType, int size) {
+        this.partName = partName;
+        this.fileName = fileName;
+        this.content = null;
+        this.file = file;
         this.contentType = contentType;
         this.size = size;
     }
@@ -52,8 +70,61 @@ public class HttpBodyPart implements Serializable {
         return contentType;
     }
 
+    /**
+     * Get the content of the part. The content of a part held in a file is read into memory, hence prefer
+     * {@link #getContentAsStream()} unless {@link #isInMemory()}.
+     *
+     * @return a copy of the content
+     */
     public byte[] getContent() {
-        return Arrays.copyOf(content, content.length);
+        if (file == null) {
+            return Arrays.copyOf(content, content.length);
+        }
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the content of body part " + partName, e);
+        }
+    }
+
+    /**
+     * Get the content of the part as a stream, which reads a part held in a file without loading it into memory.
+     *
+     * @return stream of the content
+     * @throws IOException if the file of the part cannot be opened
+     */
+    public InputStream getContentAsStream() throws IOException {
+        if (file == null) {
+            return new ByteArrayInputStream(content);
+        }
+        return Files.newInputStream(file.toPath());
+    }
+
+    /**
+     * Check whether the content of the part is held in memory.
+     *
+     * @return false if the content is held in a temporary file
+     */
+    public boolean isInMemory() {
+        return file == null;
+    }
+
+    /**
+     * Get the temporary file holding the content of the part.
+     *
+     * @return the file, or null if the content is held in memory
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Delete the temporary file holding the content of the part, if any. The content is not available afterwards.
+     *
+     * @return true if there is no file left behind
+     */
+    public boolean deleteFile() {
+        return file == null || !file.exists() || file.delete();
     }
 
     public String getPartName() {
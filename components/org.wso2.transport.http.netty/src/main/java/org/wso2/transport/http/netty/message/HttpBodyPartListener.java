@@ -0,0 +1,45 @@
+/*
+*  Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+
+package org.wso2.transport.http.netty.message;
+
+/**
+ * Get notified of the body parts of a multipart message as they are decoded.
+ */
+public interface HttpBodyPartListener {
+
+    /**
+     * Get notified when a body part is completely decoded. A part held in a temporary file is owned by the
+     * listener from here on, which has to delete the file once it is done with the part.
+     *
+     * @param bodyPart the decoded body part
+     */
+    void onBodyPart(HttpBodyPart bodyPart);
+
+    /**
+     * Get notified when all the body parts of the message are decoded.
+     */
+    void onComplete();
+
+    /**
+     * Get notified when the message cannot be decoded. No more parts are notified afterwards.
+     *
+     * @param throwable the cause of the failure
+     */
+    void onError(Throwable throwable);
+}
@@ -21,6 +21,7 @@ package org.wso2.transport.http.netty.message;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpVersion;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
 
 /**
  * Contains information specific to http request
@@ -39,6 +40,11 @@ public class HttpCarbonRequest extends HTTPCarbonMessage {
         this.httpRequest = (HttpRequest) this.httpMessage;
     }
 
+    public HttpCarbonRequest(HttpRequest httpRequest, Listener listener, EntityCollectorConfig entityCollectorConfig) {
+        super(httpRequest, listener, entityCollectorConfig);
+        this.httpRequest = (HttpRequest) this.httpMessage;
+    }
+
     public void setHttpVersion(HttpVersion httpVersion) {
         this.httpRequest.setProtocolVersion(httpVersion);
     }
@@ -20,6 +20,7 @@ package org.wso2.transport.http.netty.message;
 
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
 
 /**
  * Contains information available for http response
@@ -38,6 +39,12 @@ public class HttpCarbonResponse extends HTTPCarbonMessage {
         this.httpResponse = (HttpResponse) this.httpMessage;
     }
 
+    public HttpCarbonResponse(HttpResponse httpResponse, Listener listener,
+                              EntityCollectorConfig entityCollectorConfig) {
+        super(httpResponse, listener, entityCollectorConfig);
+        this.httpResponse = (HttpResponse) this.httpMessage;
+    }
+
     public void setStatus(HttpResponseStatus httpResponseStatus) {
         this.httpResponse.setStatus(httpResponseStatus);
     }
@@ -35,9 +35,6 @@ import org.wso2.transport.http.netty.common.Constants;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
 
@@ -54,10 +51,8 @@ public class HttpMessageDataStreamer {
     private ByteBufAllocator pooledByteBufAllocator;
     private HttpMessageDataStreamer.ByteBufferInputStream byteBufferInputStream;
     private HttpMessageDataStreamer.ByteBufferOutputStream byteBufferOutputStream;
-    private IOException ioException;
-
-    // Lock to synchronize  byte stream write operation
-    private Lock byteStreamWriteLock = new ReentrantLock();
+    // Set by the IO thread when writing the message fails
+    private volatile IOException ioException;
 
     public HttpMessageDataStreamer(HTTPCarbonMessage httpCarbonMessage) {
         this.httpCarbonMessage = httpCarbonMessage;
@@ -75,37 +70,116 @@ public class HttpMessageDataStreamer {
      */
     protected class ByteBufferInputStream extends InputStream {
 
-        private int count;
-        private boolean chunkFinished = true;
-        private int limit;
-        private ByteBuffer byteBuffer;
         private HttpContent httpContent;
+        private boolean endOfStream;
 
         @Override
         public int read() throws IOException, DecoderException {
-            if ((httpContent instanceof LastHttpContent) && chunkFinished) {
+            if (!readContentIfFinished()) {
+                return -1;
+            }
+            int value = httpContent.content().readByte() & 0xff;
+            releaseContentIfFinished();
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException, DecoderException {
+            if (offset < 0 || length < 0 || length > bytes.length - offset) {
+                throw new IndexOutOfBoundsException();
+            } else if (length == 0) {
+                return 0;
+            }
+            if (!readContentIfFinished()) {
                 return -1;
-            } else if (chunkFinished) {
+            }
+            ByteBuf content = httpContent.content();
+            int readLength = Math.min(length, content.readableBytes());
+            content.readBytes(bytes, offset, readLength);
+            releaseContentIfFinished();
+            return readLength;
+        }
+
+        /**
+         * @return the number of bytes left in the content which is currently being read
+         */
+        @Override
+        public int available() {
+            return httpContent != null ? httpContent.content().readableBytes() : 0;
+        }
+
+        @Override
+        public long skip(long length) throws IOException, DecoderException {
+            long remaining = length;
+            while (remaining > 0 && readContentIfFinished()) {
+                ByteBuf content = httpContent.content();
+                int skipLength = (int) Math.min(remaining, content.readableBytes());
+                content.skipBytes(skipLength);
+                remaining -= skipLength;
+                releaseContentIfFinished();
+            }
+            return length - remaining;
+        }
+
+        /**
+         * Transfers the rest of the stream to the given output stream. The content buffers are handed over as they
+         * are when the output stream belongs to a {@link HttpMessageDataStreamer}, otherwise they are written in
+         * bulk without going through an intermediate array.
+         *
+         * @param outputStream the stream to write to
+         * @return the number of bytes transferred
+         * @throws IOException if the output stream cannot be written
+         */
+        public long transferTo(OutputStream outputStream) throws IOException {
+            long transferred = 0;
+            while (readContentIfFinished()) {
+                ByteBuf content = httpContent.content();
+                int length = content.readableBytes();
+                if (outputStream instanceof ByteBufferOutputStream) {
+                    // Ownership of the buffer moves to the other message
+                    ((ByteBufferOutputStream) outputStream).write(content);
+                } else {
+                    content.readBytes(outputStream, length);
+                    content.release();
+                }
+                transferred += length;
+                if (httpContent instanceof LastHttpContent) {
+                    endOfStream = true;
+                }
+                httpContent = null;
+            }
+            return transferred;
+        }
+
+        /**
+         * Moves to the next content of the message if the current content is fully read. Empty contents which are
+         * not the last content are skipped.
+         *
+         * @return false if the end of the stream is reached
+         */
+        private boolean readContentIfFinished() throws DecoderException {
+            while (httpContent == null) {
+                if (endOfStream) {
+                    return false;
+                }
                 httpContent = httpCarbonMessage.getHttpContent();
                 validateHttpContent();
-                byteBuffer = httpContent.content().nioBuffer();
-                count = 0;
-                limit = byteBuffer.limit();
-                if (limit == 0) {
-                    return -1;
+                if (httpContent instanceof LastHttpContent) {
+                    endOfStream = true;
+                }
+                if (!httpContent.content().isReadable()) {
+                    httpContent.release();
+                    httpContent = null;
                 }
-                chunkFinished = false;
             }
-            count++;
-            if (count == limit) {
-                int value = byteBuffer.get() & 0xff;
-                chunkFinished = true;
-                byteBuffer = null;
-                httpContent.release();
+            return true;
+        }
 
-                return value;
+        private void releaseContentIfFinished() {
+            if (!httpContent.content().isReadable()) {
+                httpContent.release();
+                httpContent = null;
             }
-            return byteBuffer.get() & 0xff;
         }
 
         private void validateHttpContent() throws DecoderException {
@@ -129,14 +203,7 @@ public class HttpMessageDataStreamer {
 
         @Override
         public void write(int b) throws IOException, EncoderException {
-            byteStreamWriteLock.lock();
-            try {
-                if (ioException != null) {
-                    throw new EncoderException(ioException.getMessage());
-                }
-            } finally {
-                byteStreamWriteLock.unlock();
-            }
+            checkIoException();
             if (dataHolder == null) {
                 dataHolder = getBuffer();
             }
@@ -150,6 +217,45 @@ public class HttpMessageDataStreamer {
             }
         }
 
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException, EncoderException {
+            if (offset < 0 || length < 0 || length > bytes.length - offset) {
+                throw new IndexOutOfBoundsException();
+            }
+            checkIoException();
+            while (length > 0) {
+                if (dataHolder == null) {
+                    dataHolder = getBuffer();
+                } else if (dataHolder.writableBytes() == 0) {
+                    httpCarbonMessage.addHttpContent(new DefaultHttpContent(dataHolder));
+                    dataHolder = getBuffer();
+                }
+                int writeLength = Math.min(length, dataHolder.writableBytes());
+                dataHolder.writeBytes(bytes, offset, writeLength);
+                offset += writeLength;
+                length -= writeLength;
+            }
+        }
+
+        /**
+         * Adds the given buffer to the message as it is, after the bytes which are already written. The buffer is
+         * released once the content is written out.
+         *
+         * @param byteBuf the buffer to add
+         */
+        public void write(ByteBuf byteBuf) {
+            checkIoException();
+            if (dataHolder != null && dataHolder.isReadable()) {
+                httpCarbonMessage.addHttpContent(new DefaultHttpContent(dataHolder));
+                dataHolder = null;
+            }
+            if (byteBuf.isReadable()) {
+                httpCarbonMessage.addHttpContent(new DefaultHttpContent(byteBuf));
+            } else {
+                byteBuf.release();
+            }
+        }
+
         @Override
         public void flush() throws IOException, EncoderException {
             // We don't have to support flush
@@ -161,14 +267,25 @@ public class HttpMessageDataStreamer {
                 if (dataHolder != null && dataHolder.isReadable()) {
                     httpCarbonMessage.addHttpContent(new DefaultLastHttpContent(dataHolder));
                 } else {
+                    if (dataHolder != null) {
+                        dataHolder.release();
+                    }
                     httpCarbonMessage.addHttpContent(LastHttpContent.EMPTY_LAST_CONTENT);
                 }
             } catch (Exception e) {
                 log.error("Error while closing output stream but underlying resources are reset", e);
             } finally {
+                dataHolder = null;
                 byteBufferOutputStream = null;
             }
         }
+
+        private void checkIoException() throws EncoderException {
+            IOException exception = ioException;
+            if (exception != null) {
+                throw new EncoderException(exception.getMessage());
+            }
+        }
     }
 
     public OutputStream getOutputStream() {
@@ -185,6 +302,19 @@ public class HttpMessageDataStreamer {
         return byteBufferInputStream;
     }
 
+    /**
+     * Transfers the payload of the message, as received, to the given output stream without copying it byte by
+     * byte. Unlike {@link #getInputStream()}, the payload is not decoded according to the Content-Encoding.
+     *
+     * @param outputStream the stream to write to
+     * @return the number of bytes transferred
+     * @throws IOException if the output stream cannot be written
+     */
+    public long transferTo(OutputStream outputStream) throws IOException {
+        createInputStreamIfNull();
+        return byteBufferInputStream.transferTo(outputStream);
+    }
+
     public InputStream getInputStream() {
         String contentEncodingHeader = httpCarbonMessage.getHeader(HttpHeaderNames.CONTENT_ENCODING.toString());
         if (contentEncodingHeader != null) {
@@ -216,11 +346,6 @@ public class HttpMessageDataStreamer {
     }
 
     public void setIoException(IOException ioException) {
-        byteStreamWriteLock.lock();
-        try {
-            this.ioException = ioException;
-        } finally {
-            byteStreamWriteLock.unlock();
-        }
+        this.ioException = ioException;
     }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.message;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Entity collector which hands the content over from the IO thread to the reader without taking a lock.
+ * <p>
+ * The content is kept in a single producer single consumer queue made out of linked fixed size chunks, so adding
+ * content costs a volatile write and the allocation of a chunk for every {@value #CHUNK_SIZE} contents. The
+ * reader is parked only when it asks for content which has not arrived yet, and the producer unparks it only when
+ * such a reader is actually waiting.
+ * <p>
+ * Content must be added by one thread at a time, which is guaranteed by {@link HTTPCarbonMessage#addHttpContent}.
+ * Likewise, the content must be read by one thread at a time.
+ */
+public class LockFreeEntityCollector implements EntityCollector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LockFreeEntityCollector.class);
+
+    private static final int CHUNK_SIZE = 16;
+
+    private final long soTimeOutNanos;
+    private volatile EntityBodyState state;
+    private volatile Thread waitingReader;
+
+    // Only accessed by the producer
+    private Chunk tailChunk;
+    private int tailIndex;
+
+    // Only accessed by the reader
+    private Chunk headChunk;
+    private int headIndex;
+
+    LockFreeEntityCollector(int soTimeOut) {
+        this.soTimeOutNanos = TimeUnit.SECONDS.toNanos(soTimeOut);
+        this.state = EntityBodyState.EXPECTING;
+        this.tailChunk = new Chunk();
+        this.headChunk = tailChunk;
+    }
+
+    public void addHttpContent(HttpContent httpContent) {
+        if (tailIndex == CHUNK_SIZE) {
+            Chunk chunk = new Chunk();
+            tailChunk.next = chunk;
+            tailChunk = chunk;
+            tailIndex = 0;
+        }
+        tailChunk.contents.set(tailIndex++, httpContent);
+        state = EntityBodyState.CONSUMABLE;
+
+        Thread reader = waitingReader;
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+    }
+
+    public void addMessageBody(ByteBuffer msgBody) {
+        addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer(msgBody)));
+    }
+
+    public HttpContent getHttpContent() {
+        if (state == EntityBodyState.CONSUMED || !waitForEntity(headChunk, headIndex)) {
+            return null;
+        }
+        HttpContent httpContent = poll();
+        if (httpContent instanceof LastHttpContent) {
+            state = EntityBodyState.CONSUMED;
+        }
+        return httpContent;
+    }
+
+    public HttpContent pollHttpContent() {
+        if (state == EntityBodyState.CONSUMED || !isAvailable(headChunk, headIndex)) {
+            return null;
+        }
+        HttpContent httpContent = poll();
+        if (httpContent instanceof LastHttpContent) {
+            state = EntityBodyState.CONSUMED;
+        }
+        return httpContent;
+    }
+
+    public ByteBuf getMessageBody() {
+        HttpContent httpContent = getHttpContent();
+        if (httpContent != null) {
+            return httpContent.content();
+        }
+        return null;
+    }
+
+    public long getFullMessageLength() {
+        return countMessageLengthTill(Long.MAX_VALUE);
+    }
+
+    /**
+     * Walks the queue from the reader's position without removing anything, hence the content does not need to be
+     * put back once it has been counted.
+     */
+    public long countMessageLengthTill(long maxSize) {
+        long size = 0;
+        if (state == EntityBodyState.CONSUMED) {
+            return size;
+        }
+        Chunk chunk = headChunk;
+        int index = headIndex;
+        while (size < maxSize) {
+            if (!waitForEntity(chunk, index)) {
+                LOG.warn("Timed out while counting the message length");
+                break;
+            }
+            if (index == CHUNK_SIZE) {
+                chunk = chunk.next;
+                index = 0;
+            }
+            HttpContent httpContent = chunk.contents.get(index++);
+            size += httpContent.content().readableBytes();
+            if (httpContent instanceof LastHttpContent) {
+                break;
+            }
+        }
+        return size;
+    }
+
+    public void waitAndReleaseAllEntities() {
+        if (state == EntityBodyState.CONSUMABLE) {
+            boolean isEndOfMessageProcessed = false;
+            while (!isEndOfMessageProcessed) {
+                if (!waitForEntity(headChunk, headIndex)) {
+                    LOG.error("Timed out while waiting for the content to be released");
+                    break;
+                }
+                HttpContent httpContent = poll();
+                if (httpContent instanceof LastHttpContent) {
+                    isEndOfMessageProcessed = true;
+                }
+                httpContent.release();
+            }
+        }
+        state = EntityBodyState.EXPECTING;
+    }
+
+    public boolean isEmpty() {
+        return !isAvailable(headChunk, headIndex);
+    }
+
+    public void completeMessage() {
+        if (state == EntityBodyState.EXPECTING) {
+            this.addHttpContent(new DefaultLastHttpContent());
+        }
+    }
+
+    private HttpContent poll() {
+        if (headIndex == CHUNK_SIZE) {
+            headChunk = headChunk.next;
+            headIndex = 0;
+        }
+        HttpContent httpContent = headChunk.contents.get(headIndex);
+        // Let go of the consumed content, the producer never revisits a slot
+        headChunk.contents.lazySet(headIndex++, null);
+        return httpContent;
+    }
+
+    private static boolean isAvailable(Chunk chunk, int index) {
+        if (index == CHUNK_SIZE) {
+            Chunk next = chunk.next;
+            return next != null && next.contents.get(0) != null;
+        }
+        return chunk.contents.get(index) != null;
+    }
+
+    /**
+     * Parks the reader until the content at the given position is added or the socket timeout elapses.
+     *
+     * @return true if the content is available
+     */
+    private boolean waitForEntity(Chunk chunk, int index) {
+        if (isAvailable(chunk, index)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + soTimeOutNanos;
+        // Publish the reader before re-checking, so that either the reader sees the content or the producer
+        // sees the reader.
+        waitingReader = Thread.currentThread();
+        try {
+            while (!isAvailable(chunk, index)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    LOG.error("Interrupted while waiting for http content");
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            waitingReader = null;
+        }
+    }
+
+    /**
+     * A fixed size block of the content queue.
+     */
+    private static class Chunk {
+        private final AtomicReferenceArray<HttpContent> contents = new AtomicReferenceArray<>(CHUNK_SIZE);
+        private volatile Chunk next;
+    }
+}
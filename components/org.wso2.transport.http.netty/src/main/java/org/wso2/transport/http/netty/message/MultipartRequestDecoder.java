@@ -21,18 +21,32 @@ package org.wso2.transport.http.netty.message;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.multipart.Attribute;
+import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
+import io.netty.handler.codec.http.multipart.DiskAttribute;
+import io.netty.handler.codec.http.multipart.DiskFileUpload;
 import io.netty.handler.codec.http.multipart.FileUpload;
+import io.netty.handler.codec.http.multipart.HttpData;
+import io.netty.handler.codec.http.multipart.HttpDataFactory;
 import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
 import io.netty.handler.codec.http.multipart.InterfaceHttpData;
 import io.netty.handler.codec.http.multipart.InterfaceHttpPostRequestDecoder;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.Util;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Decode multipart request messages.
@@ -40,12 +54,40 @@ import java.util.List;
 public class MultipartRequestDecoder {
     private static final Logger LOG = LoggerFactory.getLogger(MultipartRequestDecoder.class);
 
+    /**
+     * Default size in bytes above which a body part is decoded into a temporary file rather than into memory.
+     */
+    public static final long DEFAULT_DISK_THRESHOLD = DefaultHttpDataFactory.MINSIZE;
+
+    private static final String TEMP_FILE_PREFIX = "multipart-";
+    private static final String TEMP_FILE_SUFFIX = ".part";
+
+    static {
+        // The temporary files are deleted as the parts are released or handed over, and a JVM wide delete on exit
+        // hook would keep the name of every one of them until the JVM exits
+        DiskFileUpload.deleteOnExitTemporaryFile = false;
+        DiskAttribute.deleteOnExitTemporaryFile = false;
+    }
+
+    private final HttpDataFactory dataFactory;
     private InterfaceHttpPostRequestDecoder nettyRequestDecoder;
     private HTTPCarbonMessage httpCarbonMessage;
     private List<HttpBodyPart> multiparts = new ArrayList<>();
+    private boolean decodingDone;
+    private final Queue<HttpContent> pendingContent = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingContentCount = new AtomicInteger();
 
     public MultipartRequestDecoder(HTTPCarbonMessage httpCarbonMessage) {
+        this(httpCarbonMessage, DEFAULT_DISK_THRESHOLD);
+    }
+
+    /**
+     * @param httpCarbonMessage the multipart request.
+     * @param diskThreshold     size in bytes above which a body part is decoded into a temporary file.
+     */
+    public MultipartRequestDecoder(HTTPCarbonMessage httpCarbonMessage, long diskThreshold) {
         this.httpCarbonMessage = httpCarbonMessage;
+        this.dataFactory = new DefaultHttpDataFactory(diskThreshold);
     }
 
     /**
@@ -54,16 +96,18 @@ public class MultipartRequestDecoder {
      * @return boolean indicating whether the carbon message contains multipart content
      */
     public boolean isMultipartRequest() {
-        nettyRequestDecoder = new HttpPostRequestDecoder(Util.createHttpRequest(httpCarbonMessage));
+        nettyRequestDecoder = new HttpPostRequestDecoder(dataFactory, Util.createHttpRequest(httpCarbonMessage));
         return nettyRequestDecoder.isMultipart();
     }
 
     /**
-     * Parse the content of carbon message.
+     * Parse the content of carbon message. This blocks until the whole message is received and the parts are read
+     * into memory, hence prefer {@link #parseBody(HttpBodyPartListener)} for large messages.
      *
      * @throws IOException when no body content is found
      */
     public void parseBody() throws IOException {
+        initPostRequestDecoder();
         boolean isReadAll = false;
         while (!isReadAll) {
             HttpContent httpContent = httpCarbonMessage.getHttpContent();
@@ -71,7 +115,12 @@ public class MultipartRequestDecoder {
                 resetPostRequestDecoder();
                 throw new IOException("No content was found to decode!");
             } else {
-                nettyRequestDecoder = nettyRequestDecoder.offer(httpContent);
+                try {
+                    nettyRequestDecoder = nettyRequestDecoder.offer(httpContent);
+                } finally {
+                    // The decoder keeps a copy of the content
+                    httpContent.release();
+                }
                 readChunkByChunk();
                 if (httpContent instanceof LastHttpContent) {
                     resetPostRequestDecoder();
@@ -83,6 +132,113 @@ public class MultipartRequestDecoder {
         }
     }
 
+    /**
+     * Parse the content of carbon message as it arrives, on a thread of a pool shared by the decoders. See
+     * {@link #parseBody(HttpBodyPartListener, Executor)}.
+     *
+     * @param bodyPartListener listener to notify the body parts to
+     */
+    public void parseBody(HttpBodyPartListener bodyPartListener) {
+        parseBody(bodyPartListener, DecoderExecutorHolder.EXECUTOR);
+    }
+
+    /**
+     * Parse the content of carbon message as it arrives, without blocking the thread which adds the content to the
+     * message. Each body part is notified to the given listener as soon as it is decoded, and a part larger than the
+     * disk threshold is written to a temporary file while it is decoded instead of being held in memory.
+     * <p>
+     * The content is decoded on the given executor, one piece of content at a time and in order, since writing a
+     * part to disk blocks. The listener is notified on the executor as well.
+     *
+     * @param bodyPartListener listener to notify the body parts to
+     * @param executor         executor to decode the content on
+     */
+    public void parseBody(HttpBodyPartListener bodyPartListener, Executor executor) {
+        initPostRequestDecoder();
+        httpCarbonMessage.getHttpContentAsync().setMessageListener(
+                httpContent -> offerContent(httpContent, bodyPartListener, executor));
+    }
+
+    private void offerContent(HttpContent httpContent, HttpBodyPartListener bodyPartListener, Executor executor) {
+        pendingContent.add(httpContent);
+        if (pendingContentCount.getAndIncrement() != 0) {
+            // The content is decoded by the task which is already draining the queue
+            return;
+        }
+        try {
+            executor.execute(() -> decodePendingContent(bodyPartListener));
+        } catch (RejectedExecutionException e) {
+            if (!decodingDone) {
+                resetPostRequestDecoder();
+                bodyPartListener.onError(e);
+            }
+            // Only releases the content from here on, as the decoding is done
+            decodePendingContent(bodyPartListener);
+        }
+    }
+
+    private void decodePendingContent(HttpBodyPartListener bodyPartListener) {
+        do {
+            decodeContent(pendingContent.poll(), bodyPartListener);
+        } while (pendingContentCount.decrementAndGet() != 0);
+    }
+
+    private void decodeContent(HttpContent httpContent, HttpBodyPartListener bodyPartListener) {
+        if (decodingDone) {
+            httpContent.release();
+            return;
+        }
+        if (httpContent.decoderResult().isFailure()) {
+            // The message ends before its parts do, so the temporary files of the parts are deleted with the decoder
+            httpContent.release();
+            resetPostRequestDecoder();
+            bodyPartListener.onError(httpContent.decoderResult().cause());
+            return;
+        }
+        try {
+            nettyRequestDecoder = nettyRequestDecoder.offer(httpContent);
+            InterfaceHttpData data;
+            while ((data = nextData()) != null) {
+                HttpBodyPart bodyPart;
+                try {
+                    bodyPart = createBodyPart(data, true);
+                } finally {
+                    data.release();
+                }
+                if (bodyPart != null) {
+                    bodyPartListener.onBodyPart(bodyPart);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Covers the decoding errors as well as the failures of the listener
+            resetPostRequestDecoder();
+            bodyPartListener.onError(e);
+            return;
+        } finally {
+            httpContent.release();
+        }
+        if (httpContent instanceof LastHttpContent) {
+            resetPostRequestDecoder();
+            bodyPartListener.onComplete();
+        }
+    }
+
+    /**
+     * Get the next body part which is completely decoded.
+     *
+     * @return the decoded data, or null if the decoded content does not complete another part
+     */
+    private InterfaceHttpData nextData() {
+        try {
+            if (nettyRequestDecoder.hasNext()) {
+                return nettyRequestDecoder.next();
+            }
+        } catch (HttpPostRequestDecoder.EndOfDataDecoderException e) {
+            LOG.debug("EndOfDataDecoderException occurred since there's no more data to decode but that's fine");
+        }
+        return null;
+    }
+
     /**
      * Read data chunk by chunk and process them.
      */
@@ -109,50 +265,84 @@ public class MultipartRequestDecoder {
      * @param data Data object that needs to be decoded
      */
     private void processChunk(InterfaceHttpData data) {
+        HttpBodyPart bodyPart = null;
+        try {
+            bodyPart = createBodyPart(data, false);
+        } catch (IOException e) {
+            LOG.error("Unable to read {} content", data.getHttpDataType(), e);
+        }
+        multiparts.add(bodyPart);
+    }
+
+    /**
+     * Create a body part out of decoded data.
+     *
+     * @param data       Data object that needs to be decoded
+     * @param keepOnDisk   whether data decoded into a temporary file is handed over in that file
+     * @return the body part, or null if the data is of an unknown type
+     * @throws IOException if the content of the data cannot be read
+     */
+    private HttpBodyPart createBodyPart(InterfaceHttpData data, boolean keepOnDisk) throws IOException {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Multipart HTTP Data Name: {}, Type: {}", data.getName(), data.getHttpDataType());
         }
-        HttpBodyPart bodyPart = null;
         switch (data.getHttpDataType()) {
             case Attribute:
                 Attribute attribute = (Attribute) data;
-                try {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Attribute content size: {}", attribute.getByteBuf().readableBytes());
-                    }
-                    bodyPart = new HttpBodyPart(attribute.getName(), attribute.get(), Constants.TEXT_PLAIN,
-                            attribute.getByteBuf().readableBytes());
-                } catch (IOException e) {
-                    LOG.error("Unable to read attribute content", e);
-                }
-                break;
+                return createBodyPart(attribute, null, Constants.TEXT_PLAIN, keepOnDisk);
             case FileUpload:
                 FileUpload fileUpload = (FileUpload) data;
-                try {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Fileupload size: {}", fileUpload.getByteBuf().readableBytes());
-                    }
-                    bodyPart = new HttpBodyPart(fileUpload.getName(), fileUpload.getFilename(), fileUpload.get(),
-                            fileUpload.getContentType(), fileUpload.getByteBuf().readableBytes());
-                } catch (IOException e) {
-                    LOG.error("Unable to read fileupload content", e);
-                }
-                break;
+                return createBodyPart(fileUpload, fileUpload.getFilename(), fileUpload.getContentType(), keepOnDisk);
             default:
                 LOG.warn("Received unknown attribute type.");
-                break;
+                return null;
+        }
+    }
+
+    private HttpBodyPart createBodyPart(HttpData httpData, String fileName, String contentType, boolean keepOnDisk)
+            throws IOException {
+        int size = (int) httpData.length();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} content size: {}, in memory: {}", httpData.getHttpDataType(), size, httpData.isInMemory());
+        }
+        if (!keepOnDisk || httpData.isInMemory()) {
+            return new HttpBodyPart(httpData.getName(), fileName, httpData.get(), contentType, size);
+        }
+        // Take the file over from the decoder, which would delete it on release
+        File file = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        if (!httpData.renameTo(file)) {
+            if (!file.delete()) {
+                LOG.warn("Unable to delete temporary file {}", file);
+            }
+            throw new IOException("Unable to move the content of " + httpData.getName() + " to " + file);
+        }
+        return new HttpBodyPart(httpData.getName(), fileName, file, contentType, size);
+    }
+
+    private void initPostRequestDecoder() {
+        if (nettyRequestDecoder == null) {
+            isMultipartRequest();
         }
-        multiparts.add(bodyPart);
     }
 
     /**
      * Reset request decoder.
      */
     private void resetPostRequestDecoder() {
+        decodingDone = true;
         nettyRequestDecoder.destroy();
         nettyRequestDecoder = null;
     }
 
+    /**
+     * Holds the executor which decodes the content of the messages parsed without an executor of their own, created
+     * when it is first used.
+     */
+    private static class DecoderExecutorHolder {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                new DefaultThreadFactory("multipart-decoder", true));
+    }
+
     /**
      * Get a list of body parts.
      *
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender;
+
+import io.netty.handler.ssl.ReferenceCountedOpenSslContext;
+import io.netty.handler.ssl.SslContext;
+import io.netty.util.ReferenceCountUtil;
+import org.wso2.transport.http.netty.common.ssl.SSLConfig;
+import org.wso2.transport.http.netty.common.ssl.SSLHandlerFactory;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+
+/**
+ * Holds the SSL contexts of a single client SSL configuration so that the key store and the trust store are read
+ * only once and every connection just creates an {@link SSLEngine} out of the shared context.
+ * <p>
+ * Since the engines are created for the host and the port of the route, the session cache of the shared context lets
+ * a new connection to a route resume the TLS session of a previous connection to it instead of doing a full
+ * handshake.
+ * <p>
+ * Holders are shared by all the client connectors with equal SSL configurations. A holder is taken with
+ * {@link #acquire(SSLConfig)} and given back with {@link #release()}, and its contexts are released once the last
+ * connector gives it back.
+ */
+public class ClientSSLContextHolder {
+
+    private static final Map<SSLConfigKey, ClientSSLContextHolder> holders = new HashMap<>();
+
+    private final SSLConfig sslConfig;
+    private final SSLConfigKey key;
+    private final SSLHandlerFactory sslHandlerFactory;
+    private volatile ReferenceCountedOpenSslContext openSslContext;
+    private volatile SslContext http2SslContext;
+    private volatile SslContext http2OcspSslContext;
+    // Guarded by holders
+    private int refCount;
+
+    private ClientSSLContextHolder(SSLConfig sslConfig, SSLConfigKey key) {
+        this.sslConfig = sslConfig;
+        this.key = key;
+        this.sslHandlerFactory = new SSLHandlerFactory(sslConfig);
+    }
+
+    /**
+     * Takes the holder of the given SSL configuration, which is created if no connector holds one of an equal
+     * configuration. Each call must be matched by a call to {@link #release()}.
+     *
+     * @param sslConfig the SSL configuration of the connector
+     * @return the shared holder
+     */
+    public static ClientSSLContextHolder acquire(SSLConfig sslConfig) {
+        SSLConfigKey key = new SSLConfigKey(sslConfig);
+        synchronized (holders) {
+            ClientSSLContextHolder holder = holders.get(key);
+            if (holder == null) {
+                holder = new ClientSSLContextHolder(sslConfig, key);
+                holders.put(key, holder);
+            }
+            holder.refCount++;
+            return holder;
+        }
+    }
+
+    public SSLConfig getSslConfig() {
+        return sslConfig;
+    }
+
+    /**
+     * @param host                        peer host
+     * @param port                        peer port
+     * @param hostNameVerificationEnabled whether the host name of the peer certificate should be verified
+     * @return a new client mode {@link SSLEngine} created from the shared JDK SSL context
+     */
+    SSLEngine buildClientSSLEngine(String host, int port, boolean hostNameVerificationEnabled) {
+        SSLEngine sslEngine = sslHandlerFactory.buildClientSSLEngine(host, port);
+        sslHandlerFactory.setSNIServerNames(sslEngine, host);
+        if (hostNameVerificationEnabled) {
+            sslHandlerFactory.setHostNameVerfication(sslEngine);
+        }
+        return sslEngine;
+    }
+
+    /**
+     * @return the shared OpenSSL context used for HTTP/1.x over TLS when OCSP stapling is enabled
+     * @throws SSLException if the context cannot be built
+     */
+    ReferenceCountedOpenSslContext getOpenSslContext() throws SSLException {
+        ReferenceCountedOpenSslContext context = openSslContext;
+        if (context == null) {
+            synchronized (this) {
+                context = openSslContext;
+                if (context == null) {
+                    context = sslHandlerFactory.buildClientReferenceCountedOpenSslContext();
+                    openSslContext = context;
+                }
+            }
+        }
+        return context;
+    }
+
+    /**
+     * @param enableOcsp whether OCSP stapling is enabled
+     * @return the shared ALPN enabled context used for HTTP/2 over TLS
+     * @throws SSLException if the context cannot be built
+     */
+    SslContext getHttp2SslContext(boolean enableOcsp) throws SSLException {
+        SslContext context = enableOcsp ? http2OcspSslContext : http2SslContext;
+        if (context == null) {
+            synchronized (this) {
+                context = enableOcsp ? http2OcspSslContext : http2SslContext;
+                if (context == null) {
+                    context = sslHandlerFactory.createHttp2TLSContextForClient(enableOcsp);
+                    if (enableOcsp) {
+                        http2OcspSslContext = context;
+                    } else {
+                        http2SslContext = context;
+                    }
+                }
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Gives back a holder taken with {@link #acquire(SSLConfig)}. Once no connector holds it, the contexts built so
+     * far are released, since those backed by OpenSSL hold native memory until they are.
+     */
+    public void release() {
+        synchronized (holders) {
+            if (--refCount > 0) {
+                return;
+            }
+            holders.remove(key);
+        }
+        synchronized (this) {
+            ReferenceCountUtil.release(openSslContext);
+            ReferenceCountUtil.release(http2SslContext);
+            ReferenceCountUtil.release(http2OcspSslContext);
+            openSslContext = null;
+            http2SslContext = null;
+            http2OcspSslContext = null;
+        }
+    }
+
+    /**
+     * Compares SSL configurations by the settings the client contexts are built from.
+     */
+    private static final class SSLConfigKey {
+
+        private final File keyStore;
+        private final String keyStorePass;
+        private final String certPass;
+        private final File trustStore;
+        private final String trustStorePass;
+        private final String sslProtocol;
+        private final String tlsStoreType;
+        private final String[] cipherSuites;
+        private final String[] enableProtocols;
+        private final boolean enableSessionCreation;
+        private final String[] serverNames;
+        private final String[] sniMatchers;
+
+        SSLConfigKey(SSLConfig sslConfig) {
+            keyStore = sslConfig.getKeyStore();
+            keyStorePass = sslConfig.getKeyStorePass();
+            certPass = sslConfig.getCertPass();
+            trustStore = sslConfig.getTrustStore();
+            trustStorePass = sslConfig.getTrustStorePass();
+            sslProtocol = sslConfig.getSSLProtocol();
+            tlsStoreType = sslConfig.getTLSStoreType();
+            cipherSuites = sslConfig.getCipherSuites();
+            enableProtocols = sslConfig.getEnableProtocols();
+            enableSessionCreation = sslConfig.isEnableSessionCreation();
+            serverNames = sslConfig.getServerNames();
+            sniMatchers = sslConfig.getSniMatchers();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SSLConfigKey that = (SSLConfigKey) o;
+            return enableSessionCreation == that.enableSessionCreation
+                    && Objects.equals(keyStore, that.keyStore)
+                    && Objects.equals(keyStorePass, that.keyStorePass)
+                    && Objects.equals(certPass, that.certPass)
+                    && Objects.equals(trustStore, that.trustStore)
+                    && Objects.equals(trustStorePass, that.trustStorePass)
+                    && Objects.equals(sslProtocol, that.sslProtocol)
+                    && Objects.equals(tlsStoreType, that.tlsStoreType)
+                    && Arrays.equals(cipherSuites, that.cipherSuites)
+                    && Arrays.equals(enableProtocols, that.enableProtocols)
+                    && Arrays.equals(serverNames, that.serverNames)
+                    && Arrays.equals(sniMatchers, that.sniMatchers);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(keyStore, keyStorePass, certPass, trustStore, trustStorePass, sslProtocol,
+                                      tlsStoreType, enableSessionCreation);
+            result = 31 * result + Arrays.hashCode(cipherSuites);
+            result = 31 * result + Arrays.hashCode(enableProtocols);
+            result = 31 * result + Arrays.hashCode(serverNames);
+            return 31 * result + Arrays.hashCode(sniMatchers);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender;
+
+import org.wso2.transport.http.netty.common.HttpRoute;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Exposes the number of TLS handshakes of the connections of a client connector, how many of them resumed a previous
+ * session and how long they took, per route.
+ * <p>
+ * A handshake is counted as resumed when the session it established has an id which an earlier handshake of the
+ * same route has already established.
+ */
+public class ClientTlsMetrics implements ClientTlsMetricsMBean {
+
+    private static final int MAX_SESSION_IDS_PER_ROUTE = 256;
+
+    private final Map<String, RouteTlsStats> routeStats = new ConcurrentHashMap<>();
+
+    void handshakeSucceeded(HttpRoute httpRoute, byte[] sessionId, long latencyNanos) {
+        RouteTlsStats stats = getRouteStats(httpRoute);
+        stats.handshakes.increment();
+        stats.latencyNanos.add(latencyNanos);
+        if (stats.isKnownSession(sessionId)) {
+            stats.resumed.increment();
+        }
+    }
+
+    void handshakeFailed(HttpRoute httpRoute) {
+        getRouteStats(httpRoute).failed.increment();
+    }
+
+    @Override
+    public long getHandshakeCount() {
+        return sum(stats -> stats.handshakes.sum());
+    }
+
+    @Override
+    public long getResumedHandshakeCount() {
+        return sum(stats -> stats.resumed.sum());
+    }
+
+    @Override
+    public long getFailedHandshakeCount() {
+        return sum(stats -> stats.failed.sum());
+    }
+
+    @Override
+    public Map<String, Long> getHandshakesPerRoute() {
+        return perRoute(stats -> stats.handshakes.sum());
+    }
+
+    @Override
+    public Map<String, Long> getFailedHandshakesPerRoute() {
+        return perRoute(stats -> stats.failed.sum());
+    }
+
+    @Override
+    public Map<String, Double> getResumptionRatioPerRoute() {
+        return perRoute(stats -> {
+            long handshakes = stats.handshakes.sum();
+            return handshakes == 0 ? 0.0 : (double) stats.resumed.sum() / handshakes;
+        });
+    }
+
+    /**
+     * @return the average duration of the successful handshakes of each route in milliseconds
+     */
+    @Override
+    public Map<String, Double> getAverageHandshakeLatencyPerRoute() {
+        return perRoute(stats -> {
+            long handshakes = stats.handshakes.sum();
+            return handshakes == 0 ? 0.0 :
+                    (double) stats.latencyNanos.sum() / handshakes / TimeUnit.MILLISECONDS.toNanos(1);
+        });
+    }
+
+    private RouteTlsStats getRouteStats(HttpRoute httpRoute) {
+        String route = httpRoute.toString();
+        RouteTlsStats stats = routeStats.get(route);
+        if (stats == null) {
+            stats = routeStats.computeIfAbsent(route, key -> new RouteTlsStats());
+        }
+        return stats;
+    }
+
+    private long sum(Function<RouteTlsStats, Long> counter) {
+        long total = 0;
+        for (RouteTlsStats stats : routeStats.values()) {
+            total += counter.apply(stats);
+        }
+        return total;
+    }
+
+    private <T> Map<String, T> perRoute(Function<RouteTlsStats, T> counter) {
+        Map<String, T> values = new HashMap<>();
+        routeStats.forEach((route, stats) -> values.put(route, counter.apply(stats)));
+        return values;
+    }
+
+    /**
+     * Handshake counters of a single route along with the ids of the latest sessions established with it.
+     */
+    private static class RouteTlsStats {
+
+        private final LongAdder handshakes = new LongAdder();
+        private final LongAdder resumed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final Map<String, Boolean> sessionIds =
+                new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > MAX_SESSION_IDS_PER_ROUTE;
+                    }
+                };
+
+        boolean isKnownSession(byte[] sessionId) {
+            if (sessionId == null || sessionId.length == 0) {
+                return false;
+            }
+            String id = Base64.getEncoder().encodeToString(sessionId);
+            synchronized (sessionIds) {
+                return sessionIds.put(id, Boolean.TRUE) != null;
+            }
+        }
+    }
+}
@@ -44,8 +44,8 @@ import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.FrameLogger;
 import org.wso2.transport.http.netty.common.HttpRoute;
 import org.wso2.transport.http.netty.common.ProxyServerConfiguration;
-import org.wso2.transport.http.netty.common.ssl.SSLConfig;
-import org.wso2.transport.http.netty.common.ssl.SSLHandlerFactory;
+import org.wso2.transport.http.netty.common.WriteCoalescingHandler;
+import org.wso2.transport.http.netty.common.timeout.RequestTimeoutHandler;
 import org.wso2.transport.http.netty.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.config.SenderConfiguration;
 import org.wso2.transport.http.netty.listener.HTTPTraceLoggingHandler;
@@ -68,6 +68,7 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
     private static final Logger log = LoggerFactory.getLogger(HttpClientChannelInitializer.class);
 
     private TargetHandler targetHandler;
+    private RequestTimeoutHandler requestTimeoutHandler;
     private boolean httpTraceLogEnabled;
     private boolean followRedirect;
     private boolean validateCertEnabled;
@@ -83,7 +84,7 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
     private ClientInboundHandler clientInboundHandler;
     private ClientOutboundHandler clientOutboundHandler;
     private Http2Connection connection;
-    private SSLConfig sslConfig;
+    private ClientSSLContextHolder sslContextHolder;
     private HttpRoute httpRoute;
     private SenderConfiguration senderConfiguration;
     private ConnectionAvailabilityFuture connectionAvailabilityFuture;
@@ -102,15 +103,25 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
         this.cacheSize = senderConfiguration.getCacheSize();
         this.senderConfiguration = senderConfiguration;
         this.httpRoute = httpRoute;
-        this.sslConfig = senderConfiguration.getSSLConfig();
+        this.sslContextHolder = connectionManager.getSSLContextHolder(senderConfiguration);
         this.connectionAvailabilityFuture = connectionAvailabilityFuture;
 
         String httpVersion = senderConfiguration.getHttpVersion();
         if (Float.valueOf(httpVersion) == Constants.HTTP_2_0) {
             http2 = true;
+            initHttp2Handlers();
         }
+    }
+
+    /**
+     * Creates the HTTP/2 connection state and the handlers which drive it. Connections of a connector which is
+     * configured for HTTP/1.x never upgrade or negotiate HTTP/2, so they are left without them to keep the heap
+     * retained by a pooled connection small.
+     */
+    private void initHttp2Handlers() {
         connection = new DefaultHttp2Connection(false);
         clientInboundHandler = new ClientInboundHandler();
+        clientInboundHandler.setEntityCollectorConfig(senderConfiguration.getEntityCollectorConfig());
         Http2FrameListener frameListener = new DelegatingDecompressorFrameListener(connection, clientInboundHandler);
 
         Http2ConnectionHandlerBuilder connectionHandlerBuilder = new Http2ConnectionHandlerBuilder();
@@ -131,17 +142,17 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
         targetHandler = new TargetHandler();
         targetHandler.setHttp2ClientOutboundHandler(clientOutboundHandler);
         targetHandler.setKeepAliveConfig(getKeepAliveConfig());
+        targetHandler.setEntityCollectorConfig(senderConfiguration.getEntityCollectorConfig());
         if (http2) {
-            SSLConfig sslConfig = senderConfiguration.getSSLConfig();
-            if (sslConfig != null) {
-                configureSslForHttp2(socketChannel, clientPipeline, sslConfig);
+            if (sslContextHolder != null) {
+                configureSslForHttp2(socketChannel, clientPipeline);
             } else if (senderConfiguration.isForceHttp2()) {
                 configureHttp2Pipeline(clientPipeline);
             } else {
                 configureHttp2UpgradePipeline(clientPipeline, sourceCodec, targetHandler);
             }
         } else {
-            if (sslConfig != null) {
+            if (sslContextHolder != null) {
                 configureSslForHttp(clientPipeline, targetHandler, socketChannel);
             } else {
                 configureHttpPipeline(clientPipeline, targetHandler);
@@ -170,19 +181,21 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
         log.debug("adding ssl handler");
         connectionAvailabilityFuture.setSSLEnabled(true);
         if (senderConfiguration.isOcspStaplingEnabled()) {
-            SSLHandlerFactory sslHandlerFactory = new SSLHandlerFactory(sslConfig);
-            ReferenceCountedOpenSslContext referenceCountedOpenSslContext = sslHandlerFactory
-                    .buildClientReferenceCountedOpenSslContext();
+            ReferenceCountedOpenSslContext referenceCountedOpenSslContext = sslContextHolder.getOpenSslContext();
 
             if (referenceCountedOpenSslContext != null) {
-                SslHandler sslHandler = referenceCountedOpenSslContext.newHandler(socketChannel.alloc());
+                SslHandler sslHandler = referenceCountedOpenSslContext.newHandler(socketChannel.alloc(),
+                        httpRoute.getHost(), httpRoute.getPort());
                 ReferenceCountedOpenSslEngine engine = (ReferenceCountedOpenSslEngine) sslHandler.engine();
                 socketChannel.pipeline().addLast(sslHandler);
+                addTlsHandshakeMetricsHandler(clientPipeline);
                 socketChannel.pipeline().addLast(new OCSPStaplingHandler(engine));
             }
         } else {
-            SSLEngine sslEngine = instantiateAndConfigSSL(sslConfig);
+            SSLEngine sslEngine = sslContextHolder.buildClientSSLEngine(httpRoute.getHost(), httpRoute.getPort(),
+                    senderConfiguration.hostNameVerificationEnabled());
             clientPipeline.addLast(Constants.SSL_HANDLER, new SslHandler(sslEngine));
+            addTlsHandshakeMetricsHandler(clientPipeline);
             if (validateCertEnabled) {
                 clientPipeline.addLast(Constants.HTTP_CERT_VALIDATION_HANDLER,
                         new CertificateValidationHandler(sslEngine, this.cacheDelay, this.cacheSize));
@@ -192,23 +205,24 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
                 new SslHandshakeCompletionHandlerForClient(connectionAvailabilityFuture, this, targetHandler));
     }
 
-    private void configureSslForHttp2(SocketChannel ch, ChannelPipeline clientPipeline, SSLConfig sslConfig)
-            throws SSLException {
+    private void configureSslForHttp2(SocketChannel ch, ChannelPipeline clientPipeline) throws SSLException {
         connectionAvailabilityFuture.setSSLEnabled(true);
         if (senderConfiguration.isOcspStaplingEnabled()) {
             ReferenceCountedOpenSslContext referenceCountedOpenSslContext =
-                    (ReferenceCountedOpenSslContext) new SSLHandlerFactory(sslConfig).
-                            createHttp2TLSContextForClient(senderConfiguration.isOcspStaplingEnabled());
+                    (ReferenceCountedOpenSslContext) sslContextHolder.getHttp2SslContext(true);
             if (referenceCountedOpenSslContext != null) {
-                SslHandler sslHandler = referenceCountedOpenSslContext.newHandler(ch.alloc());
+                SslHandler sslHandler = referenceCountedOpenSslContext.newHandler(ch.alloc(), httpRoute.getHost(),
+                        httpRoute.getPort());
                 ReferenceCountedOpenSslEngine engine = (ReferenceCountedOpenSslEngine) sslHandler.engine();
                 ch.pipeline().addLast(sslHandler);
+                addTlsHandshakeMetricsHandler(clientPipeline);
                 ch.pipeline().addLast(new OCSPStaplingHandler(engine));
             }
         } else {
-            SslContext sslCtx = new SSLHandlerFactory(sslConfig).createHttp2TLSContextForClient(false);
-            SslHandler sslHandler = sslCtx.newHandler(ch.alloc());
+            SslContext sslCtx = sslContextHolder.getHttp2SslContext(false);
+            SslHandler sslHandler = sslCtx.newHandler(ch.alloc(), httpRoute.getHost(), httpRoute.getPort());
             clientPipeline.addLast(sslHandler);
+            addTlsHandshakeMetricsHandler(clientPipeline);
             if (validateCertEnabled) {
                 clientPipeline.addLast(Constants.HTTP_CERT_VALIDATION_HANDLER,
                         new CertificateValidationHandler(sslHandler.engine(), this.cacheDelay, this.cacheSize));
@@ -217,10 +231,23 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
         clientPipeline.addLast(new Http2PipelineConfiguratorForClient(targetHandler, connectionAvailabilityFuture));
     }
 
+    private void addTlsHandshakeMetricsHandler(ChannelPipeline clientPipeline) {
+        clientPipeline.addLast(Constants.TLS_HANDSHAKE_METRICS_HANDLER,
+                new TlsHandshakeMetricsHandler(connectionManager.getTlsMetrics(), httpRoute));
+    }
+
     public TargetHandler getTargetHandler() {
         return targetHandler;
     }
 
+    /**
+     * @return the handler which tracks the timeouts of HTTP/1.x requests, or null if the pipeline is not configured
+     *         for HTTP/1.x yet
+     */
+    public RequestTimeoutHandler getRequestTimeoutHandler() {
+        return requestTimeoutHandler;
+    }
+
     public Http2ConnectionManager getHttp2ConnectionManager() {
         return http2ConnectionManager;
     }
@@ -262,6 +289,10 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
      */
     public void configureHttpPipeline(ChannelPipeline pipeline, TargetHandler targetHandler) {
         pipeline.addLast(Constants.HTTP_CLIENT_CODEC, new HttpClientCodec());
+        if (senderConfiguration.isWriteCoalescingEnabled()) {
+            pipeline.addLast(Constants.WRITE_COALESCING_HANDLER,
+                             new WriteCoalescingHandler(senderConfiguration.getWriteCoalescingThreshold()));
+        }
         addCommonHandlers(pipeline);
         pipeline.addLast(Constants.TARGET_HANDLER, targetHandler);
     }
@@ -277,41 +308,34 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
             pipeline.addLast(Constants.HTTP_TRACE_LOG_HANDLER,
                     new HTTPTraceLoggingHandler(Constants.TRACE_LOG_UPSTREAM));
         }
+        requestTimeoutHandler = new RequestTimeoutHandler(connectionManager.getTimeoutService());
+        pipeline.addLast(Constants.REQUEST_TIMEOUT_HANDLER, requestTimeoutHandler);
         if (followRedirect) {
             if (log.isDebugEnabled()) {
                 log.debug("Follow Redirect is enabled, so adding the redirect handler to the pipeline.");
             }
-            RedirectHandler redirectHandler = new RedirectHandler(instantiateAndConfigSSL(sslConfig),
+            // The redirect handler only checks whether the connection uses TLS, so it is given the engine of the
+            // connection instead of a new one
+            SslHandler sslHandler = pipeline.get(SslHandler.class);
+            RedirectHandler redirectHandler = new RedirectHandler(sslHandler != null ? sslHandler.engine() : null,
                     httpTraceLogEnabled, maxRedirectCount, connectionManager);
             pipeline.addLast(Constants.REDIRECT_HANDLER, redirectHandler);
         }
     }
 
     /**
-     * Set configurations to create ssl engine.
+     * Checks whether the connection is configured for HTTP/2.
      *
-     * @param sslConfig ssl related configurations
-     * @return ssl engine
+     * @return whether the HTTP/2 connection state is created for the connection
      */
-    private SSLEngine instantiateAndConfigSSL(SSLConfig sslConfig) {
-        // set the pipeline factory, which creates the pipeline for each newly created channels
-        SSLEngine sslEngine = null;
-        if (sslConfig != null) {
-            SSLHandlerFactory sslHandlerFactory = new SSLHandlerFactory(sslConfig);
-            sslEngine = sslHandlerFactory.buildClientSSLEngine(httpRoute.getHost(), httpRoute.getPort());
-            sslEngine.setUseClientMode(true);
-            sslHandlerFactory.setSNIServerNames(sslEngine, httpRoute.getHost());
-            if (senderConfiguration.hostNameVerificationEnabled()) {
-                sslHandlerFactory.setHostNameVerfication(sslEngine);
-            }
-        }
-        return sslEngine;
+    public boolean isHttp2() {
+        return http2;
     }
 
     /**
      * Gets the associated {@link Http2Connection}.
      *
-     * @return the associated {@code Http2Connection}
+     * @return the associated {@code Http2Connection}, or null if the connection is not configured for HTTP/2
      */
     public Http2Connection getConnection() {
         return connection;
@@ -340,8 +364,10 @@ public class HttpClientChannelInitializer extends ChannelInitializer<SocketChann
     }
 
     public void setHttp2ClientChannel(Http2ClientChannel http2ClientChannel) {
-        clientOutboundHandler.setHttp2ClientChannel(http2ClientChannel);
-        clientInboundHandler.setHttp2ClientChannel(http2ClientChannel);
+        if (http2) {
+            clientOutboundHandler.setHttp2ClientChannel(http2ClientChannel);
+            clientInboundHandler.setHttp2ClientChannel(http2ClientChannel);
+        }
     }
 
     /**
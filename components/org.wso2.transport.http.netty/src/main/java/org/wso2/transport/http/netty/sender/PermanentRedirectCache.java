@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender;
+
+import org.wso2.transport.http.netty.common.Constants;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the locations of permanent (301 and 308) redirects, keyed by the URL which got redirected.
+ * Once the cache is full the least recently used redirect is evicted.
+ */
+public class PermanentRedirectCache {
+
+    private final Map<String, String> locations;
+
+    public PermanentRedirectCache(int maxSize) {
+        this.locations = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Records that the given URL is permanently redirected to the given location.
+     *
+     * @param url      the URL which got redirected
+     * @param location the absolute URL the request got redirected to
+     */
+    public synchronized void put(String url, String location) {
+        try {
+            locations.put(normalize(url), normalize(location));
+        } catch (MalformedURLException e) {
+            // Only absolute URLs are cached
+        }
+    }
+
+    /**
+     * Gets the location the given URL is permanently redirected to.
+     *
+     * @param url the requested URL
+     * @return the absolute URL the request should be sent to, or null if no redirect is known for the URL
+     */
+    public synchronized String get(String url) {
+        try {
+            return locations.get(normalize(url));
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    public synchronized int size() {
+        return locations.size();
+    }
+
+    /**
+     * Gives the URL in the form scheme://host:port/path?query so that a URL which names the default port of its
+     * scheme and one which omits it map to the same entry.
+     */
+    private static String normalize(String url) throws MalformedURLException {
+        URL parsedUrl = new URL(url);
+        int port = parsedUrl.getPort() != -1 ? parsedUrl.getPort() : parsedUrl.getDefaultPort();
+        String file = parsedUrl.getFile().isEmpty() ? Constants.FORWRD_SLASH : parsedUrl.getFile();
+        return parsedUrl.getProtocol() + Constants.URL_AUTHORITY + parsedUrl.getHost() + Constants.COLON + port
+                + file;
+    }
+}
@@ -35,23 +35,23 @@ import javax.net.ssl.SSLEngine;
  */
 public class RedirectChannelInitializer extends ChannelInitializer<SocketChannel> {
 
-    private static final Logger log = LoggerFactory.getLogger(HttpClientChannelInitializer.class);
+    private static final Logger log = LoggerFactory.getLogger(RedirectChannelInitializer.class);
 
     private SSLEngine sslEngine; //Add SSL support to channel
     private boolean httpTraceLogEnabled; //Will be used, if enabled, to log events
     private int maxRedirectCount;
     private ChannelHandlerContext originalChannelContext;
-    private boolean isIdleHandlerOfTargetChannelRemoved;
+    private boolean isTimeoutOfTargetChannelCancelled;
     private ConnectionManager connectionManager;
 
     public RedirectChannelInitializer(SSLEngine sslEngine, boolean httpTraceLogEnabled, int maxRedirectCount,
-            ChannelHandlerContext originalChannelContext, boolean isIdleHandlerOfTargetChannelRemoved,
+            ChannelHandlerContext originalChannelContext, boolean isTimeoutOfTargetChannelCancelled,
             ConnectionManager connectionManager) {
         this.sslEngine = sslEngine;
         this.httpTraceLogEnabled = httpTraceLogEnabled;
         this.maxRedirectCount = maxRedirectCount;
         this.originalChannelContext = originalChannelContext;
-        this.isIdleHandlerOfTargetChannelRemoved = isIdleHandlerOfTargetChannelRemoved;
+        this.isTimeoutOfTargetChannelCancelled = isTimeoutOfTargetChannelCancelled;
         this.connectionManager = connectionManager;
     }
 
@@ -73,7 +73,7 @@ public class RedirectChannelInitializer extends ChannelInitializer<SocketChannel
                                   new HTTPTraceLoggingHandler(Constants.TRACE_LOG_UPSTREAM));
         }
         RedirectHandler redirectHandler = new RedirectHandler(sslEngine, httpTraceLogEnabled, maxRedirectCount
-                , originalChannelContext, isIdleHandlerOfTargetChannelRemoved, connectionManager);
+                , originalChannelContext, isTimeoutOfTargetChannelCancelled, connectionManager);
         ch.pipeline().addLast(Constants.REDIRECT_HANDLER, redirectHandler);
     }
 
@@ -28,18 +28,21 @@ import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.LastHttpContent;
-import io.netty.handler.timeout.IdleState;
-import io.netty.handler.timeout.IdleStateEvent;
-import io.netty.handler.timeout.IdleStateHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.Util;
+import org.wso2.transport.http.netty.common.timeout.RequestTimeoutEvent;
+import org.wso2.transport.http.netty.common.timeout.RequestTimeoutHandler;
+import org.wso2.transport.http.netty.contract.ClientConnectorException;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpClientConnector;
 import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
 import org.wso2.transport.http.netty.sender.channel.TargetChannel;
 import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.sender.http2.OutboundMsgHolder;
 
 import java.io.UnsupportedEncodingException;
 import java.net.InetSocketAddress;
@@ -47,12 +50,13 @@ import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 
 import static org.wso2.transport.http.netty.sender.RedirectUtil.getResolvedRedirectURI;
@@ -73,9 +77,11 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
     private Integer currentRedirectCount;
     private HTTPCarbonMessage targetRespMsg;
     private ChannelHandlerContext originalChannelContext;
-    private boolean isIdleHandlerOfTargetChannelRemoved = false;
+    private boolean isTimeoutOfTargetChannelCancelled = false;
     private ConnectionManager connectionManager;
     private String resolvedRequestedURI;
+    private boolean isRedirectResponseKeepAlive;
+    private boolean isCrossSchemeRedirect = false;
 
     public RedirectHandler(SSLEngine sslEngine, boolean httpTraceLogEnabled, int maxRedirectCount,
                            ConnectionManager connectionManager) {
@@ -86,13 +92,13 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
     }
 
     public RedirectHandler(SSLEngine sslEngine, boolean httpTraceLogEnabled, int maxRedirectCount,
-                           ChannelHandlerContext originalChannelContext, boolean isIdleHandlerOfTargetChannelRemoved,
+                           ChannelHandlerContext originalChannelContext, boolean isTimeoutOfTargetChannelCancelled,
                            ConnectionManager connectionManager) {
         this.sslEngine = sslEngine;
         this.httpTraceLogEnabled = httpTraceLogEnabled;
         this.maxRedirectCount = maxRedirectCount;
         this.originalChannelContext = originalChannelContext;
-        this.isIdleHandlerOfTargetChannelRemoved = isIdleHandlerOfTargetChannelRemoved;
+        this.isTimeoutOfTargetChannelCancelled = isTimeoutOfTargetChannelCancelled;
         this.connectionManager = connectionManager;
     }
 
@@ -165,23 +171,20 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
      */
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
-        if (evt instanceof IdleStateEvent) {
-            IdleStateEvent event = (IdleStateEvent) evt;
-            if (event.state() == IdleState.READER_IDLE || event.state() == IdleState.WRITER_IDLE) {
-                if (originalChannelContext == null) {
-                    originalChannelContext = ctx;
-                }
-                if (ctx == originalChannelContext) {
-                    originalChannelContext.fireUserEventTriggered(evt);
-                    isIdleHandlerOfTargetChannelRemoved = true;
-                } else {
-                    sendTimeoutError(ctx);
-                }
-                /*Once a timeout occurs after sending the response, close the channel, otherwise we will still be
-                 getting response data  after the timeout, if backend sends data. */
-                if (ctx != originalChannelContext) {
-                    ctx.close();
-                }
+        if (evt instanceof RequestTimeoutEvent) {
+            if (originalChannelContext == null) {
+                originalChannelContext = ctx;
+            }
+            if (ctx == originalChannelContext) {
+                originalChannelContext.fireUserEventTriggered(evt);
+                isTimeoutOfTargetChannelCancelled = true;
+            } else {
+                sendTimeoutError(ctx);
+            }
+            /*Once a timeout occurs after sending the response, close the channel, otherwise we will still be
+             getting response data  after the timeout, if backend sends data. */
+            if (ctx != originalChannelContext) {
+                ctx.close();
             }
         }
     }
@@ -223,6 +226,7 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
     private void handleRedirectState(ChannelHandlerContext ctx, HttpResponse msg) throws Exception {
         try {
             originalRequest = ctx.channel().attr(Constants.ORIGINAL_REQUEST).get();
+            isCrossSchemeRedirect = false;
             String location = getLocationFromResponseHeader(msg);
             int statusCode = msg.status().code();
             if (location != null) {
@@ -236,28 +240,35 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
             if (isRedirectEligible()) {
                 isCrossDoamin = isCrossDomain(location, originalRequest);
                 currentRedirectCount = updateAndGetRedirectCount(ctx);
-                if (currentRedirectCount <= maxRedirectCount) {
+                if (isCrossDoamin && !isSchemeOfConnector(redirectState.get(HttpHeaderNames.LOCATION.toString()))
+                        && isRejectCrossSchemeRedirects(ctx)) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Redirect location uses a scheme the client connector cannot connect with.");
+                    }
+                    // The request fails once the redirect response is fully read, so that the connection is reusable
+                    isRedirect = true;
+                    isCrossSchemeRedirect = true;
+                    isRedirectResponseKeepAlive = HttpUtil.isKeepAlive(msg);
+                } else if (currentRedirectCount <= getMaxRedirectCount(ctx)) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Redirection required.");
                     }
                     isRedirect = true;
+                    isRedirectResponseKeepAlive = HttpUtil.isKeepAlive(msg);
+                    cachePermanentRedirect(ctx, statusCode);
                 } else {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Maximum redirect count reached.");
                     }
                     isRedirect = false;
-                    sendResponseHeadersToClient(ctx, msg);
+                    passResponseToClient(ctx, msg);
                 }
             } else {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Request is not eligible for redirection.");
                 }
                 isRedirect = false;
-                if (ctx == originalChannelContext) {
-                    originalChannelContext.fireChannelRead(msg);
-                } else {
-                    sendResponseHeadersToClient(ctx, msg);
-                }
+                passResponseToClient(ctx, msg);
             }
         } catch (UnsupportedEncodingException exception) {
             LOG.error("UnsupportedEncodingException occurred when deciding whether a redirection is required",
@@ -276,13 +287,13 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
      * @param msg Response message
      */
     private void redirectRequest(ChannelHandlerContext ctx, Object msg) throws Exception {
-        if (isRedirect) {
+        if (isRedirect && isCrossSchemeRedirect) {
+            rejectCrossSchemeRedirect(ctx);
+        } else if (isRedirect) {
             try {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Getting ready for actual redirection for channel " + ctx.channel().id());
                 }
-                URL locationUrl = new URL(redirectState.get(HttpHeaderNames.LOCATION.toString()));
-
                 List<Map.Entry<String, String>> headers = originalRequest.getHeaders().entries();
 
                 HTTPCarbonMessage httpCarbonRequest = RedirectUtil
@@ -291,8 +302,12 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
                                 Integer.parseInt(redirectState.get(Constants.HTTP_STATUS_CODE)), ctx, headers);
                 HttpRequest httpRequest = Util.createHttpRequest(httpCarbonRequest);
 
-                if (isCrossDoamin) {
-                    writeContentToNewChannel(ctx, locationUrl, httpCarbonRequest, httpRequest);
+                String location = redirectState.get(HttpHeaderNames.LOCATION.toString());
+                if (isCrossDoamin && ctx == originalChannelContext && isSchemeOfConnector(location)) {
+                    writeContentToPooledChannel(ctx, httpCarbonRequest);
+                } else if (isCrossDoamin) {
+                    // Neither a connection of another scheme nor one which is not pooled can reach the pool
+                    writeContentToNewChannel(ctx, new URL(location), httpCarbonRequest, httpRequest);
                 } else {
                     writeContentToExistingChannel(ctx, httpCarbonRequest, httpRequest);
                 }
@@ -354,10 +369,10 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
             }
             Util.resetChannelAttributes(ctx);
             Util.resetChannelAttributes(originalChannelContext);
-            if (!isIdleHandlerOfTargetChannelRemoved) {
+            if (!isTimeoutOfTargetChannelCancelled) {
                 if (targetChannel.getChannel().isActive()) {
-                    targetChannel.getChannel().pipeline().remove(Constants.IDLE_STATE_HANDLER);
-                    isIdleHandlerOfTargetChannelRemoved = true;
+                    targetChannel.cancelEndPointTimeout();
+                    isTimeoutOfTargetChannelCancelled = true;
                 }
             }
             this.connectionManager.returnChannel(targetChannel);
@@ -373,6 +388,21 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    /**
+     * Pass a response which is not followed along to the client. The response of the original channel is handled by
+     * the target handler, as the rest of its content flows there.
+     *
+     * @param ctx Channel context
+     * @param msg Http response message
+     */
+    private void passResponseToClient(ChannelHandlerContext ctx, HttpResponse msg) {
+        if (ctx == originalChannelContext) {
+            originalChannelContext.fireChannelRead(msg);
+        } else {
+            sendResponseHeadersToClient(ctx, msg);
+        }
+    }
+
     /**
      * Notify listener about received content.
      *
@@ -410,6 +440,26 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
                null;
     }
 
+    /**
+     * Pooled connections can be shared by client connectors with different limits, so the limit of the connector
+     * that sent the request takes precedence over the one this handler was created with.
+     */
+    private int getMaxRedirectCount(ChannelHandlerContext ctx) {
+        DefaultHttpClientConnector connector = ctx.channel().attr(Constants.CLIENT_CONNECTOR).get();
+        return connector != null ? connector.getMaxRedirectCount() : maxRedirectCount;
+    }
+
+    /**
+     * Check whether the client connector that sent the request fails it on a redirect to another scheme.
+     *
+     * @param ctx Channel handler context
+     * @return a boolean indicating whether a redirect to another scheme is rejected
+     */
+    private boolean isRejectCrossSchemeRedirects(ChannelHandlerContext ctx) {
+        DefaultHttpClientConnector connector = ctx.channel().attr(Constants.CLIENT_CONNECTOR).get();
+        return connector != null && connector.isRejectCrossSchemeRedirects();
+    }
+
     /**
      * Increment redirect count by 1.
      *
@@ -421,7 +471,11 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
             LOG.debug("Increment redirect count.");
         }
         Integer redirectCount = ctx.channel().attr(Constants.REDIRECT_COUNT).get();
-        if (redirectCount != null && redirectCount.intValue() != 0) {
+        OutboundMsgHolder outboundMsgHolder = ctx.channel().attr(Constants.OUTBOUND_MSG_HOLDER).get();
+        if (outboundMsgHolder != null) {
+            // The holder keeps counting when the redirects move across connections
+            redirectCount = outboundMsgHolder.incrementRedirectCount();
+        } else if (redirectCount != null && redirectCount.intValue() != 0) {
             redirectCount++;
         } else {
             redirectCount = 1;
@@ -547,55 +601,73 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
     }
 
     /**
-     * Send the redirect request using a new channel.
+     * Send the redirect request through a connection borrowed from the pool of the redirect location, the same way
+     * the client connector sends any other request. The current connection goes back to its pool as the redirect
+     * response has been fully read.
      *
-     * @param redirectUrl       Redirect URL
-     * @param httpCarbonRequest HTTPCarbonMessage needs to be set as an attribute in the channel, so that it can be
-     *                          used with the next redirect if need be
-     * @param httpRequest       HttpRequest that send through the newly created channel
+     * @param ctx               Channel handler context
+     * @param httpCarbonRequest Carbon request to be sent to the redirect location
      */
-    private void writeContentToNewChannel(ChannelHandlerContext channelHandlerContext, URL redirectUrl,
-                                          HTTPCarbonMessage httpCarbonRequest, HttpRequest httpRequest) {
+    private void writeContentToPooledChannel(ChannelHandlerContext ctx, HTTPCarbonMessage httpCarbonRequest) {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Send redirect request using a new channel");
+            LOG.debug("Send redirect request using a pooled channel");
         }
-        if (Constants.HTTP_SCHEME.equals(redirectUrl.getProtocol())) {
-            sslEngine = null;
+        DefaultHttpClientConnector clientConnector = ctx.channel().attr(Constants.CLIENT_CONNECTOR).get();
+        OutboundMsgHolder outboundMsgHolder = ctx.channel().attr(Constants.OUTBOUND_MSG_HOLDER).get();
+        if (clientConnector == null || outboundMsgHolder == null) {
+            handleException(ctx, new IllegalStateException("No client connector to send the redirect request"));
+            return;
         }
-        bootstrapClient(channelHandlerContext, redirectUrl, httpCarbonRequest, httpRequest);
+        httpCarbonRequest.setProperty(Constants.RESOLVED_REQUESTED_URI, resolvedRequestedURI);
+        releaseChannel(ctx);
+        outboundMsgHolder.updateRequest(httpCarbonRequest);
+        clientConnector.send(outboundMsgHolder, httpCarbonRequest);
     }
 
     /**
-     * Bootstrap a netty client to send the redirect request.
+     * Send the redirect request using a new channel which is not pooled, for a location of a scheme the pooled
+     * connections are not configured for.
      *
-     * @param channelHandlerContext Channel handler context
-     * @param redirectUrl           Redirect URL
-     * @return ChannelFuture
+     * @param ctx               Channel handler context
+     * @param redirectUrl       Redirect URL
+     * @param httpCarbonRequest HTTPCarbonMessage needs to be set as an attribute in the channel, so that it can be
+     *                          used with the next redirect if need be
+     * @param httpRequest       HttpRequest that send through the newly created channel
+     * @throws NoSuchAlgorithmException if no default SSL context is available for an https location
      */
-    private void bootstrapClient(ChannelHandlerContext channelHandlerContext, URL redirectUrl,
-                                 HTTPCarbonMessage httpCarbonRequest, HttpRequest httpRequest) {
-        EventLoopGroup group = channelHandlerContext.channel().eventLoop();
+    private void writeContentToNewChannel(ChannelHandlerContext ctx, URL redirectUrl,
+                                          HTTPCarbonMessage httpCarbonRequest, HttpRequest httpRequest)
+            throws NoSuchAlgorithmException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Send redirect request using a new channel");
+        }
+        int port = redirectUrl.getPort() != -1 ? redirectUrl.getPort() : getDefaultPort(redirectUrl.getProtocol());
+        SSLEngine redirectSslEngine = null;
+        if (Constants.HTTPS_SCHEME.equals(redirectUrl.getProtocol())) {
+            redirectSslEngine = SSLContext.getDefault().createSSLEngine(redirectUrl.getHost(), port);
+            redirectSslEngine.setUseClientMode(true);
+        }
+        EventLoopGroup group = ctx.channel().eventLoop();
         Bootstrap clientBootstrap = new Bootstrap();
-        clientBootstrap.group(group).channel(NioSocketChannel.class).remoteAddress(
-                new InetSocketAddress(redirectUrl.getHost(), redirectUrl.getPort() != -1 ?
-                                                             redirectUrl.getPort() :
-                                                             getDefaultPort(redirectUrl.getProtocol()))).handler(
-                new RedirectChannelInitializer(sslEngine, httpTraceLogEnabled, maxRedirectCount, originalChannelContext,
-                                               isIdleHandlerOfTargetChannelRemoved, connectionManager));
+        clientBootstrap.group(group).channel(NioSocketChannel.class)
+                .remoteAddress(new InetSocketAddress(redirectUrl.getHost(), port))
+                .handler(new RedirectChannelInitializer(redirectSslEngine, httpTraceLogEnabled, maxRedirectCount,
+                                                        originalChannelContext, isTimeoutOfTargetChannelCancelled,
+                                                        connectionManager));
         clientBootstrap.option(ChannelOption.SO_KEEPALIVE, true).option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 15000);
         ChannelFuture channelFuture = clientBootstrap.connect();
-        registerListener(channelHandlerContext, channelFuture, httpCarbonRequest, httpRequest);
+        registerListener(ctx, channelFuture, httpCarbonRequest, httpRequest);
     }
 
     /**
      * Register channel future listener on channel future.
      *
-     * @param channelHandlerContext Channel handler context
-     * @param channelFuture         Chanel future
-     * @param httpCarbonRequest     Carbon request
-     * @param httpRequest           http request
+     * @param ctx               Channel handler context
+     * @param channelFuture     Chanel future
+     * @param httpCarbonRequest Carbon request
+     * @param httpRequest       http request
      */
-    private void registerListener(ChannelHandlerContext channelHandlerContext, ChannelFuture channelFuture,
+    private void registerListener(ChannelHandlerContext ctx, ChannelFuture channelFuture,
                                   HTTPCarbonMessage httpCarbonRequest, HttpRequest httpRequest) {
         channelFuture.addListener((ChannelFutureListener) future -> {
             if (future.isSuccess() && future.isDone()) {
@@ -603,31 +675,28 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
                     LOG.debug("Connected to the new channel " + future.channel().id() + " and getting ready to "
                               + "write request.");
                 }
-                long channelStartTime = channelHandlerContext.channel().attr(Constants.ORIGINAL_CHANNEL_START_TIME)
-                        .get();
-                int timeoutOfOriginalRequest = channelHandlerContext.channel()
-                        .attr(Constants.ORIGINAL_CHANNEL_TIMEOUT).get();
-                setChannelAttributes(channelHandlerContext, future, httpCarbonRequest, channelStartTime,
-                                     timeoutOfOriginalRequest);
+                long channelStartTime = ctx.channel().attr(Constants.ORIGINAL_CHANNEL_START_TIME).get();
+                int timeoutOfOriginalRequest = ctx.channel().attr(Constants.ORIGINAL_CHANNEL_TIMEOUT).get();
+                setChannelAttributes(ctx, future, httpCarbonRequest, channelStartTime, timeoutOfOriginalRequest);
                 long remainingTimeForRedirection = getRemainingTimeForRedirection(channelStartTime,
                                                                                   timeoutOfOriginalRequest);
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Remaining time for redirection is : " + remainingTimeForRedirection);
                 }
                 future.channel().pipeline().addBefore(
-                        Constants.REDIRECT_HANDLER, Constants.IDLE_STATE_HANDLER,
-                        new IdleStateHandler(remainingTimeForRedirection,
-                                             remainingTimeForRedirection, 0, TimeUnit.MILLISECONDS));
+                        Constants.REDIRECT_HANDLER, Constants.REQUEST_TIMEOUT_HANDLER,
+                        new RequestTimeoutHandler(connectionManager.getTimeoutService(),
+                                                  Math.max(remainingTimeForRedirection, 1)));
                 future.channel().write(httpRequest);
                 future.channel().writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
                 /* if the previous channel is not original channel, closes it after sending the request through
                  new channel*/
-                if (channelHandlerContext != originalChannelContext) {
-                    channelHandlerContext.close();
+                if (ctx != originalChannelContext) {
+                    ctx.close();
                 }
             } else {
                 LOG.error("Error occurred while trying to connect to redirect channel.", future.cause());
-                handleException(channelHandlerContext, future.cause());
+                handleException(ctx, future.cause());
             }
         });
     }
@@ -635,24 +704,23 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
     /**
      * Set channel attributes to the new channel.
      *
-     * @param channelHandlerContext    Chanel handler context
+     * @param ctx                      Chanel handler context
      * @param future                   ChannelFuture of newly created channel
      * @param httpCarbonRequest        Carbon request
      * @param channelStartTime         Original channel start time
      * @param timeoutOfOriginalRequest Timeout of the original channel
      */
-    private void setChannelAttributes(ChannelHandlerContext channelHandlerContext, ChannelFuture future,
+    private void setChannelAttributes(ChannelHandlerContext ctx, ChannelFuture future,
                                       HTTPCarbonMessage httpCarbonRequest, long channelStartTime,
                                       int timeoutOfOriginalRequest) {
-        HttpResponseFuture responseFuture = channelHandlerContext.channel()
-                .attr(Constants.RESPONSE_FUTURE_OF_ORIGINAL_CHANNEL).get();
+        HttpResponseFuture responseFuture = ctx.channel().attr(Constants.RESPONSE_FUTURE_OF_ORIGINAL_CHANNEL).get();
         future.channel().attr(Constants.RESPONSE_FUTURE_OF_ORIGINAL_CHANNEL).set(responseFuture);
         future.channel().attr(Constants.ORIGINAL_REQUEST).set(httpCarbonRequest);
         future.channel().attr(Constants.REDIRECT_COUNT).set(currentRedirectCount);
         future.channel().attr(Constants.RESOLVED_REQUESTED_URI_ATTR).set(resolvedRequestedURI);
         future.channel().attr(Constants.ORIGINAL_CHANNEL_START_TIME).set(channelStartTime);
         future.channel().attr(Constants.ORIGINAL_CHANNEL_TIMEOUT).set(timeoutOfOriginalRequest);
-        TargetChannel targetChannel = channelHandlerContext.channel().attr(Constants.TARGET_CHANNEL_REFERENCE).get();
+        TargetChannel targetChannel = ctx.channel().attr(Constants.TARGET_CHANNEL_REFERENCE).get();
         future.channel().attr(Constants.TARGET_CHANNEL_REFERENCE).set(targetChannel);
     }
 
@@ -680,6 +748,79 @@ public class RedirectHandler extends ChannelInboundHandlerAdapter {
                Constants.DEFAULT_HTTP_PORT;
     }
 
+    /**
+     * Return the connection which received the redirect response to its pool, or close it when the server does not
+     * keep it alive.
+     *
+     * @param ctx Channel handler context
+     */
+    private void releaseChannel(ChannelHandlerContext ctx) {
+        TargetChannel targetChannel = ctx.channel().attr(Constants.TARGET_CHANNEL_REFERENCE).get();
+        Util.resetChannelAttributes(ctx);
+        ctx.channel().attr(Constants.OUTBOUND_MSG_HOLDER).set(null);
+        if (targetChannel == null) {
+            ctx.close();
+            return;
+        }
+        targetChannel.cancelEndPointTimeout();
+        try {
+            if (isRedirectResponseKeepAlive) {
+                this.connectionManager.returnChannel(targetChannel);
+            } else {
+                // The target handler invalidates the connection once it gets closed
+                targetChannel.setRequestHeaderWritten(false);
+                ctx.close();
+            }
+        } catch (Exception exception) {
+            LOG.error("Error occurred while returning target channel " + ctx.channel().id() + " to its pool",
+                      exception);
+            ctx.close();
+        }
+    }
+
+    /**
+     * Remember a permanent redirect at the client connector, so that later requests skip the redirect.
+     *
+     * @param ctx        Channel handler context
+     * @param statusCode Status code of the redirect response
+     */
+    private void cachePermanentRedirect(ChannelHandlerContext ctx, int statusCode) {
+        DefaultHttpClientConnector clientConnector = ctx.channel().attr(Constants.CLIENT_CONNECTOR).get();
+        if (clientConnector != null && originalRequest != null) {
+            clientConnector.cachePermanentRedirect(originalRequest, statusCode,
+                                                   redirectState.get(HttpHeaderNames.LOCATION.toString()));
+        }
+    }
+
+    /**
+     * Fail the request with a redirect to a scheme the client connector does not connect with, since the pooled
+     * connections of the connector are all configured for its own scheme and SSL configuration.
+     *
+     * @param ctx Channel handler context
+     */
+    private void rejectCrossSchemeRedirect(ChannelHandlerContext ctx) {
+        HttpResponseFuture responseFuture = ctx.channel().attr(Constants.RESPONSE_FUTURE_OF_ORIGINAL_CHANNEL).get();
+        String location = redirectState.get(HttpHeaderNames.LOCATION.toString());
+        isRedirect = false;
+        isCrossSchemeRedirect = false;
+        releaseChannel(ctx);
+        if (responseFuture != null) {
+            responseFuture.notifyHttpListener(new ClientConnectorException(ctx.channel().id().asShortText(),
+                    Constants.REDIRECT_SCHEME_NOT_SUPPORTED + location));
+        }
+    }
+
+    /**
+     * Check whether the location uses the scheme of the connections of the client connector.
+     *
+     * @param location Redirect location
+     * @return a boolean indicating whether the redirect can be sent through the client connector
+     */
+    private boolean isSchemeOfConnector(String location) {
+        String scheme = sslEngine != null ? Constants.HTTPS_SCHEME : Constants.HTTP_SCHEME;
+        return location.toLowerCase(Locale.ROOT).startsWith(scheme + Constants.URL_AUTHORITY);
+    }
+
     /**
      * Checks whether the location includes an absolute path or a relative path.
      *
@@ -35,6 +35,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -65,11 +66,30 @@ public class RedirectUtil {
         HttpMethod httpMethod = new HttpMethod(redirectionMethod);
         HTTPCarbonMessage httpCarbonRequest = new HTTPCarbonMessage(
                 new DefaultHttpRequest(HttpVersion.HTTP_1_1, httpMethod, ""), new DefaultListener(ctx));
+        httpCarbonRequest.setProperty(Constants.HTTP_METHOD, redirectionMethod);
+        httpCarbonRequest.removeHeader(Constants.HTTP_METHOD);
+
+        headers.stream().forEach((entry) -> httpCarbonRequest.setHeader(entry.getKey(), entry.getValue()));
+        if (statusCode == Constants.REDIRECT_SEE_OTHER_303) {
+            httpCarbonRequest.removeHeader(HttpHeaderNames.CONTENT_LENGTH.toString());
+            httpCarbonRequest.removeHeader(HttpHeaderNames.TRANSFER_ENCODING.toString());
+        }
+        setRequestLocation(httpCarbonRequest, locationUrl);
+        httpCarbonRequest.completeMessage();
+        return httpCarbonRequest;
+    }
+
+    /**
+     * Points the request to the given location by updating its routing properties and host header.
+     *
+     * @param httpCarbonRequest the request to update
+     * @param locationUrl       the URL the request should be sent to
+     */
+    public static void setRequestLocation(HTTPCarbonMessage httpCarbonRequest, URL locationUrl) {
         httpCarbonRequest.setProperty(Constants.HTTP_PORT,
                 locationUrl.getPort() != -1 ? locationUrl.getPort() : getDefaultPort(locationUrl.getProtocol()));
         httpCarbonRequest.setProperty(Constants.PROTOCOL, locationUrl.getProtocol());
         httpCarbonRequest.setProperty(Constants.HTTP_HOST, locationUrl.getHost());
-        httpCarbonRequest.setProperty(Constants.HTTP_METHOD, redirectionMethod);
         httpCarbonRequest.setProperty(Constants.REQUEST_URL, locationUrl.getFile());
         httpCarbonRequest.setProperty(Constants.TO, locationUrl.getFile());
 
@@ -78,16 +98,30 @@ public class RedirectUtil {
                 && locationUrl.getPort() != Constants.DEFAULT_HTTPS_PORT) {
             host.append(Constants.COLON).append(locationUrl.getPort());
         }
-        httpCarbonRequest.removeHeader(Constants.HTTP_METHOD);
+        httpCarbonRequest.setHeader(HttpHeaderNames.HOST.toString(), host.toString());
+    }
 
-        headers.stream().forEach((entry) -> httpCarbonRequest.setHeader(entry.getKey(), entry.getValue()));
-        if (statusCode == Constants.REDIRECT_SEE_OTHER_303) {
-            httpCarbonRequest.removeHeader(HttpHeaderNames.CONTENT_LENGTH.toString());
-            httpCarbonRequest.removeHeader(HttpHeaderNames.TRANSFER_ENCODING.toString());
+    /**
+     * Builds the absolute URL a request is sent to.
+     *
+     * @param httpCarbonRequest the request
+     * @param defaultScheme     the scheme to use when the request does not name one
+     * @return the absolute URL of the request
+     */
+    public static String getRequestURL(HTTPCarbonMessage httpCarbonRequest, String defaultScheme) {
+        String path = (String) httpCarbonRequest.getProperty(Constants.TO);
+        if (path == null) {
+            path = Constants.FORWRD_SLASH;
         }
-        httpCarbonRequest.setHeader(HttpHeaderNames.HOST.toString(), host.toString());
-        httpCarbonRequest.completeMessage();
-        return httpCarbonRequest;
+        String lowerCasePath = path.toLowerCase(Locale.ROOT);
+        if (lowerCasePath.startsWith(Constants.HTTP_SCHEME + Constants.URL_AUTHORITY)
+                || lowerCasePath.startsWith(Constants.HTTPS_SCHEME + Constants.URL_AUTHORITY)) {
+            return path;
+        }
+        String protocol = (String) httpCarbonRequest.getProperty(Constants.PROTOCOL);
+        return (protocol != null ? protocol : defaultScheme) + Constants.URL_AUTHORITY
+                + httpCarbonRequest.getProperty(Constants.HTTP_HOST) + Constants.COLON
+                + httpCarbonRequest.getProperty(Constants.HTTP_PORT) + path;
     }
 
     /**
@@ -28,13 +28,13 @@ import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http2.Http2CodecUtil;
 import io.netty.handler.codec.http2.Http2ConnectionPrefaceAndSettingsFrameWrittenEvent;
 import io.netty.handler.ssl.SslCloseCompletionEvent;
-import io.netty.handler.timeout.IdleState;
-import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.Util;
+import org.wso2.transport.http.netty.common.timeout.RequestTimeoutEvent;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
 import org.wso2.transport.http.netty.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contract.ClientConnectorException;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
@@ -68,6 +68,7 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
     private HTTPCarbonMessage outboundRequestMessage;
     private HandlerExecutor handlerExecutor;
     private KeepAliveConfig keepAliveConfig;
+    private EntityCollectorConfig entityCollectorConfig = EntityCollectorConfig.BLOCKING;
     private boolean idleTimeoutTriggered;
 
     @Override
@@ -91,8 +92,9 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
                 if (handlerExecutor != null) {
                     handlerExecutor.executeAtTargetResponseReceiving(inboundResponseMessage);
                 }
-                OutboundMsgHolder msgHolder = http2ClientOutboundHandler.
-                        getHttp2ClientChannel().getInFlightMessage(Http2CodecUtil.HTTP_UPGRADE_STREAM_ID);
+                // The outbound handler is only there when the connection may be upgraded to HTTP/2
+                OutboundMsgHolder msgHolder = http2ClientOutboundHandler != null ? http2ClientOutboundHandler.
+                        getHttp2ClientChannel().getInFlightMessage(Http2CodecUtil.HTTP_UPGRADE_STREAM_ID) : null;
                 if (msgHolder != null) {
                     // Response received over HTTP/1.x connection, so mark no push promises available in the channel
                     msgHolder.markNoPromisesReceived();
@@ -117,7 +119,7 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
                             handlerExecutor.executeAtTargetResponseSending(inboundResponseMessage);
                         }
                         this.inboundResponseMessage = null;
-                        targetChannel.getChannel().pipeline().remove(Constants.IDLE_STATE_HANDLER);
+                        targetChannel.cancelEndPointTimeout();
 
                         if (!isKeepAlive(keepAliveConfig)) {
                             closeChannel(ctx);
@@ -136,7 +138,8 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
     }
 
     private HTTPCarbonMessage setUpCarbonMessage(ChannelHandlerContext ctx, Object msg) {
-        inboundResponseMessage = new HttpCarbonResponse((HttpResponse) msg, new DefaultListener(ctx));
+        inboundResponseMessage = new HttpCarbonResponse((HttpResponse) msg, new DefaultListener(ctx),
+                                                           entityCollectorConfig);
         inboundResponseMessage.setProperty(Constants.POOLED_BYTE_BUFFER_FACTORY,
                 new PooledDataStreamerFactory(ctx.alloc()));
 
@@ -148,6 +151,11 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
         //copy shared worker pool
         inboundResponseMessage.setProperty(Constants.EXECUTOR_WORKER_POOL, outboundRequestMessage
                 .getProperty(Constants.EXECUTOR_WORKER_POOL));
+        //copy the location the request ended up at after following redirects
+        if (outboundRequestMessage.getProperty(Constants.RESOLVED_REQUESTED_URI) != null) {
+            inboundResponseMessage.setProperty(Constants.RESOLVED_REQUESTED_URI, outboundRequestMessage
+                    .getProperty(Constants.RESOLVED_REQUESTED_URI));
+        }
 
         if (handlerExecutor != null) {
             handlerExecutor.executeAtTargetResponseReceiving(inboundResponseMessage);
@@ -197,16 +205,12 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
 
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
-        if (evt instanceof IdleStateEvent) {
-            IdleStateEvent event = (IdleStateEvent) evt;
-            if (event.state() == IdleState.READER_IDLE || event.state() == IdleState.WRITER_IDLE) {
-                targetChannel.getChannel().pipeline().remove(Constants.IDLE_STATE_HANDLER);
-                this.idleTimeoutTriggered = true;
-                this.channelInactive(ctx);
-                handleErrorIdleScenarios(ctx.channel().id().asLongText());
-
-                log.warn("Idle timeout has reached hence closing the connection {}", ctx.channel().id());
-            }
+        if (evt instanceof RequestTimeoutEvent) {
+            this.idleTimeoutTriggered = true;
+            this.channelInactive(ctx);
+            handleErrorIdleScenarios(ctx.channel().id().asLongText());
+
+            log.warn("{} timeout has reached hence closing the connection {}", evt, ctx.channel().id());
         } else if (evt instanceof HttpClientUpgradeHandler.UpgradeEvent) {
             HttpClientUpgradeHandler.UpgradeEvent upgradeEvent = (HttpClientUpgradeHandler.UpgradeEvent) evt;
             if (HttpClientUpgradeHandler.UpgradeEvent.UPGRADE_SUCCESSFUL.name().equals(upgradeEvent.name())) {
@@ -233,7 +237,7 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
 
         // Remove Http specific handlers
         safelyRemoveHandlers(targetChannel.getChannel().pipeline(), Constants.REDIRECT_HANDLER,
-                             Constants.IDLE_STATE_HANDLER, Constants.HTTP_TRACE_LOG_HANDLER);
+                             Constants.REQUEST_TIMEOUT_HANDLER, Constants.HTTP_TRACE_LOG_HANDLER);
         http2ClientChannel.addDataEventListener(
                 Constants.IDLE_STATE_HANDLER,
                 new TimeoutHandler(http2ClientChannel.getSocketIdleTimeout(), http2ClientChannel));
@@ -246,6 +250,7 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void handoverChannelToHttp2ConnectionManager() {
+        connectionManager.detachTargetChannel(targetChannel);
         connectionManager.getHttp2ConnectionManager().
                 addHttp2ClientChannel(targetChannel.getHttpRoute(), targetChannel.getHttp2ClientChannel());
     }
@@ -304,6 +309,10 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
         this.keepAliveConfig = keepAliveConfig;
     }
 
+    void setEntityCollectorConfig(EntityCollectorConfig entityCollectorConfig) {
+        this.entityCollectorConfig = entityCollectorConfig;
+    }
+
     public HttpResponseFuture getHttpResponseFuture() {
         return httpResponseFuture;
     }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import org.wso2.transport.http.netty.common.HttpRoute;
+
+/**
+ * Records the outcome and the duration of the TLS handshake of a client connection in the {@link ClientTlsMetrics}
+ * of the connector, and removes itself from the pipeline once the handshake completes.
+ * <p>
+ * The duration is measured from the time the channel becomes active, which is when the {@link SslHandler} starts
+ * the handshake.
+ */
+class TlsHandshakeMetricsHandler extends ChannelInboundHandlerAdapter {
+
+    private final ClientTlsMetrics tlsMetrics;
+    private final HttpRoute httpRoute;
+    private long handshakeStartTime;
+
+    TlsHandshakeMetricsHandler(ClientTlsMetrics tlsMetrics, HttpRoute httpRoute) {
+        this.tlsMetrics = tlsMetrics;
+        this.httpRoute = httpRoute;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isActive()) {
+            handshakeStartTime = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        handshakeStartTime = System.nanoTime();
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof SslHandshakeCompletionEvent) {
+            ctx.pipeline().remove(this);
+            if (((SslHandshakeCompletionEvent) evt).isSuccess()) {
+                SslHandler sslHandler = ctx.pipeline().get(SslHandler.class);
+                byte[] sessionId = sslHandler != null ? sslHandler.engine().getSession().getId() : null;
+                tlsMetrics.handshakeSucceeded(httpRoute, sessionId, System.nanoTime() - handshakeStartTime);
+            } else {
+                tlsMetrics.handshakeFailed(httpRoute);
+            }
+        }
+        ctx.fireUserEventTriggered(evt);
+    }
+}
@@ -29,7 +29,7 @@ public class BootstrapConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(BootstrapConfiguration.class);
 
-    private boolean tcpNoDelay, keepAlive, socketReuse;
+    private boolean tcpNoDelay, keepAlive, socketReuse, tcpFastOpen, tcpQuickAck, edgeTriggered;
     private int connectTimeOut, receiveBufferSize, sendBufferSize, socketTimeout;
 
     public BootstrapConfiguration(Map<String, Object> properties) {
@@ -54,6 +54,13 @@ public class BootstrapConfiguration {
         socketReuse = Util.getBooleanProperty(
                 properties, Constants.CLIENT_BOOTSTRAP_SO_REUSE, false);
 
+        // Following are only applied by native transports, and are ignored by NIO
+        tcpFastOpen = Util.getBooleanProperty(properties, Constants.CLIENT_BOOTSTRAP_TCP_FASTOPEN, false);
+
+        tcpQuickAck = Util.getBooleanProperty(properties, Constants.CLIENT_BOOTSTRAP_TCP_QUICKACK, false);
+
+        edgeTriggered = Util.getBooleanProperty(properties, Constants.CLIENT_BOOTSTRAP_EPOLL_EDGE_TRIGGERED, true);
+
         logger.debug(Constants.CLIENT_BOOTSTRAP_TCP_NO_DELY + ": " + tcpNoDelay);
         logger.debug(Constants.CLIENT_BOOTSTRAP_CONNECT_TIME_OUT + ":" + connectTimeOut);
         logger.debug(Constants.CLIENT_BOOTSTRAP_RECEIVE_BUFFER_SIZE + ":" + receiveBufferSize);
@@ -61,6 +68,9 @@ public class BootstrapConfiguration {
         logger.debug(Constants.CLIENT_BOOTSTRAP_SO_TIMEOUT + ":" + socketTimeout);
         logger.debug(Constants.CLIENT_BOOTSTRAP_KEEPALIVE + ":" + keepAlive);
         logger.debug(Constants.CLIENT_BOOTSTRAP_SO_REUSE + ":" + socketReuse);
+        logger.debug(Constants.CLIENT_BOOTSTRAP_TCP_FASTOPEN + ":" + tcpFastOpen);
+        logger.debug(Constants.CLIENT_BOOTSTRAP_TCP_QUICKACK + ":" + tcpQuickAck);
+        logger.debug(Constants.CLIENT_BOOTSTRAP_EPOLL_EDGE_TRIGGERED + ":" + edgeTriggered);
     }
 
     public boolean isTcpNoDelay() {
@@ -90,4 +100,19 @@ public class BootstrapConfiguration {
     public int getSocketTimeout() {
         return socketTimeout;
     }
+
+    /**
+     * @return true if connections send the request data with the SYN using TCP_FASTOPEN_CONNECT
+     */
+    public boolean isTcpFastOpen() {
+        return tcpFastOpen;
+    }
+
+    public boolean isTcpQuickAck() {
+        return tcpQuickAck;
+    }
+
+    public boolean isEdgeTriggered() {
+        return edgeTriggered;
+    }
 }
@@ -20,12 +20,12 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpRequest;
-import io.netty.handler.timeout.IdleStateHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.HttpRoute;
 import org.wso2.transport.http.netty.common.Util;
+import org.wso2.transport.http.netty.common.timeout.RequestTimeoutHandler;
 import org.wso2.transport.http.netty.config.ChunkConfig;
 import org.wso2.transport.http.netty.config.ForwardedExtensionConfig;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
@@ -39,6 +39,7 @@ import org.wso2.transport.http.netty.sender.ForwardedHeaderUpdater;
 import org.wso2.transport.http.netty.sender.HttpClientChannelInitializer;
 import org.wso2.transport.http.netty.sender.TargetHandler;
 import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.sender.channel.pool.PoolEntry;
 import org.wso2.transport.http.netty.sender.http2.Http2ClientChannel;
 import org.wso2.transport.http.netty.sender.http2.RedirectHandler;
 
@@ -48,7 +49,6 @@ import java.nio.channels.ClosedChannelException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 
 /**
  * A class that encapsulate channel and state.
@@ -70,6 +70,7 @@ public class TargetChannel {
     private HttpResponseFuture httpInboundResponseFuture;
     private HandlerExecutor handlerExecutor;
     private Http2ClientChannel http2ClientChannel;
+    private PoolEntry poolEntry;
 
     private List<HttpContent> contentList = new ArrayList<>();
     private long contentLength = 0;
@@ -81,7 +82,8 @@ public class TargetChannel {
         this.channelFuture = channelFuture;
         this.handlerExecutor = HTTPTransportContextHolder.getInstance().getHandlerExecutor();
         this.httpRoute = httpRoute;
-        if (httpClientChannelInitializer != null) {
+        // Only the connections configured for HTTP/2 keep the HTTP/2 state, the others never upgrade
+        if (httpClientChannelInitializer != null && httpClientChannelInitializer.isHttp2()) {
             http2ClientChannel =
                     new Http2ClientChannel(httpClientChannelInitializer.getHttp2ConnectionManager(),
                                            httpClientChannelInitializer.getConnection(),
@@ -163,11 +165,35 @@ public class TargetChannel {
         this.httpInboundResponseFuture = httpInboundResponseFuture;
     }
 
-    public void setEndPointTimeout(int socketIdleTimeout, boolean followRedirect) {
-        this.getChannel().pipeline().addBefore((followRedirect ? Constants.REDIRECT_HANDLER : Constants.TARGET_HANDLER),
-                Constants.IDLE_STATE_HANDLER, new IdleStateHandler(socketIdleTimeout, socketIdleTimeout, 0,
-                        TimeUnit.MILLISECONDS));
-        http2ClientChannel.setSocketIdleTimeout(socketIdleTimeout);
+    /**
+     * Starts the timeouts of the request about to be sent over this connection.
+     *
+     * @param socketIdleTimeout the time in milliseconds the connection may be idle in between the chunks
+     * @param firstByteTimeout  the time in milliseconds within which the response has to start, 0 to disable
+     * @param requestTimeout    the time in milliseconds within which the response has to complete, 0 to disable
+     */
+    public void setEndPointTimeout(int socketIdleTimeout, int firstByteTimeout, int requestTimeout) {
+        RequestTimeoutHandler requestTimeoutHandler = getRequestTimeoutHandler();
+        if (requestTimeoutHandler != null) {
+            requestTimeoutHandler.arm(firstByteTimeout, socketIdleTimeout, requestTimeout);
+        }
+        if (http2ClientChannel != null) {
+            http2ClientChannel.setSocketIdleTimeout(socketIdleTimeout);
+        }
+    }
+
+    /**
+     * Stops the timeouts of the request sent over this connection, once its response is complete.
+     */
+    public void cancelEndPointTimeout() {
+        RequestTimeoutHandler requestTimeoutHandler = getRequestTimeoutHandler();
+        if (requestTimeoutHandler != null) {
+            requestTimeoutHandler.disarm();
+        }
+    }
+
+    private RequestTimeoutHandler getRequestTimeoutHandler() {
+        return httpClientChannelInitializer != null ? httpClientChannelInitializer.getRequestTimeoutHandler() : null;
     }
 
     public void setCorrelationIdForLogging() {
@@ -188,6 +214,17 @@ public class TargetChannel {
         return channelFuture;
     }
 
+    public PoolEntry getPoolEntry() {
+        return poolEntry;
+    }
+
+    public void setPoolEntry(PoolEntry poolEntry) {
+        this.poolEntry = poolEntry;
+    }
+
+    /**
+     * @return the HTTP/2 state of the connection, or null if the connection is not configured for HTTP/2
+     */
     public Http2ClientChannel getHttp2ClientChannel() {
         return http2ClientChannel;
     }
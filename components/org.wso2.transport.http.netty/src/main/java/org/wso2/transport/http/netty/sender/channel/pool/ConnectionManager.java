@@ -15,197 +15,556 @@
 
 package org.wso2.transport.http.netty.sender.channel.pool;
 
-import io.netty.channel.ChannelHandlerContext;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import org.apache.commons.pool.impl.GenericObjectPool;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.NoopAddressResolverGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.HttpRoute;
+import org.wso2.transport.http.netty.common.MBeanRegistrar;
+import org.wso2.transport.http.netty.common.timeout.TimeoutService;
+import org.wso2.transport.http.netty.common.timeout.WheelTimeout;
+import org.wso2.transport.http.netty.common.transport.Transport;
+import org.wso2.transport.http.netty.common.transport.Transports;
 import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.ClientConnectorException;
+import org.wso2.transport.http.netty.exception.PendingAcquireQueueFullException;
 import org.wso2.transport.http.netty.listener.SourceHandler;
+import org.wso2.transport.http.netty.sender.ClientSSLContextHolder;
+import org.wso2.transport.http.netty.sender.ClientTlsMetrics;
+import org.wso2.transport.http.netty.sender.ConnectionAvailabilityFuture;
+import org.wso2.transport.http.netty.sender.ConnectionAvailabilityListener;
+import org.wso2.transport.http.netty.sender.HttpClientChannelInitializer;
 import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
 import org.wso2.transport.http.netty.sender.channel.TargetChannel;
 import org.wso2.transport.http.netty.sender.http2.Http2ConnectionManager;
+import org.wso2.transport.http.netty.sender.resolver.CachingDnsAddressResolverGroup;
 
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class which handles connection pool management.
+ * <p>
+ * Each event loop owns the idle connections of every route it has connected to. A connection is always created
+ * on, and returned to, the event loop of the source handler it is borrowed for, so borrowing and returning do not
+ * hand the connection over to another thread or take a lock. A request only ever borrows the idle connections of its
+ * own event loop and opens a new one when there is none. The limits of the {@link PoolConfiguration} are applied per
+ * route across all the event loops.
+ * <p>
+ * When the pool is configured with minimum idle connections, every route known to the manager, either declared up
+ * front with {@link #warmUp(HttpRoute)} or used by a request, is kept at that many idle connections by opening
+ * connections in the background. They are spread round robin across the event loops requests have been made from,
+ * or, before the first request, across the event loops requests are expected from, which are the server worker event
+ * loops when the manager is given them and the client event loops otherwise. A request which finds no idle
+ * connection on its own event loop takes a connection opened in the background on another event loop, as long as
+ * that connection has not been borrowed yet, before opening a new one.
+ * <p>
+ * The connect timeouts of the connections, and the request timeouts of the connections which have been borrowed, are
+ * tracked on a timer wheel per client event loop.
+ * <p>
+ * The client SSL contexts are built once per SSL configuration and shared by all the connections created with it,
+ * across connectors, so that a new connection neither re-reads the key store and the trust store nor misses the TLS
+ * sessions of the previous connections of its route.
  */
 public class ConnectionManager {
 
     private static final Logger log = LoggerFactory.getLogger(ConnectionManager.class);
+    private static final String POOL_METRICS_CATEGORY = "ConnectionPool";
+    private static final String TLS_METRICS_CATEGORY = "ClientTls";
+    private static final AtomicInteger instanceCount = new AtomicInteger();
 
-    private EventLoopGroup clientEventGroup;
-    private PoolConfiguration poolConfiguration;
-    private PoolManagementPolicy poolManagementPolicy;
-    private BootstrapConfiguration bootstrapConfig;
-    private final Map<String, GenericObjectPool> connGlobalPool;
-    private Http2ConnectionManager http2ConnectionManager;
+    private final EventLoopGroup clientEventGroup;
+    private final Transport transport;
+    private final AddressResolverGroup<?> addressResolverGroup;
+    private final boolean ownAddressResolverGroup;
+    private final PoolConfiguration poolConfiguration;
+    private final SenderConfiguration senderConfig;
+    private final BootstrapConfiguration bootstrapConfig;
+    private final Map<EventLoop, EventLoopPool> eventLoopPools = new ConcurrentHashMap<>();
+    private final Map<HttpRoute, RouteLimits> routeLimits = new ConcurrentHashMap<>();
+    private final AtomicInteger eventLoopPoolCount = new AtomicInteger();
+    private final AtomicInteger warmUpIndex = new AtomicInteger();
+    // Event loops requests have been made from, which get the connections opened in the background
+    private final Set<EventLoop> borrowingEventLoops = ConcurrentHashMap.newKeySet();
+    private final EventLoop[] initialWarmUpEventLoops;
+    private final ConnectionPoolMetrics poolMetrics;
+    private final Http2ConnectionManager http2ConnectionManager;
+    private final TimeoutService timeoutService;
+    private final ClientTlsMetrics tlsMetrics = new ClientTlsMetrics();
+    private final Map<SenderConfiguration, ClientSSLContextHolder> sslContextHolders =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+    private final String mBeanId;
+    private PoolWarmer poolWarmer;
 
     public ConnectionManager(SenderConfiguration senderConfig, BootstrapConfiguration bootstrapConfiguration,
                              EventLoopGroup clientEventGroup) {
+        this(senderConfig, bootstrapConfiguration, clientEventGroup, null);
+    }
+
+    /**
+     * Creates a manager whose requests are expected to be made from the event loops of the given server worker
+     * group, as is the case when the connector passes requests of a server connector through to the back-ends.
+     *
+     * @param senderConfig the sender configuration of the connector
+     * @param bootstrapConfiguration the socket options of the connections
+     * @param clientEventGroup the event loops requests without a source handler are made from
+     * @param serverWorkerGroup the event loops of the server connections requests are made from, or null
+     */
+    public ConnectionManager(SenderConfiguration senderConfig, BootstrapConfiguration bootstrapConfiguration,
+                             EventLoopGroup clientEventGroup, EventLoopGroup serverWorkerGroup) {
         this.poolConfiguration = senderConfig.getPoolConfiguration();
-        if (poolConfiguration.getNumberOfPools() == 1) {
-            this.poolManagementPolicy = PoolManagementPolicy.LOCK_DEFAULT_POOLING;
-        }
-        connGlobalPool = new ConcurrentHashMap<>();
+        this.senderConfig = senderConfig;
         this.clientEventGroup = clientEventGroup;
-
+        this.transport = Transports.getTransport(clientEventGroup);
+        this.addressResolverGroup = createAddressResolverGroup(senderConfig);
+        this.ownAddressResolverGroup = addressResolverGroup instanceof CachingDnsAddressResolverGroup
+                && addressResolverGroup != senderConfig.getAddressResolverGroup();
         this.bootstrapConfig = bootstrapConfiguration;
         this.http2ConnectionManager = new Http2ConnectionManager(senderConfig);
+        this.timeoutService = new TimeoutService(senderConfig.getTimeoutGranularity());
+        this.poolMetrics = new ConnectionPoolMetrics(eventLoopPools.values());
+        if (senderConfig.isJmxMetricsEnabled()) {
+            // Connectors are commonly created with the same sender id, hence each manager gets MBeans of its own
+            String senderId = senderConfig.getId() != null ? senderConfig.getId() : "default";
+            this.mBeanId = senderId + "-" + instanceCount.incrementAndGet();
+            MBeanRegistrar.getInstance().registerMBean(poolMetrics, POOL_METRICS_CATEGORY, mBeanId);
+            MBeanRegistrar.getInstance().registerMBean(tlsMetrics, TLS_METRICS_CATEGORY, mBeanId);
+        } else {
+            this.mBeanId = null;
+        }
+        this.initialWarmUpEventLoops = getEventLoops(serverWorkerGroup != null ? serverWorkerGroup : clientEventGroup);
+        if (poolConfiguration.getMinIdlePerPool() > 0) {
+            poolWarmer = new PoolWarmer(this, routeLimits, clientEventGroup.next(),
+                                        poolConfiguration.getWarmUpRatePerPool());
+        }
     }
 
-    private GenericObjectPool createPoolForRoute(PoolableTargetChannelFactory poolableTargetChannelFactory) {
-        return new GenericObjectPool(poolableTargetChannelFactory, instantiateAndConfigureConfig());
-    }
-
-    private GenericObjectPool createPoolForRoutePerSrcHndlr(GenericObjectPool genericObjectPool) {
-        return new GenericObjectPool(new PoolableTargetChannelFactoryPerSrcHndlr(genericObjectPool),
-                instantiateAndConfigureConfig());
+    /**
+     * Declares a route which is known up front. If the pool is configured with minimum idle connections, that many
+     * connections of the route are opened and handshaked in the background, at the warm up rate of the pool, and
+     * the route is kept at the minimum idle connections from then on.
+     *
+     * @param httpRoute BE address
+     */
+    public void warmUp(HttpRoute httpRoute) {
+        getRouteLimits(httpRoute);
     }
 
     /**
+     * Acquires a connection without blocking the calling thread. When the route is exhausted the request waits in a
+     * FIFO queue of the route and the future is completed once a connection is returned or closed, or failed with a
+     * {@link NoSuchElementException} when the max wait time passes. If the route already has the maximum number of
+     * waiting requests the future is failed right away with a {@link PendingAcquireQueueFullException}.
+     * <p>
+     * The future is completed on the event loop of the source handler, or on a client event loop if there is no
+     * source handler.
+     *
      * @param httpRoute BE address
      * @param sourceHandler Incoming channel
      * @param senderConfig The sender configuration instance
-     * @return the target channel which is requested for given parameters.
-     * @throws Exception to notify any errors occur during retrieving the target channel
+     * @return a future which gets the target channel requested for the given parameters
      */
-    public TargetChannel borrowTargetChannel(HttpRoute httpRoute, SourceHandler sourceHandler,
-                                             SenderConfiguration senderConfig) throws Exception {
-        GenericObjectPool trgHlrConnPool;
-
-        if (sourceHandler != null) {
-            EventLoopGroup group;
-            ChannelHandlerContext ctx = sourceHandler.getInboundChannelContext();
-            group = ctx.channel().eventLoop();
-            Class eventLoopClass = ctx.channel().getClass();
-
-            if (poolManagementPolicy == PoolManagementPolicy.LOCK_DEFAULT_POOLING) {
-                // This is faster than the above one (about 2k difference)
-                Map<String, GenericObjectPool> srcHlrConnPool = sourceHandler.getTargetChannelPool();
-                trgHlrConnPool = srcHlrConnPool.get(httpRoute.toString());
-                if (trgHlrConnPool == null) {
-                    PoolableTargetChannelFactory poolableTargetChannelFactory =
-                            new PoolableTargetChannelFactory(group, eventLoopClass, httpRoute, senderConfig,
-                                    bootstrapConfig, this);
-                    trgHlrConnPool = createPoolForRoute(poolableTargetChannelFactory);
-                    srcHlrConnPool.put(httpRoute.toString(), trgHlrConnPool);
-                }
-            } else {
-                Map<String, GenericObjectPool> srcHlrConnPool = sourceHandler.getTargetChannelPool();
-                trgHlrConnPool = srcHlrConnPool.get(httpRoute.toString());
-                if (trgHlrConnPool == null) {
-                    synchronized (this) {
-                        if (!this.connGlobalPool.containsKey(httpRoute.toString())) {
-                            PoolableTargetChannelFactory poolableTargetChannelFactory =
-                                    new PoolableTargetChannelFactory(group,
-                                            eventLoopClass, httpRoute, senderConfig, bootstrapConfig, this);
-                            trgHlrConnPool = createPoolForRoute(poolableTargetChannelFactory);
-                            this.connGlobalPool.put(httpRoute.toString(), trgHlrConnPool);
-                        }
-                        trgHlrConnPool = this.connGlobalPool.get(httpRoute.toString());
-                        trgHlrConnPool = createPoolForRoutePerSrcHndlr(trgHlrConnPool);
+    public Future<TargetChannel> acquireTargetChannel(HttpRoute httpRoute, SourceHandler sourceHandler,
+                                                      SenderConfiguration senderConfig) {
+        EventLoop eventLoop = sourceHandler != null ? sourceHandler.getEventLoop() : getClientEventLoop();
+        RouteLimits limits = getRouteLimits(httpRoute);
+        PendingAcquire pendingAcquire =
+                new PendingAcquire(this, limits, httpRoute, sourceHandler, senderConfig, eventLoop);
+        try {
+            if (limits.acquireActivePermit(pendingAcquire)) {
+                obtainTargetChannel(pendingAcquire);
+            }
+        } catch (NoSuchElementException | PendingAcquireQueueFullException e) {
+            pendingAcquire.getPromise().tryFailure(e);
+        }
+        return pendingAcquire.getPromise();
+    }
+
+    /**
+     * Takes an idle connection or creates a new one for a request which holds a permit of the route.
+     */
+    void obtainTargetChannel(PendingAcquire pendingAcquire) {
+        HttpRoute httpRoute = pendingAcquire.getHttpRoute();
+        RouteLimits limits = pendingAcquire.getRouteLimits();
+        SourceHandler sourceHandler = pendingAcquire.getSourceHandler();
+        Class<? extends Channel> channelClass = sourceHandler != null
+                ? sourceHandler.getInboundChannelContext().channel().getClass() : transport.getSocketChannelClass();
+        if (poolWarmer != null && !borrowingEventLoops.contains(pendingAcquire.getEventLoop())) {
+            borrowingEventLoops.add(pendingAcquire.getEventLoop());
+        }
+        TargetChannel targetChannel;
+        try {
+            targetChannel = borrowOrCreate(pendingAcquire, channelClass);
+        } catch (RuntimeException e) {
+            limits.releaseActivePermit();
+            pendingAcquire.getPromise().tryFailure(e);
+            return;
+        }
+        completeAcquire(pendingAcquire, targetChannel);
+    }
+
+    /**
+     * Completes the request with a connection it holds the permit of.
+     */
+    void completeAcquire(PendingAcquire pendingAcquire, TargetChannel targetChannel) {
+        targetChannel.setCorrelatedSource(pendingAcquire.getSourceHandler());
+        targetChannel.setConnectionManager(this);
+        if (!pendingAcquire.getPromise().trySuccess(targetChannel)) {
+            // The request is cancelled, hence the connection goes back to the pool
+            targetChannel.getPoolEntry().getRoutePool().release(targetChannel);
+        }
+    }
+
+    /**
+     * Takes an idle connection of the route from the event loop of the request. If there is none, takes a connection
+     * opened in the background on another event loop which has not been borrowed yet, so that the connections opened
+     * before requests are made from an event loop are not wasted. Otherwise creates a new connection on the event
+     * loop of the request. Connections which have been borrowed are only ever borrowed again on their own event
+     * loop.
+     */
+    private TargetChannel borrowOrCreate(PendingAcquire pendingAcquire, Class<? extends Channel> channelClass) {
+        HttpRoute httpRoute = pendingAcquire.getHttpRoute();
+        EventLoopPool ownEventLoopPool = getEventLoopPool(pendingAcquire.getEventLoop());
+        RoutePool ownRoutePool = ownEventLoopPool.getRoutePool(httpRoute, pendingAcquire.getRouteLimits());
+        TargetChannel targetChannel = ownRoutePool.pollIdleChannel(poolConfiguration.isTestOnBorrow());
+        if (targetChannel != null) {
+            return targetChannel;
+        }
+        if (poolWarmer != null) {
+            for (EventLoopPool eventLoopPool : eventLoopPools.values()) {
+                RoutePool routePool = eventLoopPool.findRoutePool(httpRoute);
+                if (routePool != null && routePool != ownRoutePool) {
+                    targetChannel = routePool.pollWarmChannel();
+                    if (targetChannel != null) {
+                        return targetChannel;
                     }
-                    srcHlrConnPool.put(httpRoute.toString(), trgHlrConnPool);
                 }
             }
-        } else {
-            Class cl = NioSocketChannel.class;
-            EventLoopGroup group = clientEventGroup;
-            synchronized (this) {
-                if (!this.connGlobalPool.containsKey(httpRoute.toString())) {
-                    PoolableTargetChannelFactory poolableTargetChannelFactory =
-                            new PoolableTargetChannelFactory(group, cl,
-                                    httpRoute, senderConfig, bootstrapConfig, this);
-                    trgHlrConnPool = createPoolForRoute(poolableTargetChannelFactory);
-                    this.connGlobalPool.put(httpRoute.toString(), trgHlrConnPool);
+        }
+        return createTargetChannel(ownRoutePool, channelClass, pendingAcquire.getSenderConfig());
+    }
+
+    /**
+     * Opens a connection for a route which holds a warm up permit, and keeps it idle once it is ready to be used.
+     * The connection is opened on the next event loop requests are made from, in round robin order.
+     */
+    void openIdleConnection(HttpRoute httpRoute, RouteLimits limits) {
+        EventLoop eventLoop = nextWarmUpEventLoop();
+        eventLoop.execute(() -> {
+            RoutePool routePool = getEventLoopPool(eventLoop).getRoutePool(httpRoute, limits);
+            TargetChannel targetChannel;
+            try {
+                targetChannel = createTargetChannel(routePool, transport.getSocketChannelClass(), senderConfig);
+            } catch (RuntimeException e) {
+                limits.warmUpCompleted();
+                limits.releaseActivePermit();
+                log.warn("Could not open an idle connection to {}", httpRoute, e);
+                return;
+            }
+            targetChannel.setConnectionManager(this);
+            targetChannel.getConnenctionReadyFuture().setListener(new ConnectionAvailabilityListener() {
+                @Override
+                public void onSuccess(String protocol, ChannelFuture channelFuture) {
+                    targetChannel.getPoolEntry().setWarm(true);
+                    routePool.release(targetChannel);
+                    limits.warmUpCompleted();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Opened idle connection {} to {}", channelFuture.channel().id().asShortText(),
+                                httpRoute);
+                    }
+                }
+
+                @Override
+                public void onFailure(ClientConnectorException cause) {
+                    routePool.invalidate(targetChannel);
+                    limits.warmUpCompleted();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Could not open an idle connection to {}", httpRoute, cause);
+                    }
                 }
-                trgHlrConnPool = this.connGlobalPool.get(httpRoute.toString());
+            });
+        });
+    }
+
+    private EventLoop nextWarmUpEventLoop() {
+        EventLoop[] eventLoops = borrowingEventLoops.toArray(new EventLoop[0]);
+        if (eventLoops.length == 0) {
+            eventLoops = initialWarmUpEventLoops;
+        }
+        return eventLoops[(warmUpIndex.getAndIncrement() & Integer.MAX_VALUE) % eventLoops.length];
+    }
+
+    private static EventLoop[] getEventLoops(EventLoopGroup eventLoopGroup) {
+        List<EventLoop> eventLoops = new ArrayList<>();
+        for (EventExecutor eventExecutor : eventLoopGroup) {
+            eventLoops.add((EventLoop) eventExecutor);
+        }
+        return eventLoops.toArray(new EventLoop[0]);
+    }
+
+    /**
+     * @return the current event loop if called from a client event loop, the next client event loop otherwise
+     */
+    private EventLoop getClientEventLoop() {
+        for (EventExecutor eventExecutor : clientEventGroup) {
+            if (eventExecutor.inEventLoop()) {
+                return (EventLoop) eventExecutor;
             }
         }
+        return clientEventGroup.next();
+    }
 
-        TargetChannel targetChannel = (TargetChannel) trgHlrConnPool.borrowObject();
-        targetChannel.setCorrelatedSource(sourceHandler);
-        targetChannel.setConnectionManager(this);
+    private TargetChannel createTargetChannel(RoutePool routePool, Class<? extends Channel> channelClass,
+                                              SenderConfiguration senderConfig) {
+        HttpRoute httpRoute = routePool.getHttpRoute();
+        Bootstrap clientBootstrap = instantiateAndConfigBootStrap(routePool.getEventLoopPool().getEventLoop(),
+                channelClass);
+        ConnectionAvailabilityFuture connectionAvailabilityFuture = new ConnectionAvailabilityFuture();
+        HttpClientChannelInitializer httpClientChannelInitializer = new HttpClientChannelInitializer(
+                senderConfig, httpRoute, this, connectionAvailabilityFuture);
+        clientBootstrap.handler(httpClientChannelInitializer);
+        if (log.isDebugEnabled()) {
+            log.debug("Created new TCP client bootstrap connecting to {}:{} with options: {}", httpRoute.getHost(),
+                    httpRoute.getPort(), clientBootstrap);
+        }
+
+        ChannelFuture channelFuture = clientBootstrap.connect(getRemoteAddress(httpRoute));
+        addConnectTimeout(channelFuture, routePool.getEventLoopPool().getEventLoop(), httpRoute);
+        connectionAvailabilityFuture.setSocketAvailabilityFuture(channelFuture);
+        connectionAvailabilityFuture.setForceHttp2(senderConfig.isForceHttp2());
+
+        TargetChannel targetChannel =
+                new TargetChannel(httpClientChannelInitializer, channelFuture, httpRoute, connectionAvailabilityFuture);
+        httpClientChannelInitializer.setHttp2ClientChannel(targetChannel.getHttp2ClientChannel());
+        routePool.addCreatedChannel(targetChannel);
+        channelFuture.addListener(future -> {
+            if (!future.isSuccess()) {
+                routePool.invalidate(targetChannel);
+            }
+        });
+
+        if (log.isDebugEnabled()) {
+            log.debug("Created channel: {} on {}", httpRoute, routePool.getEventLoopPool().getName());
+        }
         return targetChannel;
     }
 
-    public void returnChannel(TargetChannel targetChannel) throws Exception {
-        targetChannel.setRequestHeaderWritten(false);
-        if (targetChannel.getCorrelatedSource() != null) {
-            Map<String, GenericObjectPool> objectPoolMap = targetChannel.getCorrelatedSource().getTargetChannelPool();
-            releaseChannelToPool(targetChannel, objectPoolMap.get(targetChannel.getHttpRoute().toString()));
-        } else {
-            releaseChannelToPool(targetChannel, this.connGlobalPool.get(targetChannel.getHttpRoute().toString()));
+    private Bootstrap instantiateAndConfigBootStrap(EventLoop eventLoop, Class<? extends Channel> channelClass) {
+        Bootstrap clientBootstrap = new Bootstrap();
+        clientBootstrap.channel(channelClass);
+        clientBootstrap.group(eventLoop);
+        clientBootstrap.option(ChannelOption.SO_KEEPALIVE, bootstrapConfig.isKeepAlive());
+        clientBootstrap.option(ChannelOption.TCP_NODELAY, bootstrapConfig.isTcpNoDelay());
+        clientBootstrap.option(ChannelOption.SO_REUSEADDR, bootstrapConfig.isSocketReuse());
+        // The connect timeout is tracked on the timer wheel of the event loop instead
+        clientBootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 0);
+        if (channelClass == transport.getSocketChannelClass()) {
+            transport.configureClientBootstrap(clientBootstrap, bootstrapConfig);
         }
+        if (addressResolverGroup != null) {
+            clientBootstrap.resolver(addressResolverGroup);
+        }
+        return clientBootstrap;
     }
 
-    private void releaseChannelToPool(TargetChannel targetChannel, GenericObjectPool pool) throws Exception {
-        try {
-            String channelID = targetChannel.getChannel().id().asShortText();
-            if (targetChannel.getChannel().isActive() && pool != null) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Returning connection {} to the pool", channelID);
+    /**
+     * Fails the connection attempt if it is not complete within the connect timeout, which includes resolving the
+     * host of the route.
+     */
+    private void addConnectTimeout(ChannelFuture channelFuture, EventLoop eventLoop, HttpRoute httpRoute) {
+        int connectTimeout = bootstrapConfig.getConnectTimeOut();
+        if (connectTimeout <= 0 || channelFuture.isDone()) {
+            return;
+        }
+        WheelTimeout timeout = timeoutService.getWheel(eventLoop).newTimeout(() -> {
+            // The future of the connect operation is the promise the channel completes once connected
+            if (channelFuture instanceof ChannelPromise && ((ChannelPromise) channelFuture)
+                    .tryFailure(new ConnectTimeoutException("connection timed out: " + httpRoute.getHost() + ":"
+                                                                    + httpRoute.getPort()))) {
+                channelFuture.channel().close();
+            }
+        }, connectTimeout, TimeUnit.MILLISECONDS);
+        channelFuture.addListener(future -> timeout.cancel());
+    }
+
+    /**
+     * Creates the resolver the hosts of the connections are resolved with on their event loops, or returns null if
+     * hosts are resolved by the JDK.
+     */
+    private AddressResolverGroup<?> createAddressResolverGroup(SenderConfiguration senderConfig) {
+        if (senderConfig.getAddressResolverGroup() != null) {
+            return senderConfig.getAddressResolverGroup();
+        }
+        if (!senderConfig.getDnsResolverConfig().isEnabled()) {
+            return null;
+        }
+        if (senderConfig.getProxyServerConfiguration() != null) {
+            // The proxy server resolves the host
+            return NoopAddressResolverGroup.INSTANCE;
+        }
+        return new CachingDnsAddressResolverGroup(transport.getDatagramChannelClass(),
+                                                  senderConfig.getDnsResolverConfig());
+    }
+
+    private InetSocketAddress getRemoteAddress(HttpRoute httpRoute) {
+        if (addressResolverGroup == null) {
+            // Blocks the calling thread until the JDK resolves the host
+            return new InetSocketAddress(httpRoute.getHost(), httpRoute.getPort());
+        }
+        return InetSocketAddress.createUnresolved(httpRoute.getHost(), httpRoute.getPort());
+    }
+
+    private EventLoopPool getEventLoopPool(EventLoop eventLoop) {
+        EventLoopPool eventLoopPool = eventLoopPools.get(eventLoop);
+        if (eventLoopPool == null) {
+            synchronized (eventLoopPools) {
+                eventLoopPool = eventLoopPools.get(eventLoop);
+                if (eventLoopPool == null) {
+                    eventLoopPool = new EventLoopPool(eventLoop, "EventLoop-" + eventLoopPoolCount.incrementAndGet(),
+                            poolConfiguration);
+                    eventLoopPools.put(eventLoop, eventLoopPool);
                 }
-                pool.returnObject(targetChannel);
-            } else {
-                log.debug("Channel {} is inactive hence not returning to connection pool", channelID);
             }
-        } catch (Exception e) {
-            throw new Exception("Couldn't return channel {} to pool", e);
+        }
+        return eventLoopPool;
+    }
+
+    private RouteLimits getRouteLimits(HttpRoute httpRoute) {
+        RouteLimits limits = routeLimits.get(httpRoute);
+        if (limits == null) {
+            RouteLimits newLimits = new RouteLimits(poolConfiguration);
+            limits = routeLimits.putIfAbsent(httpRoute, newLimits);
+            if (limits == null) {
+                limits = newLimits;
+            }
+        }
+        return limits;
+    }
+
+    public void returnChannel(TargetChannel targetChannel) throws Exception {
+        targetChannel.setRequestHeaderWritten(false);
+        PoolEntry poolEntry = targetChannel.getPoolEntry();
+        if (poolEntry != null) {
+            poolEntry.getRoutePool().release(targetChannel);
         }
     }
 
     public void invalidateTargetChannel(TargetChannel targetChannel) throws Exception {
         targetChannel.setRequestHeaderWritten(false);
-        if (targetChannel.getCorrelatedSource() != null) {
-            Map<String, GenericObjectPool> objectPoolMap = targetChannel.getCorrelatedSource().getTargetChannelPool();
-            try {
-                // Need a null check because SourceHandler side could timeout before TargetHandler side.
-                String httpRoute = targetChannel.getHttpRoute().toString();
-                if (objectPoolMap.get(httpRoute) != null) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Invalidating connection {} to the pool",
-                                targetChannel.getChannel().id().asShortText());
-                    }
-                    objectPoolMap.get(httpRoute).invalidateObject(targetChannel);
-                }
-            } catch (Exception e) {
-                throw new Exception("Cannot invalidate channel from pool", e);
+        PoolEntry poolEntry = targetChannel.getPoolEntry();
+        if (poolEntry != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Invalidating connection {} to the pool",
+                        targetChannel.getChannelFuture().channel().id().asShortText());
             }
+            poolEntry.getRoutePool().invalidate(targetChannel);
+        }
+    }
+
+    /**
+     * Removes the connection from the pool without closing it. Used when the connection is handed over to the
+     * {@link Http2ConnectionManager} after it gets upgraded to HTTP/2.
+     *
+     * @param targetChannel the connection which is no longer managed by this pool
+     */
+    public void detachTargetChannel(TargetChannel targetChannel) {
+        PoolEntry poolEntry = targetChannel.getPoolEntry();
+        if (poolEntry != null) {
+            poolEntry.getRoutePool().detach(targetChannel);
+        }
+    }
+
+    /**
+     * Releases the resources held by the manager. The background tasks of the pools are cancelled, the idle
+     * connections are closed and the connections which are borrowed at the time are closed once they are returned.
+     * The resolver created by the manager is closed, the SSL contexts of the connections are given back and the MBeans
+     * of the manager, if enabled, are unregistered. The client event loop group is not shut down since it is not
+     * owned by the manager.
+     */
+    public void shutdown() {
+        if (poolWarmer != null) {
+            poolWarmer.stop();
+        }
+        synchronized (eventLoopPools) {
+            for (EventLoopPool eventLoopPool : eventLoopPools.values()) {
+                eventLoopPool.close();
+            }
+        }
+        if (ownAddressResolverGroup) {
+            addressResolverGroup.close();
+        }
+        synchronized (sslContextHolders) {
+            for (ClientSSLContextHolder holder : sslContextHolders.values()) {
+                holder.release();
+            }
+            sslContextHolders.clear();
+        }
+        if (mBeanId != null) {
+            MBeanRegistrar.getInstance().unregisterMBean(POOL_METRICS_CATEGORY, mBeanId);
+            MBeanRegistrar.getInstance().unregisterMBean(TLS_METRICS_CATEGORY, mBeanId);
         }
     }
 
     /**
      * Connection pool management policies for  target channels.
+     *
+     * @deprecated connections are always pooled per event loop, the policy is no longer used
      */
+    @Deprecated
     public enum PoolManagementPolicy {
         LOCK_DEFAULT_POOLING,
     }
 
-    private GenericObjectPool.Config instantiateAndConfigureConfig() {
-        GenericObjectPool.Config config = new GenericObjectPool.Config();
-        config.maxActive = poolConfiguration.getMaxActivePerPool();
-        config.maxIdle = poolConfiguration.getMaxIdlePerPool();
-        config.minIdle = poolConfiguration.getMinIdlePerPool();
-        config.testOnBorrow = poolConfiguration.isTestOnBorrow();
-        config.testWhileIdle = poolConfiguration.isTestWhileIdle();
-        config.timeBetweenEvictionRunsMillis = poolConfiguration.getTimeBetweenEvictionRuns();
-        config.minEvictableIdleTimeMillis = poolConfiguration.getMinEvictableIdleTime();
-        config.whenExhaustedAction = poolConfiguration.getExhaustedAction();
-        config.maxWait = poolConfiguration.getMaxWaitTime();
-
-        if (log.isDebugEnabled()) {
-            log.debug("Creating a pool with {}", config.toString());
-        }
-        return config;
+    public ConnectionPoolMetrics getPoolMetrics() {
+        return poolMetrics;
     }
 
     public Http2ConnectionManager getHttp2ConnectionManager() {
         return http2ConnectionManager;
     }
+
+    public TimeoutService getTimeoutService() {
+        return timeoutService;
+    }
+
+    public ClientTlsMetrics getTlsMetrics() {
+        return tlsMetrics;
+    }
+
+    /**
+     * Gets the SSL contexts shared by the connections created with the given sender configuration. The sender
+     * configuration builds a new {@link org.wso2.transport.http.netty.common.ssl.SSLConfig} every time it is asked
+     * for one, hence the holder is looked up once per sender configuration and kept against its identity. Holders
+     * are shared with the other connectors of an equal SSL configuration.
+     *
+     * @param senderConfig the sender configuration of the connection
+     * @return the shared SSL contexts, or null if the sender configuration does not use TLS
+     */
+    public ClientSSLContextHolder getSSLContextHolder(SenderConfiguration senderConfig) {
+        ClientSSLContextHolder holder = sslContextHolders.get(senderConfig);
+        if (holder == null && senderConfig.getSSLConfig() != null) {
+            holder = sslContextHolders.computeIfAbsent(
+                    senderConfig, config -> ClientSSLContextHolder.acquire(config.getSSLConfig()));
+        }
+        return holder;
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.channel.pool;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Exposes the number of active, idle and created connections of the event loop pools of a connection manager,
+ * aggregated per route and per event loop. Values are read from the pool counters without stopping the pools,
+ * hence they are only an approximation while connections are being borrowed and returned.
+ */
+public class ConnectionPoolMetrics implements ConnectionPoolMetricsMBean {
+
+    private final Collection<EventLoopPool> eventLoopPools;
+
+    ConnectionPoolMetrics(Collection<EventLoopPool> eventLoopPools) {
+        this.eventLoopPools = eventLoopPools;
+    }
+
+    @Override
+    public int getActiveConnectionCount() {
+        return sum(RoutePool::getActiveCount);
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+        return sum(RoutePool::getIdleCount);
+    }
+
+    @Override
+    public long getCreatedConnectionCount() {
+        long created = 0;
+        for (EventLoopPool eventLoopPool : eventLoopPools) {
+            for (RoutePool routePool : eventLoopPool.getRoutePools()) {
+                created += routePool.getCreatedCount();
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public Map<String, Integer> getActiveConnectionsPerRoute() {
+        return perRoute(RoutePool::getActiveCount);
+    }
+
+    @Override
+    public Map<String, Integer> getIdleConnectionsPerRoute() {
+        return perRoute(RoutePool::getIdleCount);
+    }
+
+    @Override
+    public Map<String, Integer> getPendingAcquiresPerRoute() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (EventLoopPool eventLoopPool : eventLoopPools) {
+            for (RoutePool routePool : eventLoopPool.getRoutePools()) {
+                // The pending queue is shared by the pools of the route in every event loop
+                counts.put(routePool.getHttpRoute().toString(), routePool.getRouteLimits().getPendingAcquireCount());
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Integer> getActiveConnectionsPerEventLoop() {
+        return perEventLoop(RoutePool::getActiveCount);
+    }
+
+    @Override
+    public Map<String, Integer> getIdleConnectionsPerEventLoop() {
+        return perEventLoop(RoutePool::getIdleCount);
+    }
+
+    private int sum(ToIntFunction<RoutePool> counter) {
+        int total = 0;
+        for (EventLoopPool eventLoopPool : eventLoopPools) {
+            for (RoutePool routePool : eventLoopPool.getRoutePools()) {
+                total += counter.applyAsInt(routePool);
+            }
+        }
+        return total;
+    }
+
+    private Map<String, Integer> perRoute(ToIntFunction<RoutePool> counter) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (EventLoopPool eventLoopPool : eventLoopPools) {
+            for (RoutePool routePool : eventLoopPool.getRoutePools()) {
+                counts.merge(routePool.getHttpRoute().toString(), counter.applyAsInt(routePool), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> perEventLoop(ToIntFunction<RoutePool> counter) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (EventLoopPool eventLoopPool : eventLoopPools) {
+            int total = 0;
+            for (RoutePool routePool : eventLoopPool.getRoutePools()) {
+                total += counter.applyAsInt(routePool);
+            }
+            counts.put(eventLoopPool.getName(), total);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.channel.pool;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.wso2.transport.http.netty.common.HttpRoute;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pools of all the routes owned by a single event loop. Connections of these pools are registered with
+ * the event loop, hence borrowing and returning them never hands the connection over to another thread.
+ */
+class EventLoopPool {
+
+    private final EventLoop eventLoop;
+    private final String name;
+    private final Map<HttpRoute, RoutePool> routePools = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> evictionFuture;
+    private volatile boolean closed;
+
+    EventLoopPool(EventLoop eventLoop, String name, PoolConfiguration poolConfiguration) {
+        this.eventLoop = eventLoop;
+        this.name = name;
+        long timeBetweenEvictionRuns = poolConfiguration.getTimeBetweenEvictionRuns();
+        if (timeBetweenEvictionRuns > 0) {
+            long minEvictableIdleNanos = TimeUnit.MILLISECONDS.toNanos(poolConfiguration.getMinEvictableIdleTime());
+            boolean testWhileIdle = poolConfiguration.isTestWhileIdle();
+            evictionFuture = eventLoop.scheduleAtFixedRate(() -> evict(minEvictableIdleNanos, testWhileIdle),
+                    timeBetweenEvictionRuns, timeBetweenEvictionRuns, TimeUnit.MILLISECONDS);
+        } else {
+            evictionFuture = null;
+        }
+    }
+
+    EventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    RoutePool getRoutePool(HttpRoute httpRoute, RouteLimits routeLimits) {
+        RoutePool routePool = routePools.get(httpRoute);
+        if (routePool == null) {
+            RoutePool newRoutePool = new RoutePool(this, httpRoute, routeLimits);
+            routePool = routePools.putIfAbsent(httpRoute, newRoutePool);
+            if (routePool == null) {
+                routePool = newRoutePool;
+            }
+        }
+        return routePool;
+    }
+
+    /**
+     * @return the pool of the route, or null if the event loop has not connected to the route
+     */
+    RoutePool findRoutePool(HttpRoute httpRoute) {
+        return routePools.get(httpRoute);
+    }
+
+    Collection<RoutePool> getRoutePools() {
+        return routePools.values();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops evicting connections and closes the idle connections of all the routes. Connections which are borrowed
+     * at the time are closed when they are returned.
+     */
+    void close() {
+        closed = true;
+        if (evictionFuture != null) {
+            evictionFuture.cancel(false);
+        }
+        for (RoutePool routePool : routePools.values()) {
+            routePool.closeIdleChannels();
+        }
+    }
+
+    private void evict(long minEvictableIdleNanos, boolean testWhileIdle) {
+        for (RoutePool routePool : routePools.values()) {
+            routePool.evict(minEvictableIdleNanos, testWhileIdle);
+        }
+    }
+}
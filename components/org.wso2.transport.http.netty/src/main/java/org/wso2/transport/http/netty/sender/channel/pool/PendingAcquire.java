@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.channel.pool;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.Promise;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.common.HttpRoute;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.listener.SourceHandler;
+import org.wso2.transport.http.netty.sender.channel.TargetChannel;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A request for a connection of a route. When the route is exhausted the request waits in the pending queue of
+ * the route until a connection or a permit to create one is handed over, or until its deadline passes. The
+ * request is completed on the event loop it was made for.
+ */
+final class PendingAcquire {
+
+    private final ConnectionManager connectionManager;
+    private final RouteLimits routeLimits;
+    private final HttpRoute httpRoute;
+    private final SourceHandler sourceHandler;
+    private final SenderConfiguration senderConfig;
+    private final EventLoop eventLoop;
+    private final Promise<TargetChannel> promise;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile ScheduledFuture<?> timeoutFuture;
+
+    PendingAcquire(ConnectionManager connectionManager, RouteLimits routeLimits, HttpRoute httpRoute,
+                   SourceHandler sourceHandler, SenderConfiguration senderConfig, EventLoop eventLoop) {
+        this.connectionManager = connectionManager;
+        this.routeLimits = routeLimits;
+        this.httpRoute = httpRoute;
+        this.sourceHandler = sourceHandler;
+        this.senderConfig = senderConfig;
+        this.eventLoop = eventLoop;
+        this.promise = eventLoop.newPromise();
+    }
+
+    RouteLimits getRouteLimits() {
+        return routeLimits;
+    }
+
+    HttpRoute getHttpRoute() {
+        return httpRoute;
+    }
+
+    SourceHandler getSourceHandler() {
+        return sourceHandler;
+    }
+
+    SenderConfiguration getSenderConfig() {
+        return senderConfig;
+    }
+
+    EventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    Promise<TargetChannel> getPromise() {
+        return promise;
+    }
+
+    /**
+     * Fails the request with a timeout if it is still waiting after the given time.
+     */
+    void scheduleTimeout(long timeoutMillis) {
+        timeoutFuture = eventLoop.schedule(this::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hands over a permit of the route so that the request can take an idle connection or create a new one.
+     *
+     * @return false if the request is already completed, in which case the permit is still owned by the caller
+     */
+    boolean grantPermit() {
+        if (!complete()) {
+            return false;
+        }
+        eventLoop.execute(() -> connectionManager.obtainTargetChannel(this));
+        return true;
+    }
+
+    /**
+     * Hands over a returned connection along with the permit it holds.
+     *
+     * @return false if the request is already completed, in which case the connection is still owned by the caller
+     */
+    boolean grantChannel(TargetChannel targetChannel) {
+        if (!complete()) {
+            return false;
+        }
+        eventLoop.execute(() -> connectionManager.completeAcquire(this, targetChannel));
+        return true;
+    }
+
+    private void expire() {
+        if (complete()) {
+            routeLimits.removePendingAcquire(this);
+            promise.tryFailure(new NoSuchElementException(Constants.MAXIMUM_WAIT_TIME_EXCEED));
+        }
+    }
+
+    private boolean complete() {
+        if (!completed.compareAndSet(false, true)) {
+            return false;
+        }
+        ScheduledFuture<?> timeout = timeoutFuture;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        return true;
+    }
+}
@@ -15,13 +15,24 @@
 
 package org.wso2.transport.http.netty.sender.channel.pool;
 
-import org.apache.commons.pool.impl.GenericObjectPool;
-
 /**
  * A class which represents connection pool specific parameters.
  */
 public class PoolConfiguration {
 
+    /**
+     * Fail the borrow immediately when the maximum number of active connections of a route is reached.
+     */
+    public static final byte WHEN_EXHAUSTED_FAIL = 0;
+    /**
+     * Wait up to the max wait time for a connection of the route to be returned.
+     */
+    public static final byte WHEN_EXHAUSTED_BLOCK = 1;
+    /**
+     * Ignore the maximum number of active connections and create a new connection.
+     */
+    public static final byte WHEN_EXHAUSTED_GROW = 2;
+
     private int maxActivePerPool = -1;
     private int minIdlePerPool;
     private int maxIdlePerPool = 100;
@@ -29,12 +40,15 @@ public class PoolConfiguration {
     private boolean testWhileIdle = true;
     private long timeBetweenEvictionRuns = 30 * 1000L;
     private long minEvictableIdleTime = 5 * 60 * 1000L;
-    private byte exhaustedAction = GenericObjectPool.WHEN_EXHAUSTED_BLOCK;
+    private byte exhaustedAction = WHEN_EXHAUSTED_BLOCK;
     private int numberOfPools = 0;
     private int executorServiceThreads = 20;
     private int eventGroupExecutorThreads = 15;
     private long maxWaitTime = 60000L;
+    private int maxPendingAcquiresPerPool = -1;
+    private int warmUpRatePerPool = 10;
     private int http2MaxActiveStreamsPerConnection = Integer.MAX_VALUE;
+    private double http2ConnectionUtilisationThreshold = 0.75;
 
     public PoolConfiguration() {
     }
@@ -135,6 +149,31 @@ public class PoolConfiguration {
         this.maxWaitTime = maxWaitTime;
     }
 
+    public int getMaxPendingAcquiresPerPool() {
+        return maxPendingAcquiresPerPool;
+    }
+
+    /**
+     * @param maxPendingAcquiresPerPool maximum number of requests which can wait for a connection of a route when
+     *                                  the route is exhausted. A negative value means no limit.
+     */
+    public void setMaxPendingAcquiresPerPool(int maxPendingAcquiresPerPool) {
+        this.maxPendingAcquiresPerPool = maxPendingAcquiresPerPool;
+    }
+
+    public int getWarmUpRatePerPool() {
+        return warmUpRatePerPool;
+    }
+
+    /**
+     * @param warmUpRatePerPool maximum number of connections opened per second for a route to bring it up to the
+     *                          minimum idle connections. A value less than one opens all the missing connections at
+     *                          once.
+     */
+    public void setWarmUpRatePerPool(int warmUpRatePerPool) {
+        this.warmUpRatePerPool = warmUpRatePerPool;
+    }
+
     public int getHttp2MaxActiveStreamsPerConnection() {
         return http2MaxActiveStreamsPerConnection;
     }
@@ -142,4 +181,18 @@ public class PoolConfiguration {
     public void setHttp2MaxActiveStreamsPerConnection(int http2MaxActiveStreamsPerConnection) {
         this.http2MaxActiveStreamsPerConnection = http2MaxActiveStreamsPerConnection;
     }
+
+    public double getHttp2ConnectionUtilisationThreshold() {
+        return http2ConnectionUtilisationThreshold;
+    }
+
+    /**
+     * @param http2ConnectionUtilisationThreshold fraction of the maximum active streams of the least loaded HTTP/2
+     *                                            connection of a route, at which a new connection is opened in
+     *                                            advance. A value of one or more disables opening connections in
+     *                                            advance.
+     */
+    public void setHttp2ConnectionUtilisationThreshold(double http2ConnectionUtilisationThreshold) {
+        this.http2ConnectionUtilisationThreshold = http2ConnectionUtilisationThreshold;
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.channel.pool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Book keeping of a pooled target channel. Keeps the route pool the channel belongs to and whether the channel is
+ * borrowed, idle in the pool or already closed.
+ */
+public final class PoolEntry {
+
+    static final int BORROWED = 0;
+    static final int IDLE = 1;
+    static final int CLOSED = 2;
+
+    private final RoutePool routePool;
+    private final AtomicInteger state = new AtomicInteger(BORROWED);
+    private volatile long idleSince;
+    private volatile boolean warm;
+
+    PoolEntry(RoutePool routePool) {
+        this.routePool = routePool;
+    }
+
+    RoutePool getRoutePool() {
+        return routePool;
+    }
+
+    int getState() {
+        return state.get();
+    }
+
+    boolean compareAndSetState(int expect, int update) {
+        return state.compareAndSet(expect, update);
+    }
+
+    long getIdleSince() {
+        return idleSince;
+    }
+
+    void setIdleSince(long idleSince) {
+        this.idleSince = idleSince;
+    }
+
+    /**
+     * @return true if the channel has been opened in the background and has not been borrowed yet
+     */
+    boolean isWarm() {
+        return warm;
+    }
+
+    void setWarm(boolean warm) {
+        this.warm = warm;
+    }
+}
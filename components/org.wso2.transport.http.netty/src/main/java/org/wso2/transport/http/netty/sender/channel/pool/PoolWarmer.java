@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.channel.pool;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.common.HttpRoute;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens connections in the background to keep every known route at the minimum idle connections of the
+ * {@link PoolConfiguration}. Connections of a route are opened at no more than the warm up rate, so that a restart
+ * does not flood the back-ends with connection attempts.
+ */
+class PoolWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolWarmer.class);
+    private static final long MIN_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ConnectionManager connectionManager;
+    private final Map<HttpRoute, RouteLimits> routeLimits;
+    private final int connectionsPerRun;
+    private final ScheduledFuture<?> warmUpFuture;
+
+    PoolWarmer(ConnectionManager connectionManager, Map<HttpRoute, RouteLimits> routeLimits, EventLoop eventLoop,
+               int warmUpRate) {
+        this.connectionManager = connectionManager;
+        this.routeLimits = routeLimits;
+        long periodNanos;
+        if (warmUpRate > 0) {
+            periodNanos = Math.max(TimeUnit.SECONDS.toNanos(1) / warmUpRate, MIN_PERIOD_NANOS);
+            connectionsPerRun = (int) Math.max(1, warmUpRate * periodNanos / TimeUnit.SECONDS.toNanos(1));
+        } else {
+            periodNanos = TimeUnit.SECONDS.toNanos(1);
+            connectionsPerRun = Integer.MAX_VALUE;
+        }
+        warmUpFuture = eventLoop.scheduleAtFixedRate(this::warmUp, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops opening connections in the background.
+     */
+    void stop() {
+        warmUpFuture.cancel(false);
+    }
+
+    private void warmUp() {
+        for (Map.Entry<HttpRoute, RouteLimits> route : routeLimits.entrySet()) {
+            RouteLimits limits = route.getValue();
+            int connections = Math.min(limits.getIdleDeficit(), connectionsPerRun);
+            for (int i = 0; i < connections && limits.acquireWarmUpPermit(); i++) {
+                try {
+                    connectionManager.openIdleConnection(route.getKey(), limits);
+                } catch (RuntimeException e) {
+                    // Keeps the scheduled task alive, the connection is retried on the next run
+                    limits.warmUpCompleted();
+                    limits.releaseActivePermit();
+                    log.warn("Could not open an idle connection to {}", route.getKey(), e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.channel.pool;
+
+import org.wso2.transport.http.netty.exception.PendingAcquireQueueFullException;
+import org.wso2.transport.http.netty.sender.channel.TargetChannel;
+
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits of a single route which are shared by the pools of all the event loops. The number of borrowed
+ * connections is bounded by the max active connections and the number of idle connections by the max idle
+ * connections of the {@link PoolConfiguration}.
+ * <p>
+ * Requests made while the route is exhausted wait in a FIFO queue. A returned connection is handed over to the
+ * oldest waiting request, and so is the permit of a connection which gets closed, instead of making them available
+ * to everyone.
+ */
+class RouteLimits {
+
+    private final int maxActive;
+    private final int maxIdle;
+    private final int minIdle;
+    private final int maxPendingAcquires;
+    private final byte exhaustedAction;
+    private final long maxWaitTime;
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Queue<PendingAcquire> pendingAcquires = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingAcquireCount = new AtomicInteger();
+    private final AtomicInteger warmingCount = new AtomicInteger();
+
+    RouteLimits(PoolConfiguration poolConfiguration) {
+        this.exhaustedAction = poolConfiguration.getExhaustedAction();
+        if (exhaustedAction == PoolConfiguration.WHEN_EXHAUSTED_GROW) {
+            this.maxActive = -1;
+        } else {
+            this.maxActive = poolConfiguration.getMaxActivePerPool();
+        }
+        this.maxIdle = poolConfiguration.getMaxIdlePerPool();
+        this.minIdle = maxIdle < 0 ? poolConfiguration.getMinIdlePerPool()
+                : Math.min(poolConfiguration.getMinIdlePerPool(), maxIdle);
+        this.maxPendingAcquires = poolConfiguration.getMaxPendingAcquiresPerPool();
+        this.maxWaitTime = poolConfiguration.getMaxWaitTime();
+    }
+
+    /**
+     * Takes a permit to borrow a connection of the route, or queues the request if the route is exhausted.
+     *
+     * @param pendingAcquire the request for a connection
+     * @return true if the permit is taken, false if the request is queued
+     * @throws NoSuchElementException           if the route is exhausted and the pool is configured to fail
+     * @throws PendingAcquireQueueFullException if the route already has the maximum number of waiting requests
+     */
+    boolean acquireActivePermit(PendingAcquire pendingAcquire) throws PendingAcquireQueueFullException {
+        if (tryAcquireActivePermit()) {
+            return true;
+        }
+        if (exhaustedAction == PoolConfiguration.WHEN_EXHAUSTED_FAIL) {
+            throw new NoSuchElementException("Pool exhausted");
+        }
+        int pendingCount = pendingAcquireCount.incrementAndGet();
+        if (maxPendingAcquires >= 0 && pendingCount > maxPendingAcquires) {
+            pendingAcquireCount.decrementAndGet();
+            throw new PendingAcquireQueueFullException(pendingAcquire.getHttpRoute().toString());
+        }
+        if (maxWaitTime > 0) {
+            pendingAcquire.scheduleTimeout(maxWaitTime);
+        }
+        pendingAcquires.offer(pendingAcquire);
+        // A permit might have been released before the request was queued
+        grantFreePermits();
+        return false;
+    }
+
+    /**
+     * Gives back a permit of a connection which is closed or removed from the pool. The permit goes to the oldest
+     * waiting request if there is one.
+     */
+    void releaseActivePermit() {
+        if (grantPermitToPendingAcquire()) {
+            return;
+        }
+        activeCount.decrementAndGet();
+        grantFreePermits();
+    }
+
+    /**
+     * @param targetChannel a returned connection which is still usable
+     * @return true if the connection is handed over to the oldest waiting request
+     */
+    boolean handOverChannel(TargetChannel targetChannel) {
+        PendingAcquire pendingAcquire;
+        while ((pendingAcquire = pollPendingAcquire()) != null) {
+            if (pendingAcquire.grantChannel(targetChannel)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes a permit to open a connection which is kept idle to maintain the minimum idle connections of the route.
+     * No permit is given while requests are waiting, as they open their own connections with the released permits.
+     *
+     * @return true if the permit is taken
+     */
+    boolean acquireWarmUpPermit() {
+        if (!pendingAcquires.isEmpty() || !tryAcquireActivePermit()) {
+            return false;
+        }
+        warmingCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Called once a connection opened with {@link #acquireWarmUpPermit()} is either pooled or closed.
+     */
+    void warmUpCompleted() {
+        warmingCount.decrementAndGet();
+    }
+
+    /**
+     * @return the number of connections to open to bring the route up to the minimum idle connections, counting the
+     * connections which are still being opened
+     */
+    int getIdleDeficit() {
+        return minIdle - idleCount.get() - warmingCount.get();
+    }
+
+    /**
+     * @return true if the route has more idle connections than the minimum idle connections
+     */
+    boolean isAboveMinIdle() {
+        return idleCount.get() > minIdle;
+    }
+
+    void removePendingAcquire(PendingAcquire pendingAcquire) {
+        if (pendingAcquires.remove(pendingAcquire)) {
+            pendingAcquireCount.decrementAndGet();
+        }
+    }
+
+    int getPendingAcquireCount() {
+        return pendingAcquireCount.get();
+    }
+
+    /**
+     * @return true if there is room for one more idle connection of the route, which is then reserved
+     */
+    boolean reserveIdleSlot() {
+        if (maxIdle < 0) {
+            idleCount.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int idle = idleCount.get();
+            if (idle >= maxIdle) {
+                return false;
+            }
+            if (idleCount.compareAndSet(idle, idle + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void releaseIdleSlot() {
+        idleCount.decrementAndGet();
+    }
+
+    private boolean tryAcquireActivePermit() {
+        if (maxActive < 0) {
+            activeCount.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int active = activeCount.get();
+            if (active >= maxActive) {
+                return false;
+            }
+            if (activeCount.compareAndSet(active, active + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void grantFreePermits() {
+        while (!pendingAcquires.isEmpty() && tryAcquireActivePermit()) {
+            if (!grantPermitToPendingAcquire()) {
+                activeCount.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean grantPermitToPendingAcquire() {
+        PendingAcquire pendingAcquire;
+        while ((pendingAcquire = pollPendingAcquire()) != null) {
+            if (pendingAcquire.grantPermit()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PendingAcquire pollPendingAcquire() {
+        PendingAcquire pendingAcquire = pendingAcquires.poll();
+        if (pendingAcquire != null) {
+            pendingAcquireCount.decrementAndGet();
+        }
+        return pendingAcquire;
+    }
+}
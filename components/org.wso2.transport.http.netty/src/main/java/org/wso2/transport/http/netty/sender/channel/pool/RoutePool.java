@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.channel.pool;
+
+import io.netty.channel.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.common.HttpRoute;
+import org.wso2.transport.http.netty.sender.channel.TargetChannel;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connections of a single route owned by one event loop. Idle connections are kept in a lock free deque and reused
+ * in LIFO order so that the most recently used connection is handed out first.
+ */
+class RoutePool {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutePool.class);
+
+    private final EventLoopPool eventLoopPool;
+    private final HttpRoute httpRoute;
+    private final RouteLimits routeLimits;
+    private final Deque<TargetChannel> idleChannels = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+
+    RoutePool(EventLoopPool eventLoopPool, HttpRoute httpRoute, RouteLimits routeLimits) {
+        this.eventLoopPool = eventLoopPool;
+        this.httpRoute = httpRoute;
+        this.routeLimits = routeLimits;
+    }
+
+    EventLoopPool getEventLoopPool() {
+        return eventLoopPool;
+    }
+
+    HttpRoute getHttpRoute() {
+        return httpRoute;
+    }
+
+    RouteLimits getRouteLimits() {
+        return routeLimits;
+    }
+
+    /**
+     * Hands out the most recently returned idle connection. The caller must already hold an active permit of the
+     * route.
+     *
+     * @param testOnBorrow whether to validate the connection before handing it out
+     * @return the borrowed connection or null if there is no usable idle connection
+     */
+    TargetChannel pollIdleChannel(boolean testOnBorrow) {
+        TargetChannel targetChannel;
+        while ((targetChannel = idleChannels.pollFirst()) != null) {
+            if (testOnBorrow && !getChannel(targetChannel).isActive()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Idle connection {} of {} is not active hence closing it",
+                            getChannel(targetChannel).id().asShortText(), httpRoute);
+                }
+                invalidate(targetChannel);
+                continue;
+            }
+            if (!targetChannel.getPoolEntry().compareAndSetState(PoolEntry.IDLE, PoolEntry.BORROWED)) {
+                // Closed while it was idle, the counters are already updated by the one who closed it.
+                continue;
+            }
+            targetChannel.getPoolEntry().setWarm(false);
+            idleCount.decrementAndGet();
+            routeLimits.releaseIdleSlot();
+            activeCount.incrementAndGet();
+            return targetChannel;
+        }
+        return null;
+    }
+
+    /**
+     * Hands out an idle connection which has been opened in the background and has not been borrowed yet, to a
+     * request of another event loop which has no idle connection of the route. The caller must already hold an
+     * active permit of the route.
+     *
+     * @return the borrowed connection or null if there is no such connection
+     */
+    TargetChannel pollWarmChannel() {
+        for (TargetChannel targetChannel : idleChannels) {
+            PoolEntry poolEntry = targetChannel.getPoolEntry();
+            if (poolEntry.isWarm() && getChannel(targetChannel).isActive()
+                    && poolEntry.compareAndSetState(PoolEntry.IDLE, PoolEntry.BORROWED)) {
+                idleChannels.remove(targetChannel);
+                poolEntry.setWarm(false);
+                idleCount.decrementAndGet();
+                routeLimits.releaseIdleSlot();
+                activeCount.incrementAndGet();
+                return targetChannel;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registers a connection which is created for a borrower holding an active permit of the route.
+     */
+    void addCreatedChannel(TargetChannel targetChannel) {
+        targetChannel.setPoolEntry(new PoolEntry(this));
+        activeCount.incrementAndGet();
+        createdCount.incrementAndGet();
+    }
+
+    /**
+     * Hands a borrowed connection over to the oldest request waiting for a connection of the route. If there is
+     * none, keeps the connection as idle or closes it if the route already has the maximum number of idle
+     * connections.
+     */
+    void release(TargetChannel targetChannel) {
+        Channel channel = getChannel(targetChannel);
+        if (eventLoopPool.isClosed()) {
+            invalidate(targetChannel);
+            return;
+        }
+        if (!channel.isActive()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Channel {} is inactive hence not returning to connection pool", channel.id().asShortText());
+            }
+            invalidate(targetChannel);
+            return;
+        }
+        if (routeLimits.handOverChannel(targetChannel)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Handed over connection {} of {} to a waiting request", channel.id().asShortText(),
+                        httpRoute);
+            }
+            return;
+        }
+        if (!routeLimits.reserveIdleSlot()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Maximum idle connections reached for {} hence closing {}", httpRoute,
+                        channel.id().asShortText());
+            }
+            invalidate(targetChannel);
+            return;
+        }
+        PoolEntry poolEntry = targetChannel.getPoolEntry();
+        if (poolEntry.compareAndSetState(PoolEntry.BORROWED, PoolEntry.IDLE)) {
+            activeCount.decrementAndGet();
+            idleCount.incrementAndGet();
+            poolEntry.setIdleSince(System.nanoTime());
+            idleChannels.offerFirst(targetChannel);
+            routeLimits.releaseActivePermit();
+            if (log.isDebugEnabled()) {
+                log.debug("Returned connection {} to the pool of {}", channel.id().asShortText(), httpRoute);
+            }
+        } else {
+            routeLimits.releaseIdleSlot();
+        }
+    }
+
+    /**
+     * Closes the connection and removes it from the pool. Calling this more than once for the same connection has
+     * no effect.
+     */
+    void invalidate(TargetChannel targetChannel) {
+        if (detach(targetChannel) && getChannel(targetChannel).isOpen()) {
+            getChannel(targetChannel).close();
+        }
+    }
+
+    /**
+     * Removes the connection from the pool without closing it.
+     *
+     * @return true if the connection was removed by this call
+     */
+    boolean detach(TargetChannel targetChannel) {
+        PoolEntry poolEntry = targetChannel.getPoolEntry();
+        while (true) {
+            int state = poolEntry.getState();
+            if (state == PoolEntry.IDLE) {
+                if (poolEntry.compareAndSetState(PoolEntry.IDLE, PoolEntry.CLOSED)) {
+                    idleChannels.remove(targetChannel);
+                    idleCount.decrementAndGet();
+                    routeLimits.releaseIdleSlot();
+                    return true;
+                }
+            } else if (state == PoolEntry.BORROWED) {
+                if (poolEntry.compareAndSetState(PoolEntry.BORROWED, PoolEntry.CLOSED)) {
+                    activeCount.decrementAndGet();
+                    routeLimits.releaseActivePermit();
+                    return true;
+                }
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Closes the idle connections which have been idle longer than the given time, unless the route is down to its
+     * minimum idle connections, and the ones which are no longer active. Runs on the event loop which owns the pool.
+     */
+    void evict(long minEvictableIdleNanos, boolean testWhileIdle) {
+        long now = System.nanoTime();
+        Iterator<TargetChannel> iterator = idleChannels.descendingIterator();
+        while (iterator.hasNext()) {
+            TargetChannel targetChannel = iterator.next();
+            PoolEntry poolEntry = targetChannel.getPoolEntry();
+            if (poolEntry.getState() == PoolEntry.CLOSED) {
+                iterator.remove();
+                continue;
+            }
+            boolean expired = minEvictableIdleNanos > 0 && now - poolEntry.getIdleSince() >= minEvictableIdleNanos
+                    && routeLimits.isAboveMinIdle();
+            if (expired || (testWhileIdle && !getChannel(targetChannel).isActive())) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Evicting idle connection {} of {}", getChannel(targetChannel).id().asShortText(),
+                            httpRoute);
+                }
+                invalidate(targetChannel);
+            }
+        }
+    }
+
+    /**
+     * Closes all the idle connections of the route.
+     */
+    void closeIdleChannels() {
+        TargetChannel targetChannel;
+        while ((targetChannel = idleChannels.pollFirst()) != null) {
+            invalidate(targetChannel);
+        }
+    }
+
+    int getActiveCount() {
+        return activeCount.get();
+    }
+
+    int getIdleCount() {
+        return idleCount.get();
+    }
+
+    long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    private static Channel getChannel(TargetChannel targetChannel) {
+        // The channel of the target channel is only set once the connection is used to write a request, hence the
+        // channel of the connect future is used.
+        return targetChannel.getChannelFuture().channel();
+    }
+}
@@ -35,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.Util;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
 import org.wso2.transport.http.netty.message.DefaultListener;
 import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
 import org.wso2.transport.http.netty.message.Http2PushPromise;
@@ -52,6 +53,7 @@ public class ClientInboundHandler extends Http2EventAdapter {
     private static final Logger log = LoggerFactory.getLogger(ClientInboundHandler.class);
 
     private Http2ClientChannel http2ClientChannel;
+    private EntityCollectorConfig entityCollectorConfig = EntityCollectorConfig.BLOCKING;
 
     @Override
     public int onDataRead(ChannelHandlerContext ctx, int streamId, ByteBuf data, int padding,
@@ -61,7 +63,7 @@ public class ClientInboundHandler extends Http2EventAdapter {
                       http2ClientChannel.toString(), streamId, endOfStream);
         }
 
-        for (Http2DataEventListener listener : http2ClientChannel.getDataEventListeners()) {
+        for (Http2DataEventListener listener : http2ClientChannel.getDataEventListenerArray()) {
             if (!listener.onDataRead(ctx, streamId, data, endOfStream)) {
                 return data.readableBytes() + padding;
             }
@@ -114,7 +116,7 @@ public class ClientInboundHandler extends Http2EventAdapter {
                       http2ClientChannel.toString(), streamId, endStream);
         }
 
-        for (Http2DataEventListener listener : http2ClientChannel.getDataEventListeners()) {
+        for (Http2DataEventListener listener : http2ClientChannel.getDataEventListenerArray()) {
             if (!listener.onHeadersRead(ctx, streamId, headers, endStream)) {
                 return;
             }
@@ -153,6 +155,10 @@ public class ClientInboundHandler extends Http2EventAdapter {
     public void onSettingsRead(ChannelHandlerContext ctx, Http2Settings settings)
             throws Http2Exception {
         log.debug("Http2FrameListenAdapter.onSettingRead()");
+        Long maxConcurrentStreams = settings.maxConcurrentStreams();
+        if (maxConcurrentStreams != null && http2ClientChannel != null) {
+            http2ClientChannel.setMaxConcurrentStreams(maxConcurrentStreams);
+        }
         ctx.fireChannelRead(settings);
         super.onSettingsRead(ctx, settings);
     }
@@ -175,7 +181,7 @@ public class ClientInboundHandler extends Http2EventAdapter {
             log.debug("Received a push promise on channel: {} over stream id: {}, promisedStreamId: {}",
                       http2ClientChannel.toString(), streamId, promisedStreamId);
         }
-        for (Http2DataEventListener listener : http2ClientChannel.getDataEventListeners()) {
+        for (Http2DataEventListener listener : http2ClientChannel.getDataEventListenerArray()) {
             if (!listener.onPushPromiseRead(ctx, streamId, headers, false)) {
                 return;
             }
@@ -188,8 +194,9 @@ public class ClientInboundHandler extends Http2EventAdapter {
             return;
         }
         http2ClientChannel.putPromisedMessage(promisedStreamId, outboundMsgHolder);
-        http2ClientChannel.getDataEventListeners().
-                forEach(dataEventListener -> dataEventListener.onStreamInit(ctx, promisedStreamId));
+        for (Http2DataEventListener dataEventListener : http2ClientChannel.getDataEventListenerArray()) {
+            dataEventListener.onStreamInit(ctx, promisedStreamId);
+        }
         Http2PushPromise pushPromise =
                 new Http2PushPromise(Util.createHttpRequestFromHttp2Headers(headers, streamId), outboundMsgHolder);
         pushPromise.setPromisedStreamId(promisedStreamId);
@@ -216,6 +223,10 @@ public class ClientInboundHandler extends Http2EventAdapter {
         this.http2ClientChannel = http2ClientChannel;
     }
 
+    public void setEntityCollectorConfig(EntityCollectorConfig entityCollectorConfig) {
+        this.entityCollectorConfig = entityCollectorConfig;
+    }
+
     private HttpCarbonResponse setupResponseCarbonMessage(ChannelHandlerContext ctx, int streamId,
                                                           Http2Headers http2Headers,
                                                           OutboundMsgHolder outboundMsgHolder) {
@@ -239,7 +250,8 @@ public class ClientInboundHandler extends Http2EventAdapter {
                     notifyHttpListener(new Exception("Error while setting http headers", e));
         }
         // Create HTTP Carbon Response
-        HttpCarbonResponse responseCarbonMsg = new HttpCarbonResponse(httpResponse, new DefaultListener(ctx));
+        HttpCarbonResponse responseCarbonMsg = new HttpCarbonResponse(httpResponse, new DefaultListener(ctx),
+                                                                      entityCollectorConfig);
 
         // Setting properties of the HTTP Carbon Response
         responseCarbonMsg.setProperty(Constants.POOLED_BYTE_BUFFER_FACTORY, new PooledDataStreamerFactory(ctx.alloc()));
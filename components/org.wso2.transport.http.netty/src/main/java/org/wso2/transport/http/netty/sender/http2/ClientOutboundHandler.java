@@ -186,7 +186,7 @@ public class ClientOutboundHandler extends ChannelOutboundHandlerAdapter {
                 final ByteBuf content = msg.content();
                 endStream = isLastContent && trailers.isEmpty();
                 release = false;
-                for (Http2DataEventListener dataEventListener : http2ClientChannel.getDataEventListeners()) {
+                for (Http2DataEventListener dataEventListener : http2ClientChannel.getDataEventListenerArray()) {
                     if (!dataEventListener.onDataWrite(ctx, streamId, content, endStream)) {
                         markWriteCompletion();
                         return;
@@ -213,8 +213,9 @@ public class ClientOutboundHandler extends ChannelOutboundHandlerAdapter {
         private int initiateStream(ChannelHandlerContext ctx) throws Http2Exception {
             int streamId = getNextStreamId();
             http2ClientChannel.putInFlightMessage(streamId, outboundMsgHolder);
-            http2ClientChannel.getDataEventListeners().
-                    forEach(dataEventListener -> dataEventListener.onStreamInit(ctx, streamId));
+            for (Http2DataEventListener dataEventListener : http2ClientChannel.getDataEventListenerArray()) {
+                dataEventListener.onStreamInit(ctx, streamId);
+            }
             return streamId;
         }
 
@@ -232,7 +233,7 @@ public class ClientOutboundHandler extends ChannelOutboundHandlerAdapter {
                     HttpConversionUtil.ExtensionHeaderNames.STREAM_DEPENDENCY_ID.text(), 0);
             short weight = headers.getShort(HttpConversionUtil.ExtensionHeaderNames.STREAM_WEIGHT.text(),
                                             Http2CodecUtil.DEFAULT_PRIORITY_WEIGHT);
-            for (Http2DataEventListener dataEventListener : http2ClientChannel.getDataEventListeners()) {
+            for (Http2DataEventListener dataEventListener : http2ClientChannel.getDataEventListenerArray()) {
                 if (!dataEventListener.onHeadersWrite(ctx, streamId, http2Headers, endStream)) {
                     return;
                 }
@@ -265,8 +266,9 @@ public class ClientOutboundHandler extends ChannelOutboundHandlerAdapter {
      */
     void resetStream(ChannelHandlerContext ctx, int streamId, Http2Error http2Error) {
         encoder.writeRstStream(ctx, streamId, http2Error.code(), ctx.newPromise());
-        http2ClientChannel.getDataEventListeners().
-                forEach(dataEventListener -> dataEventListener.onStreamReset(streamId));
+        for (Http2DataEventListener dataEventListener : http2ClientChannel.getDataEventListenerArray()) {
+            dataEventListener.onStreamReset(streamId);
+        }
         ctx.flush();
     }
 }
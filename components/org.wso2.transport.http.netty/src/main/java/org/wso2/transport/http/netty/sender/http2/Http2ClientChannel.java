@@ -28,12 +28,12 @@ import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.HttpRoute;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -49,13 +49,17 @@ public class Http2ClientChannel {
     private ChannelFuture channelFuture;
     private HttpRoute httpRoute;
     private Http2ConnectionManager http2ConnectionManager;
-    // Whether channel is operates with maximum number of allowed streams
-    private AtomicBoolean isExhausted = new AtomicBoolean(false);
     // Number of active streams. Need to start from 1 to prevent someone stealing the connection from the creator
     private AtomicInteger activeStreams = new AtomicInteger(1);
+    // Maximum number of concurrent streams advertised by the peer
+    private volatile int maxConcurrentStreams = Integer.MAX_VALUE;
     private boolean upgradedToHttp2 = false;
     private int socketIdleTimeout = Constants.ENDPOINT_TIMEOUT;
-    private Map<String, Http2DataEventListener> dataEventListeners;
+    private final Map<String, Http2DataEventListener> dataEventListenersByName = new LinkedHashMap<>();
+    // Snapshot of the listeners which is replaced as a whole when a listener is added, so that dispatching an event
+    // to the listeners does not allocate
+    private volatile Http2DataEventListener[] dataEventListeners = new Http2DataEventListener[0];
+    private volatile List<Http2DataEventListener> dataEventListenerList = Collections.emptyList();
     private StreamCloseListener streamCloseListener;
 
     private static final Logger log = LoggerFactory.getLogger(Http2ClientChannel.class);
@@ -68,7 +72,6 @@ public class Http2ClientChannel {
         this.httpRoute = httpRoute;
         streamCloseListener = new StreamCloseListener(this);
         this.connection.addListener(streamCloseListener);
-        dataEventListeners = new HashMap<>();
         inFlightMessages = new ConcurrentHashMap<>();
         promisedMessages = new ConcurrentHashMap<>();
     }
@@ -204,19 +207,50 @@ public class Http2ClientChannel {
     }
 
     /**
-     * Increments and gets the active streams count.
+     * Reserves a stream if the connection has not reached the maximum number of active streams.
      *
-     * @return number of active streams count
+     * @param maxActiveStreams maximum number of active streams allowed by the configuration
+     * @return whether a stream is reserved
      */
-    int incrementActiveStreamCount() {
-        return activeStreams.incrementAndGet();
+    boolean reserveStream(int maxActiveStreams) {
+        int streamLimit = getMaxActiveStreams(maxActiveStreams);
+        while (true) {
+            int activeStreamCount = activeStreams.get();
+            if (activeStreamCount >= streamLimit) {
+                return false;
+            }
+            if (activeStreams.compareAndSet(activeStreamCount, activeStreamCount + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void decrementActiveStreamCount() {
+        activeStreams.decrementAndGet();
+    }
+
+    int getActiveStreamCount() {
+        return activeStreams.get();
     }
 
     /**
-     * Marks the channel has reached the maximum number of active streams.
+     * Gets the maximum number of active streams of the connection, which is the lower of the configured maximum and
+     * the maximum advertised by the peer.
+     *
+     * @param maxActiveStreams maximum number of active streams allowed by the configuration
+     * @return maximum number of active streams of the connection
      */
-    void markAsExhausted() {
-        isExhausted.set(true);
+    int getMaxActiveStreams(int maxActiveStreams) {
+        return Math.min(maxActiveStreams, maxConcurrentStreams);
+    }
+
+    /**
+     * Sets the maximum number of concurrent streams advertised by the peer with SETTINGS_MAX_CONCURRENT_STREAMS.
+     *
+     * @param maxConcurrentStreams maximum number of concurrent streams the peer accepts
+     */
+    void setMaxConcurrentStreams(long maxConcurrentStreams) {
+        this.maxConcurrentStreams = (int) Math.min(maxConcurrentStreams, Integer.MAX_VALUE);
     }
 
     /**
@@ -226,16 +260,32 @@ public class Http2ClientChannel {
      * @param dataEventListener the data event listener
      */
     public void addDataEventListener(String name, Http2DataEventListener dataEventListener) {
-        dataEventListeners.put(name, dataEventListener);
+        synchronized (dataEventListenersByName) {
+            dataEventListenersByName.put(name, dataEventListener);
+            Http2DataEventListener[] listeners =
+                    dataEventListenersByName.values().toArray(new Http2DataEventListener[0]);
+            dataEventListenerList = Collections.unmodifiableList(Arrays.asList(listeners));
+            dataEventListeners = listeners;
+        }
     }
 
     /**
      * Gets the list of listeners which listen for HTTP/2 data events.
      *
-     * @return list of data event listeners
+     * @return unmodifiable list of data event listeners
      */
     public List<Http2DataEventListener> getDataEventListeners() {
-        return new ArrayList<>(dataEventListeners.values());
+        return dataEventListenerList;
+    }
+
+    /**
+     * Gets the listeners which listen for HTTP/2 data events, for dispatching the events of each frame. The array
+     * must not be modified.
+     *
+     * @return array of data event listeners
+     */
+    Http2DataEventListener[] getDataEventListenerArray() {
+        return dataEventListeners;
     }
 
     /**
@@ -278,13 +328,10 @@ public class Http2ClientChannel {
         }
 
         public void onStreamClosed(Http2Stream stream) {
-            // Channel is no longer exhausted, so we can return it back to the pool
             http2ClientChannel.removeInFlightMessage(stream.id());
             activeStreams.decrementAndGet();
-            http2ClientChannel.getDataEventListeners().
-                    forEach(dataEventListener -> dataEventListener.onStreamClose(stream.id()));
-            if (isExhausted.getAndSet(false)) {
-                http2ConnectionManager.returnClientChannel(httpRoute, http2ClientChannel);
+            for (Http2DataEventListener dataEventListener : dataEventListeners) {
+                dataEventListener.onStreamClose(stream.id());
             }
         }
     }
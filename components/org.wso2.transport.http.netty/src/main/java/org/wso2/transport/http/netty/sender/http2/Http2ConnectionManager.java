@@ -18,15 +18,17 @@
 
 package org.wso2.transport.http.netty.sender.http2;
 
-import io.netty.channel.Channel;
 import org.wso2.transport.http.netty.common.HttpRoute;
 import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.sender.channel.pool.PoolConfiguration;
 
-import java.util.concurrent.BlockingQueue;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * {@code Http2ConnectionManager} Manages HTTP/2 connections.
@@ -38,14 +40,27 @@ public class Http2ConnectionManager {
     // Lock for synchronizing access
     private Lock lock = new ReentrantLock();
     private SenderConfiguration senderConfig;
+    private Consumer<HttpRoute> connectionOpener;
 
     public Http2ConnectionManager(SenderConfiguration senderConfig) {
         this.senderConfig = senderConfig;
     }
 
+    /**
+     * Sets the callback which opens a new HTTP/2 connection to a route in the background. New connections are
+     * always created by the HTTP connection manager, hence the client connector provides this. The callback must
+     * call {@link #completeConnectionOpening(HttpRoute, Http2ClientChannel)} once the connection is opened or failed.
+     *
+     * @param connectionOpener callback which opens a new connection to the given route
+     */
+    public void setConnectionOpener(Consumer<HttpRoute> connectionOpener) {
+        this.connectionOpener = connectionOpener;
+    }
+
     /**
      * Borrows an already active {@link Http2ClientChannel} for a given http route.
-     * This will not try to create new connections.
+     * This will not try to create new connections, but may request a new connection to be opened in the background
+     * if the route is about to run out of streams.
      *
      * @param httpRoute http route
      * @return an active {@code Http2ClientChannel}
@@ -56,10 +71,33 @@ public class Http2ConnectionManager {
         Http2ClientChannel http2ClientChannel = null;
         if (perRouteConnectionPool != null) {
             http2ClientChannel = perRouteConnectionPool.fetchTargetChannel();
+            if (http2ClientChannel != null && connectionOpener != null
+                    && perRouteConnectionPool.startOpeningConnection(http2ClientChannel)) {
+                connectionOpener.accept(httpRoute);
+            }
         }
         return http2ClientChannel;
     }
 
+    /**
+     * Completes opening a connection requested through the connection opener.
+     *
+     * @param httpRoute          http route
+     * @param http2ClientChannel the opened connection, or null if the connection could not be opened as a HTTP/2
+     *                           connection
+     */
+    public void completeConnectionOpening(HttpRoute httpRoute, Http2ClientChannel http2ClientChannel) {
+        if (http2ClientChannel != null) {
+            // There is no request of the creator on this connection
+            http2ClientChannel.decrementActiveStreamCount();
+            addHttp2ClientChannel(httpRoute, http2ClientChannel);
+        }
+        PerRouteConnectionPool perRouteConnectionPool = fetchConnectionPool(generateKey(httpRoute));
+        if (perRouteConnectionPool != null) {
+            perRouteConnectionPool.completeOpeningConnection();
+        }
+    }
+
     private PerRouteConnectionPool fetchConnectionPool(String key) {
         return connectionPools.get(key);
     }
@@ -90,8 +128,7 @@ public class Http2ConnectionManager {
                 perRouteConnectionPool = fetchConnectionPool(key);
 
                 if (perRouteConnectionPool == null) {
-                    perRouteConnectionPool = new PerRouteConnectionPool(
-                            senderConfig.getPoolConfiguration().getHttp2MaxActiveStreamsPerConnection());
+                    perRouteConnectionPool = new PerRouteConnectionPool(senderConfig.getPoolConfiguration());
                     registerConnectionPool(key, perRouteConnectionPool);
                 }
                 perRouteConnectionPool.addChannel(http2ClientChannel);
@@ -112,20 +149,6 @@ public class Http2ConnectionManager {
                 );
     }
 
-    /**
-     * Returns the previously exhausted {@code Http2ClientChannel} back to the pool.
-     *
-     * @param httpRoute          http route
-     * @param http2ClientChannel previously exhausted Http2ClientChannel
-     */
-    void returnClientChannel(HttpRoute httpRoute, Http2ClientChannel http2ClientChannel) {
-        String key = generateKey(httpRoute);
-        PerRouteConnectionPool perRouteConnectionPool = fetchConnectionPool(key);
-        if (perRouteConnectionPool != null) {
-            perRouteConnectionPool.addChannel(http2ClientChannel);
-        }
-    }
-
     /**
      * Removes the {@code Http2ClientChannel} from pool.
      *
@@ -142,57 +165,142 @@ public class Http2ConnectionManager {
 
     /**
      * Entity which holds the pool of connections for a given http route.
+     * <p>
+     * A stream is opened on the less loaded of two randomly picked connections, which spreads the streams across
+     * the connections without scanning all of them. Connections are kept in a copy on write array as they are
+     * added and removed far less often than streams are opened. If both picks are full, the snapshot of the array is
+     * scanned for the connection with the most free streams, so that a new connection is opened only when every
+     * connection is full. The scan reads the stream counts without locking, hence reserving a stream never waits on
+     * another thread.
      */
     private static class PerRouteConnectionPool {
 
-        private BlockingQueue<Http2ClientChannel> http2ClientChannels = new LinkedBlockingQueue<>();
-        // Maximum number of allowed active streams
-        private int maxActiveStreams;
+        private static final Http2ClientChannel[] EMPTY = new Http2ClientChannel[0];
+        // Number of times two connections are picked before giving up on finding a connection with a free stream
+        private static final int MAX_FETCH_ATTEMPTS = 2;
 
-        public PerRouteConnectionPool() {
-            maxActiveStreams = Integer.MAX_VALUE;
-        }
+        private volatile Http2ClientChannel[] http2ClientChannels = EMPTY;
+        // Maximum number of allowed active streams
+        private final int maxActiveStreams;
+        private final double utilisationThreshold;
+        // Whether a new connection is being opened in the background
+        private final AtomicBoolean openingConnection = new AtomicBoolean(false);
 
-        public PerRouteConnectionPool(int maxActiveStreams) {
-            this.maxActiveStreams = maxActiveStreams;
+        PerRouteConnectionPool(PoolConfiguration poolConfiguration) {
+            this.maxActiveStreams = poolConfiguration.getHttp2MaxActiveStreamsPerConnection();
+            this.utilisationThreshold = poolConfiguration.getHttp2ConnectionUtilisationThreshold();
         }
 
         /**
-         * Fetches an active {@code TargetChannel} from the pool.
+         * Fetches an active {@code TargetChannel} from the pool and reserves a stream of it.
          *
-         * @return active TargetChannel
+         * @return active TargetChannel, or null if no connection with a free stream is found
          */
         Http2ClientChannel fetchTargetChannel() {
-            if (http2ClientChannels.size() != 0) {
-                Http2ClientChannel http2ClientChannel = http2ClientChannels.peek();
-                Channel channel = http2ClientChannel.getChannel();
-                if (!channel.isActive()) {  // if channel is not active, forget it and fetch next one
-                    http2ClientChannels.remove(http2ClientChannel);
-                    return fetchTargetChannel();
+            Http2ClientChannel[] channels = http2ClientChannels;
+            int size = channels.length;
+            if (size == 0) {
+                return null;
+            } else if (size == 1) {
+                return reserveStream(channels[0]);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int attempt = 0; attempt < MAX_FETCH_ATTEMPTS; attempt++) {
+                int first = random.nextInt(size);
+                int second = random.nextInt(size - 1);
+                if (second >= first) {
+                    second++;
                 }
-                // increment and get active stream count
-                int activeSteamCount = http2ClientChannel.incrementActiveStreamCount();
-
-                if (activeSteamCount < maxActiveStreams) {  // safe to fetch the Target Channel
-                    return http2ClientChannel;
-                } else if (activeSteamCount == maxActiveStreams) {  // no more streams except this one can be opened
-                    http2ClientChannel.markAsExhausted();
-                    http2ClientChannels.remove(http2ClientChannel);
+                Http2ClientChannel lessLoaded = channels[first];
+                Http2ClientChannel moreLoaded = channels[second];
+                if (moreLoaded.getActiveStreamCount() < lessLoaded.getActiveStreamCount()) {
+                    lessLoaded = channels[second];
+                    moreLoaded = channels[first];
+                }
+                Http2ClientChannel http2ClientChannel = reserveStream(lessLoaded);
+                if (http2ClientChannel == null) {
+                    http2ClientChannel = reserveStream(moreLoaded);
+                }
+                if (http2ClientChannel != null) {
                     return http2ClientChannel;
-                } else {
-                    http2ClientChannels.remove(http2ClientChannel);
-                    return fetchTargetChannel();    // fetch the next one from the queue
                 }
             }
-            return null;
+            return reserveStreamOnLeastLoaded(channels);
+        }
+
+        /**
+         * Reserves a stream on the connection with the most free streams, moving on to the next one if another
+         * thread takes the last free stream of it first.
+         */
+        private Http2ClientChannel reserveStreamOnLeastLoaded(Http2ClientChannel[] channels) {
+            while (true) {
+                Http2ClientChannel mostFreeStreams = null;
+                int maxFreeStreams = 0;
+                for (Http2ClientChannel http2ClientChannel : channels) {
+                    int freeStreams = http2ClientChannel.getMaxActiveStreams(maxActiveStreams)
+                            - http2ClientChannel.getActiveStreamCount();
+                    if (freeStreams > maxFreeStreams && http2ClientChannel.getChannel().isActive()) {
+                        mostFreeStreams = http2ClientChannel;
+                        maxFreeStreams = freeStreams;
+                    }
+                }
+                if (mostFreeStreams == null) {
+                    return null;
+                }
+                if (mostFreeStreams.reserveStream(maxActiveStreams)) {
+                    return mostFreeStreams;
+                }
+            }
+        }
+
+        private Http2ClientChannel reserveStream(Http2ClientChannel http2ClientChannel) {
+            if (!http2ClientChannel.getChannel().isActive()) {  // if channel is not active, forget it
+                removeChannel(http2ClientChannel);
+                return null;
+            }
+            return http2ClientChannel.reserveStream(maxActiveStreams) ? http2ClientChannel : null;
+        }
+
+        /**
+         * @param http2ClientChannel the connection a stream is just reserved on
+         * @return true if a new connection should be opened in the background, as the connection crossed the
+         * utilisation threshold
+         */
+        boolean startOpeningConnection(Http2ClientChannel http2ClientChannel) {
+            if (utilisationThreshold >= 1) {
+                return false;
+            }
+            int streamLimit = http2ClientChannel.getMaxActiveStreams(maxActiveStreams);
+            return http2ClientChannel.getActiveStreamCount() >= streamLimit * utilisationThreshold
+                    && openingConnection.compareAndSet(false, true);
+        }
+
+        void completeOpeningConnection() {
+            openingConnection.set(false);
         }
 
         void addChannel(Http2ClientChannel http2ClientChannel) {
-            http2ClientChannels.add(http2ClientChannel);
+            synchronized (this) {
+                Http2ClientChannel[] channels = http2ClientChannels;
+                Http2ClientChannel[] newChannels = Arrays.copyOf(channels, channels.length + 1);
+                newChannels[channels.length] = http2ClientChannel;
+                http2ClientChannels = newChannels;
+            }
         }
 
         void removeChannel(Http2ClientChannel http2ClientChannel) {
-            http2ClientChannels.remove(http2ClientChannel);
+            synchronized (this) {
+                Http2ClientChannel[] channels = http2ClientChannels;
+                for (int i = 0; i < channels.length; i++) {
+                    if (channels[i] == http2ClientChannel) {
+                        Http2ClientChannel[] newChannels = new Http2ClientChannel[channels.length - 1];
+                        System.arraycopy(channels, 0, newChannels, 0, i);
+                        System.arraycopy(channels, i + 1, newChannels, i, channels.length - i - 1);
+                        http2ClientChannels = newChannels;
+                        return;
+                    }
+                }
+            }
         }
     }
 }
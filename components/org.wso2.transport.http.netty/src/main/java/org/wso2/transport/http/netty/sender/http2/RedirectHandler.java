@@ -140,6 +140,7 @@ public class RedirectHandler implements Http2DataEventListener {
             http2ClientChannel.removeInFlightMessage(streamId);
             outboundMsgHolder.updateRequest(request);
             DefaultHttpClientConnector connector = ctx.channel().attr(Constants.CLIENT_CONNECTOR).get();
+            connector.cachePermanentRedirect(originalRequest, statusCode, redirectionURL);
             connector.send(outboundMsgHolder, request);
         } catch (UnsupportedEncodingException e) {
             log.error("UnsupportedEncodingException occurred when constructing direction request",
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.resolver;
+
+import io.netty.channel.ChannelFactory;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.NameResolver;
+import io.netty.resolver.RoundRobinInetAddressResolver;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsAddressResolverGroup;
+import io.netty.resolver.dns.DnsCache;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.DnsServerAddressStreamProvider;
+import io.netty.resolver.dns.DnsServerAddressStreamProviders;
+import io.netty.util.NetUtil;
+import org.wso2.transport.http.netty.config.DnsResolverConfig;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the hosts of client connections asynchronously on the event loop of each connection, using the name
+ * servers of the platform.
+ * <p>
+ * The resolvers of all the event loops share one cache, which keeps resolved addresses for the TTL of their DNS
+ * records within the configured bounds, and failed resolutions for the negative TTL. Concurrent resolutions of the
+ * same host on an event loop are answered by a single query. Hosts of the override table are resolved without
+ * querying the name servers.
+ */
+public class CachingDnsAddressResolverGroup extends DnsAddressResolverGroup {
+
+    private final DnsResolverConfig dnsResolverConfig;
+    private final DnsCache dnsCache;
+    private final Map<String, List<InetAddress>> hostOverrides;
+
+    public CachingDnsAddressResolverGroup(Class<? extends DatagramChannel> channelType,
+                                          DnsResolverConfig dnsResolverConfig) {
+        super(channelType, DnsServerAddressStreamProviders.platformDefault());
+        this.dnsResolverConfig = dnsResolverConfig;
+        this.dnsCache = new DefaultDnsCache(dnsResolverConfig.getMinTtl(), dnsResolverConfig.getMaxTtl(),
+                                            dnsResolverConfig.getNegativeTtl());
+        this.hostOverrides = toAddresses(dnsResolverConfig.getHostOverrides());
+    }
+
+    @Override
+    protected NameResolver<InetAddress> newNameResolver(EventLoop eventLoop,
+                                                        ChannelFactory<? extends DatagramChannel> channelFactory,
+                                                        DnsServerAddressStreamProvider nameServerProvider) {
+        NameResolver<InetAddress> resolver = new DnsNameResolverBuilder(eventLoop)
+                .channelFactory(channelFactory)
+                .nameServerProvider(nameServerProvider)
+                .resolveCache(dnsCache)
+                .queryTimeoutMillis(dnsResolverConfig.getQueryTimeout())
+                .build();
+        if (hostOverrides.isEmpty()) {
+            return resolver;
+        }
+        return new HostOverrideNameResolver(eventLoop, hostOverrides, resolver);
+    }
+
+    @Override
+    protected AddressResolver<InetSocketAddress> newAddressResolver(EventLoop eventLoop,
+                                                                    NameResolver<InetAddress> resolver)
+            throws Exception {
+        if (dnsResolverConfig.isRoundRobin()) {
+            return new RoundRobinInetAddressResolver(eventLoop, resolver).asAddressResolver();
+        }
+        return super.newAddressResolver(eventLoop, resolver);
+    }
+
+    /**
+     * @return the cache shared by the resolvers of all the event loops
+     */
+    public DnsCache getDnsCache() {
+        return dnsCache;
+    }
+
+    private static Map<String, List<InetAddress>> toAddresses(Map<String, List<String>> hostOverrides) {
+        Map<String, List<InetAddress>> addresses = new HashMap<>();
+        for (Map.Entry<String, List<String>> hostOverride : hostOverrides.entrySet()) {
+            String host = hostOverride.getKey();
+            List<InetAddress> hostAddresses = new ArrayList<>();
+            for (String ipAddress : hostOverride.getValue()) {
+                byte[] address = NetUtil.createByteArrayFromIpAddressString(ipAddress);
+                if (address == null) {
+                    throw new IllegalArgumentException("Invalid IP address " + ipAddress + " for host " + host);
+                }
+                try {
+                    hostAddresses.add(InetAddress.getByAddress(host, address));
+                } catch (UnknownHostException e) {
+                    throw new IllegalArgumentException("Invalid IP address " + ipAddress + " for host " + host, e);
+                }
+            }
+            if (hostAddresses.isEmpty()) {
+                throw new IllegalArgumentException("No IP address given for host " + host);
+            }
+            addresses.put(host, Collections.unmodifiableList(hostAddresses));
+        }
+        return addresses;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.sender.resolver;
+
+import io.netty.resolver.InetNameResolver;
+import io.netty.resolver.NameResolver;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Promise;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A name resolver which answers the hosts of a static override table itself, the way a hosts file does, and passes
+ * any other host on to the resolver it wraps.
+ */
+class HostOverrideNameResolver extends InetNameResolver {
+
+    private final Map<String, List<InetAddress>> hostOverrides;
+    private final NameResolver<InetAddress> resolver;
+
+    HostOverrideNameResolver(EventExecutor executor, Map<String, List<InetAddress>> hostOverrides,
+                             NameResolver<InetAddress> resolver) {
+        super(executor);
+        this.hostOverrides = hostOverrides;
+        this.resolver = resolver;
+    }
+
+    @Override
+    protected void doResolve(String inetHost, Promise<InetAddress> promise) {
+        List<InetAddress> addresses = hostOverrides.get(inetHost.toLowerCase(Locale.ROOT));
+        if (addresses != null) {
+            promise.setSuccess(addresses.get(0));
+        } else {
+            resolver.resolve(inetHost, promise);
+        }
+    }
+
+    @Override
+    protected void doResolveAll(String inetHost, Promise<List<InetAddress>> promise) {
+        List<InetAddress> addresses = hostOverrides.get(inetHost.toLowerCase(Locale.ROOT));
+        if (addresses != null) {
+            promise.setSuccess(addresses);
+        } else {
+            resolver.resolveAll(inetHost, promise);
+        }
+    }
+
+    @Override
+    public void close() {
+        resolver.close();
+    }
+}
@@ -26,7 +26,6 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpHeaders;
@@ -34,17 +33,20 @@ import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshaker;
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory;
 import io.netty.handler.codec.http.websocketx.WebSocketVersion;
-import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketClientCompressionHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import io.netty.handler.timeout.IdleStateHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.common.transport.Transports;
+import org.wso2.transport.http.netty.config.WebSocketCompressionConfig;
 import org.wso2.transport.http.netty.contract.websocket.HandshakeFuture;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketConnection;
 import org.wso2.transport.http.netty.contractimpl.websocket.HandshakeFutureImpl;
+import org.wso2.transport.http.netty.internal.websocket.WebSocketCompressionThresholdHandler;
+import org.wso2.transport.http.netty.internal.websocket.WebSocketUtil;
 
 import java.net.URI;
 import java.util.Map;
@@ -67,6 +69,7 @@ public class WebSocketClient {
     private final WebSocketConnectorListener connectorListener;
     private final EventLoopGroup wsClientEventLoopGroup;
     private final boolean autoRead;
+    private final WebSocketCompressionConfig compressionConfig;
     private Channel channel = null;
 
     /**
@@ -77,10 +80,11 @@ public class WebSocketClient {
      * @param headers any specific headers which need to send to the server
      * @param connectorListener connector listener to notify incoming messages
      * @param autoRead sets the read interest
+     * @param compressionConfig permessage-deflate compression offered to the server
      */
     public WebSocketClient(String url, String subProtocols, int idleTimeout, EventLoopGroup wsClientEventLoopGroup,
                            Map<String, String> headers, WebSocketConnectorListener connectorListener,
-                           boolean autoRead) {
+                           boolean autoRead, WebSocketCompressionConfig compressionConfig) {
         this.url = url;
         this.subProtocols = subProtocols;
         this.idleTimeout = idleTimeout;
@@ -88,6 +92,7 @@ public class WebSocketClient {
         this.connectorListener = connectorListener;
         this.wsClientEventLoopGroup = wsClientEventLoopGroup;
         this.autoRead = autoRead;
+        this.compressionConfig = compressionConfig;
     }
 
     /**
@@ -122,7 +127,9 @@ public class WebSocketClient {
             webSocketTargetHandler = new WebSocketTargetHandler(websocketHandshaker, ssl, url, connectorListener);
 
             Bootstrap clientBootstrap = new Bootstrap();
-            clientBootstrap.group(wsClientEventLoopGroup).channel(NioSocketChannel.class).handler(
+            Class<? extends SocketChannel> channelClass =
+                    Transports.getTransport(wsClientEventLoopGroup).getSocketChannelClass();
+            clientBootstrap.group(wsClientEventLoopGroup).channel(channelClass).handler(
                 new ChannelInitializer<SocketChannel>() {
                     @Override
                     protected void initChannel(SocketChannel ch) {
@@ -133,7 +140,13 @@ public class WebSocketClient {
                         pipeline.addLast(new HttpClientCodec());
                         // Assuming that WebSocket Handshake messages will not be large than 8KB
                         pipeline.addLast(new HttpObjectAggregator(8192));
-                        pipeline.addLast(WebSocketClientCompressionHandler.INSTANCE);
+                        if (compressionConfig.isEnabled()) {
+                            pipeline.addLast(WebSocketUtil.getClientCompressionHandler(compressionConfig));
+                            if (compressionConfig.getMinCompressionSize() > 0) {
+                                pipeline.addLast(new WebSocketCompressionThresholdHandler(
+                                        compressionConfig.getMinCompressionSize()));
+                            }
+                        }
                         if (idleTimeout > 0) {
                             pipeline.addLast(new IdleStateHandler(idleTimeout, idleTimeout,
                                                            idleTimeout, TimeUnit.MILLISECONDS));
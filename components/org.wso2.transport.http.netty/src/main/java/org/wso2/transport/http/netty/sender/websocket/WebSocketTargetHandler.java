@@ -19,7 +19,6 @@
 
 package org.wso2.transport.http.netty.sender.websocket;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
@@ -39,24 +38,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.contract.ServerConnectorException;
-import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlSignal;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketFrameType;
-import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketConnection;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketMessageImpl;
+import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketBinaryMessageImpl;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketCloseMessageImpl;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketControlMessageImpl;
+import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketTextMessageImpl;
 import org.wso2.transport.http.netty.exception.UnknownWebSocketFrameTypeException;
 import org.wso2.transport.http.netty.internal.websocket.WebSocketUtil;
 
 import java.net.InetSocketAddress;
 import java.net.URISyntaxException;
-import java.util.concurrent.CountDownLatch;
 
 /**
  * WebSocket Client Handler. This class responsible for handling the inbound messages for the WebSocket Client.
@@ -78,7 +76,7 @@ public class WebSocketTargetHandler extends WebSocketInboundFrameHandler {
     private ChannelHandlerContext ctx;
     private WebSocketFrameType continuationFrameType;
     private boolean closeFrameReceived;
-    private CountDownLatch closeCountDownLatch = null;
+    private ChannelPromise closePromise = null;
 
     public WebSocketTargetHandler(WebSocketClientHandshaker handshaker, boolean isSecure, String requestedUri,
                                   WebSocketConnectorListener webSocketConnectorListener) {
@@ -113,8 +111,8 @@ public class WebSocketTargetHandler extends WebSocketInboundFrameHandler {
     }
 
     @Override
-    public void setCloseCountDownLatch(CountDownLatch closeCountDownLatch) {
-        this.closeCountDownLatch = closeCountDownLatch;
+    public void setClosePromise(ChannelPromise closePromise) {
+        this.closePromise = closePromise;
     }
 
     @Override
@@ -141,6 +139,15 @@ public class WebSocketTargetHandler extends WebSocketInboundFrameHandler {
         }
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (webSocketConnection != null && handshaker.isHandshakeComplete()) {
+            webSocketConnection.onWritabilityChanged();
+            connectorListener.onWritabilityChanged(webSocketConnection);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
         if (evt instanceof IdleStateEvent) {
@@ -180,13 +187,13 @@ public class WebSocketTargetHandler extends WebSocketInboundFrameHandler {
             if (!textFrame.isFinalFragment()) {
                 continuationFrameType = WebSocketFrameType.TEXT;
             }
-            notifyTextMessage(textFrame, textFrame.text(), textFrame.isFinalFragment(), ctx);
+            notifyTextMessage(textFrame, ctx);
         } else if (frame instanceof BinaryWebSocketFrame) {
             BinaryWebSocketFrame binaryFrame = (BinaryWebSocketFrame) msg;
             if (!binaryFrame.isFinalFragment()) {
                 continuationFrameType = WebSocketFrameType.BINARY;
             }
-            notifyBinaryMessage(binaryFrame, binaryFrame.content(), binaryFrame.isFinalFragment(), ctx);
+            notifyBinaryMessage(binaryFrame, ctx);
         } else if (frame instanceof PongWebSocketFrame) {
             notifyPongMessage((PongWebSocketFrame) frame, ctx);
         } else if (frame instanceof PingWebSocketFrame) {
@@ -198,10 +205,10 @@ public class WebSocketTargetHandler extends WebSocketInboundFrameHandler {
             ContinuationWebSocketFrame conframe = (ContinuationWebSocketFrame) msg;
             switch (continuationFrameType) {
                 case TEXT:
-                    notifyTextMessage(conframe, conframe.text(), conframe.isFinalFragment(), ctx);
+                    notifyTextMessage(conframe, ctx);
                     break;
                 case BINARY:
-                    notifyBinaryMessage(conframe, conframe.content(), conframe.isFinalFragment(), ctx);
+                    notifyBinaryMessage(conframe, ctx);
                     break;
             }
         } else {
@@ -209,19 +216,24 @@ public class WebSocketTargetHandler extends WebSocketInboundFrameHandler {
         }
     }
 
-    private void notifyTextMessage(WebSocketFrame frame, String text, boolean finalFragment, ChannelHandlerContext ctx)
-            throws ServerConnectorException {
-        WebSocketMessageImpl webSocketTextMessage = WebSocketUtil.getWebSocketMessage(frame, text, finalFragment);
-        setupCommonProperties(webSocketTextMessage, ctx);
-        connectorListener.onMessage((WebSocketTextMessage) webSocketTextMessage);
+    private void notifyTextMessage(WebSocketFrame frame, ChannelHandlerContext ctx) throws ServerConnectorException {
+        WebSocketTextMessageImpl webSocketTextMessage = WebSocketUtil.getWebSocketTextMessage(frame);
+        try {
+            setupCommonProperties(webSocketTextMessage, ctx);
+            connectorListener.onMessage(webSocketTextMessage);
+        } finally {
+            webSocketTextMessage.release();
+        }
     }
 
-    private void notifyBinaryMessage(WebSocketFrame frame, ByteBuf content, boolean finalFragment,
-                                     ChannelHandlerContext ctx)
-            throws ServerConnectorException {
-        WebSocketMessageImpl webSocketBinaryMessage = WebSocketUtil.getWebSocketMessage(frame, content, finalFragment);
-        setupCommonProperties(webSocketBinaryMessage, ctx);
-        connectorListener.onMessage((WebSocketBinaryMessage) webSocketBinaryMessage);
+    private void notifyBinaryMessage(WebSocketFrame frame, ChannelHandlerContext ctx) throws ServerConnectorException {
+        WebSocketBinaryMessageImpl webSocketBinaryMessage = WebSocketUtil.getWebSocketBinaryMessage(frame);
+        try {
+            setupCommonProperties(webSocketBinaryMessage, ctx);
+            connectorListener.onMessage(webSocketBinaryMessage);
+        } finally {
+            webSocketBinaryMessage.release();
+        }
     }
 
     private void notifyCloseMessage(CloseWebSocketFrame closeWebSocketFrame, ChannelHandlerContext ctx)
@@ -231,14 +243,14 @@ public class WebSocketTargetHandler extends WebSocketInboundFrameHandler {
         if (webSocketConnection == null) {
             throw new ServerConnectorException("Cannot find initialized channel session");
         }
-        if (closeCountDownLatch == null) {
+        if (closePromise == null) {
             WebSocketMessageImpl webSocketCloseMessage = new WebSocketCloseMessageImpl(statusCode, reasonText);
             setupCommonProperties(webSocketCloseMessage, ctx);
             connectorListener.onMessage((WebSocketCloseMessage) webSocketCloseMessage);
             closeFrameReceived = true;
         } else {
             ctx.writeAndFlush(new CloseWebSocketFrame(statusCode, reasonText)).addListener(
-                    future -> closeCountDownLatch.countDown());
+                    future -> closePromise.trySuccess());
         }
         closeWebSocketFrame.release();
     }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.certificatevalidation;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.certificatevalidation.cache.ConcurrentLruCache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test cases for the cache which backs the OCSP and CRL caches.
+ */
+public class ConcurrentLruCacheTest {
+
+    private static final String INVALID = "invalid";
+
+    @Test(description = "Test that the least recently used entry is evicted once the cache exceeds its size")
+    public void testLeastRecentlyUsedEviction() {
+        ConcurrentLruCache<String, String> cache =
+                new ConcurrentLruCache<>("test cache", value -> true, (key, value) -> value);
+        cache.setMaxSize(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        Assert.assertEquals(cache.get("a"), "1");
+        cache.put("c", "3");
+
+        Assert.assertEquals(cache.getCacheSize(), 2);
+        Assert.assertNull(cache.get("b"), "The least recently used entry should have been evicted");
+        Assert.assertEquals(cache.get("a"), "1");
+        Assert.assertEquals(cache.get("c"), "3");
+        Assert.assertEquals(cache.getEvictionCount(), 1);
+        Assert.assertEquals(cache.getHitCount(), 3);
+        Assert.assertEquals(cache.getMissCount(), 1);
+    }
+
+    @Test(description = "Test that the eviction skips the entries which have been removed")
+    public void testEvictionAfterRemoval() {
+        ConcurrentLruCache<String, String> cache =
+                new ConcurrentLruCache<>("test cache", value -> true, (key, value) -> value);
+        cache.setMaxSize(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.remove("a");
+        cache.put("c", "3");
+        cache.put("d", "4");
+
+        Assert.assertEquals(cache.getCacheSize(), 2);
+        Assert.assertEquals(cache.getEvictionCount(), 1);
+        Assert.assertNull(cache.get("b"), "The oldest entry which was not read should have been evicted");
+        Assert.assertEquals(cache.get("c"), "3");
+        Assert.assertEquals(cache.get("d"), "4");
+    }
+
+    @Test(description = "Test that an invalid value is refreshed once and served as it is during the refresh")
+    public void testSingleFlightRefresh() throws Exception {
+        AtomicInteger refreshCount = new AtomicInteger();
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch refreshReleased = new CountDownLatch(1);
+        ConcurrentLruCache<String, String> cache =
+                new ConcurrentLruCache<>("test cache", value -> !INVALID.equals(value), (key, value) -> {
+                    refreshCount.incrementAndGet();
+                    refreshStarted.countDown();
+                    refreshReleased.await();
+                    return "refreshed";
+                });
+        cache.put("a", INVALID);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> refreshingRead = executor.submit(() -> cache.get("a"));
+            Assert.assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 8; i++) {
+                Assert.assertEquals(cache.get("a"), INVALID,
+                                    "The other readers should not wait for the refresh in flight");
+            }
+            refreshReleased.countDown();
+            Assert.assertEquals(refreshingRead.get(5, TimeUnit.SECONDS), "refreshed");
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(refreshCount.get(), 1, "The value should have been fetched once");
+        Assert.assertEquals(cache.getRefreshCount(), 1);
+        Assert.assertEquals(cache.get("a"), "refreshed");
+    }
+
+    @Test(description = "Test that a value which cannot be refreshed is removed")
+    public void testFailedRefreshRemovesValue() {
+        ConcurrentLruCache<String, String> cache =
+                new ConcurrentLruCache<>("test cache", value -> !INVALID.equals(value), (key, value) -> {
+                    throw new IllegalStateException("Responder is not available");
+                });
+        cache.put("a", INVALID);
+
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(cache.getCacheSize(), 0);
+        Assert.assertEquals(cache.getRefreshFailureCount(), 1);
+    }
+
+    @Test(description = "Test that the cache manager refreshes the invalid values")
+    public void testRefreshInvalidValues() {
+        ConcurrentLruCache<String, String> cache =
+                new ConcurrentLruCache<>("test cache", value -> !INVALID.equals(value), (key, value) -> key + "-new");
+        cache.put("a", INVALID);
+        cache.put("b", "valid");
+        cache.refreshInvalidValues();
+
+        Assert.assertEquals(cache.getRefreshCount(), 1);
+        Assert.assertEquals(cache.get("a"), "a-new");
+        Assert.assertEquals(cache.get("b"), "valid");
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.connectionpool;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.HttpRoute;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.internal.HTTPTransportContextHolder;
+import org.wso2.transport.http.netty.sender.ConnectionAvailabilityFuture;
+import org.wso2.transport.http.netty.sender.HttpClientChannelInitializer;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.TargetChannel;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests that the pooled connections of a HTTP/1.1 client connector do not retain the HTTP/2 state which only the
+ * connections of a HTTP/2 connector need. The objects retained by a connection are counted by walking its fields,
+ * which does not depend on the heap or the garbage collector. The footprint in bytes is measured by
+ * {@code ConnectionFootprintBenchmark} in the benchmarks module.
+ */
+public class ConnectionFootprintTestCase {
+
+    // Generous bound on the objects retained by the state of a pooled HTTP/1.1 connection alone
+    private static final int MAX_HTTP_1_1_RETAINED_OBJECTS = 16;
+
+    private final List<ConnectionManager> connectionManagers = new ArrayList<>();
+    private EventLoopGroup clientEventLoopGroup;
+    private HttpRoute httpRoute;
+    // The channel is shared by the connections since only the state kept for each of them is checked
+    private EmbeddedChannel channel;
+
+    @BeforeClass
+    public void setup() {
+        clientEventLoopGroup = new NioEventLoopGroup(1);
+        httpRoute = new HttpRoute(TestUtil.TEST_HOST, TestUtil.HTTP_SERVER_PORT);
+        channel = new EmbeddedChannel();
+    }
+
+    @Test
+    public void testHttp1ConnectionHasNoHttp2State() {
+        SenderConfiguration senderConfiguration = createSenderConfiguration("1.1");
+        TargetChannel targetChannel = createTargetChannel(createConnectionManager(senderConfiguration),
+                                                          senderConfiguration);
+        assertNull(targetChannel.getHttp2ClientChannel());
+
+        SenderConfiguration http2SenderConfiguration = createSenderConfiguration("2.0");
+        TargetChannel http2TargetChannel = createTargetChannel(createConnectionManager(http2SenderConfiguration),
+                                                               http2SenderConfiguration);
+        assertNotNull(http2TargetChannel.getHttp2ClientChannel());
+    }
+
+    @Test
+    public void testRetainedObjectsPerPooledConnection() {
+        int http1RetainedObjects = countRetainedObjects("1.1");
+        int http2RetainedObjects = countRetainedObjects("2.0");
+
+        assertTrue(http1RetainedObjects <= MAX_HTTP_1_1_RETAINED_OBJECTS,
+                   "A HTTP/1.1 connection retains " + http1RetainedObjects + " objects");
+        assertTrue(http1RetainedObjects * 2 < http2RetainedObjects, "A HTTP/1.1 connection retains "
+                + http1RetainedObjects + " objects while a HTTP/2 connection retains " + http2RetainedObjects);
+    }
+
+    /**
+     * Counts the objects reachable from a connection which are not reachable from the state it shares with the other
+     * connections of its connector.
+     */
+    private int countRetainedObjects(String httpVersion) {
+        SenderConfiguration senderConfiguration = createSenderConfiguration(httpVersion);
+        ConnectionManager connectionManager = createConnectionManager(senderConfiguration);
+        TargetChannel targetChannel = createTargetChannel(connectionManager, senderConfiguration);
+
+        Set<Object> sharedObjects = reachableObjects(
+                Arrays.asList(connectionManager, senderConfiguration, httpRoute, channel, clientEventLoopGroup,
+                              HTTPTransportContextHolder.getInstance()), Collections.emptySet());
+        return reachableObjects(Collections.singletonList(targetChannel), sharedObjects).size();
+    }
+
+    /**
+     * Walks the instance fields of the given objects. The internals of the JDK classes are not walked, since they
+     * are not accessible on every JDK, and enums are left out as they are shared anyway.
+     */
+    private Set<Object> reachableObjects(List<Object> roots, Set<Object> excluded) {
+        Set<Object> reachable = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>(roots);
+        while (!pending.isEmpty()) {
+            Object object = pending.pop();
+            Class<?> type = object.getClass();
+            if (excluded.contains(object) || object instanceof Enum || object instanceof Class
+                    || !reachable.add(object)) {
+                continue;
+            }
+            if (type.isArray()) {
+                if (!type.getComponentType().isPrimitive()) {
+                    for (int i = 0; i < Array.getLength(object); i++) {
+                        addIfNotNull(pending, Array.get(object, i));
+                    }
+                }
+                continue;
+            }
+            if (isJdkType(type)) {
+                continue;
+            }
+            for (Class<?> declaringType = type; declaringType != null; declaringType = declaringType.getSuperclass()) {
+                for (Field field : declaringType.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        addIfNotNull(pending, field.get(object));
+                    } catch (IllegalAccessException | RuntimeException e) {
+                        // A field the module system does not open is treated as a leaf
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private boolean isJdkType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.")
+                || name.startsWith("com.sun.") || name.startsWith("jdk.");
+    }
+
+    private void addIfNotNull(Deque<Object> pending, Object object) {
+        if (object != null) {
+            pending.push(object);
+        }
+    }
+
+    private SenderConfiguration createSenderConfiguration(String httpVersion) {
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.setHttpVersion(httpVersion);
+        return senderConfiguration;
+    }
+
+    private ConnectionManager createConnectionManager(SenderConfiguration senderConfiguration) {
+        ConnectionManager connectionManager = new ConnectionManager(
+                senderConfiguration, new BootstrapConfiguration(new HashMap<>()), clientEventLoopGroup);
+        connectionManagers.add(connectionManager);
+        return connectionManager;
+    }
+
+    private TargetChannel createTargetChannel(ConnectionManager connectionManager,
+                                              SenderConfiguration senderConfiguration) {
+        ConnectionAvailabilityFuture connectionAvailabilityFuture = new ConnectionAvailabilityFuture();
+        HttpClientChannelInitializer httpClientChannelInitializer = new HttpClientChannelInitializer(
+                senderConfiguration, httpRoute, connectionManager, connectionAvailabilityFuture);
+        TargetChannel targetChannel = new TargetChannel(httpClientChannelInitializer, channel.newSucceededFuture(),
+                                                        httpRoute, connectionAvailabilityFuture);
+        httpClientChannelInitializer.setHttp2ClientChannel(targetChannel.getHttp2ClientChannel());
+        return targetChannel;
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        connectionManagers.forEach(ConnectionManager::shutdown);
+        channel.finishAndReleaseAll();
+        clientEventLoopGroup.shutdownGracefully().sync();
+    }
+}
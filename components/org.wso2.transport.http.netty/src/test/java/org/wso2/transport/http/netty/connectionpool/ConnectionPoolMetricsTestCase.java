@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.connectionpool;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpClientConnector;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionPoolMetrics;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.SendChannelIDServerInitializer;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the connection counts exposed by the per event loop connection pools.
+ */
+public class ConnectionPoolMetricsTestCase {
+
+    private static final int NO_OF_REQUESTS = 3;
+
+    private HttpServer httpServer;
+    private EventLoopGroup clientEventLoopGroup;
+    private ConnectionManager connectionManager;
+    private HttpClientConnector httpClientConnector;
+    private String route;
+
+    @BeforeClass
+    public void setup() {
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT, new SendChannelIDServerInitializer(1000));
+
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        clientEventLoopGroup = new NioEventLoopGroup(2);
+        connectionManager = new ConnectionManager(senderConfiguration, new BootstrapConfiguration(new HashMap<>()),
+                clientEventLoopGroup);
+        httpClientConnector = new DefaultHttpClientConnector(connectionManager, senderConfiguration);
+        route = TestUtil.TEST_HOST + "-" + TestUtil.HTTP_SERVER_PORT;
+    }
+
+    @Test
+    public void testConnectionCounts() throws InterruptedException {
+        CountDownLatch[] latches = new CountDownLatch[NO_OF_REQUESTS];
+        HTTPConnectorListener[] listeners = new HTTPConnectorListener[NO_OF_REQUESTS];
+        for (int i = 0; i < NO_OF_REQUESTS; i++) {
+            latches[i] = new CountDownLatch(1);
+            listeners[i] = TestUtil.sendRequestAsync(latches[i], httpClientConnector);
+        }
+
+        ConnectionPoolMetrics poolMetrics = connectionManager.getPoolMetrics();
+        assertEquals(poolMetrics.getActiveConnectionCount(), NO_OF_REQUESTS);
+
+        Set<String> channelIds = new HashSet<>();
+        for (int i = 0; i < NO_OF_REQUESTS; i++) {
+            channelIds.add(TestUtil.waitAndGetStringEntity(latches[i], listeners[i]));
+        }
+        assertEquals(channelIds.size(), NO_OF_REQUESTS);
+
+        waitForIdleConnections(poolMetrics, NO_OF_REQUESTS);
+        assertEquals(poolMetrics.getActiveConnectionCount(), 0);
+        assertEquals(poolMetrics.getCreatedConnectionCount(), NO_OF_REQUESTS);
+        assertEquals(poolMetrics.getIdleConnectionsPerRoute().get(route), Integer.valueOf(NO_OF_REQUESTS));
+        assertEquals(poolMetrics.getIdleConnectionsPerEventLoop().values().stream().mapToInt(Integer::intValue)
+                .sum(), NO_OF_REQUESTS);
+
+        // A new request should be served with one of the idle connections
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener listener = TestUtil.sendRequestAsync(latch, httpClientConnector);
+        assertTrue(channelIds.contains(TestUtil.waitAndGetStringEntity(latch, listener)));
+        assertEquals(poolMetrics.getCreatedConnectionCount(), NO_OF_REQUESTS);
+    }
+
+    @Test(description = "Connectors which do not enable JMX metrics can be dropped without leaking MBeans")
+    public void testMetricsNotRegisteredByDefault() throws MalformedObjectNameException {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName poolMetricsNames = new ObjectName("ballerina:Type=ConnectionPool,*");
+        ObjectName tlsMetricsNames = new ObjectName("ballerina:Type=ClientTls,*");
+        int registeredPoolMetrics = mBeanServer.queryNames(poolMetricsNames, null).size();
+        int registeredTlsMetrics = mBeanServer.queryNames(tlsMetricsNames, null).size();
+
+        for (int i = 0; i < 10; i++) {
+            SenderConfiguration senderConfiguration = new SenderConfiguration();
+            new DefaultHttpClientConnector(new ConnectionManager(senderConfiguration,
+                    new BootstrapConfiguration(new HashMap<>()), clientEventLoopGroup), senderConfiguration);
+        }
+
+        assertEquals(mBeanServer.queryNames(poolMetricsNames, null).size(), registeredPoolMetrics);
+        assertEquals(mBeanServer.queryNames(tlsMetricsNames, null).size(), registeredTlsMetrics);
+    }
+
+    private void waitForIdleConnections(ConnectionPoolMetrics poolMetrics, int expected) throws InterruptedException {
+        // Connections are returned to the pool right after the last content of the response is received
+        for (int i = 0; i < 50 && poolMetrics.getIdleConnectionCount() != expected; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(poolMetrics.getIdleConnectionCount(), expected);
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        httpServer.shutdown();
+        clientEventLoopGroup.shutdownGracefully().sync();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.connectionpool;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.Future;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.common.HttpRoute;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpClientConnector;
+import org.wso2.transport.http.netty.exception.PendingAcquireQueueFullException;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.TargetChannel;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.SendChannelIDServerInitializer;
+
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for acquiring connections without blocking while the route is exhausted.
+ */
+public class ConnectionPoolPendingAcquireTestCase {
+
+    private static final long MAX_WAIT_TIME = 1000;
+
+    private HttpServer httpServer;
+    private EventLoopGroup clientEventLoopGroup;
+    private HttpRoute route;
+
+    @BeforeClass
+    public void setup() {
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT, new SendChannelIDServerInitializer(2000));
+        clientEventLoopGroup = new NioEventLoopGroup(2);
+        route = new HttpRoute(TestUtil.TEST_HOST, TestUtil.HTTP_SERVER_PORT);
+    }
+
+    @Test(description = "A returned connection is handed over to the waiting request and the request which does"
+            + " not fit in the pending queue is rejected right away")
+    public void testHandOverAndRejection() throws InterruptedException {
+        SenderConfiguration senderConfiguration = createSenderConfiguration();
+        senderConfiguration.getPoolConfiguration().setMaxWaitTime(10000);
+        ConnectionManager connectionManager = new ConnectionManager(senderConfiguration,
+                new BootstrapConfiguration(new HashMap<>()), clientEventLoopGroup);
+        HttpClientConnector httpClientConnector =
+                new DefaultHttpClientConnector(connectionManager, senderConfiguration);
+
+        CountDownLatch firstLatch = new CountDownLatch(1);
+        CountDownLatch secondLatch = new CountDownLatch(1);
+        CountDownLatch rejectedLatch = new CountDownLatch(1);
+        HTTPConnectorListener firstListener = TestUtil.sendRequestAsync(firstLatch, httpClientConnector);
+        HTTPConnectorListener secondListener = TestUtil.sendRequestAsync(secondLatch, httpClientConnector);
+        HTTPConnectorListener rejectedListener = TestUtil.sendRequestAsync(rejectedLatch, httpClientConnector);
+
+        assertTrue(rejectedLatch.await(1, TimeUnit.SECONDS), "The request should be rejected without waiting");
+        assertTrue(rejectedListener.getHttpErrorMessage() instanceof PendingAcquireQueueFullException);
+        assertEquals(connectionManager.getPoolMetrics().getPendingAcquiresPerRoute().get(route.toString()),
+                Integer.valueOf(1));
+
+        String firstChannelId = TestUtil.waitAndGetStringEntity(firstLatch, firstListener);
+        String secondChannelId = TestUtil.waitAndGetStringEntity(secondLatch, secondListener);
+        assertEquals(secondChannelId, firstChannelId);
+        assertEquals(connectionManager.getPoolMetrics().getCreatedConnectionCount(), 1);
+    }
+
+    @Test(description = "The future of a waiting request is failed once the max wait time passes")
+    public void testAcquireTimeout() throws Exception {
+        SenderConfiguration senderConfiguration = createSenderConfiguration();
+        senderConfiguration.getPoolConfiguration().setMaxWaitTime(MAX_WAIT_TIME);
+        ConnectionManager connectionManager = new ConnectionManager(senderConfiguration,
+                new BootstrapConfiguration(new HashMap<>()), clientEventLoopGroup);
+
+        Future<TargetChannel> first = connectionManager.acquireTargetChannel(route, null, senderConfiguration);
+        assertTrue(first.isSuccess());
+        first.getNow().getChannelFuture().sync();
+
+        Future<TargetChannel> timedOut = connectionManager.acquireTargetChannel(route, null, senderConfiguration);
+        assertFalse(timedOut.isDone());
+        assertTrue(timedOut.await(MAX_WAIT_TIME * 5));
+        assertTrue(timedOut.cause() instanceof NoSuchElementException);
+        assertEquals(timedOut.cause().getMessage(), Constants.MAXIMUM_WAIT_TIME_EXCEED);
+
+        Future<TargetChannel> waiting = connectionManager.acquireTargetChannel(route, null, senderConfiguration);
+        assertFalse(waiting.isDone());
+        connectionManager.returnChannel(first.getNow());
+        assertTrue(waiting.await(MAX_WAIT_TIME));
+        assertNotNull(waiting.getNow());
+        assertSame(waiting.getNow(), first.getNow());
+        connectionManager.invalidateTargetChannel(waiting.getNow());
+    }
+
+    private SenderConfiguration createSenderConfiguration() {
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.getPoolConfiguration().setMaxActivePerPool(1);
+        senderConfiguration.getPoolConfiguration().setMaxPendingAcquiresPerPool(1);
+        return senderConfiguration;
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        httpServer.shutdown();
+        clientEventLoopGroup.shutdownGracefully().sync();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.connectionpool;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpClientConnector;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.listener.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionPoolMetrics;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.http.HttpClient;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.SendChannelIDServerInitializer;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests that a request passed through from a server worker event loop uses a connection opened in the background
+ * on a client event loop.
+ */
+public class ConnectionPoolSourceLoopWarmUpTestCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolSourceLoopWarmUpTestCase.class);
+    private static final int MIN_IDLE = 1;
+
+    private HttpServer httpServer;
+    private EventLoopGroup clientEventLoopGroup;
+    private ConnectionManager connectionManager;
+    private HttpClientConnector httpClientConnector;
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private String route;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT, new SendChannelIDServerInitializer(0));
+        clientEventLoopGroup = new NioEventLoopGroup(2);
+
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.getPoolConfiguration().setMinIdlePerPool(MIN_IDLE);
+        connectionManager = new ConnectionManager(senderConfiguration, new BootstrapConfiguration(new HashMap<>()),
+                clientEventLoopGroup);
+        httpClientConnector = new DefaultHttpClientConnector(connectionManager, senderConfiguration);
+        route = TestUtil.TEST_HOST + "-" + TestUtil.HTTP_SERVER_PORT;
+
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setHttpConnectorListener(new ForwardingListener());
+        serverConnectorFuture.sync();
+    }
+
+    @Test(description = "A request from a server worker event loop borrows a connection opened in the background")
+    public void testPassthroughUsesWarmConnection() throws InterruptedException {
+        ConnectionPoolMetrics poolMetrics = connectionManager.getPoolMetrics();
+        httpClientConnector.warmUp("http", TestUtil.TEST_HOST, TestUtil.HTTP_SERVER_PORT);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (getIdleConnections(poolMetrics) < MIN_IDLE && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(getIdleConnections(poolMetrics), MIN_IDLE);
+
+        HttpClient httpClient = new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        FullHttpResponse httpResponse = httpClient.sendRequest(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+                HttpMethod.GET, "/", Unpooled.EMPTY_BUFFER));
+
+        assertEquals(httpResponse.status(), HttpResponseStatus.OK);
+        assertEquals(poolMetrics.getCreatedConnectionCount(), MIN_IDLE);
+    }
+
+    private int getIdleConnections(ConnectionPoolMetrics poolMetrics) {
+        Integer idle = poolMetrics.getIdleConnectionsPerRoute().get(route);
+        return idle != null ? idle : 0;
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        serverConnector.stop();
+        httpClientConnector.close();
+        httpServer.shutdown();
+        httpWsConnectorFactory.shutdown();
+        clientEventLoopGroup.shutdownGracefully().sync();
+    }
+
+    /**
+     * Passes the requests of the server connector through to the back-end on the server worker event loop.
+     */
+    private class ForwardingListener implements HttpConnectorListener {
+
+        @Override
+        public void onMessage(HTTPCarbonMessage httpRequestMessage) {
+            httpRequestMessage.setProperty(Constants.HTTP_HOST, TestUtil.TEST_HOST);
+            httpRequestMessage.setProperty(Constants.HTTP_PORT, TestUtil.HTTP_SERVER_PORT);
+            httpClientConnector.send(httpRequestMessage).setHttpConnectorListener(new HttpConnectorListener() {
+                @Override
+                public void onMessage(HTTPCarbonMessage httpResponse) {
+                    try {
+                        httpRequestMessage.respond(httpResponse);
+                    } catch (ServerConnectorException e) {
+                        log.error("Error occurred while responding", e);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    log.error("Error occurred while passing the request through", throwable);
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+    }
+}
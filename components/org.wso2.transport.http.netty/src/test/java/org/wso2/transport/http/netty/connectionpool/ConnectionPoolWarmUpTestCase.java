@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.connectionpool;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpClientConnector;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionPoolMetrics;
+import org.wso2.transport.http.netty.sender.channel.pool.PoolConfiguration;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.SendChannelIDServerInitializer;
+
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for opening the minimum idle connections of a route declared up front.
+ */
+public class ConnectionPoolWarmUpTestCase {
+
+    private static final int MIN_IDLE = 3;
+    private static final int WARM_UP_RATE = 4;
+
+    private HttpServer httpServer;
+    private EventLoopGroup clientEventLoopGroup;
+    private ConnectionManager connectionManager;
+    private HttpClientConnector httpClientConnector;
+    private String route;
+
+    @BeforeClass
+    public void setup() {
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT, new SendChannelIDServerInitializer(0));
+        clientEventLoopGroup = new NioEventLoopGroup(2);
+
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        PoolConfiguration poolConfiguration = senderConfiguration.getPoolConfiguration();
+        poolConfiguration.setMinIdlePerPool(MIN_IDLE);
+        poolConfiguration.setWarmUpRatePerPool(WARM_UP_RATE);
+        connectionManager = new ConnectionManager(senderConfiguration, new BootstrapConfiguration(new HashMap<>()),
+                clientEventLoopGroup);
+        httpClientConnector = new DefaultHttpClientConnector(connectionManager, senderConfiguration);
+        route = TestUtil.TEST_HOST + "-" + TestUtil.HTTP_SERVER_PORT;
+    }
+
+    @Test(description = "Connections of a declared route are opened in the background at the warm up rate")
+    public void testWarmUp() throws InterruptedException {
+        ConnectionPoolMetrics poolMetrics = connectionManager.getPoolMetrics();
+        long startTime = System.nanoTime();
+        httpClientConnector.warmUp("http", TestUtil.TEST_HOST, TestUtil.HTTP_SERVER_PORT);
+
+        long deadline = startTime + TimeUnit.SECONDS.toNanos(10);
+        while (getIdleConnections(poolMetrics) < MIN_IDLE && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertEquals(getIdleConnections(poolMetrics), MIN_IDLE);
+        assertEquals(poolMetrics.getCreatedConnectionCount(), MIN_IDLE);
+        // The last connection can not be opened before the third period of the warm up rate
+        assertTrue(elapsedMillis >= (MIN_IDLE - 1) * 1000 / WARM_UP_RATE, "Connections opened too fast");
+    }
+
+    @Test(description = "A request uses a connection opened in the background",
+          dependsOnMethods = "testWarmUp")
+    public void testRequestUsesWarmConnection() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener listener = TestUtil.sendRequestAsync(latch, httpClientConnector);
+        TestUtil.waitAndGetStringEntity(latch, listener);
+
+        assertEquals(connectionManager.getPoolMetrics().getCreatedConnectionCount(), MIN_IDLE);
+    }
+
+    @Test(description = "A route can not be declared with a scheme other than the scheme of the connector",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testSchemeMismatch() {
+        httpClientConnector.warmUp("https", TestUtil.TEST_HOST, TestUtil.HTTP_SERVER_PORT);
+    }
+
+    private int getIdleConnections(ConnectionPoolMetrics poolMetrics) {
+        Integer idle = poolMetrics.getIdleConnectionsPerRoute().get(route);
+        return idle != null ? idle : 0;
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        httpClientConnector.close();
+        httpServer.shutdown();
+        clientEventLoopGroup.shutdownGracefully().sync();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.dnsresolver;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.dns.DefaultDnsCache;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.config.DnsResolverConfig;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.sender.resolver.CachingDnsAddressResolverGroup;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.MockServerInitializer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the asynchronous DNS resolution of the hosts of client connections.
+ */
+public class DnsResolverTestCase {
+
+    private static final String TEST_VALUE = "Test Message";
+    private static final String OVERRIDDEN_HOST = "backend.wso2.test";
+    private static final String UNKNOWN_HOST = "unknown.wso2.invalid";
+
+    private HttpWsConnectorFactory connectorFactory;
+    private HttpClientConnector httpClientConnector;
+    private HttpServer httpServer;
+    private DnsResolverConfig dnsResolverConfig;
+
+    @BeforeClass
+    public void setup() {
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT,
+                new MockServerInitializer(TEST_VALUE, Constants.TEXT_PLAIN, 200));
+
+        dnsResolverConfig = new DnsResolverConfig(true);
+        dnsResolverConfig.setMinTtl(1);
+        dnsResolverConfig.setMaxTtl(60);
+        dnsResolverConfig.setNegativeTtl(10);
+        dnsResolverConfig.setQueryTimeout(2000);
+        // Both addresses are of the loopback interface, which the mock server listens on
+        dnsResolverConfig.addHostOverride(OVERRIDDEN_HOST, Arrays.asList("127.0.0.1", "127.0.0.2"));
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.setDnsResolverConfig(dnsResolverConfig);
+
+        connectorFactory = new DefaultHttpWsConnectorFactory();
+        httpClientConnector = connectorFactory.createHttpClientConnector(new HashMap<>(), senderConfiguration);
+    }
+
+    @Test
+    public void testRequestToOverriddenHost() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+        httpClientConnector.send(createRequest(OVERRIDDEN_HOST)).setHttpConnectorListener(listener);
+
+        assertEquals(TestUtil.waitAndGetStringEntity(latch, listener), TEST_VALUE);
+    }
+
+    @Test
+    public void testRequestToUnknownHost() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+        httpClientConnector.send(createRequest(UNKNOWN_HOST)).setHttpConnectorListener(listener);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "The request did not fail for an unknown host");
+        assertNotNull(listener.getHttpErrorMessage());
+    }
+
+    @Test
+    public void testRoundRobinOverAddresses() throws Exception {
+        EventLoopGroup eventLoopGroup = new NioEventLoopGroup(1);
+        CachingDnsAddressResolverGroup resolverGroup =
+                new CachingDnsAddressResolverGroup(NioDatagramChannel.class, dnsResolverConfig);
+        try {
+            AddressResolver<InetSocketAddress> resolver = resolverGroup.getResolver(eventLoopGroup.next());
+            Set<InetAddress> addresses = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                InetSocketAddress address =
+                        resolver.resolve(InetSocketAddress.createUnresolved(OVERRIDDEN_HOST, 80)).sync().getNow();
+                assertEquals(address.getHostString(), OVERRIDDEN_HOST);
+                addresses.add(address.getAddress());
+            }
+            assertEquals(addresses.size(), 2, "Connections were not spread over all the addresses of the host");
+        } finally {
+            resolverGroup.close();
+            eventLoopGroup.shutdownGracefully().sync();
+        }
+    }
+
+    @Test
+    public void testHostOverrideIgnoresCaseInAnyLocale() throws Exception {
+        Locale defaultLocale = Locale.getDefault();
+        // Lower casing a dotted capital I gives a dotless i in the Turkish locale
+        Locale.setDefault(new Locale("tr", "TR"));
+        EventLoopGroup eventLoopGroup = new NioEventLoopGroup(1);
+        DnsResolverConfig config = new DnsResolverConfig(true);
+        config.addHostOverride("API.WSO2.TEST", Arrays.asList("127.0.0.1"));
+        CachingDnsAddressResolverGroup resolverGroup =
+                new CachingDnsAddressResolverGroup(NioDatagramChannel.class, config);
+        try {
+            AddressResolver<InetSocketAddress> resolver = resolverGroup.getResolver(eventLoopGroup.next());
+            InetSocketAddress address =
+                    resolver.resolve(InetSocketAddress.createUnresolved("aPI.Wso2.Test", 80)).sync().getNow();
+            assertEquals(address.getAddress().getHostAddress(), "127.0.0.1");
+        } finally {
+            Locale.setDefault(defaultLocale);
+            resolverGroup.close();
+            eventLoopGroup.shutdownGracefully().sync();
+        }
+    }
+
+    @Test
+    public void testCacheTtlBounds() {
+        CachingDnsAddressResolverGroup resolverGroup =
+                new CachingDnsAddressResolverGroup(NioDatagramChannel.class, dnsResolverConfig);
+        DefaultDnsCache dnsCache = (DefaultDnsCache) resolverGroup.getDnsCache();
+        assertEquals(dnsCache.minTtl(), 1);
+        assertEquals(dnsCache.maxTtl(), 60);
+        assertEquals(dnsCache.negativeTtl(), 10);
+        resolverGroup.close();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidHostOverride() {
+        DnsResolverConfig invalidConfig = new DnsResolverConfig(true);
+        invalidConfig.addHostOverride(OVERRIDDEN_HOST, Arrays.asList("not-an-address"));
+        new CachingDnsAddressResolverGroup(NioDatagramChannel.class, invalidConfig);
+    }
+
+    private HTTPCarbonMessage createRequest(String host) {
+        HTTPCarbonMessage request = new HTTPCarbonMessage(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/"));
+        request.setProperty(Constants.HTTP_HOST, host);
+        request.setProperty(Constants.HTTP_PORT, TestUtil.HTTP_SERVER_PORT);
+        request.setProperty(Constants.PROTOCOL, Constants.HTTP_SCHEME);
+        request.setProperty(Constants.HTTP_METHOD, Constants.HTTP_GET_METHOD);
+        request.addHttpContent(new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER));
+        return request;
+    }
+
+    @AfterClass
+    public void cleanUp() throws Exception {
+        httpClientConnector.close();
+        httpServer.shutdown();
+        connectorFactory.shutdown();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.entitycollector;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.config.EntityCollectorConfig;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contentaware.listeners.EchoMessageListener;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonRequest;
+import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for the lock free entity collector.
+ */
+public class LockFreeEntityCollectorTestCase {
+
+    private static final int SERVER_PORT = 9099;
+
+    private HttpWsConnectorFactory factory;
+    private ServerConnector serverConnector;
+    private HttpClientConnector httpClientConnector;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        factory = new DefaultHttpWsConnectorFactory();
+
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(SERVER_PORT);
+        listenerConfiguration.setEntityCollectorConfig(EntityCollectorConfig.LOCK_FREE);
+        serverConnector = factory
+                .createServerConnector(TestUtil.getDefaultServerBootstrapConfig(), listenerConfiguration);
+        ServerConnectorFuture future = serverConnector.start();
+        future.setHttpConnectorListener(new EchoMessageListener());
+        future.sync();
+
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.setEntityCollectorConfig(EntityCollectorConfig.LOCK_FREE);
+        httpClientConnector = factory.createHttpClientConnector(new HashMap<>(), senderConfiguration);
+    }
+
+    @Test
+    public void testContentHandedOverAcrossThreads() throws InterruptedException {
+        HTTPCarbonMessage message = createMessage();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            expected.append("content-").append(i).append(';');
+        }
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                String content = "content-" + i + ";";
+                message.addHttpContent(
+                        new DefaultHttpContent(Unpooled.wrappedBuffer(content.getBytes(StandardCharsets.UTF_8))));
+                if (i % 10 == 0) {
+                    try {
+                        // Let the reader catch up and park
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            message.addHttpContent(new DefaultLastHttpContent());
+        });
+        producer.start();
+
+        String received = TestUtil.getStringFromInputStream(new HttpMessageDataStreamer(message).getInputStream());
+        producer.join();
+        assertEquals(received, expected.toString());
+        assertNull(message.getHttpContent());
+    }
+
+    @Test
+    public void testMessageLengthCountedWithoutConsumingContent() {
+        HTTPCarbonMessage message = createMessage();
+        for (int i = 0; i < 40; i++) {
+            message.addHttpContent(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[10])));
+        }
+        message.addHttpContent(new DefaultLastHttpContent());
+
+        assertEquals(message.countMessageLengthTill(55), 60);
+        assertEquals(message.getFullMessageLength(), 400);
+
+        long consumed = 0;
+        HttpContent httpContent;
+        do {
+            httpContent = message.getHttpContent();
+            assertNotNull(httpContent);
+            consumed += httpContent.content().readableBytes();
+            httpContent.release();
+        } while (!(httpContent instanceof LastHttpContent));
+        assertEquals(consumed, 400);
+        assertTrue(message.isEmpty());
+    }
+
+    @Test
+    public void testEchoOverLockFreeConnectors() throws InterruptedException {
+        HTTPCarbonMessage request = new HTTPCarbonMessage(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+        request.setProperty(Constants.HTTP_PORT, SERVER_PORT);
+        request.setProperty(Constants.PROTOCOL, Constants.HTTP_SCHEME);
+        request.setProperty(Constants.HTTP_HOST, TestUtil.TEST_HOST);
+        request.setProperty(Constants.HTTP_METHOD, Constants.HTTP_POST_METHOD);
+        request.addHttpContent(new DefaultLastHttpContent(
+                Unpooled.wrappedBuffer(TestUtil.largeEntity.getBytes(StandardCharsets.UTF_8))));
+
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+        httpClientConnector.send(request).setHttpConnectorListener(listener);
+        latch.await(5, TimeUnit.SECONDS);
+
+        HTTPCarbonMessage response = listener.getHttpResponseMessage();
+        assertNotNull(response);
+        assertEquals(TestUtil.getStringFromInputStream(new HttpMessageDataStreamer(response).getInputStream()),
+                     TestUtil.largeEntity);
+    }
+
+    private HTTPCarbonMessage createMessage() {
+        return new HttpCarbonRequest(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"),
+                                     null, EntityCollectorConfig.LOCK_FREE);
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        serverConnector.stop();
+        factory.shutdown();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.http2;
+
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http2.DefaultHttp2Connection;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Settings;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.HttpRoute;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.sender.http2.ClientInboundHandler;
+import org.wso2.transport.http.netty.sender.http2.Http2ClientChannel;
+import org.wso2.transport.http.netty.sender.http2.Http2ConnectionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Tests for scheduling streams across the HTTP/2 connections of a route.
+ */
+public class Http2ConnectionPoolTestCase {
+
+    private static final AtomicInteger ROUTE_PORT = new AtomicInteger(60000);
+
+    private final List<EmbeddedChannel> channels = new ArrayList<>();
+
+    @Test(description = "Streams are opened on the least loaded connection up to the maximum active streams")
+    public void testLeastLoadedConnection() {
+        Http2ConnectionManager http2ConnectionManager = createConnectionManager(4, 1);
+        HttpRoute httpRoute = createRoute();
+        Http2ClientChannel first = createClientChannel(http2ConnectionManager, httpRoute);
+        Http2ClientChannel second = createClientChannel(http2ConnectionManager, httpRoute);
+        http2ConnectionManager.addHttp2ClientChannel(httpRoute, first);
+        http2ConnectionManager.addHttp2ClientChannel(httpRoute, second);
+
+        int borrowedFromFirst = 0;
+        for (int i = 0; i < 4; i++) {
+            Http2ClientChannel borrowed = http2ConnectionManager.borrowChannel(httpRoute);
+            assertNotNull(borrowed);
+            if (borrowed == first) {
+                borrowedFromFirst++;
+            }
+        }
+        assertEquals(borrowedFromFirst, 2, "Streams are not spread across the connections");
+        assertNotNull(http2ConnectionManager.borrowChannel(httpRoute));
+        assertNotNull(http2ConnectionManager.borrowChannel(httpRoute));
+        assertNull(http2ConnectionManager.borrowChannel(httpRoute), "All the streams should be in use");
+    }
+
+    @Test(description = "The connection with free streams is found when every other connection is full")
+    public void testFallBackToConnectionWithFreeStreams() {
+        Http2ConnectionManager http2ConnectionManager = createConnectionManager(2, 1);
+        HttpRoute httpRoute = createRoute();
+        // Every connection starts with the stream of its creator, hence only the connection added last has a free
+        // stream. A null channel would make the client connector open a new connection.
+        for (int i = 0; i < 16; i++) {
+            Http2ClientChannel free = createClientChannel(http2ConnectionManager, httpRoute);
+            http2ConnectionManager.addHttp2ClientChannel(httpRoute, free);
+            assertSame(http2ConnectionManager.borrowChannel(httpRoute), free);
+        }
+        assertNull(http2ConnectionManager.borrowChannel(httpRoute), "All the streams should be in use");
+    }
+
+    @Test(description = "The maximum concurrent streams advertised by the peer is respected")
+    public void testPeerMaxConcurrentStreams() throws Http2Exception {
+        Http2ConnectionManager http2ConnectionManager = createConnectionManager(Integer.MAX_VALUE, 1);
+        HttpRoute httpRoute = createRoute();
+        Http2ClientChannel http2ClientChannel = createClientChannel(http2ConnectionManager, httpRoute);
+        http2ConnectionManager.addHttp2ClientChannel(httpRoute, http2ClientChannel);
+
+        ClientInboundHandler clientInboundHandler = new ClientInboundHandler();
+        clientInboundHandler.setHttp2ClientChannel(http2ClientChannel);
+        EmbeddedChannel peer = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        channels.add(peer);
+        clientInboundHandler.onSettingsRead(peer.pipeline().firstContext(),
+                new Http2Settings().maxConcurrentStreams(2));
+
+        assertSame(http2ConnectionManager.borrowChannel(httpRoute), http2ClientChannel);
+        assertNull(http2ConnectionManager.borrowChannel(httpRoute), "The peer allows only two streams");
+    }
+
+    @Test(description = "A new connection is requested once the utilisation threshold is crossed")
+    public void testOpenConnectionInAdvance() {
+        Http2ConnectionManager http2ConnectionManager = createConnectionManager(4, 0.5);
+        List<HttpRoute> requestedRoutes = new ArrayList<>();
+        http2ConnectionManager.setConnectionOpener(requestedRoutes::add);
+        HttpRoute httpRoute = createRoute();
+        Http2ClientChannel first = createClientChannel(http2ConnectionManager, httpRoute);
+        http2ConnectionManager.addHttp2ClientChannel(httpRoute, first);
+
+        assertSame(http2ConnectionManager.borrowChannel(httpRoute), first);
+        assertSame(http2ConnectionManager.borrowChannel(httpRoute), first);
+        assertEquals(requestedRoutes.size(), 1, "Only one connection should be opened at a time");
+        assertEquals(requestedRoutes.get(0), httpRoute);
+
+        Http2ClientChannel second = createClientChannel(http2ConnectionManager, httpRoute);
+        http2ConnectionManager.completeConnectionOpening(httpRoute, second);
+        assertSame(http2ConnectionManager.borrowChannel(httpRoute), second);
+    }
+
+    private Http2ConnectionManager createConnectionManager(int maxActiveStreams, double utilisationThreshold) {
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.getPoolConfiguration().setHttp2MaxActiveStreamsPerConnection(maxActiveStreams);
+        senderConfiguration.getPoolConfiguration().setHttp2ConnectionUtilisationThreshold(utilisationThreshold);
+        return new Http2ConnectionManager(senderConfiguration);
+    }
+
+    private HttpRoute createRoute() {
+        // Connection pools are shared by all the connection managers, hence a route per test
+        return new HttpRoute("localhost", ROUTE_PORT.incrementAndGet());
+    }
+
+    private Http2ClientChannel createClientChannel(Http2ConnectionManager http2ConnectionManager,
+                                                   HttpRoute httpRoute) {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channels.add(channel);
+        return new Http2ClientChannel(http2ConnectionManager, new DefaultHttp2Connection(false), httpRoute,
+                channel);
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        channels.forEach(EmbeddedChannel::finishAndReleaseAll);
+        channels.clear();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.http2;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.config.TransportsConfiguration;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.message.HTTPConnectorUtil;
+import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.http2.MessageGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test case for returning the HTTP/2 flow control window of a request only as the server reads the request content.
+ */
+public class Http2ConsumerFlowControlTestCase {
+
+    private static Logger log = LoggerFactory.getLogger(Http2ConsumerFlowControlTestCase.class);
+
+    private static final int STREAM_WINDOW_SIZE = 16384;
+    private static final int PAYLOAD_SIZE = STREAM_WINDOW_SIZE * 8;
+
+    private HttpClientConnector httpClientConnector;
+    private ServerConnector serverConnector;
+    private SenderConfiguration senderConfiguration;
+    private HttpWsConnectorFactory connectorFactory;
+    private BlockingQueue<HTTPCarbonMessage> receivedRequests = new LinkedBlockingQueue<>();
+    private ObjectName metricsName;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        connectorFactory = new DefaultHttpWsConnectorFactory();
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.HTTP_SERVER_PORT);
+        listenerConfiguration.setScheme(Constants.HTTP_SCHEME);
+        listenerConfiguration.setVersion(String.valueOf(Constants.HTTP_2_0));
+        listenerConfiguration.setHttp2ConsumerFlowControlEnabled(true);
+        listenerConfiguration.setHttp2MaxBufferedBytesPerStream(STREAM_WINDOW_SIZE);
+        listenerConfiguration.setHttp2MaxBufferedBytesPerConnection(STREAM_WINDOW_SIZE * 4);
+        serverConnector = connectorFactory
+                .createServerConnector(TestUtil.getDefaultServerBootstrapConfig(), listenerConfiguration);
+        ServerConnectorFuture future = serverConnector.start();
+        future.setHttpConnectorListener(new HttpConnectorListener() {
+            @Override
+            public void onMessage(HTTPCarbonMessage httpMessage) {
+                // Hold the request without reading its content
+                receivedRequests.add(httpMessage);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+        });
+        future.sync();
+        metricsName = new ObjectName("ballerina:Type=Http2FlowControl,Name="
+                                             + ObjectName.quote(serverConnector.getConnectorID()));
+
+        TransportsConfiguration transportsConfiguration = new TransportsConfiguration();
+        senderConfiguration =
+                HTTPConnectorUtil.getSenderConfiguration(transportsConfiguration, Constants.HTTP_SCHEME);
+        senderConfiguration.setHttpVersion(String.valueOf(Constants.HTTP_2_0));
+        senderConfiguration.setForceHttp2(true);
+        httpClientConnector = connectorFactory.createHttpClientConnector(
+                HTTPConnectorUtil.getTransportProperties(transportsConfiguration), senderConfiguration);
+    }
+
+    @Test
+    public void testSmallRequest() throws Exception {
+        // Also lets the client apply the server settings before sending a payload larger than the stream window
+        String response = sendAndRespond("Test Http2 Message");
+        assertEquals(response, "Test Http2 Message", "Expected response not received");
+        assertEquals(getMetric("StalledStreamCount"), 0, "Stream is reported as stalled");
+        assertEquals(getMetric("BufferedBytes"), 0, "Read content is still reported as buffered");
+    }
+
+    @Test(dependsOnMethods = "testSmallRequest")
+    public void testWindowReturnedAsContentIsRead() throws Exception {
+        String payload = createPayload();
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener responseListener = new HTTPConnectorListener(latch);
+        HttpResponseFuture responseFuture = httpClientConnector.send(
+                MessageGenerator.generateRequest(HttpMethod.POST, payload));
+        responseFuture.setHttpConnectorListener(responseListener);
+
+        HTTPCarbonMessage request = receivedRequests.poll(TestUtil.HTTP2_RESPONSE_TIME_OUT, TimeUnit.SECONDS);
+        assertNotNull(request, "Request not received");
+
+        // The client cannot send more than a stream window while the content is not read
+        waitForMetric("StalledStreamCount", 1);
+        assertEquals(getMetric("StalledStreamCount"), 1, "Stream is not reported as stalled");
+        Thread.sleep(200);
+        assertEquals(getMetric("BufferedBytes"), STREAM_WINDOW_SIZE, "Unexpected amount of buffered content");
+        assertTrue(getMetric("StreamStallCount") >= 1, "Stream stall is not counted");
+
+        String received = TestUtil.getStringFromInputStream(new HttpMessageDataStreamer(request).getInputStream());
+        assertEquals(received, payload, "Request content not received");
+        assertEquals(getMetric("StalledStreamCount"), 0, "Stream is still reported as stalled");
+        assertEquals(getMetric("BufferedBytes"), 0, "Read content is still reported as buffered");
+
+        request.respond(MessageGenerator.generateResponse("done"));
+        latch.await(TestUtil.HTTP2_RESPONSE_TIME_OUT, TimeUnit.SECONDS);
+        HTTPCarbonMessage response = responseListener.getHttpResponseMessage();
+        assertNotNull(response, "Expected response not received");
+        String result = TestUtil.getStringFromInputStream(new HttpMessageDataStreamer(response).getInputStream());
+        assertEquals(result, "done", "Expected response not received");
+    }
+
+    @Test(dependsOnMethods = "testWindowReturnedAsContentIsRead")
+    public void testUnreadContentReleasedOnReset() throws Exception {
+        TransportsConfiguration transportsConfiguration = new TransportsConfiguration();
+        SenderConfiguration resettingSenderConfiguration =
+                HTTPConnectorUtil.getSenderConfiguration(transportsConfiguration, Constants.HTTP_SCHEME);
+        resettingSenderConfiguration.setHttpVersion(String.valueOf(Constants.HTTP_2_0));
+        resettingSenderConfiguration.setForceHttp2(true);
+        // The client resets the stream once it times out on the stalled request
+        resettingSenderConfiguration.setSocketIdleTimeout(1000);
+        HttpClientConnector resettingClientConnector = connectorFactory.createHttpClientConnector(
+                HTTPConnectorUtil.getTransportProperties(transportsConfiguration), resettingSenderConfiguration);
+        try {
+            resettingClientConnector.send(MessageGenerator.generateRequest(HttpMethod.POST, createPayload()))
+                    .setHttpConnectorListener(new HTTPConnectorListener(new CountDownLatch(1)));
+            assertNotNull(receivedRequests.poll(TestUtil.HTTP2_RESPONSE_TIME_OUT, TimeUnit.SECONDS),
+                          "Request not received");
+            waitForMetric("StalledStreamCount", 1);
+            assertEquals(getMetric("StalledStreamCount"), 1, "Stream is not reported as stalled");
+
+            waitForMetric("BufferedBytes", 0);
+            assertEquals(getMetric("BufferedBytes"), 0, "Content of the reset stream is still reported as buffered");
+            assertEquals(getMetric("StalledStreamCount"), 0, "Reset stream is still reported as stalled");
+        } finally {
+            resettingClientConnector.close();
+        }
+    }
+
+    @Test(dependsOnMethods = "testUnreadContentReleasedOnReset")
+    public void testMetricsUnregisteredOnStop() {
+        serverConnector.stop();
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(metricsName),
+                    "Flow control metrics are still registered");
+    }
+
+    private String createPayload() {
+        StringBuilder payload = new StringBuilder(PAYLOAD_SIZE);
+        for (int i = 0; i < PAYLOAD_SIZE; i++) {
+            payload.append((char) ('a' + i % 26));
+        }
+        return payload.toString();
+    }
+
+    private void waitForMetric(String attribute, long value) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (getMetric(attribute) != value && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private String sendAndRespond(String payload) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener responseListener = new HTTPConnectorListener(latch);
+        httpClientConnector.send(MessageGenerator.generateRequest(HttpMethod.POST, payload))
+                .setHttpConnectorListener(responseListener);
+        HTTPCarbonMessage request = receivedRequests.poll(TestUtil.HTTP2_RESPONSE_TIME_OUT, TimeUnit.SECONDS);
+        assertNotNull(request, "Request not received");
+        String received = TestUtil.getStringFromInputStream(new HttpMessageDataStreamer(request).getInputStream());
+        request.respond(MessageGenerator.generateResponse(received));
+        latch.await(TestUtil.HTTP2_RESPONSE_TIME_OUT, TimeUnit.SECONDS);
+        HTTPCarbonMessage response = responseListener.getHttpResponseMessage();
+        assertNotNull(response, "Expected response not received");
+        return TestUtil.getStringFromInputStream(new HttpMessageDataStreamer(response).getInputStream());
+    }
+
+    private long getMetric(String attribute) throws Exception {
+        return ((Number) ManagementFactory.getPlatformMBeanServer().getAttribute(metricsName, attribute)).longValue();
+    }
+
+    @AfterClass
+    public void cleanUp() {
+        senderConfiguration.setHttpVersion(String.valueOf(Constants.HTTP_1_1));
+        senderConfiguration.setForceHttp2(false);
+        httpClientConnector.close();
+        serverConnector.stop();
+        try {
+            connectorFactory.shutdown();
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for HttpWsFactory to close");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.https;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.config.KeepAliveConfig;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpClientConnector;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.sender.ClientTlsMetrics;
+import org.wso2.transport.http.netty.sender.channel.BootstrapConfiguration;
+import org.wso2.transport.http.netty.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpsServer;
+import org.wso2.transport.http.netty.util.server.initializers.MockServerInitializer;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests that the connections of client connectors share the SSL context, so that a new connection to a route
+ * resumes the TLS session of the previous one.
+ */
+public class ClientTlsSessionResumptionTestCase {
+
+    private static final String TEST_VALUE = "Test Message";
+
+    private HttpsServer httpsServer;
+    private EventLoopGroup clientEventLoopGroup;
+    private SenderConfiguration senderConfiguration;
+    private ConnectionManager connectionManager;
+    private HttpClientConnector httpClientConnector;
+    private String route;
+
+    @BeforeClass
+    public void setup() {
+        httpsServer = TestUtil.startHttpsServer(TestUtil.HTTPS_SERVER_PORT,
+                new MockServerInitializer(TEST_VALUE, "text/plain", 200));
+
+        senderConfiguration = createSenderConfiguration();
+        clientEventLoopGroup = new NioEventLoopGroup(1);
+        connectionManager = new ConnectionManager(senderConfiguration, new BootstrapConfiguration(new HashMap<>()),
+                clientEventLoopGroup);
+        httpClientConnector = new DefaultHttpClientConnector(connectionManager, senderConfiguration);
+        route = TestUtil.TEST_HOST + "-" + TestUtil.HTTPS_SERVER_PORT;
+    }
+
+    @Test
+    public void testSessionResumption() throws InterruptedException {
+        assertEquals(sendRequest(), TEST_VALUE);
+        assertEquals(sendRequest(), TEST_VALUE);
+
+        assertSame(connectionManager.getSSLContextHolder(senderConfiguration),
+                   connectionManager.getSSLContextHolder(senderConfiguration));
+        ClientTlsMetrics tlsMetrics = connectionManager.getTlsMetrics();
+        assertEquals(tlsMetrics.getHandshakesPerRoute().get(route), Long.valueOf(2));
+        assertEquals(tlsMetrics.getResumedHandshakeCount(), 1);
+        assertEquals(tlsMetrics.getFailedHandshakeCount(), 0);
+        assertEquals(tlsMetrics.getResumptionRatioPerRoute().get(route), 0.5);
+        assertTrue(tlsMetrics.getAverageHandshakeLatencyPerRoute().get(route) > 0);
+    }
+
+    @Test
+    public void testConnectorsShareSSLContexts() throws MalformedObjectNameException {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName tlsMetricsNames = new ObjectName("ballerina:Type=ClientTls,*");
+        int registeredMetrics = mBeanServer.queryNames(tlsMetricsNames, null).size();
+
+        SenderConfiguration otherConfiguration = createSenderConfiguration();
+        ConnectionManager otherConnectionManager = new ConnectionManager(
+                otherConfiguration, new BootstrapConfiguration(new HashMap<>()), clientEventLoopGroup);
+        // The metrics of a connector with the same sender id do not replace those of the other connector
+        assertEquals(mBeanServer.queryNames(tlsMetricsNames, null).size(), registeredMetrics + 1);
+        assertSame(otherConnectionManager.getSSLContextHolder(otherConfiguration),
+                   connectionManager.getSSLContextHolder(senderConfiguration));
+
+        otherConnectionManager.shutdown();
+        assertEquals(mBeanServer.queryNames(tlsMetricsNames, null).size(), registeredMetrics);
+    }
+
+    private SenderConfiguration createSenderConfiguration() {
+        SenderConfiguration configuration = new SenderConfiguration();
+        configuration.setScheme(Constants.HTTPS_SCHEME);
+        configuration.setTrustStoreFile(TestUtil.getAbsolutePath(TestUtil.KEY_STORE_FILE_PATH));
+        configuration.setTrustStorePass(TestUtil.KEY_STORE_PASSWORD);
+        // Every request is sent through a new connection
+        configuration.setKeepAliveConfig(KeepAliveConfig.NEVER);
+        configuration.setJmxMetricsEnabled(true);
+        return configuration;
+    }
+
+    private String sendRequest() throws InterruptedException {
+        HTTPCarbonMessage request = TestUtil.createHttpsPostReq(TestUtil.HTTPS_SERVER_PORT, "", "");
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+        httpClientConnector.send(request).setHttpConnectorListener(listener);
+        return TestUtil.waitAndGetStringEntity(latch, listener);
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        httpClientConnector.close();
+        httpsServer.shutdown();
+        clientEventLoopGroup.shutdownGracefully().sync();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.https;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.config.TransportsConfiguration;
+import org.wso2.transport.http.netty.contentaware.listeners.EchoMessageListener;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.message.HTTPConnectorUtil;
+import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import static org.testng.AssertJUnit.assertNotNull;
+
+/**
+ * Tests for reloading the SSL context of a running server connector.
+ */
+public class SSLContextReloadTestCase {
+
+    private static Logger logger = LoggerFactory.getLogger(SSLContextReloadTestCase.class);
+
+    private HttpClientConnector httpClientConnector;
+    private HttpWsConnectorFactory factory;
+    private ServerConnector httpsServerConnector;
+    private ServerConnector httpServerConnector;
+    private static int serverPort = 9096;
+    private static int httpServerPort = 9097;
+    private static final String ROTATED_KEY_STORE_FILE_PATH = "/simple-test-config/wso2carbon.p12";
+    private static final String ROTATED_KEY_STORE_PASSWORD = "ballerina";
+    private static final String ROTATED_KEY_ALIAS = "ballerina";
+
+    // The key store of the listener, which is replaced with the one of the rotated certificate before reloading
+    private Path keyStoreFile;
+    private Certificate originalCertificate;
+    private Certificate rotatedCertificate;
+
+    @BeforeClass
+    public void setup() throws InterruptedException, IOException, GeneralSecurityException {
+        TransportsConfiguration transportsConfiguration = TestUtil
+                .getConfiguration("/simple-test-config" + File.separator + "netty-transports.yml");
+        Set<SenderConfiguration> senderConfig = transportsConfiguration.getSenderConfigurations();
+        senderConfig.forEach(config -> {
+            if (config.getId().contains(Constants.HTTPS_SCHEME)) {
+                config.setTrustStoreFile(TestUtil.getAbsolutePath(config.getTrustStoreFile()));
+            }
+        });
+
+        factory = new DefaultHttpWsConnectorFactory();
+
+        ListenerConfiguration listenerConfiguration = ListenerConfiguration.getDefault();
+        listenerConfiguration.setPort(serverPort);
+        keyStoreFile = Files.createTempFile("reloadable-keystore", ".jks");
+        Files.copy(Paths.get(TestUtil.getAbsolutePath(TestUtil.KEY_STORE_FILE_PATH)), keyStoreFile,
+                   StandardCopyOption.REPLACE_EXISTING);
+        originalCertificate = loadKeyStore(keyStoreFile.toString(), TestUtil.KEY_STORE_PASSWORD)
+                .getCertificate("wso2carbon");
+        rotatedCertificate = loadKeyStore(TestUtil.getAbsolutePath(ROTATED_KEY_STORE_FILE_PATH),
+                                          ROTATED_KEY_STORE_PASSWORD).getCertificate(ROTATED_KEY_ALIAS);
+        listenerConfiguration.setKeyStoreFile(keyStoreFile.toString());
+        listenerConfiguration.setKeyStorePass(TestUtil.KEY_STORE_PASSWORD);
+        listenerConfiguration.setCertPass(TestUtil.KEY_STORE_PASSWORD);
+        listenerConfiguration.setScheme(Constants.HTTPS_SCHEME);
+
+        httpsServerConnector = factory
+                .createServerConnector(TestUtil.getDefaultServerBootstrapConfig(), listenerConfiguration);
+        ServerConnectorFuture future = httpsServerConnector.start();
+        future.setHttpConnectorListener(new EchoMessageListener());
+        future.sync();
+
+        ListenerConfiguration httpListenerConfiguration = ListenerConfiguration.getDefault();
+        httpListenerConfiguration.setPort(httpServerPort);
+        httpServerConnector = factory
+                .createServerConnector(TestUtil.getDefaultServerBootstrapConfig(), httpListenerConfiguration);
+        httpServerConnector.start().sync();
+
+        httpClientConnector = factory
+                .createHttpClientConnector(HTTPConnectorUtil.getTransportProperties(transportsConfiguration),
+                        HTTPConnectorUtil.getSenderConfiguration(transportsConfiguration, Constants.HTTPS_SCHEME));
+    }
+
+    @Test
+    public void testRequestsBeforeAndAfterReload() throws ServerConnectorException {
+        assertEquals(sendRequest("Before reload"), "Before reload");
+        httpsServerConnector.reloadSslContext();
+        assertEquals(sendRequest("After reload"), "After reload");
+    }
+
+    @Test(dependsOnMethods = "testRequestsBeforeAndAfterReload")
+    public void testReloadRotatedCertificate() throws Exception {
+        SSLContext clientSslContext = createClientSslContext();
+        try (SSLSocket existingConnection = openConnection(clientSslContext)) {
+            assertEquals(existingConnection.getSession().getPeerCertificates()[0], originalCertificate);
+
+            rotateKeyStore();
+            httpsServerConnector.reloadSslContext();
+
+            try (SSLSocket newConnection = openConnection(clientSslContext)) {
+                assertEquals(newConnection.getSession().getPeerCertificates()[0], rotatedCertificate,
+                             "New connection is not served with the rotated certificate");
+            }
+            // The established connection keeps its session and is still served
+            assertEquals(existingConnection.getSession().getPeerCertificates()[0], originalCertificate);
+            assertTrue(sendRequest(existingConnection, "After rotation").startsWith("HTTP/1.1 200"),
+                       "Existing connection is not served after the reload");
+        }
+    }
+
+    @Test(dependsOnMethods = "testReloadRotatedCertificate")
+    public void testReloadUnreadableKeyStore() throws Exception {
+        Files.write(keyStoreFile, "not a key store".getBytes(StandardCharsets.US_ASCII));
+        try {
+            httpsServerConnector.reloadSslContext();
+            fail("Reloading an unreadable key store should fail");
+        } catch (ServerConnectorException e) {
+            logger.debug("Reloading failed as expected", e);
+        }
+        // The connector keeps serving the contexts loaded last
+        try (SSLSocket connection = openConnection(createClientSslContext())) {
+            assertEquals(connection.getSession().getPeerCertificates()[0], rotatedCertificate);
+        }
+    }
+
+    @Test(expectedExceptions = ServerConnectorException.class)
+    public void testReloadWithoutSsl() throws ServerConnectorException {
+        httpServerConnector.reloadSslContext();
+    }
+
+    private String sendRequest(String testValue) {
+        try {
+            HTTPCarbonMessage msg = TestUtil.createHttpsPostReq(serverPort, testValue, "");
+            // Close the connection so that the next request goes through a fresh handshake.
+            msg.setHeader("Connection", "close");
+
+            CountDownLatch latch = new CountDownLatch(1);
+            HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+            HttpResponseFuture responseFuture = httpClientConnector.send(msg);
+            responseFuture.setHttpConnectorListener(listener);
+
+            latch.await(5, TimeUnit.SECONDS);
+
+            HTTPCarbonMessage response = listener.getHttpResponseMessage();
+            assertNotNull(response);
+            return new BufferedReader(
+                    new InputStreamReader(new HttpMessageDataStreamer(response).getInputStream())).lines()
+                    .collect(Collectors.joining("\n"));
+        } catch (Exception e) {
+            TestUtil.handleException("Exception occurred while running testRequestsBeforeAndAfterReload", e);
+        }
+        return null;
+    }
+
+    private KeyStore loadKeyStore(String path, String password) throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(path.endsWith(".p12") ? "PKCS12" : "JKS");
+        try (InputStream inputStream = Files.newInputStream(Paths.get(path))) {
+            keyStore.load(inputStream, password.toCharArray());
+        }
+        return keyStore;
+    }
+
+    /**
+     * Replaces the key store of the listener with one holding the rotated certificate, protected with the password
+     * the listener is configured with.
+     */
+    private void rotateKeyStore() throws IOException, GeneralSecurityException {
+        KeyStore rotated = loadKeyStore(TestUtil.getAbsolutePath(ROTATED_KEY_STORE_FILE_PATH),
+                                        ROTATED_KEY_STORE_PASSWORD);
+        Key key = rotated.getKey(ROTATED_KEY_ALIAS, ROTATED_KEY_STORE_PASSWORD.toCharArray());
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("wso2carbon", key, TestUtil.KEY_STORE_PASSWORD.toCharArray(),
+                             rotated.getCertificateChain(ROTATED_KEY_ALIAS));
+        try (OutputStream outputStream = Files.newOutputStream(keyStoreFile)) {
+            keyStore.store(outputStream, TestUtil.KEY_STORE_PASSWORD.toCharArray());
+        }
+    }
+
+    private SSLContext createClientSslContext() throws IOException, GeneralSecurityException {
+        KeyStore trustStore = KeyStore.getInstance("JKS");
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry("original", originalCertificate);
+        trustStore.setCertificateEntry("rotated", rotatedCertificate);
+        TrustManagerFactory trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    private SSLSocket openConnection(SSLContext sslContext) throws IOException {
+        SSLSocket socket = (SSLSocket) sslContext.getSocketFactory().createSocket(TestUtil.TEST_HOST, serverPort);
+        socket.setSoTimeout(5000);
+        socket.startHandshake();
+        return socket;
+    }
+
+    private String sendRequest(SSLSocket socket, String testValue) throws IOException {
+        String request = "POST / HTTP/1.1\r\nHost: " + TestUtil.TEST_HOST + "\r\nContent-Length: "
+                + testValue.length() + "\r\n\r\n" + testValue;
+        socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))
+                .readLine();
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, IOException {
+        try {
+            factory.shutdown();
+        } catch (Exception e) {
+            logger.warn("Interrupted while shutting down the connector factory", e);
+        }
+        Files.deleteIfExists(keyStoreFile);
+    }
+}
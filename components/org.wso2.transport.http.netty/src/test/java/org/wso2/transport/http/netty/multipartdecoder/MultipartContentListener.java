@@ -23,9 +23,11 @@ import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.HttpConnectorListener;
 import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
 import org.wso2.transport.http.netty.message.HttpBodyPart;
+import org.wso2.transport.http.netty.message.HttpBodyPartListener;
 import org.wso2.transport.http.netty.message.MultipartRequestDecoder;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -41,9 +43,16 @@ public class MultipartContentListener implements HttpConnectorListener {
     private CountDownLatch latch;
     private boolean isMultipartRequest;
     private List<HttpBodyPart> multiparts;
+    private boolean streaming;
+    private long diskThreshold = MultipartRequestDecoder.DEFAULT_DISK_THRESHOLD;
+    private volatile Thread decodingThread;
 
     @Override
     public void onMessage(HTTPCarbonMessage httpMessage) {
+        if (streaming) {
+            parseBodyAsync(httpMessage);
+            return;
+        }
         executor.execute(() -> {
             latch = new CountDownLatch(1);
             MultipartRequestDecoder requestDecoder = new MultipartRequestDecoder(httpMessage);
@@ -60,6 +69,52 @@ public class MultipartContentListener implements HttpConnectorListener {
         });
     }
 
+    /**
+     * Decode the parts as the content arrives, without blocking the thread which notified the message.
+     *
+     * @param httpMessage the multipart request
+     */
+    private void parseBodyAsync(HTTPCarbonMessage httpMessage) {
+        latch = new CountDownLatch(1);
+        MultipartRequestDecoder requestDecoder = new MultipartRequestDecoder(httpMessage, diskThreshold);
+        isMultipartRequest = requestDecoder.isMultipartRequest();
+        if (!isMultipartRequest) {
+            latch.countDown();
+            return;
+        }
+        List<HttpBodyPart> decodedParts = new ArrayList<>();
+        requestDecoder.parseBody(new HttpBodyPartListener() {
+            @Override
+            public void onBodyPart(HttpBodyPart bodyPart) {
+                decodedParts.add(bodyPart);
+            }
+
+            @Override
+            public void onComplete() {
+                decodingThread = Thread.currentThread();
+                multiparts = decodedParts;
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                LOG.error("An error occurred while parsing multipart request in MultipartContentListener", throwable);
+                latch.countDown();
+            }
+        });
+    }
+
+    /**
+     * Set whether the parts are decoded as the content arrives, into temporary files above the given threshold.
+     *
+     * @param streaming     true to decode the parts as the content arrives
+     * @param diskThreshold size in bytes above which a part is decoded into a temporary file
+     */
+    public void setStreaming(boolean streaming, long diskThreshold) {
+        this.streaming = streaming;
+        this.diskThreshold = diskThreshold;
+    }
+
     @Override
     public void onError(Throwable throwable) {
         LOG.error("An error occurred while listening to multipart contents in MultipartContentListener",
@@ -94,6 +149,15 @@ public class MultipartContentListener implements HttpConnectorListener {
         return multiparts;
     }
 
+    /**
+     * Get the thread which completed decoding the parts as the content arrived.
+     *
+     * @return the decoding thread
+     */
+    public Thread getDecodingThread() {
+        return decodingThread;
+    }
+
     /**
      * Reset body part list and variable that checks the multipart availability.
      */
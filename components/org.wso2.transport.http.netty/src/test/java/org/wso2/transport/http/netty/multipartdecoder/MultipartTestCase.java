@@ -46,12 +46,14 @@ import org.wso2.transport.http.netty.contract.ServerConnectorException;
 import org.wso2.transport.http.netty.contractimpl.HttpWsServerConnectorFuture;
 import org.wso2.transport.http.netty.listener.SourceHandler;
 import org.wso2.transport.http.netty.message.HttpBodyPart;
+import org.wso2.transport.http.netty.message.MultipartRequestDecoder;
 import org.wso2.transport.http.netty.multipartdecoder.MultipartContentListener;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -60,6 +62,8 @@ import java.util.List;
 public class MultipartTestCase {
 
     private final HttpDataFactory dataFactory = new DefaultHttpDataFactory(DefaultHttpDataFactory.MINSIZE);
+    private static final int STREAMING_DISK_THRESHOLD = 1024;
+
     private final String jsonContent = "{key:value, key2:value2}";
     private EmbeddedChannel channel;
     private HttpWsServerConnectorFuture httpWsServerConnectorFuture = new HttpWsServerConnectorFuture();
@@ -113,6 +117,44 @@ public class MultipartTestCase {
         listener.clearBodyParts();
     }
 
+    @Test(description = "Test whether a multipart request is decoded as it arrives, with large parts kept on disk")
+    public void testStreamingMultipartRequest() throws Exception {
+        HttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/");
+        HttpPostRequestEncoder encoder = new HttpPostRequestEncoder(dataFactory, request, true);
+        request.headers().add(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.MULTIPART_FORM_DATA);
+        encoder.addBodyHttpData(createJSONAttribute(request));
+        String largeContent = String.join("", Collections.nCopies(STREAMING_DISK_THRESHOLD / 4, "data"));
+        encoder.addBodyHttpData(createFileUpload(request, largeContent + largeContent));
+        request = encoder.finalizeRequest();
+        listener.setStreaming(true, STREAMING_DISK_THRESHOLD);
+        try {
+            sendMultipartRequest(request, encoder);
+        } finally {
+            listener.setStreaming(false, MultipartRequestDecoder.DEFAULT_DISK_THRESHOLD);
+        }
+
+        Assert.assertEquals(listener.isMultipart(), true);
+        List<HttpBodyPart> httpBodyParts = listener.getMultiparts();
+        Assert.assertNotNull(httpBodyParts, "Received http body parts are null");
+        Assert.assertEquals(httpBodyParts.size(), 2);
+        Assert.assertNotSame(listener.getDecodingThread(), Thread.currentThread(),
+                             "Parts should be decoded off the thread which adds the content");
+
+        HttpBodyPart jsonPart = httpBodyParts.get(0);
+        Assert.assertTrue(jsonPart.isInMemory(), "Small part should be held in memory");
+        Assert.assertEquals(new String(jsonPart.getContent()), jsonContent);
+
+        HttpBodyPart filePart = httpBodyParts.get(1);
+        Assert.assertFalse(filePart.isInMemory(), "Large part should be held in a temporary file");
+        Assert.assertTrue(filePart.getFile().exists());
+        Assert.assertEquals(filePart.getSize(), largeContent.length() * 2);
+        Assert.assertEquals(filePart.getPartName(), "file", "Incorrect part name.");
+        Assert.assertEquals(new String(filePart.getContent()), largeContent + largeContent);
+        Assert.assertTrue(filePart.deleteFile());
+        Assert.assertFalse(filePart.getFile().exists());
+        listener.clearBodyParts();
+    }
+
     /**
      * Write multipart request to inbound channel.
      *
@@ -157,10 +199,22 @@ public class MultipartTestCase {
      * @throws IOException
      */
     private InterfaceHttpData createFileUpload(HttpRequest request) throws IOException {
+        return createFileUpload(request, "Example file to be posted");
+    }
+
+    /**
+     * Include a file with the given content as a body part.
+     *
+     * @param request Represent a HttpRequest
+     * @param content content of the file
+     * @return InterfaceHttpData which includes the data object that needs to be decoded
+     * @throws IOException
+     */
+    private InterfaceHttpData createFileUpload(HttpRequest request, String content) throws IOException {
         File file = File.createTempFile("upload", ".txt");
         file.deleteOnExit();
         BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(file));
-        bufferedWriter.write("Example file to be posted");
+        bufferedWriter.write(content);
         bufferedWriter.close();
         FileUpload fileUpload = dataFactory
                 .createFileUpload(request, "file", file.getName(), "plain/text", "7bit", null, file.length());
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.nativetransport;
+
+import io.netty.channel.epoll.Epoll;
+import io.netty.handler.codec.http.HttpMethod;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.common.transport.Transports;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.listener.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.passthrough.PassthroughMessageProcessorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.MockServerInitializer;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the connectors on the native epoll transport, with a listener bound by several acceptors using
+ * SO_REUSEPORT. The connectors fall back to NIO where epoll is not available, in which case the same requests are
+ * expected to pass on NIO.
+ */
+public class NativeTransportTestCase {
+
+    private static final String TEST_VALUE = "Test Message";
+    private static final int ACCEPTOR_COUNT = 4;
+    private static final int CONCURRENT_REQUESTS = 32;
+
+    private DefaultHttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private HttpServer httpServer;
+    private URI baseURI = URI.create(String.format("http://%s:%d", "localhost", TestUtil.SERVER_CONNECTOR_PORT));
+
+    @BeforeClass
+    public void setUp() throws InterruptedException {
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory(2, 4, 4, Transports.EPOLL);
+
+        Map<String, Object> serverProperties = new HashMap<>();
+        serverProperties.put(Constants.SERVER_BOOTSTRAP_SO_REUSEPORT, true);
+        serverProperties.put(Constants.SERVER_BOOTSTRAP_ACCEPTOR_COUNT, ACCEPTOR_COUNT);
+        serverProperties.put(Constants.SERVER_BOOTSTRAP_TCP_FASTOPEN, 256);
+        serverProperties.put(Constants.SERVER_BOOTSTRAP_TCP_QUICKACK, true);
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        serverConnector = httpWsConnectorFactory
+                .createServerConnector(new ServerBootstrapConfiguration(serverProperties), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+
+        Map<String, Object> clientProperties = new HashMap<>();
+        clientProperties.put(Constants.CLIENT_BOOTSTRAP_TCP_FASTOPEN, true);
+        clientProperties.put(Constants.CLIENT_BOOTSTRAP_TCP_QUICKACK, true);
+        serverConnectorFuture.setHttpConnectorListener(new PassthroughMessageProcessorListener(
+                new SenderConfiguration(), httpWsConnectorFactory, clientProperties));
+        serverConnectorFuture.sync();
+
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT,
+                new MockServerInitializer(TEST_VALUE, Constants.TEXT_PLAIN, 200));
+    }
+
+    @Test
+    public void testTransportSelection() {
+        if (Epoll.isAvailable()) {
+            assertEquals(httpWsConnectorFactory.getTransport().getName(), Transports.EPOLL);
+        } else {
+            assertEquals(httpWsConnectorFactory.getTransport().getName(), Transports.NIO);
+        }
+        assertEquals(Transports.getTransport("io_uring").getName(), Transports.NIO,
+                     "Unknown transports should fall back to NIO");
+    }
+
+    @Test
+    public void testConcurrentRequestsOverAcceptors() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                Callable<String> request = () -> {
+                    // A new connection per request, so that the connections are accepted by all the acceptors
+                    HttpURLConnection urlConn = TestUtil.request(baseURI, "/", HttpMethod.GET.name(), false);
+                    String content = TestUtil.getContent(urlConn);
+                    urlConn.disconnect();
+                    return content;
+                };
+                responses.add(executor.submit(request));
+            }
+            for (Future<String> response : responses) {
+                assertEquals(response.get(), TEST_VALUE);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(dependsOnMethods = {"testTransportSelection", "testConcurrentRequestsOverAcceptors"})
+    public void testStopClosesAllAcceptors() throws IOException {
+        serverConnector.stop();
+        // Connections are refused only if none of the acceptors is left listening on the port
+        for (int i = 0; i < ACCEPTOR_COUNT * 2; i++) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT), 1000);
+                fail("Connection accepted after the server connector is stopped");
+            } catch (ConnectException e) {
+                // Expected, as the port is closed
+            }
+        }
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        serverConnector.stop();
+        httpServer.shutdown();
+        httpWsConnectorFactory.shutdown();
+    }
+}
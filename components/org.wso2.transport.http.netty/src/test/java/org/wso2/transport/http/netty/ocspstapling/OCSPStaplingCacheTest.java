@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.ocspstapling;
+
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.certificatevalidation.Utils;
+import org.wso2.transport.http.netty.common.certificatevalidation.ocsp.OCSPStaplingCache;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.OCSPResponderInitializer;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.function.BooleanSupplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the OCSP stapling cache against a stand-in OCSP responder.
+ */
+public class OCSPStaplingCacheTest {
+
+    private static final int RESPONDER_PORT = 9190;
+    private static final long NEXT_UPDATE_PERIOD = 4000;
+
+    private HttpServer responder;
+    private OCSPResponderInitializer responderInitializer;
+    private OCSPStaplingCache staplingCache;
+    private OCSPStaplingCache nonBlockingStaplingCache;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        Utils utils = new Utils();
+        KeyPair caKeyPair = utils.generateRSAKeyPair();
+        X509Certificate caCert = utils.generateFakeRootCert(caKeyPair);
+        X509Certificate serverCert = utils.generateFakeCertificate(caCert, utils.generateRSAKeyPair().getPublic(),
+                BigInteger.valueOf(9098), caKeyPair);
+
+        responderInitializer = new OCSPResponderInitializer(new X509CertificateHolder(caCert.getEncoded()),
+                caKeyPair.getPrivate(), NEXT_UPDATE_PERIOD);
+        responder = TestUtil.startHTTPServer(RESPONDER_PORT, responderInitializer);
+        staplingCache = new OCSPStaplingCache(serverCert, caCert,
+                Collections.singletonList("http://" + TestUtil.TEST_HOST + ":" + RESPONDER_PORT), 15);
+        X509Certificate otherServerCert = utils.generateFakeCertificate(caCert,
+                utils.generateRSAKeyPair().getPublic(), BigInteger.valueOf(9099), caKeyPair);
+        nonBlockingStaplingCache = new OCSPStaplingCache(otherServerCert, caCert,
+                Collections.singletonList("http://" + TestUtil.TEST_HOST + ":" + RESPONDER_PORT), 15);
+    }
+
+    @Test(description = "A handshake on a miss goes on without a response which is then fetched in the background",
+          dependsOnMethods = "testResponseIsCached")
+    public void testCachedResponseIsFetchedInBackground() throws Exception {
+        assertNull(nonBlockingStaplingCache.getCachedResponse());
+        waitFor(() -> nonBlockingStaplingCache.isResponseAvailable(), NEXT_UPDATE_PERIOD);
+
+        assertNotNull(nonBlockingStaplingCache.getCachedResponse());
+        assertEquals(nonBlockingStaplingCache.getMissCount(), 1);
+        assertEquals(nonBlockingStaplingCache.getHitCount(), 1);
+    }
+
+    @Test(description = "The responder is contacted only once for many handshakes")
+    public void testResponseIsCached() throws Exception {
+        OCSPResp first = staplingCache.getOcspResponse();
+        assertNotNull(first);
+        for (int i = 0; i < 10; i++) {
+            assertSame(staplingCache.getOcspResponse(), first);
+        }
+        assertEquals(staplingCache.getMissCount(), 1);
+        assertEquals(staplingCache.getHitCount(), 10);
+        assertEquals(responderInitializer.getRequestCount(), 1);
+    }
+
+    @Test(description = "The response is refreshed in the background before it expires",
+          dependsOnMethods = "testResponseIsCached")
+    public void testBackgroundRefresh() throws Exception {
+        OCSPResp initial = staplingCache.getOcspResponse();
+        // A refresh may already have happened before the initial response was read, so wait for the next one.
+        long refreshCount = staplingCache.getRefreshCount();
+        waitFor(() -> staplingCache.getRefreshCount() > refreshCount, NEXT_UPDATE_PERIOD);
+
+        OCSPResp refreshed = staplingCache.getOcspResponse();
+        assertTrue(initial != refreshed, "A refreshed response should be served");
+        assertEquals(staplingCache.getMissCount(), 1);
+        assertTrue(responderInitializer.getRequestCount() >= 2);
+    }
+
+    @Test(description = "A valid response is served while the responder is failing",
+          dependsOnMethods = "testBackgroundRefresh")
+    public void testStaleResponseServedOnRefreshFailure() throws Exception {
+        OCSPResp current = staplingCache.getOcspResponse();
+        responderInitializer.setFailing(true);
+        waitFor(() -> staplingCache.getRefreshFailureCount() > 0, NEXT_UPDATE_PERIOD);
+
+        assertTrue(staplingCache.isResponseAvailable());
+        assertSame(staplingCache.getOcspResponse(), current);
+        assertEquals(staplingCache.getMissCount(), 1);
+    }
+
+    private void waitFor(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean(), "Condition was not met within " + timeoutMillis + " ms");
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        staplingCache.stop();
+        nonBlockingStaplingCache.stop();
+        responder.shutdown();
+    }
+}
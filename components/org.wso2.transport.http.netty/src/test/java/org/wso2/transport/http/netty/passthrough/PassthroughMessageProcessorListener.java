@@ -40,6 +40,7 @@ import org.wso2.transport.http.netty.message.HttpCarbonResponse;
 import org.wso2.transport.http.netty.util.TestUtil;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -51,12 +52,16 @@ public class PassthroughMessageProcessorListener implements HttpConnectorListene
     private static final Logger logger = LoggerFactory.getLogger(PassthroughMessageProcessorListener.class);
     private ExecutorService executor = Executors.newSingleThreadExecutor();
     private HttpClientConnector clientConnector;
-    private HttpWsConnectorFactory httpWsConnectorFactory;
-    private SenderConfiguration senderConfiguration;
 
     public PassthroughMessageProcessorListener(SenderConfiguration senderConfiguration) {
-        this.httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
-        this.senderConfiguration = senderConfiguration;
+        this(senderConfiguration, new DefaultHttpWsConnectorFactory(), new HashMap<>());
+    }
+
+    public PassthroughMessageProcessorListener(SenderConfiguration senderConfiguration,
+                                               HttpWsConnectorFactory httpWsConnectorFactory,
+                                               Map<String, Object> transportProperties) {
+        this.clientConnector = httpWsConnectorFactory.createHttpClientConnector(transportProperties,
+                                                                                senderConfiguration);
     }
 
     @Override
@@ -67,8 +72,6 @@ public class PassthroughMessageProcessorListener implements HttpConnectorListene
             httpRequestMessage
                     .setProperty(Constants.SRC_HANDLER, httpRequestMessage.getProperty(Constants.SRC_HANDLER));
             try {
-                clientConnector =
-                        httpWsConnectorFactory.createHttpClientConnector(new HashMap<>(), senderConfiguration);
                 HttpResponseFuture future = clientConnector.send(httpRequestMessage);
                 future.setHttpConnectorListener(new HttpConnectorListener() {
                     @Override
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.pipeline;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.listener.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.http.HttpClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests that pipelined requests are answered in request order, even when a later request is processed faster
+ * than an earlier one.
+ */
+public class PipeliningResponseOrderTestCase {
+
+    private static Logger log = LoggerFactory.getLogger(PipeliningResponseOrderTestCase.class);
+
+    private static final String SLOW_PATH = "/slow";
+    private static final String FAST_PATH = "/fast";
+    private static final String CONTINUE_PATH = "/continue";
+    private static final String FAST_CONTINUE_PATH = "/fast-continue";
+
+    private ServerConnector serverConnector;
+    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @BeforeClass
+    public void setup() {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.setPipeliningLimit(2);
+        httpConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpConnectorFactory.createServerConnector(new ServerBootstrapConfiguration(new HashMap<>()),
+                listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setHttpConnectorListener(new PathEchoListener());
+        try {
+            serverConnectorFuture.sync();
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for server connector to start");
+        }
+    }
+
+    @Test(description = "A slow first response must not be overtaken by a fast second response")
+    public void testResponsesFollowRequestOrder() {
+        HttpClient httpClient = new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        List<FullHttpRequest> requests = new LinkedList<>();
+        requests.add(createRequest(SLOW_PATH));
+        requests.add(createRequest(FAST_PATH));
+        LinkedList<FullHttpResponse> responses = httpClient.sendInPipeline(requests);
+
+        assertEquals(responses.size(), 2);
+        assertEquals(TestUtil.getEntityBodyFrom(responses.pop()), SLOW_PATH);
+        assertEquals(TestUtil.getEntityBodyFrom(responses.pop()), FAST_PATH);
+    }
+
+    @Test(description = "Requests beyond the pipelining limit are held back and still answered in order")
+    public void testRequestsBeyondPipeliningLimit() {
+        HttpClient httpClient = new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        List<FullHttpRequest> requests = new LinkedList<>();
+        requests.add(createRequest(SLOW_PATH));
+        for (int i = 0; i < 4; i++) {
+            requests.add(createRequest(FAST_PATH + i));
+        }
+        LinkedList<FullHttpResponse> responses = httpClient.sendInPipeline(requests);
+
+        assertEquals(responses.size(), 5);
+        assertEquals(TestUtil.getEntityBodyFrom(responses.pop()), SLOW_PATH);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(TestUtil.getEntityBodyFrom(responses.pop()), FAST_PATH + i);
+        }
+    }
+
+    @Test(description = "An interim response does not let the response of the next request overtake the final one")
+    public void testInterimResponseIsNotFinal() {
+        HttpClient httpClient = new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        List<FullHttpRequest> requests = new LinkedList<>();
+        requests.add(createRequest(CONTINUE_PATH));
+        requests.add(createRequest(FAST_PATH));
+        LinkedList<FullHttpResponse> responses = httpClient.sendInPipeline(requests);
+
+        assertEquals(responses.pop().status(), HttpResponseStatus.CONTINUE);
+        assertEquals(TestUtil.getEntityBodyFrom(responses.pop()), CONTINUE_PATH);
+    }
+
+    @Test(description = "The interim and final responses of a held back request keep their own status and content")
+    public void testInterimResponseOfHeldBackRequest() {
+        HttpClient httpClient = new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        List<FullHttpRequest> requests = new LinkedList<>();
+        requests.add(createRequest(SLOW_PATH));
+        requests.add(createRequest(FAST_CONTINUE_PATH));
+        requests.add(createRequest(FAST_PATH));
+        LinkedList<FullHttpResponse> responses = httpClient.sendInPipeline(requests);
+
+        assertEquals(TestUtil.getEntityBodyFrom(responses.pop()), SLOW_PATH);
+        FullHttpResponse interimResponse = responses.pop();
+        assertEquals(interimResponse.status(), HttpResponseStatus.CONTINUE);
+        assertEquals(interimResponse.content().readableBytes(), 0);
+        FullHttpResponse finalResponse = responses.pop();
+        assertEquals(finalResponse.status(), HttpResponseStatus.OK);
+        assertEquals(TestUtil.getEntityBodyFrom(finalResponse), FAST_CONTINUE_PATH);
+    }
+
+    private FullHttpRequest createRequest(String path) {
+        FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, path);
+        httpRequest.headers().set(HttpHeaderNames.CONTENT_LENGTH, 0);
+        return httpRequest;
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException {
+        serverConnector.stop();
+        executor.shutdownNow();
+        try {
+            httpConnectorFactory.shutdown();
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for HttpWsFactory to close");
+        }
+    }
+
+    /**
+     * Responds with the request path, delaying the response of {@link #SLOW_PATH} and preceding the delayed response
+     * of {@link #CONTINUE_PATH} and the immediate response of {@link #FAST_CONTINUE_PATH} with a 100 Continue
+     * response.
+     */
+    private class PathEchoListener implements HttpConnectorListener {
+
+        @Override
+        public void onMessage(HTTPCarbonMessage httpRequest) {
+            String path = (String) httpRequest.getProperty(Constants.TO);
+            long delay = SLOW_PATH.equals(path) || CONTINUE_PATH.equals(path) ? 500 : 0;
+            if (CONTINUE_PATH.equals(path) || FAST_CONTINUE_PATH.equals(path)) {
+                respond(httpRequest, HttpResponseStatus.CONTINUE, "");
+            }
+            executor.schedule(() -> respond(httpRequest, HttpResponseStatus.OK, path), delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void respond(HTTPCarbonMessage httpRequest, HttpResponseStatus status, String body) {
+            try {
+                HTTPCarbonMessage httpResponse = new HttpCarbonResponse(
+                        new DefaultHttpResponse(HttpVersion.HTTP_1_1, status));
+                httpResponse.setHeader(HttpHeaderNames.CONTENT_TYPE.toString(), Constants.TEXT_PLAIN);
+                httpResponse.setProperty(Constants.HTTP_STATUS_CODE, status.code());
+                httpResponse.addHttpContent(new DefaultLastHttpContent(
+                        Unpooled.wrappedBuffer(body.getBytes(StandardCharsets.UTF_8))));
+                httpRequest.respond(httpResponse);
+            } catch (ServerConnectorException e) {
+                log.error("Error occurred while responding to " + httpRequest.getProperty(Constants.TO), e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+    }
+}
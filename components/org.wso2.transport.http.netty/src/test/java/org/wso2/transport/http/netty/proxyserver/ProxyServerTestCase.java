@@ -51,10 +51,15 @@ import org.wso2.transport.http.netty.util.TestUtil;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -69,6 +74,10 @@ import static org.testng.AssertJUnit.assertNotNull;
  */
 public class ProxyServerTestCase {
     private static Logger log = LoggerFactory.getLogger(PipelineProxyTestCase.class);
+    // Key material the proxy writes to the working directory when it sets up TLS
+    private static final String[] PROXY_KEY_FILES = {
+            "MockServerCertificate.pem", "MockServerPrivateKey.pem", "MockServerPublicKey.pem"
+    };
 
     private static HttpClientConnector httpClientConnector;
     private static ServerConnector serverConnector;
@@ -164,6 +173,24 @@ public class ProxyServerTestCase {
             log.warn("Interrupted while waiting for HttpWsFactory to close");
         }
         proxy.stop();
+        moveProxyKeyFilesToTarget();
+    }
+
+    /**
+     * Move the key material of the proxy under target, so that it is cleaned with the rest of the build output
+     * instead of being left in the module directory.
+     */
+    private void moveProxyKeyFilesToTarget() {
+        for (String keyFile : PROXY_KEY_FILES) {
+            Path source = Paths.get(keyFile);
+            if (Files.exists(source)) {
+                try {
+                    Files.move(source, Paths.get("target", keyFile), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    log.warn("Unable to move {} under target", keyFile, e);
+                }
+            }
+        }
     }
 }
 
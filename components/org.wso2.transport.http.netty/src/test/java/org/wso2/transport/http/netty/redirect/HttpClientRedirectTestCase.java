@@ -36,6 +36,7 @@ import org.wso2.transport.http.netty.common.Constants;
 import org.wso2.transport.http.netty.common.Util;
 import org.wso2.transport.http.netty.config.SenderConfiguration;
 import org.wso2.transport.http.netty.config.TransportsConfiguration;
+import org.wso2.transport.http.netty.contract.ClientConnectorException;
 import org.wso2.transport.http.netty.contract.HttpClientConnector;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
@@ -72,6 +73,7 @@ import java.util.stream.Collectors;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.wso2.transport.http.netty.common.Constants.HTTPS_SCHEME;
 import static org.wso2.transport.http.netty.common.Constants.HTTP_SCHEME;
@@ -541,6 +543,78 @@ public class HttpClientRedirectTestCase {
         }
     }
 
+    /**
+     * A redirect to a scheme the client connector is not configured for should be followed through a new connection.
+     */
+    @Test
+    public void integrationTestForCrossSchemeRedirect() {
+        try {
+            HttpServer httpServer = TestUtil.startHTTPServer(DESTINATION_PORT3,
+                    new RedirectServerInitializer(testValue, Constants.TEXT_PLAIN, 200, null, 0));
+            HttpsServer redirectServer = TestUtil.startHttpsServer(DESTINATION_PORT1,
+                    new RedirectServerInitializer(redirectServerTestValue, Constants.TEXT_PLAIN,
+                            HttpResponseStatus.TEMPORARY_REDIRECT.code(), FINAL_DESTINATION, 0));
+
+            CountDownLatch latch = new CountDownLatch(1);
+            HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+            httpsClientConnector.send(createHttpCarbonRequest(null, DESTINATION_PORT1, HTTPS_SCHEME))
+                    .setHttpConnectorListener(listener);
+
+            latch.await(60, TimeUnit.SECONDS);
+
+            HTTPCarbonMessage response = listener.getHttpResponseMessage();
+            assertNotNull(response);
+            String result = new BufferedReader(
+                    new InputStreamReader(new HttpMessageDataStreamer(response).getInputStream())).lines()
+                    .collect(Collectors.joining("\n"));
+            assertEquals(result, testValue);
+            redirectServer.shutdown();
+            httpServer.shutdown();
+        } catch (Exception e) {
+            TestUtil.handleException("Exception occurred while running integrationTestForCrossSchemeRedirect", e);
+        }
+    }
+
+    /**
+     * A redirect to a scheme the client connector is not configured for should fail the request when the connector
+     * rejects such redirects.
+     */
+    @Test
+    public void integrationTestForRejectedCrossSchemeRedirect() {
+        try {
+            SenderConfiguration senderConfiguration = HTTPConnectorUtil
+                    .getSenderConfiguration(transportsConfiguration, HTTP_SCHEME);
+            senderConfiguration.setFollowRedirect(true);
+            senderConfiguration.setMaxRedirectCount(5);
+            senderConfiguration.setRejectCrossSchemeRedirects(true);
+
+            HttpClientConnector httpClientConnector = connectorFactory
+                    .createHttpClientConnector(HTTPConnectorUtil.getTransportProperties(transportsConfiguration),
+                            senderConfiguration);
+            senderConfiguration.setRejectCrossSchemeRedirects(false);
+
+            HttpServer redirectServer = TestUtil.startHTTPServer(DESTINATION_PORT1,
+                    new RedirectServerInitializer(redirectServerTestValue, Constants.TEXT_PLAIN,
+                            HttpResponseStatus.TEMPORARY_REDIRECT.code(), FINAL_HTTPS_DESTINATION, 0));
+
+            CountDownLatch latch = new CountDownLatch(1);
+            HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+            httpClientConnector.send(createHttpCarbonRequest(null, DESTINATION_PORT1, HTTP_SCHEME))
+                    .setHttpConnectorListener(listener);
+
+            latch.await(60, TimeUnit.SECONDS);
+
+            assertNull(listener.getHttpResponseMessage());
+            Throwable error = listener.getHttpErrorMessage();
+            assertTrue(error instanceof ClientConnectorException);
+            assertEquals(error.getMessage(), Constants.REDIRECT_SCHEME_NOT_SUPPORTED + FINAL_HTTPS_DESTINATION);
+            redirectServer.shutdown();
+        } catch (Exception e) {
+            TestUtil.handleException("Exception occurred while running integrationTestForRejectedCrossSchemeRedirect",
+                                     e);
+        }
+    }
+
     /**
      * Integration test to test the ultimate request URI of the server, from which the response came from.
      */
@@ -577,6 +651,64 @@ public class HttpClientRedirectTestCase {
         }
     }
 
+    /**
+     * Once a permanent redirect is followed, later requests to the same url should go straight to the new location.
+     */
+    @Test
+    public void integrationTestForPermanentRedirectCache() {
+        try {
+            SenderConfiguration senderConfiguration = HTTPConnectorUtil
+                    .getSenderConfiguration(transportsConfiguration, HTTP_SCHEME);
+            senderConfiguration.setFollowRedirect(true);
+            senderConfiguration.setMaxRedirectCount(5);
+            senderConfiguration.setPermanentRedirectCacheSize(10);
+
+            HttpClientConnector httpClientConnector = connectorFactory
+                    .createHttpClientConnector(HTTPConnectorUtil.getTransportProperties(transportsConfiguration),
+                            senderConfiguration);
+            senderConfiguration.setPermanentRedirectCacheSize(0);
+
+            HttpServer httpServer = TestUtil.startHTTPServer(DESTINATION_PORT3,
+                    new RedirectServerInitializer(testValue, Constants.TEXT_PLAIN, 200, null, 0));
+            HttpServer redirectServer = TestUtil.startHTTPServer(DESTINATION_PORT1,
+                    new RedirectServerInitializer(redirectServerTestValue, Constants.TEXT_PLAIN,
+                            HttpResponseStatus.MOVED_PERMANENTLY.code(), FINAL_DESTINATION, 0));
+
+            CountDownLatch latch = new CountDownLatch(1);
+            HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+            httpClientConnector.send(createHttpCarbonRequest(null, DESTINATION_PORT1, HTTP_SCHEME))
+                    .setHttpConnectorListener(listener);
+            latch.await(60, TimeUnit.SECONDS);
+
+            HTTPCarbonMessage response = listener.getHttpResponseMessage();
+            assertNotNull(response);
+            String result = new BufferedReader(
+                    new InputStreamReader(new HttpMessageDataStreamer(response).getInputStream())).lines()
+                    .collect(Collectors.joining("\n"));
+            assertEquals(testValue, result);
+
+            //The redirecting server is gone, so the second request only succeeds if the cached location is used
+            redirectServer.shutdown();
+
+            latch = new CountDownLatch(1);
+            listener = new HTTPConnectorListener(latch);
+            httpClientConnector.send(createHttpCarbonRequest(null, DESTINATION_PORT1, HTTP_SCHEME))
+                    .setHttpConnectorListener(listener);
+            latch.await(60, TimeUnit.SECONDS);
+
+            response = listener.getHttpResponseMessage();
+            assertNotNull(response);
+            result = new BufferedReader(
+                    new InputStreamReader(new HttpMessageDataStreamer(response).getInputStream())).lines()
+                    .collect(Collectors.joining("\n"));
+            assertEquals(testValue, result);
+            assertEquals(response.getProperty(Constants.RESOLVED_REQUESTED_URI), FINAL_DESTINATION);
+            httpServer.shutdown();
+        } catch (Exception e) {
+            TestUtil.handleException("Exception occurred while running integrationTestForPermanentRedirectCache", e);
+        }
+    }
+
     /**
      * Integration test for redirection loop.
      */
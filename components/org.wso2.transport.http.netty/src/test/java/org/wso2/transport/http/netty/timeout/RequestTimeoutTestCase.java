@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.timeout;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.concurrent.EventExecutor;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.Constants;
+import org.wso2.transport.http.netty.common.timeout.TimeoutService;
+import org.wso2.transport.http.netty.common.timeout.TimeoutWheel;
+import org.wso2.transport.http.netty.common.timeout.WheelTimeout;
+import org.wso2.transport.http.netty.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.exception.EndpointTimeOutException;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.util.HTTPConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.DumbServerInitializer;
+
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the request timeouts tracked on the timer wheels of the client event loops.
+ */
+public class RequestTimeoutTestCase {
+
+    private static final int SOCKET_IDLE_TIMEOUT = 30000;
+
+    private HttpServer httpServer;
+    private HttpWsConnectorFactory connectorFactory;
+
+    @BeforeClass
+    public void setup() {
+        // The server never responds
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT, new DumbServerInitializer());
+        connectorFactory = new DefaultHttpWsConnectorFactory();
+    }
+
+    @Test
+    public void testFirstByteTimeout() throws InterruptedException {
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.setSocketIdleTimeout(SOCKET_IDLE_TIMEOUT);
+        senderConfiguration.setFirstByteTimeout(1000);
+        assertTimesOut(connectorFactory.createHttpClientConnector(new HashMap<>(), senderConfiguration));
+    }
+
+    @Test
+    public void testTotalRequestTimeout() throws InterruptedException {
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.setSocketIdleTimeout(SOCKET_IDLE_TIMEOUT);
+        senderConfiguration.setRequestTimeout(1000);
+        assertTimesOut(connectorFactory.createHttpClientConnector(new HashMap<>(), senderConfiguration));
+    }
+
+    @Test
+    public void testTimeoutWheel() throws InterruptedException {
+        EventLoopGroup eventLoopGroup = new NioEventLoopGroup(1);
+        try {
+            TimeoutWheel wheel = new TimeoutWheel(eventLoopGroup.next(), 10, TimeUnit.MILLISECONDS);
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicBoolean cancelledTaskRan = new AtomicBoolean();
+            long start = System.nanoTime();
+            WheelTimeout timeout = wheel.newTimeout(latch::countDown, 200, TimeUnit.MILLISECONDS);
+            WheelTimeout cancelledTimeout = wheel.newTimeout(() -> cancelledTaskRan.set(true), 100,
+                                                             TimeUnit.MILLISECONDS);
+            cancelledTimeout.cancel();
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS), "The timeout did not expire");
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200),
+                       "The timeout expired before its deadline");
+            assertTrue(timeout.isExpired());
+            assertTrue(cancelledTimeout.isCancelled());
+            assertFalse(cancelledTaskRan.get(), "A cancelled timeout expired");
+            int pendingTimeouts = eventLoopGroup.next().submit(wheel::pendingTimeouts).get();
+            assertEquals(pendingTimeouts, 0);
+        } catch (Exception e) {
+            TestUtil.handleException("Exception occurred while running testTimeoutWheel", e);
+        } finally {
+            eventLoopGroup.shutdownGracefully().sync();
+        }
+    }
+
+    @Test
+    public void testWheelSharedPerEventLoop() throws InterruptedException {
+        EventLoopGroup eventLoopGroup = new NioEventLoopGroup(1);
+        try {
+            EventExecutor eventLoop = eventLoopGroup.next();
+            TimeoutWheel wheel = new TimeoutService(10).getWheel(eventLoop);
+            assertSame(new TimeoutService(10).getWheel(eventLoop), wheel,
+                       "Connectors with the same granularity do not share the wheel of an event loop");
+            assertNotSame(new TimeoutService(20).getWheel(eventLoop), wheel);
+        } finally {
+            eventLoopGroup.shutdownGracefully().sync();
+        }
+    }
+
+    private void assertTimesOut(HttpClientConnector httpClientConnector) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        HTTPConnectorListener listener = new HTTPConnectorListener(latch);
+        long start = System.nanoTime();
+        httpClientConnector.send(createRequest()).setHttpConnectorListener(listener);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "The request did not time out");
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SOCKET_IDLE_TIMEOUT),
+                   "The request timed out on the socket idle timeout");
+        Throwable error = listener.getHttpErrorMessage();
+        assertTrue(error instanceof EndpointTimeOutException,
+                   "Exception is not an instance of EndpointTimeOutException");
+        assertEquals(error.getMessage(), Constants.IDLE_TIMEOUT_TRIGGERED_BEFORE_READING_INBOUND_RESPONSE);
+        httpClientConnector.close();
+    }
+
+    private HTTPCarbonMessage createRequest() {
+        HTTPCarbonMessage request = new HTTPCarbonMessage(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/"));
+        request.setProperty(Constants.HTTP_HOST, TestUtil.TEST_HOST);
+        request.setProperty(Constants.HTTP_PORT, TestUtil.HTTP_SERVER_PORT);
+        request.setProperty(Constants.PROTOCOL, Constants.HTTP_SCHEME);
+        request.setProperty(Constants.HTTP_METHOD, Constants.HTTP_GET_METHOD);
+        request.addHttpContent(new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER));
+        return request;
+    }
+
+    @AfterClass
+    public void cleanUp() throws Exception {
+        httpServer.shutdown();
+        connectorFactory.shutdown();
+    }
+}
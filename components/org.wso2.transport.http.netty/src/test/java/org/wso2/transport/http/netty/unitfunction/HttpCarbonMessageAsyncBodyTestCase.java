@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * A unit test class for the non-blocking length and aggregation functions of message/HTTPCarbonMessage.
+ */
+public class HttpCarbonMessageAsyncBodyTestCase {
+
+    @Test(description = "Test the length futures are completed as the content arrives")
+    public void testMessageLengthAsync() throws ExecutionException, InterruptedException {
+        HTTPCarbonMessage message = createMessage();
+        CompletableFuture<Long> thresholdFuture = message.countMessageLengthTillAsync(15);
+        CompletableFuture<Long> fullLengthFuture = message.getFullMessageLengthAsync();
+
+        message.addHttpContent(createContent("0123456789"));
+        assertFalse(thresholdFuture.isDone());
+        message.addHttpContent(createContent("0123456789"));
+        assertEquals(thresholdFuture.getNow(-1L).longValue(), 20);
+        assertFalse(fullLengthFuture.isDone());
+
+        message.addHttpContent(new DefaultLastHttpContent(
+                Unpooled.wrappedBuffer("01234".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(fullLengthFuture.getNow(-1L).longValue(), 25);
+        assertEquals(message.getFullMessageLengthAsync().get().longValue(), 25);
+
+        // The content is still available to be read
+        assertEquals(message.getFullMessageLength(), 25);
+    }
+
+    @Test(description = "Test the payload is aggregated without copying the content")
+    public void testMessageBodyAsync() throws ExecutionException, InterruptedException {
+        HTTPCarbonMessage message = createMessage();
+        CompletableFuture<CompositeByteBuf> bodyFuture = message.getFullMessageBodyAsync();
+        for (int i = 0; i < 20; i++) {
+            message.addHttpContent(createContent("content-" + i + ";"));
+        }
+        assertFalse(bodyFuture.isDone());
+        message.addHttpContent(new DefaultLastHttpContent());
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            expected.append("content-").append(i).append(';');
+        }
+        CompositeByteBuf messageBody = bodyFuture.get();
+        assertEquals(messageBody.numComponents(), 20);
+        assertEquals(messageBody.toString(StandardCharsets.UTF_8), expected.toString());
+        messageBody.release();
+    }
+
+    @Test(description = "Test the futures are completed exceptionally when the message is incomplete")
+    public void testIncompleteMessageAsync() {
+        HTTPCarbonMessage message = createMessage();
+        CompletableFuture<Long> fullLengthFuture = message.getFullMessageLengthAsync();
+        CompletableFuture<CompositeByteBuf> bodyFuture = message.getFullMessageBodyAsync();
+        message.addHttpContent(createContent("0123456789"));
+
+        LastHttpContent lastHttpContent = new DefaultLastHttpContent();
+        lastHttpContent.setDecoderResult(DecoderResult.failure(new DecoderException("Connection closed")));
+        message.addHttpContent(lastHttpContent);
+
+        assertTrue(fullLengthFuture.isCompletedExceptionally());
+        assertTrue(bodyFuture.isCompletedExceptionally());
+    }
+
+    @Test(description = "Test the aggregation fails without waiting when the content is read by a listener")
+    public void testMessageBodyAsyncWithoutQueuedContent() {
+        HTTPCarbonMessage message = createMessage();
+        message.getHttpContentAsync().setMessageListener(HttpContent::release);
+        CompletableFuture<CompositeByteBuf> bodyFuture = message.getFullMessageBodyAsync();
+
+        long startTime = System.nanoTime();
+        message.addHttpContent(createContent("0123456789"));
+        message.addHttpContent(new DefaultLastHttpContent());
+
+        assertTrue(bodyFuture.isCompletedExceptionally());
+        // The collector is never waited on, which would take the socket timeout
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime) < 1);
+    }
+
+    private HTTPCarbonMessage createMessage() {
+        return new HTTPCarbonMessage(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+    }
+
+    private DefaultHttpContent createContent(String content) {
+        return new DefaultHttpContent(Unpooled.wrappedBuffer(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
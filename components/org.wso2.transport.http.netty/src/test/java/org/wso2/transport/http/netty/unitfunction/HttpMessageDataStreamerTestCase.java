@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.message.HTTPCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * A unit test class for the bulk read and write paths of message/HttpMessageDataStreamer.
+ */
+public class HttpMessageDataStreamerTestCase {
+
+    private static final int PAYLOAD_SIZE = 20000;
+
+    @Test(description = "Test a payload written and read in bulk spanning several content buffers")
+    public void testBulkWriteAndRead() throws IOException {
+        byte[] payload = createPayload();
+        HTTPCarbonMessage message = createMessage();
+        OutputStream outputStream = new HttpMessageDataStreamer(message).getOutputStream();
+        outputStream.write(payload, 0, 100);
+        outputStream.write(payload[100]);
+        outputStream.write(payload, 101, payload.length - 101);
+        outputStream.close();
+
+        InputStream inputStream = new HttpMessageDataStreamer(message).getInputStream();
+        byte[] received = new byte[PAYLOAD_SIZE];
+        int offset = 0;
+        int length;
+        while ((length = inputStream.read(received, offset, received.length - offset)) > 0) {
+            offset += length;
+        }
+        assertEquals(offset, PAYLOAD_SIZE);
+        assertTrue(Arrays.equals(received, payload));
+        assertEquals(inputStream.read(), -1);
+        assertEquals(inputStream.read(received, 0, 10), -1);
+    }
+
+    @Test(description = "Test available and skip of the input stream")
+    public void testAvailableAndSkip() throws IOException {
+        HTTPCarbonMessage message = createMessage();
+        message.addHttpContent(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[] {0, 1, 2, 3})));
+        message.addHttpContent(new DefaultHttpContent(Unpooled.EMPTY_BUFFER));
+        message.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[] {4, 5, 6, 7})));
+
+        InputStream inputStream = new HttpMessageDataStreamer(message).getInputStream();
+        assertEquals(inputStream.available(), 0);
+        assertEquals(inputStream.read(), 0);
+        assertEquals(inputStream.available(), 3);
+        assertEquals(inputStream.skip(4), 4);
+        assertEquals(inputStream.read(), 5);
+        assertEquals(inputStream.skip(10), 2);
+        assertEquals(inputStream.read(), -1);
+    }
+
+    @Test(description = "Test the payload buffers are handed over as they are between messages")
+    public void testTransferToMessage() throws IOException {
+        HTTPCarbonMessage source = createMessage();
+        ByteBuf first = Unpooled.wrappedBuffer(new byte[] {0, 1, 2, 3});
+        source.addHttpContent(new DefaultHttpContent(first));
+        source.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[] {4, 5})));
+
+        HTTPCarbonMessage target = createMessage();
+        OutputStream outputStream = new HttpMessageDataStreamer(target).getOutputStream();
+        assertEquals(new HttpMessageDataStreamer(source).transferTo(outputStream), 6);
+        outputStream.close();
+
+        HttpContent httpContent = target.getHttpContent();
+        assertSame(httpContent.content(), first);
+        assertEquals(target.getFullMessageLength(), 2);
+    }
+
+    @Test(description = "Test the payload is transferred to an arbitrary output stream")
+    public void testTransferToOutputStream() throws IOException {
+        byte[] payload = createPayload();
+        HTTPCarbonMessage message = createMessage();
+        message.addHttpContent(new DefaultHttpContent(Unpooled.wrappedBuffer(payload, 0, 10000)));
+        message.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(payload, 10000, 10000)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertEquals(new HttpMessageDataStreamer(message).transferTo(outputStream), PAYLOAD_SIZE);
+        assertTrue(Arrays.equals(outputStream.toByteArray(), payload));
+    }
+
+    private HTTPCarbonMessage createMessage() {
+        return new HTTPCarbonMessage(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+    }
+
+    private byte[] createPayload() {
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.common.WriteCoalescingHandler;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * A unit test class for common/WriteCoalescingHandler.
+ */
+public class WriteCoalescingHandlerTestCase {
+
+    private static final int FLUSH_THRESHOLD = 4096;
+
+    private EmbeddedChannel channel;
+    private int writes;
+    private int flushes;
+
+    @BeforeMethod
+    public void setup() {
+        writes = 0;
+        flushes = 0;
+        // Stands in for the socket, since the embedded channel runs the pending tasks on every write to it
+        channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                writes++;
+                ReferenceCountUtil.release(msg);
+                promise.setSuccess();
+            }
+
+            @Override
+            public void flush(ChannelHandlerContext ctx) {
+                flushes++;
+            }
+        }, new WriteCoalescingHandler(FLUSH_THRESHOLD));
+    }
+
+    @Test(description = "Test flushes of small chunks are deferred until the queued tasks have run")
+    public void testSmallChunksCoalesced() {
+        for (int i = 0; i < 8; i++) {
+            channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[100])));
+        }
+        assertEquals(writes, 8);
+        assertEquals(flushes, 0);
+        channel.runPendingTasks();
+        assertEquals(flushes, 1);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test a flush is passed through once the threshold is reached")
+    public void testThresholdReached() {
+        channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[FLUSH_THRESHOLD / 2])));
+        assertEquals(flushes, 0);
+        channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[FLUSH_THRESHOLD / 2])));
+        assertEquals(flushes, 1);
+        channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[100])));
+        assertEquals(flushes, 1);
+        channel.runPendingTasks();
+        assertEquals(flushes, 2);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test the last content of a message is flushed immediately")
+    public void testLastContentFlushed() {
+        channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[100])));
+        channel.writeAndFlush(new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[100])));
+        assertEquals(flushes, 1);
+        assertEquals(writes, 2);
+        channel.runPendingTasks();
+        assertEquals(flushes, 1);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test pending writes are flushed before the channel is closed")
+    public void testFlushedOnClose() {
+        channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[100])));
+        channel.close();
+        assertEquals(flushes, 1);
+        channel.finishAndReleaseAll();
+    }
+}
@@ -37,6 +37,7 @@ import org.wso2.transport.http.netty.common.Constants;
 
 import java.net.InetSocketAddress;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -122,6 +123,25 @@ public class HttpClient {
         return this.responseHandler.getHttpFullResponses();
     }
 
+    public LinkedList<FullHttpResponse> sendInPipeline(List<FullHttpRequest> httpRequests) {
+        CountDownLatch latch = new CountDownLatch(httpRequests.size());
+        this.waitForConnectionClosureLatch = new CountDownLatch(1);
+        this.responseHandler.setLatch(latch);
+        this.responseHandler.setWaitForConnectionClosureLatch(this.waitForConnectionClosureLatch);
+
+        for (FullHttpRequest httpRequest : httpRequests) {
+            httpRequest.headers().set(HttpHeaderNames.HOST, host + ":" + port);
+            this.connectedChannel.write(httpRequest);
+        }
+        this.connectedChannel.flush();
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            log.warn("Operation go interrupted before receiving the response");
+        }
+        return this.responseHandler.getHttpFullResponses();
+    }
+
     public boolean waitForChannelClose() {
         try {
             if (!this.waitForConnectionClosureLatch.await(5, TimeUnit.SECONDS)) {
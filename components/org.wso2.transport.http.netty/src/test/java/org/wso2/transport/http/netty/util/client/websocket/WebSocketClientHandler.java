@@ -54,6 +54,8 @@ public class WebSocketClientHandler extends SimpleChannelInboundHandler<Object>
     private ByteBuffer bufferReceived = null;
     private boolean isPingReceived;
     private boolean isPongReceived;
+    private boolean isCloseFrameReceived;
+    private boolean replyToCloseFrame = true;
     private CountDownLatch latch;
 
     public WebSocketClientHandler(WebSocketClientHandshaker handshaker, CountDownLatch latch) {
@@ -119,7 +121,8 @@ public class WebSocketClientHandler extends SimpleChannelInboundHandler<Object>
             bufferReceived = pongFrame.content().nioBuffer();
         } else if (frame instanceof CloseWebSocketFrame) {
             logger.debug("WebSocket Client received closing");
-            if (channel.isOpen()) {
+            isCloseFrameReceived = true;
+            if (replyToCloseFrame && channel.isOpen()) {
                 CloseWebSocketFrame closeWebSocketFrame = (CloseWebSocketFrame) frame;
                 channel.writeAndFlush(new CloseWebSocketFrame(closeWebSocketFrame.statusCode(), null))
                         .addListener(future -> {
@@ -172,6 +175,24 @@ public class WebSocketClientHandler extends SimpleChannelInboundHandler<Object>
         return tmpBln;
     }
 
+    /**
+     * Check whether a close frame is received.
+     *
+     * @return true if a close frame is received.
+     */
+    public boolean isCloseFrameReceived() {
+        return isCloseFrameReceived;
+    }
+
+    /**
+     * Set whether the client should answer close frames received from the server.
+     *
+     * @param replyToCloseFrame false to ignore close frames received from the server.
+     */
+    public void setReplyToCloseFrame(boolean replyToCloseFrame) {
+        this.replyToCloseFrame = replyToCloseFrame;
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         if (!handshakeFuture.isDone()) {
@@ -22,6 +22,8 @@ package org.wso2.transport.http.netty.util.client.websocket;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
@@ -29,14 +31,17 @@ import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketVersion;
 import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketClientCompressionHandler;
 import io.netty.handler.ssl.SslContext;
@@ -72,6 +77,9 @@ public class WebSocketTestClient {
     private WebSocketClientHandler handler;
     private EventLoopGroup group;
     private CountDownLatch latch;
+    private volatile String negotiatedExtensions;
+    private volatile boolean lastFrameCompressed;
+    private volatile int textFramesReceived;
 
     public WebSocketTestClient() {
         this.subProtocol = null;
@@ -179,6 +187,7 @@ public class WebSocketTestClient {
                             p.addLast(
                                     new HttpClientCodec(),
                                     new HttpObjectAggregator(8192),
+                                    new WireStateRecorder(),
                                     WebSocketClientCompressionHandler.INSTANCE,
                                     handler);
                         }
@@ -271,6 +280,66 @@ public class WebSocketTestClient {
         return handler.isPongReceived();
     }
 
+    /**
+     * Check whether a close frame is received.
+     *
+     * @return true if a close frame is received.
+     */
+    public boolean isCloseFrameReceived() {
+        return handler.isCloseFrameReceived();
+    }
+
+    /**
+     * Stop answering close frames sent by the server, so that the server never sees its closing handshake finish.
+     */
+    public void ignoreCloseFrames() {
+        handler.setReplyToCloseFrame(false);
+    }
+
+    /**
+     * Close the connection without sending a close frame.
+     */
+    public void closeForcefully() throws InterruptedException {
+        channel.close().sync();
+    }
+
+    /**
+     * @return the value of the extensions header of the handshake response.
+     */
+    public String getNegotiatedExtensions() {
+        return negotiatedExtensions;
+    }
+
+    /**
+     * Check whether the last text or binary frame was compressed on the wire.
+     *
+     * @return true if the last data frame received had the compression bit set.
+     */
+    public boolean isLastFrameCompressed() {
+        return lastFrameCompressed;
+    }
+
+    /**
+     * @return the number of text frames read off the wire so far.
+     */
+    public int getTextFramesReceived() {
+        return textFramesReceived;
+    }
+
+    /**
+     * Stop reading from the connection, so that the data sent by the server piles up in the socket buffers.
+     */
+    public void pauseReading() {
+        channel.config().setAutoRead(false);
+    }
+
+    /**
+     * Resume reading from the connection after {@link #pauseReading()}.
+     */
+    public void resumeReading() {
+        channel.config().setAutoRead(true);
+    }
+
     /**
      * Shutdown the WebSocket Client.
      */
@@ -284,4 +353,22 @@ public class WebSocketTestClient {
         }
     }
 
+    /**
+     * Records the handshake response and frames as they are read off the wire, before any extension decodes them.
+     */
+    private class WireStateRecorder extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof HttpResponse) {
+                negotiatedExtensions = ((HttpResponse) msg).headers().get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS);
+            } else if (msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame) {
+                lastFrameCompressed = (((WebSocketFrame) msg).rsv() & 0x4) != 0;
+                if (msg instanceof TextWebSocketFrame) {
+                    textFramesReceived++;
+                }
+            }
+            super.channelRead(ctx, msg);
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.util.server.initializers;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.wso2.transport.http.netty.common.certificatevalidation.Constants;
+
+import java.security.PrivateKey;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * An initializer class for a stand-in OCSP responder which reports every requested certificate as good.
+ */
+public class OCSPResponderInitializer extends HTTPServerInitializer {
+
+    private final X509CertificateHolder caCertificateHolder;
+    private final PrivateKey caPrivateKey;
+    private final long nextUpdatePeriod;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile boolean failing = false;
+
+    /**
+     * @param caCertificateHolder certificate of the CA which signs the responses
+     * @param caPrivateKey        private key of the CA
+     * @param nextUpdatePeriod    time in milliseconds after which the responses should be refreshed
+     */
+    public OCSPResponderInitializer(X509CertificateHolder caCertificateHolder, PrivateKey caPrivateKey,
+            long nextUpdatePeriod) {
+        this.caCertificateHolder = caCertificateHolder;
+        this.caPrivateKey = caPrivateKey;
+        this.nextUpdatePeriod = nextUpdatePeriod;
+    }
+
+    protected void addBusinessLogicHandler(Channel channel) {
+        channel.pipeline().addLast("aggregator", new HttpObjectAggregator(1024 * 1024));
+        channel.pipeline().addLast("handler", new OCSPResponderHandler());
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @param failing whether the responder should reply with an internal server error
+     */
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    private class OCSPResponderHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+            requestCount.incrementAndGet();
+            FullHttpResponse response;
+            if (failing) {
+                response = new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+            } else {
+                OCSPReq ocspReq = new OCSPReq(ByteBufUtil.getBytes(request.content()));
+                BasicOCSPRespBuilder basicOCSPRespBuilder = new BasicOCSPRespBuilder(
+                        new RespID(caCertificateHolder.getSubject()));
+                Date thisUpdate = new Date();
+                Date nextUpdate = new Date(thisUpdate.getTime() + nextUpdatePeriod);
+                for (Req req : ocspReq.getRequestList()) {
+                    basicOCSPRespBuilder.addResponse(req.getCertID(), CertificateStatus.GOOD, thisUpdate, nextUpdate);
+                }
+                ContentSigner signer = new JcaContentSignerBuilder("SHA1withRSA")
+                        .setProvider(Constants.BOUNCY_CASTLE_PROVIDER).build(caPrivateKey);
+                BasicOCSPResp basicResp = basicOCSPRespBuilder
+                        .build(signer, new X509CertificateHolder[] { caCertificateHolder }, thisUpdate);
+                byte[] encoded = new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, basicResp).getEncoded();
+                response = new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.OK,
+                        Unpooled.wrappedBuffer(encoded));
+                response.headers().set(CONTENT_TYPE, "application/ocsp-response");
+            }
+            response.headers().set(CONTENT_LENGTH, response.content().readableBytes());
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+}
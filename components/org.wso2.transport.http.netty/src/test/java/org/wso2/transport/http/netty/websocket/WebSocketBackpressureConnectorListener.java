@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.websocket.HandshakeFuture;
+import org.wso2.transport.http.netty.contract.websocket.HandshakeListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBackpressurePolicy;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketInitMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
+import org.wso2.transport.http.netty.exception.WebSocketMessageDroppedException;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket server connector listener which floods a connection with text messages on request. The backpressure
+ * policy of a connection is picked by the last segment of its target.
+ */
+public class WebSocketBackpressureConnectorListener implements WebSocketConnectorListener {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketBackpressureConnectorListener.class);
+
+    public static final String FLOOD = "flood";
+    public static final int LOW_WATER_MARK = 8 * 1024;
+    public static final int HIGH_WATER_MARK = 32 * 1024;
+    public static final int UNWRITABLE_TIMEOUT_IN_MILLIS = 100;
+
+    private final int messageCount;
+    private final int messageSize;
+    private volatile CountDownLatch unwritableLatch;
+    private volatile CountDownLatch writableLatch;
+    private volatile CountDownLatch floodPushedLatch;
+    private volatile CountDownLatch floodCompletedLatch;
+    private final AtomicInteger droppedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private volatile boolean writableWhenUnwritableNotified = true;
+
+    public WebSocketBackpressureConnectorListener(int messageCount, int messageSize) {
+        this.messageCount = messageCount;
+        this.messageSize = messageSize;
+        reset();
+    }
+
+    /**
+     * Reset the recorded state before a new connection is flooded.
+     */
+    public void reset() {
+        unwritableLatch = new CountDownLatch(1);
+        writableLatch = new CountDownLatch(1);
+        floodPushedLatch = new CountDownLatch(1);
+        floodCompletedLatch = new CountDownLatch(messageCount);
+        droppedCount.set(0);
+        failedCount.set(0);
+        writableWhenUnwritableNotified = true;
+    }
+
+    @Override
+    public void onMessage(WebSocketInitMessage initMessage) {
+        String target = initMessage.getTarget();
+        WebSocketBackpressurePolicy policy = WebSocketBackpressurePolicy.NONE;
+        for (WebSocketBackpressurePolicy value : WebSocketBackpressurePolicy.values()) {
+            if (target.endsWith("/" + getTarget(value))) {
+                policy = value;
+            }
+        }
+        WebSocketBackpressurePolicy connectionPolicy = policy;
+        HandshakeFuture future = initMessage.handshake();
+        future.setHandshakeListener(new HandshakeListener() {
+            @Override
+            public void onSuccess(WebSocketConnection webSocketConnection) {
+                webSocketConnection.setWriteBufferWaterMark(LOW_WATER_MARK, HIGH_WATER_MARK);
+                webSocketConnection.setBackpressurePolicy(connectionPolicy, UNWRITABLE_TIMEOUT_IN_MILLIS);
+                webSocketConnection.startReadingFrames();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                log.error(throwable.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(WebSocketTextMessage textMessage) {
+        if (!FLOOD.equals(textMessage.getText())) {
+            return;
+        }
+        WebSocketConnection webSocketConnection = textMessage.getWebSocketConnection();
+        Thread floodThread = new Thread(() -> flood(webSocketConnection), "websocket-flood");
+        floodThread.start();
+    }
+
+    @Override
+    public void onMessage(WebSocketBinaryMessage binaryMessage) {
+    }
+
+    @Override
+    public void onMessage(WebSocketControlMessage controlMessage) {
+    }
+
+    @Override
+    public void onMessage(WebSocketCloseMessage closeMessage) {
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.error(throwable.getMessage());
+    }
+
+    @Override
+    public void onIdleTimeout(WebSocketControlMessage controlMessage) {
+    }
+
+    @Override
+    public void onWritabilityChanged(WebSocketConnection webSocketConnection) {
+        if (webSocketConnection.isWritable()) {
+            writableLatch.countDown();
+        } else {
+            writableWhenUnwritableNotified = false;
+            unwritableLatch.countDown();
+        }
+    }
+
+    /**
+     * Get the last segment of the target which selects the given policy.
+     *
+     * @param policy backpressure policy.
+     * @return the target segment.
+     */
+    public static String getTarget(WebSocketBackpressurePolicy policy) {
+        return policy.name().toLowerCase().replace('_', '-');
+    }
+
+    /**
+     * Get the index of a flooded message.
+     *
+     * @param text flooded message.
+     * @return the index of the message within the flood.
+     */
+    public static int getIndex(String text) {
+        return Integer.parseInt(text.substring(0, text.indexOf(':')));
+    }
+
+    public boolean awaitUnwritable(long timeoutInSecs) throws InterruptedException {
+        return unwritableLatch.await(timeoutInSecs, TimeUnit.SECONDS);
+    }
+
+    public boolean awaitWritable(long timeoutInSecs) throws InterruptedException {
+        return writableLatch.await(timeoutInSecs, TimeUnit.SECONDS);
+    }
+
+    public boolean awaitFloodPushed(long timeoutInSecs) throws InterruptedException {
+        return floodPushedLatch.await(timeoutInSecs, TimeUnit.SECONDS);
+    }
+
+    public boolean awaitFloodCompleted(long timeoutInSecs) throws InterruptedException {
+        return floodCompletedLatch.await(timeoutInSecs, TimeUnit.SECONDS);
+    }
+
+    public boolean isWritableWhenUnwritableNotified() {
+        return writableWhenUnwritableNotified;
+    }
+
+    public int getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void flood(WebSocketConnection webSocketConnection) {
+        char[] padding = new char[messageSize];
+        Arrays.fill(padding, 'x');
+        try {
+            for (int i = 0; i < messageCount; i++) {
+                String index = i + ":";
+                String text = index + new String(padding, 0, messageSize - index.length());
+                webSocketConnection.pushText(text).addListener(future -> {
+                    if (future.cause() instanceof WebSocketMessageDroppedException) {
+                        droppedCount.incrementAndGet();
+                    } else if (!future.isSuccess()) {
+                        failedCount.incrementAndGet();
+                    }
+                    floodCompletedLatch.countDown();
+                });
+                // Give the deadline of the policy a chance to pass while the flood goes on
+                Thread.sleep(2);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        floodPushedLatch.countDown();
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.websocket;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBackpressurePolicy;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketConnection;
+import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
+import org.wso2.transport.http.netty.exception.WebSocketMessageDroppedException;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.websocket.WebSocketTestClient;
+
+import java.net.ProtocolException;
+import java.net.URISyntaxException;
+import javax.net.ssl.SSLException;
+
+/**
+ * Test cases for the backpressure of WebSocket connections which are pushed more than their peer reads.
+ */
+public class WebSocketBackpressureTestCase {
+
+    private static final int MESSAGE_COUNT = 256;
+    private static final int MESSAGE_SIZE = 32 * 1024;
+
+    private final int latchCountDownInSecs = 10;
+    private DefaultHttpWsConnectorFactory httpConnectorFactory = new DefaultHttpWsConnectorFactory();
+    private WebSocketBackpressureConnectorListener connectorListener =
+            new WebSocketBackpressureConnectorListener(MESSAGE_COUNT, MESSAGE_SIZE);
+    private ServerConnector serverConnector;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setHost("localhost");
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        serverConnector = httpConnectorFactory.createServerConnector(TestUtil.getDefaultServerBootstrapConfig(),
+                listenerConfiguration);
+        ServerConnectorFuture connectorFuture = serverConnector.start();
+        connectorFuture.setWSConnectorListener(connectorListener);
+        connectorFuture.sync();
+    }
+
+    @BeforeMethod
+    public void resetListener() {
+        connectorListener.reset();
+    }
+
+    @Test(description = "Test that the listener is notified when the connection becomes unwritable and writable.")
+    public void testWritabilityNotified()
+            throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        WebSocketTestClient client = flood(WebSocketBackpressurePolicy.NONE);
+        Assert.assertTrue(connectorListener.awaitUnwritable(latchCountDownInSecs));
+        Assert.assertFalse(connectorListener.isWritableWhenUnwritableNotified());
+        Assert.assertTrue(connectorListener.awaitFloodPushed(latchCountDownInSecs));
+
+        client.resumeReading();
+        Assert.assertTrue(connectorListener.awaitWritable(latchCountDownInSecs));
+        Assert.assertTrue(connectorListener.awaitFloodCompleted(latchCountDownInSecs));
+        Assert.assertEquals(connectorListener.getDroppedCount(), 0);
+        Assert.assertEquals(connectorListener.getFailedCount(), 0);
+        Assert.assertTrue(awaitTextFrames(client, MESSAGE_COUNT));
+        Assert.assertEquals(WebSocketBackpressureConnectorListener.getIndex(client.getTextReceived()),
+                            MESSAGE_COUNT - 1);
+        client.shutDown();
+    }
+
+    @Test(description = "Test that new messages are dropped once the connection stays unwritable.")
+    public void testDropNewest() throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        WebSocketTestClient client = flood(WebSocketBackpressurePolicy.DROP_NEWEST);
+        Assert.assertTrue(connectorListener.awaitFloodPushed(latchCountDownInSecs));
+
+        client.resumeReading();
+        Assert.assertTrue(connectorListener.awaitFloodCompleted(latchCountDownInSecs));
+        int droppedCount = connectorListener.getDroppedCount();
+        Assert.assertTrue(droppedCount > 0, "Messages should have been dropped");
+        Assert.assertEquals(connectorListener.getFailedCount(), 0);
+        Assert.assertTrue(awaitTextFrames(client, MESSAGE_COUNT - droppedCount));
+        Assert.assertTrue(WebSocketBackpressureConnectorListener.getIndex(client.getTextReceived())
+                                  < MESSAGE_COUNT - 1, "The newest message should have been dropped");
+        client.shutDown();
+    }
+
+    @Test(description = "Test that the oldest held messages are dropped once the connection stays unwritable.")
+    public void testDropOldest() throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        WebSocketTestClient client = flood(WebSocketBackpressurePolicy.DROP_OLDEST);
+        Assert.assertTrue(connectorListener.awaitFloodPushed(latchCountDownInSecs));
+
+        client.resumeReading();
+        Assert.assertTrue(connectorListener.awaitFloodCompleted(latchCountDownInSecs));
+        int droppedCount = connectorListener.getDroppedCount();
+        Assert.assertTrue(droppedCount > 0, "Messages should have been dropped");
+        Assert.assertEquals(connectorListener.getFailedCount(), 0);
+        Assert.assertTrue(awaitTextFrames(client, MESSAGE_COUNT - droppedCount));
+        Assert.assertEquals(WebSocketBackpressureConnectorListener.getIndex(client.getTextReceived()),
+                            MESSAGE_COUNT - 1, "The newest message should have been kept");
+        client.shutDown();
+    }
+
+    @Test(description = "Test that held messages up to exactly the high water mark are kept.")
+    public void testDropOldestAtWatermark() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        EmbeddedFrameHandler frameHandler = new EmbeddedFrameHandler();
+        channel.pipeline().addLast(frameHandler);
+        DefaultWebSocketConnection connection = new DefaultWebSocketConnection(frameHandler, null);
+        connection.setWriteBufferWaterMark(16, 32);
+        connection.setBackpressurePolicy(WebSocketBackpressurePolicy.DROP_OLDEST, 0);
+        setWritable(channel, connection, false);
+
+        ChannelFuture first = connection.pushBinary(Unpooled.buffer().writeZero(16));
+        ChannelFuture second = connection.pushBinary(Unpooled.buffer().writeZero(16));
+        Assert.assertFalse(first.isDone(), "Messages held up to the high water mark should be kept");
+        Assert.assertFalse(second.isDone(), "Messages held up to the high water mark should be kept");
+
+        // Every older message has to make room for the newest one
+        ChannelFuture third = connection.pushBinary(Unpooled.buffer().writeZero(32));
+        Assert.assertTrue(first.cause() instanceof WebSocketMessageDroppedException);
+        Assert.assertTrue(second.cause() instanceof WebSocketMessageDroppedException);
+        Assert.assertFalse(third.isDone());
+
+        setWritable(channel, connection, true);
+        Assert.assertTrue(third.isSuccess());
+        Assert.assertTrue(channel.finishAndReleaseAll());
+    }
+
+    @Test(description = "Test that the connection is closed once it stays unwritable.")
+    public void testClose() throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        WebSocketTestClient client = flood(WebSocketBackpressurePolicy.CLOSE);
+        Assert.assertTrue(connectorListener.awaitFloodCompleted(latchCountDownInSecs));
+        Assert.assertEquals(connectorListener.getDroppedCount(), 0);
+        Assert.assertTrue(connectorListener.getFailedCount() > 0, "Messages pushed after closure should fail");
+
+        client.resumeReading();
+        for (int i = 0; i < latchCountDownInSecs * 10 && client.isOpen(); i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertFalse(client.isOpen());
+        Assert.assertTrue(client.getTextFramesReceived() < MESSAGE_COUNT);
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        serverConnector.stop();
+        httpConnectorFactory.shutdown();
+    }
+
+    private WebSocketTestClient flood(WebSocketBackpressurePolicy policy)
+            throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        String url = String.format("ws://%s:%d/%s/%s", TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT,
+                                   "backpressure", WebSocketBackpressureConnectorListener.getTarget(policy));
+        WebSocketTestClient client = new WebSocketTestClient(url);
+        client.handhshake();
+        client.pauseReading();
+        client.sendText(WebSocketBackpressureConnectorListener.FLOOD);
+        return client;
+    }
+
+    private void setWritable(EmbeddedChannel channel, DefaultWebSocketConnection connection, boolean writable) {
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, writable);
+        connection.onWritabilityChanged();
+        // Runs the deadline of the policy
+        channel.runPendingTasks();
+    }
+
+    private boolean awaitTextFrames(WebSocketTestClient client, int count) throws InterruptedException {
+        for (int i = 0; i < latchCountDownInSecs * 10 && client.getTextFramesReceived() < count; i++) {
+            Thread.sleep(100);
+        }
+        return client.getTextFramesReceived() == count;
+    }
+
+    /**
+     * Frame handler which only exposes its context, for connections of an {@link EmbeddedChannel}.
+     */
+    private static class EmbeddedFrameHandler extends WebSocketInboundFrameHandler {
+
+        private ChannelHandlerContext ctx;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void setClosePromise(ChannelPromise closePromise) {
+        }
+
+        @Override
+        public DefaultWebSocketConnection getWebSocketConnection() {
+            return null;
+        }
+
+        @Override
+        public boolean isCloseFrameReceived() {
+            return false;
+        }
+
+        @Override
+        public ChannelHandlerContext getChannelHandlerContext() {
+            return ctx;
+        }
+    }
+}
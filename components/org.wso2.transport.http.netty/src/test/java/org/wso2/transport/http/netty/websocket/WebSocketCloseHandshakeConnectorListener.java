@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.websocket;
+
+import io.netty.channel.ChannelFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.websocket.HandshakeFuture;
+import org.wso2.transport.http.netty.contract.websocket.HandshakeListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketInitMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * WebSocket server connector listener which echoes text messages and initiates the closing handshake when a text
+ * message of the form close:{timeoutInSecs} is received.
+ */
+public class WebSocketCloseHandshakeConnectorListener implements WebSocketConnectorListener {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketCloseHandshakeConnectorListener.class);
+
+    private static final String CLOSE_PREFIX = "close:";
+    private volatile ChannelFuture closeFuture;
+    private volatile CountDownLatch closeInitiatedLatch = new CountDownLatch(1);
+
+    @Override
+    public void onMessage(WebSocketInitMessage initMessage) {
+        HandshakeFuture future = initMessage.handshake(null, true, 3000);
+        future.setHandshakeListener(new HandshakeListener() {
+            @Override
+            public void onSuccess(WebSocketConnection webSocketConnection) {
+                webSocketConnection.startReadingFrames();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                log.error(throwable.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(WebSocketTextMessage textMessage) {
+        WebSocketConnection webSocketConnection = textMessage.getWebSocketConnection();
+        String text = textMessage.getText();
+        if (text.startsWith(CLOSE_PREFIX)) {
+            int timeoutInSecs = Integer.parseInt(text.substring(CLOSE_PREFIX.length()));
+            closeFuture = webSocketConnection.initiateConnectionClosure(1001, "Going away", timeoutInSecs);
+            closeInitiatedLatch.countDown();
+            return;
+        }
+        webSocketConnection.pushText(text);
+    }
+
+    @Override
+    public void onMessage(WebSocketBinaryMessage binaryMessage) {
+    }
+
+    @Override
+    public void onMessage(WebSocketControlMessage controlMessage) {
+    }
+
+    @Override
+    public void onMessage(WebSocketCloseMessage closeMessage) {
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.error(throwable.getMessage());
+    }
+
+    @Override
+    public void onIdleTimeout(WebSocketControlMessage controlMessage) {
+    }
+
+    /**
+     * Prepare the listener for the next connection closure.
+     *
+     * @return latch which is counted down once the closure is initiated.
+     */
+    public CountDownLatch expectClosure() {
+        closeFuture = null;
+        closeInitiatedLatch = new CountDownLatch(1);
+        return closeInitiatedLatch;
+    }
+
+    /**
+     * @return the future returned by the last initiated connection closure.
+     */
+    public ChannelFuture getCloseFuture() {
+        return closeFuture;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.websocket;
+
+import io.netty.channel.ChannelFuture;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.websocket.WebSocketTestClient;
+
+import java.net.ProtocolException;
+import java.net.URISyntaxException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLException;
+
+/**
+ * Test cases for the closing handshake initiated by the WebSocket server connector. The server uses a single I/O
+ * thread so that every connection shares the event loop of the connection being closed.
+ */
+public class WebSocketCloseHandshakeTestCase {
+
+    private final int latchCountDownInSecs = 10;
+    private DefaultHttpWsConnectorFactory httpConnectorFactory = new DefaultHttpWsConnectorFactory(1, 1, 1);
+    private WebSocketCloseHandshakeConnectorListener connectorListener =
+            new WebSocketCloseHandshakeConnectorListener();
+    private ServerConnector serverConnector;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setHost("localhost");
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        serverConnector = httpConnectorFactory.createServerConnector(TestUtil.getDefaultServerBootstrapConfig(),
+                listenerConfiguration);
+        ServerConnectorFuture connectorFuture = serverConnector.start();
+        connectorFuture.setWSConnectorListener(connectorListener);
+        connectorFuture.sync();
+    }
+
+    @Test
+    public void testCloseHandshakeCompletes()
+            throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        WebSocketTestClient client = new WebSocketTestClient();
+        client.handhshake();
+        ChannelFuture closeFuture = initiateClosure(client, -1);
+        Assert.assertTrue(closeFuture.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertTrue(closeFuture.isSuccess());
+        Assert.assertTrue(client.isCloseFrameReceived());
+    }
+
+    @Test
+    public void testOtherConnectionsFlowWhileWaitingForCloseFrame()
+            throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        WebSocketTestClient misbehavingClient = new WebSocketTestClient();
+        misbehavingClient.handhshake();
+        misbehavingClient.ignoreCloseFrames();
+        ChannelFuture closeFuture = initiateClosure(misbehavingClient, -1);
+        waitForCloseFrame(misbehavingClient);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        WebSocketTestClient client = new WebSocketTestClient(latch);
+        Assert.assertTrue(client.handhshake());
+        String textSent = "test";
+        client.sendText(textSent);
+        Assert.assertTrue(latch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertEquals(client.getTextReceived(), textSent);
+        client.shutDown();
+
+        Assert.assertFalse(closeFuture.isDone());
+        Assert.assertTrue(misbehavingClient.isOpen());
+        misbehavingClient.closeForcefully();
+        Assert.assertTrue(closeFuture.await(latchCountDownInSecs, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCloseTimeout() throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        WebSocketTestClient misbehavingClient = new WebSocketTestClient();
+        misbehavingClient.handhshake();
+        misbehavingClient.ignoreCloseFrames();
+        ChannelFuture closeFuture = initiateClosure(misbehavingClient, 1);
+        Assert.assertTrue(closeFuture.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertTrue(closeFuture.isSuccess());
+        for (int i = 0; i < latchCountDownInSecs * 10 && misbehavingClient.isOpen(); i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertFalse(misbehavingClient.isOpen());
+    }
+
+    private ChannelFuture initiateClosure(WebSocketTestClient client, int timeoutInSecs) throws InterruptedException {
+        CountDownLatch closeInitiatedLatch = connectorListener.expectClosure();
+        client.sendText("close:" + timeoutInSecs);
+        Assert.assertTrue(closeInitiatedLatch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        return connectorListener.getCloseFuture();
+    }
+
+    private void waitForCloseFrame(WebSocketTestClient client) throws InterruptedException {
+        for (int i = 0; i < latchCountDownInSecs * 10 && !client.isCloseFrameReceived(); i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertTrue(client.isCloseFrameReceived());
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        serverConnector.stop();
+        httpConnectorFactory.shutdown();
+    }
+}
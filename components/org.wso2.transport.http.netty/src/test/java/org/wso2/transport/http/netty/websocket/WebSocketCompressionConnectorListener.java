@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.websocket.HandshakeFuture;
+import org.wso2.transport.http.netty.contract.websocket.HandshakeListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketInitMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
+
+/**
+ * WebSocket server connector listener which echoes messages over compressed connections. Handshakes to a target
+ * ending with {@value NO_EXTENSIONS_TARGET} are done without allowing extensions.
+ */
+public class WebSocketCompressionConnectorListener implements WebSocketConnectorListener {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketCompressionConnectorListener.class);
+
+    public static final String NO_EXTENSIONS_TARGET = "no-extensions";
+
+    @Override
+    public void onMessage(WebSocketInitMessage initMessage) {
+        boolean allowExtensions = !initMessage.getTarget().endsWith(NO_EXTENSIONS_TARGET);
+        HandshakeFuture future = initMessage.handshake(null, allowExtensions, 3000);
+        future.setHandshakeListener(new HandshakeListener() {
+            @Override
+            public void onSuccess(WebSocketConnection webSocketConnection) {
+                webSocketConnection.startReadingFrames();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                log.error(throwable.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(WebSocketTextMessage textMessage) {
+        textMessage.getWebSocketConnection().pushText(textMessage.getText());
+    }
+
+    @Override
+    public void onMessage(WebSocketBinaryMessage binaryMessage) {
+        binaryMessage.getWebSocketConnection().pushBinary(binaryMessage.getByteBuffer());
+    }
+
+    @Override
+    public void onMessage(WebSocketControlMessage controlMessage) {
+    }
+
+    @Override
+    public void onMessage(WebSocketCloseMessage closeMessage) {
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.error(throwable.getMessage());
+    }
+
+    @Override
+    public void onIdleTimeout(WebSocketControlMessage controlMessage) {
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.websocket.HandshakeFuture;
+import org.wso2.transport.http.netty.contract.websocket.HandshakeListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketClientConnector;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WsClientConnectorConfig;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.websocket.WebSocketTestClient;
+
+import java.net.ProtocolException;
+import java.net.URISyntaxException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLException;
+
+/**
+ * Test cases for the permessage-deflate compression of WebSocket messages.
+ */
+public class WebSocketCompressionTestCase {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketCompressionTestCase.class);
+
+    private static final int MIN_COMPRESSION_SIZE = 64;
+    private final int latchCountDownInSecs = 10;
+    private final String url = String.format("ws://%s:%d/%s", TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT,
+                                             "compression");
+    private DefaultHttpWsConnectorFactory httpConnectorFactory = new DefaultHttpWsConnectorFactory();
+    private ServerConnector serverConnector;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        WebSocketCompressionConfig compressionConfig = new WebSocketCompressionConfig(true);
+        compressionConfig.setCompressionLevel(6);
+        compressionConfig.setMaxWindowBits(12);
+        compressionConfig.setMinCompressionSize(MIN_COMPRESSION_SIZE);
+
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setHost("localhost");
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.setWebSocketCompressionConfig(compressionConfig);
+        serverConnector = httpConnectorFactory.createServerConnector(TestUtil.getDefaultServerBootstrapConfig(),
+                listenerConfiguration);
+        ServerConnectorFuture connectorFuture = serverConnector.start();
+        connectorFuture.setWSConnectorListener(new WebSocketCompressionConnectorListener());
+        connectorFuture.sync();
+    }
+
+    @Test(description = "Test that a message above the threshold is echoed compressed.")
+    public void testLargeMessageCompressed()
+            throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        CountDownLatch latch = new CountDownLatch(1);
+        WebSocketTestClient client = new WebSocketTestClient(url, latch);
+        client.handhshake();
+        Assert.assertTrue(client.getNegotiatedExtensions().contains("permessage-deflate"));
+        Assert.assertTrue(client.getNegotiatedExtensions().contains("client_max_window_bits=12"));
+
+        String textSent = getJsonPayload(1024);
+        client.sendText(textSent);
+        Assert.assertTrue(latch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertEquals(client.getTextReceived(), textSent);
+        Assert.assertTrue(client.isLastFrameCompressed(), "Message should be compressed on the wire");
+        client.shutDown();
+    }
+
+    @Test(description = "Test that a message below the threshold is echoed without compression.")
+    public void testSmallMessageSentUncompressed()
+            throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        CountDownLatch latch = new CountDownLatch(1);
+        WebSocketTestClient client = new WebSocketTestClient(url, latch);
+        client.handhshake();
+        Assert.assertTrue(client.getNegotiatedExtensions().contains("permessage-deflate"));
+
+        String textSent = "small message";
+        client.sendText(textSent);
+        Assert.assertTrue(latch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertEquals(client.getTextReceived(), textSent);
+        Assert.assertFalse(client.isLastFrameCompressed(), "Message should not be compressed on the wire");
+        client.shutDown();
+    }
+
+    @Test(description = "Test that no compression is negotiated when the handshake does not allow extensions.")
+    public void testExtensionsNotAllowed()
+            throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        CountDownLatch latch = new CountDownLatch(1);
+        WebSocketTestClient client = new WebSocketTestClient(
+                url + "/" + WebSocketCompressionConnectorListener.NO_EXTENSIONS_TARGET, latch);
+        client.handhshake();
+        Assert.assertNull(client.getNegotiatedExtensions());
+
+        String textSent = getJsonPayload(1024);
+        client.sendText(textSent);
+        Assert.assertTrue(latch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertEquals(client.getTextReceived(), textSent);
+        Assert.assertFalse(client.isLastFrameCompressed(), "Message should not be compressed on the wire");
+        client.shutDown();
+    }
+
+    @Test(description = "Test the messages of a compressing client connector.")
+    public void testClientConnectorCompression() throws Throwable {
+        WebSocketCompressionConfig compressionConfig = new WebSocketCompressionConfig(true);
+        compressionConfig.setCompressionLevel(1);
+        compressionConfig.setNoContextTakeover(true);
+        WsClientConnectorConfig clientConnectorConfig = new WsClientConnectorConfig(url);
+        clientConnectorConfig.setCompressionConfig(compressionConfig);
+        WebSocketClientConnector clientConnector = httpConnectorFactory.createWsClientConnector(clientConnectorConfig);
+
+        CountDownLatch latch = new CountDownLatch(2);
+        WebSocketTestClientConnectorListener connectorListener = new WebSocketTestClientConnectorListener(latch);
+        String largeText = getJsonPayload(4096);
+        String smallText = "small message";
+        HandshakeFuture handshakeFuture = clientConnector.connect(connectorListener);
+        handshakeFuture.setHandshakeListener(new HandshakeListener() {
+            @Override
+            public void onSuccess(WebSocketConnection webSocketConnection) {
+                webSocketConnection.pushText(largeText);
+                webSocketConnection.pushText(smallText);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.error(t.getMessage());
+            }
+        });
+
+        Assert.assertTrue(latch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertEquals(connectorListener.getReceivedTextToClient(), largeText);
+        Assert.assertEquals(connectorListener.getReceivedTextToClient(), smallText);
+    }
+
+    private String getJsonPayload(int size) {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; payload.length() < size; i++) {
+            payload.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\",\"active\":true},");
+        }
+        payload.setCharAt(payload.length() - 1, ']');
+        return payload.toString();
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        serverConnector.stop();
+        httpConnectorFactory.shutdown();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.transport.http.netty.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.IllegalReferenceCountException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketBinaryMessageImpl;
+import org.wso2.transport.http.netty.contractimpl.websocket.message.WebSocketTextMessageImpl;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.websocket.WebSocketTestClient;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLException;
+
+/**
+ * Test cases for the {@link ByteBuf} based WebSocket message API and broadcasting.
+ */
+public class WebSocketZeroCopyTestCase {
+
+    private final int latchCountDownInSecs = 10;
+    private DefaultHttpWsConnectorFactory httpConnectorFactory = new DefaultHttpWsConnectorFactory();
+    private ServerConnector serverConnector;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setHost("localhost");
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        serverConnector = httpConnectorFactory.createServerConnector(TestUtil.getDefaultServerBootstrapConfig(),
+                listenerConfiguration);
+        ServerConnectorFuture connectorFuture = serverConnector.start();
+        connectorFuture.setWSConnectorListener(new WebSocketZeroCopyConnectorListener());
+        connectorFuture.sync();
+    }
+
+    @Test
+    public void testTextEcho() throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        CountDownLatch latch = new CountDownLatch(1);
+        WebSocketTestClient client = new WebSocketTestClient(latch);
+        client.handhshake();
+        String textSent = "zero copy text";
+        client.sendText(textSent);
+        Assert.assertTrue(latch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertEquals(client.getTextReceived(), textSent);
+        client.shutDown();
+    }
+
+    @Test
+    public void testBinaryEcho() throws InterruptedException, URISyntaxException, IOException {
+        CountDownLatch latch = new CountDownLatch(1);
+        WebSocketTestClient client = new WebSocketTestClient(latch);
+        client.handhshake();
+        ByteBuffer bufferSent = ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5});
+        client.sendBinary(bufferSent);
+        Assert.assertTrue(latch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        Assert.assertEquals(client.getBufferReceived(), ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}));
+        client.shutDown();
+    }
+
+    @Test
+    public void testBroadcast() throws InterruptedException, URISyntaxException, SSLException, ProtocolException {
+        CountDownLatch latch = new CountDownLatch(3);
+        WebSocketTestClient[] clients = new WebSocketTestClient[3];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = new WebSocketTestClient(latch);
+            Assert.assertTrue(clients[i].handhshake());
+        }
+        clients[0].sendText("broadcast:market update");
+        Assert.assertTrue(latch.await(latchCountDownInSecs, TimeUnit.SECONDS));
+        for (WebSocketTestClient client : clients) {
+            Assert.assertEquals(client.getTextReceived(), "market update");
+            client.shutDown();
+        }
+    }
+
+    @Test
+    public void testMessageReleasesFrameContent() {
+        ByteBuf copiedContent = PooledByteBufAllocator.DEFAULT.buffer().writeBytes(new byte[]{1, 2, 3});
+        WebSocketBinaryMessageImpl copiedMessage = new WebSocketBinaryMessageImpl(copiedContent, true);
+        copiedMessage.release();
+        Assert.assertEquals(copiedContent.refCnt(), 0);
+        // Data which was not taken as a ByteBuf is copied before the frame is released
+        Assert.assertEquals(copiedMessage.getByteArray(), new byte[]{1, 2, 3});
+
+        ByteBuf retainedContent = PooledByteBufAllocator.DEFAULT.buffer().writeBytes(new byte[]{4, 5, 6});
+        WebSocketBinaryMessageImpl retainedMessage = new WebSocketBinaryMessageImpl(retainedContent, true);
+        ByteBuf received = retainedMessage.getByteBuf();
+        retainedMessage.release();
+        Assert.assertEquals(received.refCnt(), 1);
+        Assert.assertEquals(received.readableBytes(), 3);
+        received.release();
+        Assert.assertEquals(retainedContent.refCnt(), 0);
+    }
+
+    @Test
+    public void testEchoedContentIsReleasedOnce() {
+        ByteBuf content = PooledByteBufAllocator.DEFAULT.buffer().writeBytes(new byte[]{1, 2, 3});
+        WebSocketBinaryMessageImpl message = new WebSocketBinaryMessageImpl(content, true);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        // Echoes the frame content as a listener would, the write releases the buffer it is given
+        channel.writeAndFlush(message.getByteBuf());
+        message.release();
+        ByteBuf written = channel.readOutbound();
+        Assert.assertEquals(written.readableBytes(), 3);
+        written.release();
+        Assert.assertEquals(content.refCnt(), 0);
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testContentAccessAfterRelease() {
+        ByteBuf content = PooledByteBufAllocator.DEFAULT.buffer().writeBytes(new byte[]{1, 2, 3});
+        WebSocketTextMessageImpl copiedMessage = new WebSocketTextMessageImpl(content, true);
+        copiedMessage.release();
+        // The text was decoded before the frame was released, hence a copy is handed out
+        ByteBuf copy = copiedMessage.getByteBuf();
+        Assert.assertEquals(copy.readableBytes(), 3);
+        copy.release();
+
+        ByteBuf exposedContent = PooledByteBufAllocator.DEFAULT.buffer().writeBytes(new byte[]{1, 2, 3});
+        WebSocketBinaryMessageImpl exposedMessage = new WebSocketBinaryMessageImpl(exposedContent, true);
+        exposedMessage.getByteBuf().release();
+        exposedMessage.release();
+        try {
+            exposedMessage.getByteBuffer();
+            Assert.fail("The data of a released frame was read");
+        } catch (IllegalReferenceCountException e) {
+            Assert.assertEquals(exposedContent.refCnt(), 0);
+        }
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        serverConnector.stop();
+        httpConnectorFactory.shutdown();
+    }
+}